@@ -0,0 +1,222 @@
+package adql.benchmark;
+
+/*
+ * This file is part of ADQLLibrary.
+ *
+ * ADQLLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ADQLLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import adql.db.DBChecker;
+import adql.db.DBTable;
+import adql.db.DBType;
+import adql.db.DBType.DBDatatype;
+import adql.db.DefaultDBColumn;
+import adql.db.DefaultDBTable;
+import adql.db.FunctionDef;
+import adql.parser.ADQLParser;
+import adql.parser.ADQLQueryFactory;
+import adql.parser.ParseException;
+import adql.parser.SQLServer_ADQLQueryFactory;
+import adql.translator.ADQLTranslator;
+import adql.translator.MySQLTranslator;
+import adql.translator.PgSphereTranslator;
+import adql.translator.PostgreSQLTranslator;
+import adql.translator.SQLServerTranslator;
+
+/**
+ * <p>Metadata, user defined functions and queries shared by all ADQL benchmarks.</p>
+ *
+ * <p>
+ * 	The metadata are made of a few realistic tables (a Gaia-like source table,
+ * 	a 2MASS-like point source catalogue and an SDSS-like photometric table)
+ * 	drowned among a configurable number of synthetic tables, so that the cost
+ * 	of the tables and columns resolution can be measured on large services.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 1.5 (10/2026)
+ * @since 1.5
+ */
+public final class BenchmarkData {
+
+	/**
+	 * Queries of the benchmarks corpus.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 1.5 (10/2026)
+	 * @since 1.5
+	 */
+	public static enum Query{
+		/** Simple cone search. */
+		CONE("SELECT source_id, ra, dec, phot_g_mean_mag FROM gaia.gaia_source WHERE 1 = CONTAINS(POINT('ICRS', ra, dec), CIRCLE('ICRS', 266.41683, -29.00781, 0.1))"),
+		/** Cone search sorted by distance to the center. */
+		CONE_SORTED("SELECT TOP 100 source_id, DISTANCE(POINT('ICRS', ra, dec), POINT('ICRS', 10.68458, 41.26917)) AS dist, parallax, pmra, pmdec FROM gaia.gaia_source WHERE 1 = CONTAINS(POINT('ICRS', ra, dec), CIRCLE('ICRS', 10.68458, 41.26917, 0.5)) AND parallax IS NOT NULL ORDER BY dist ASC"),
+		/** Positional cross-match between two catalogues. */
+		CROSSMATCH("SELECT g.source_id, t.designation, g.phot_g_mean_mag - t.j_m AS g_j, DISTANCE(POINT('ICRS', g.ra, g.dec), POINT('ICRS', t.ra, t.dec)) AS sep FROM gaia.gaia_source AS g JOIN twomass.psc AS t ON 1 = CONTAINS(POINT('ICRS', g.ra, g.dec), CIRCLE('ICRS', t.ra, t.dec, 0.000277)) WHERE g.phot_g_mean_mag < 15 AND t.j_m - t.k_m > 0.8"),
+		/** Join of three tables on identifiers, with aggregation. */
+		JOIN_AGGREGATE("SELECT p.type, COUNT(*) AS nb, AVG(p.r - t.k_m) AS mean_r_k, MAX(g.parallax) FROM sdss.photoobj AS p INNER JOIN twomass.psc AS t ON p.twomass_designation = t.designation LEFT OUTER JOIN gaia.gaia_source AS g ON g.source_id = p.gaia_source_id WHERE p.r BETWEEN 14 AND 20 AND p.type IN (3, 6) GROUP BY p.type HAVING COUNT(*) > 10 ORDER BY nb DESC"),
+		/** Sub-queries in the FROM and WHERE clauses. */
+		SUBQUERIES("SELECT TOP 1000 s.source_id, s.parallax FROM (SELECT source_id, parallax, bp_rp FROM gaia.gaia_source WHERE parallax > 10 AND parallax_error / parallax < 0.1) AS s WHERE s.source_id IN (SELECT gaia_source_id FROM sdss.photoobj WHERE type = 6 AND g - r > 0.5) AND EXISTS(SELECT * FROM twomass.psc AS t WHERE t.designation = 'J17452470-2900316') ORDER BY 2 DESC"),
+		/** Query using many user defined functions. */
+		UDF("SELECT ivo_healpix_index(8, t.ra, t.dec) AS hpx, gavo_to_mjd(t.obs_date) AS mjd, ivo_string_concat(t.designation, '_2mass') AS id FROM twomass.psc AS t WHERE (ivo_hasword(t.designation, '1745') = 1 OR ivo_nocasematch(t.designation, 'j17%') = 1) AND ivo_healpix_index(8, t.ra, t.dec) BETWEEN 1000 AND 2000 AND gavo_normal_random(0, 1) < 0.5"),
+		/** Join between two synthetic tables. */
+		SYNTHETIC("SELECT TOP 1000 a.col0, a.col1, b.col2, a.col3 * b.col3 AS prod FROM synth_0.table_1 AS a JOIN synth_0.table_2 AS b ON a.col0 = b.col0 WHERE a.col1 > 0 AND b.col4 LIKE 'abc%' ORDER BY prod");
+
+		/** The ADQL query. */
+		public final String adql;
+
+		private Query(final String adql){
+			this.adql = adql;
+		}
+	}
+
+	/**
+	 * Translators (and their corresponding query factories) to benchmark.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 1.5 (10/2026)
+	 * @since 1.5
+	 */
+	public static enum Translator{
+		POSTGRESQL, PGSPHERE, MYSQL, SQLSERVER;
+
+		/**
+		 * Create a new instance of this translator.
+		 *
+		 * @return	A new translator.
+		 */
+		public ADQLTranslator create(){
+			switch(this){
+				case PGSPHERE:
+					return new PgSphereTranslator();
+				case MYSQL:
+					return new MySQLTranslator();
+				case SQLSERVER:
+					return new SQLServerTranslator();
+				default:
+					return new PostgreSQLTranslator();
+			}
+		}
+
+		/**
+		 * Create the query factory to use with this translator.
+		 *
+		 * @return	A new query factory.
+		 */
+		public ADQLQueryFactory createFactory(){
+			return (this == SQLSERVER) ? new SQLServer_ADQLQueryFactory() : new ADQLQueryFactory();
+		}
+	}
+
+	/** Number of synthetic tables per synthetic schema. */
+	public final static int NB_TABLES_PER_SCHEMA = 100;
+
+	/** Number of columns of each synthetic table. */
+	public final static int NB_COLUMNS_PER_TABLE = 20;
+
+	/** Definition of all the user defined functions used in the corpus. */
+	private final static String[] UDF_DEFINITIONS = new String[]{ "ivo_healpix_index(hpxOrder INTEGER, ra DOUBLE, dec DOUBLE) -> BIGINT", "ivo_hasword(haystack VARCHAR, needle VARCHAR) -> INTEGER", "ivo_nocasematch(value VARCHAR, pattern VARCHAR) -> INTEGER", "ivo_string_concat(str1 VARCHAR, str2 VARCHAR) -> VARCHAR", "gavo_to_mjd(d TIMESTAMP) -> DOUBLE", "gavo_normal_random(mu DOUBLE, sigma DOUBLE) -> DOUBLE" };
+
+	private BenchmarkData(){}
+
+	/**
+	 * Build the realistic tables, followed by the given number of synthetic
+	 * tables (each of {@value #NB_COLUMNS_PER_TABLE} columns, and grouped by
+	 * {@value #NB_TABLES_PER_SCHEMA} in schemas named <code>synth_{i}</code>).
+	 *
+	 * @param nbSyntheticTables	Number of synthetic tables to generate.
+	 *
+	 * @return	All tables.
+	 */
+	public static List<DBTable> createTables(final int nbSyntheticTables){
+		List<DBTable> tables = new ArrayList<DBTable>(3 + nbSyntheticTables);
+
+		tables.add(createTable("gaia", "gaia_source", new String[]{ "source_id", "ra", "dec", "parallax", "parallax_error", "pmra", "pmdec", "phot_g_mean_mag", "bp_rp" }, new DBDatatype[]{ DBDatatype.BIGINT, DBDatatype.DOUBLE, DBDatatype.DOUBLE, DBDatatype.DOUBLE, DBDatatype.REAL, DBDatatype.DOUBLE, DBDatatype.DOUBLE, DBDatatype.REAL, DBDatatype.REAL }));
+		tables.add(createTable("twomass", "psc", new String[]{ "designation", "ra", "dec", "j_m", "h_m", "k_m", "obs_date" }, new DBDatatype[]{ DBDatatype.VARCHAR, DBDatatype.DOUBLE, DBDatatype.DOUBLE, DBDatatype.REAL, DBDatatype.REAL, DBDatatype.REAL, DBDatatype.TIMESTAMP }));
+		tables.add(createTable("sdss", "photoobj", new String[]{ "objid", "ra", "dec", "type", "u", "g", "r", "i", "z", "twomass_designation", "gaia_source_id" }, new DBDatatype[]{ DBDatatype.BIGINT, DBDatatype.DOUBLE, DBDatatype.DOUBLE, DBDatatype.SMALLINT, DBDatatype.REAL, DBDatatype.REAL, DBDatatype.REAL, DBDatatype.REAL, DBDatatype.REAL, DBDatatype.VARCHAR, DBDatatype.BIGINT }));
+
+		final DBDatatype[] types = new DBDatatype[]{ DBDatatype.BIGINT, DBDatatype.DOUBLE, DBDatatype.INTEGER, DBDatatype.REAL, DBDatatype.VARCHAR };
+		for(int t = 0; t < nbSyntheticTables; t++){
+			DefaultDBTable table = new DefaultDBTable(null, null, "synth_" + (t / NB_TABLES_PER_SCHEMA), null, "table_" + (t % NB_TABLES_PER_SCHEMA), null);
+			for(int c = 0; c < NB_COLUMNS_PER_TABLE; c++)
+				table.addColumn(new DefaultDBColumn("col" + c, new DBType(types[c % types.length]), table));
+			tables.add(table);
+		}
+
+		return tables;
+	}
+
+	/**
+	 * Build a table with the given columns.
+	 *
+	 * @param schema	Name of the schema.
+	 * @param name		Name of the table.
+	 * @param columns	Name of all columns.
+	 * @param types		Datatype of all columns.
+	 *
+	 * @return	The created table.
+	 */
+	private static DBTable createTable(final String schema, final String name, final String[] columns, final DBDatatype[] types){
+		DefaultDBTable table = new DefaultDBTable(null, null, schema, null, name, null);
+		for(int i = 0; i < columns.length; i++)
+			table.addColumn(new DefaultDBColumn(columns[i], new DBType(types[i]), table));
+		return table;
+	}
+
+	/**
+	 * Build the definitions of all user defined functions used in the corpus.
+	 *
+	 * @return	All UDF definitions.
+	 */
+	public static List<FunctionDef> createUDFs(){
+		List<FunctionDef> udfs = new ArrayList<FunctionDef>(UDF_DEFINITIONS.length);
+		try{
+			for(String def : UDF_DEFINITIONS)
+				udfs.add(FunctionDef.parse(def));
+		}catch(ParseException pe){
+			throw new IllegalStateException("Incorrect UDF definition in the benchmark data!", pe);
+		}
+		return udfs;
+	}
+
+	/**
+	 * Build a checker for the given tables and all the UDFs used in the corpus.
+	 *
+	 * @param tables	Tables to check against.
+	 *
+	 * @return	A new checker.
+	 */
+	public static DBChecker createChecker(final List<DBTable> tables){
+		return new DBChecker(tables, createUDFs());
+	}
+
+	/**
+	 * Build a parser which does not check queries.
+	 *
+	 * @param factory	Query factory to use. <i>If NULL, the default one is used.</i>
+	 *
+	 * @return	A new parser.
+	 */
+	public static ADQLParser createParser(final ADQLQueryFactory factory){
+		ADQLParser parser = (factory == null) ? new ADQLParser() : new ADQLParser(factory);
+		parser.setDebug(false);
+		return parser;
+	}
+
+}
@@ -0,0 +1,78 @@
+package adql.benchmark;
+
+/*
+ * This file is part of ADQLLibrary.
+ *
+ * ADQLLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ADQLLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import adql.benchmark.BenchmarkData.Query;
+import adql.parser.ADQLParser;
+import adql.parser.ParseException;
+import adql.query.ADQLQuery;
+
+/**
+ * <p>Benchmark of the ADQL parsing alone (i.e. without any check).</p>
+ *
+ * <p>
+ * 	{@link ADQLParser#parseQuery(String)} is benchmarked on each query of the
+ * 	corpus (see {@link Query}).
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 1.5 (10/2026)
+ * @since 1.5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+	/** Query to parse. */
+	@Param
+	public Query query;
+
+	/** Parser without checker. */
+	private ADQLParser parser;
+
+	@Setup
+	public void setUp(){
+		parser = BenchmarkData.createParser(null);
+	}
+
+	@Benchmark
+	public ADQLQuery parse() throws ParseException{
+		return parser.parseQuery(query.adql);
+	}
+
+}
@@ -0,0 +1,94 @@
+package uws.benchmark;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uws.ISO8601Format;
+
+/**
+ * <p>Benchmark of the concurrent formatting and parsing of ISO8601 dates.</p>
+ *
+ * <p>
+ * 	{@link ISO8601Format#format(long)} and {@link ISO8601Format#parse(String)}
+ * 	are called by several threads at the same time, in a time zone with a
+ * 	fixed offset (UTC) and in a time zone with daylight saving time.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ISO8601FormatBenchmark {
+
+	/** Target time zone of the formatted dates. */
+	@Param({ "UTC", "Europe/Paris" })
+	public String timeZone;
+
+	/** Whether the milliseconds must be formatted. */
+	@Param({ "false", "true" })
+	public boolean withMillisec;
+
+	/** Date to format (2014-09-26T13:24:30.325Z). */
+	private final long date = 1411737870325L;
+
+	/** Date to parse. */
+	private String strDate;
+
+	@Setup
+	public void setUp(){
+		ISO8601Format.targetTimeZone = timeZone;
+		ISO8601Format.displayTimeZone = true;
+		ISO8601Format.displayMilliseconds = withMillisec;
+		strDate = ISO8601Format.format(date);
+	}
+
+	@Benchmark
+	public String format(){
+		return ISO8601Format.format(date);
+	}
+
+	@Benchmark
+	public long parse() throws ParseException{
+		return ISO8601Format.parse(strDate);
+	}
+
+}
@@ -16,7 +16,7 @@ package adql.db;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2011-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2011-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -65,6 +65,7 @@ import adql.query.operand.function.geometry.PointFunction;
 import adql.query.operand.function.geometry.PolygonFunction;
 import adql.query.operand.function.geometry.RegionFunction;
 import adql.search.ISearchHandler;
+import adql.search.MultiSearchHandler;
 import adql.search.SearchColumnHandler;
 import adql.search.SimpleReplaceHandler;
 import adql.search.SimpleSearchHandler;
@@ -99,7 +100,7 @@ import adql.search.SimpleSearchHandler;
  * </i></p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (11/2017)
+ * @version 1.5 (10/2026)
  */
 public class DBChecker implements QueryChecker {
 
@@ -146,6 +147,14 @@ public class DBChecker implements QueryChecker {
 	 * @since 1.3 */
 	protected FunctionDef[] allowedUdfs = null;
 
+	/** <p>Items of the queries being checked by the current thread.</p>
+	 * <p>
+	 * 	The top of this stack is the query currently checked ; the other ones
+	 * 	are its father queries (i.e. the query is a sub-query).
+	 * </p>
+	 * @since 1.5 */
+	private final ThreadLocal<Stack<QueryItems>> checkedItems = new ThreadLocal<Stack<QueryItems>>();
+
 	/* ************ */
 	/* CONSTRUCTORS */
 	/* ************ */
@@ -407,27 +416,64 @@ public class DBChecker implements QueryChecker {
 	protected void check(final ADQLQuery query, final Stack<SearchColumnList> fathersList) throws UnresolvedIdentifiersException{
 		UnresolvedIdentifiersException errors = new UnresolvedIdentifiersException();
 
-		// A. Check DB items (tables and columns):
-		SearchColumnList availableColumns = checkDBItems(query, fathersList, errors);
+		// Collect all the items to check (with only one traversal of the query):
+		Stack<QueryItems> itemsStack = checkedItems.get();
+		if (itemsStack == null){
+			itemsStack = new Stack<QueryItems>();
+			checkedItems.set(itemsStack);
+		}
+		itemsStack.push(new QueryItems(query));
+
+		try{
+			// A. Check DB items (tables and columns):
+			SearchColumnList availableColumns = checkDBItems(query, fathersList, errors);
 
-		// B. Check UDFs:
-		if (allowedUdfs != null)
-			checkUDFs(query, errors);
+			// B. Check UDFs:
+			if (allowedUdfs != null)
+				checkUDFs(query, errors);
 
-		// C. Check geometries:
-		checkGeometries(query, errors);
+			// C. Check geometries:
+			checkGeometries(query, errors);
 
-		// D. Check types:
-		checkTypes(query, errors);
+			// D. Check types:
+			checkTypes(query, errors);
 
-		// E. Check sub-queries:
-		checkSubQueries(query, fathersList, availableColumns, errors);
+			// E. Check sub-queries:
+			checkSubQueries(query, fathersList, availableColumns, errors);
+		}finally{
+			itemsStack.pop();
+			if (itemsStack.isEmpty())
+				checkedItems.remove();
+		}
 
 		// Throw all errors, if any:
 		if (errors.getNbErrors() > 0)
 			throw errors;
 	}
 
+	/**
+	 * <p>Get all the items of the given query which have to be checked.</p>
+	 *
+	 * <p>
+	 * 	If the given query is the one being checked by {@link #check(ADQLQuery, Stack)},
+	 * 	the items collected at the beginning of this check are returned.
+	 * 	Otherwise, they are collected now.
+	 * </p>
+	 *
+	 * @param query	The query whose items are asked.
+	 *
+	 * @return	The items to check.
+	 *
+	 * @since 1.5
+	 */
+	protected QueryItems getQueryItems(final ADQLQuery query){
+		Stack<QueryItems> itemsStack = checkedItems.get();
+		if (itemsStack != null && !itemsStack.isEmpty() && itemsStack.peek().query == query)
+			return itemsStack.peek();
+		else
+			return new QueryItems(query);
+	}
+
 	/* ************************************************ */
 	/* CHECKING METHODS FOR DB ITEMS (TABLES & COLUMNS) */
 	/* ************************************************ */
@@ -528,11 +574,11 @@ public class DBChecker implements QueryChecker {
 	 */
 	protected Map<DBTable,ADQLTable> resolveTables(final ADQLQuery query, final Stack<SearchColumnList> fathersList, final UnresolvedIdentifiersException errors){
 		HashMap<DBTable,ADQLTable> mapTables = new HashMap<DBTable,ADQLTable>();
+		QueryItems items = getQueryItems(query);
 		ISearchHandler sHandler;
 
 		// Check the existence of all tables:
-		sHandler = new SearchTableHandler();
-		sHandler.search(query.getFrom());
+		sHandler = items.tables;
 		for(ADQLObject result : sHandler){
 			try{
 				ADQLTable table = (ADQLTable)result;
@@ -564,8 +610,7 @@ public class DBChecker implements QueryChecker {
 		 *       no interest to select a father column in a sub-query
 		 *       (which can return only one column ; besides, no aggregate is allowed
 		 *       in sub-queries).*/
-		sHandler = new SearchWildCardHandler();
-		sHandler.search(query.getSelect());
+		sHandler = items.wildcards;
 		for(ADQLObject result : sHandler){
 			try{
 				SelectAllColumns wildcard = (SelectAllColumns)result;
@@ -641,11 +686,11 @@ public class DBChecker implements QueryChecker {
 	 * @param errors		List of errors to complete in this function each time an unknown table or column is encountered.
 	 */
 	protected void resolveColumns(final ADQLQuery query, final Stack<SearchColumnList> fathersList, final Map<DBTable,ADQLTable> mapTables, final SearchColumnList list, final UnresolvedIdentifiersException errors){
+		QueryItems items = getQueryItems(query);
 		ISearchHandler sHandler;
 
 		// Check the existence of all columns:
-		sHandler = new SearchColumnOutsideGroupByHandler();
-		sHandler.search(query);
+		sHandler = items.columns;
 		for(ADQLObject result : sHandler){
 			try{
 				ADQLColumn adqlColumn = (ADQLColumn)result;
@@ -661,8 +706,7 @@ public class DBChecker implements QueryChecker {
 
 		// Check the GROUP BY items:
 		ClauseSelect select = query.getSelect();
-		sHandler = new SearchColumnHandler();
-		sHandler.search(query.getGroupBy());
+		sHandler = items.groupByColumns;
 		for(ADQLObject result : sHandler){
 			try{
 				ADQLColumn adqlColumn = (ADQLColumn)result;
@@ -681,8 +725,7 @@ public class DBChecker implements QueryChecker {
 		// Check the correctness of all column references (= references to selected columns):
 		/* Note: no need to provide the father tables when resolving column references,
 		 *       because no father column can be used in ORDER BY. */
-		sHandler = new SearchColReferenceHandler();
-		sHandler.search(query);
+		sHandler = items.colReferences;
 		for(ADQLObject result : sHandler){
 			try{
 				ColumnReference colRef = (ColumnReference)result;
@@ -863,9 +906,9 @@ public class DBChecker implements QueryChecker {
 	 * @since 1.3
 	 */
 	protected void checkUDFs(final ADQLQuery query, final UnresolvedIdentifiersException errors){
-		// 1. Search all UDFs:
-		ISearchHandler sHandler = new SearchUDFHandler();
-		sHandler.search(query);
+		// 1. Get all UDFs:
+		QueryItems items = getQueryItems(query);
+		ISearchHandler sHandler = items.udfs;
 
 		// If no UDF are allowed, throw immediately an error:
 		if (allowedUdfs.length == 0){
@@ -922,7 +965,22 @@ public class DBChecker implements QueryChecker {
 			}
 
 			// 3. Replace all the resolved DefaultUDF by an instance of the class associated with the set signature:
-			(new ReplaceDefaultUDFHandler(errors)).searchAndReplace(query);
+			ReplaceDefaultUDFHandler replaceHandler = new ReplaceDefaultUDFHandler(errors);
+			boolean toReplace = false;
+			for(ADQLObject result : sHandler){
+				if (replaceHandler.match(result)){
+					toReplace = true;
+					break;
+				}
+			}
+			if (toReplace){
+				replaceHandler.searchAndReplace(query);
+				/* Note: the replaced UDFs are no longer in the query ; so, the
+				 *       items whose the type must be checked must be searched
+				 *       again: */
+				if (replaceHandler.getNbReplacement() > 0)
+					items.unknownTypes.search(query);
+			}
 		}
 	}
 
@@ -1007,8 +1065,7 @@ public class DBChecker implements QueryChecker {
 	 * @since 1.3
 	 */
 	protected void resolveGeometryFunctions(final ADQLQuery query, final BinarySearch<String,String> binSearch, final UnresolvedIdentifiersException errors){
-		ISearchHandler sHandler = new SearchGeometryHandler();
-		sHandler.search(query);
+		ISearchHandler sHandler = getQueryItems(query).geometries;
 
 		String fctName;
 		for(ADQLObject result : sHandler){
@@ -1060,8 +1117,7 @@ public class DBChecker implements QueryChecker {
 	 * @since 1.3
 	 */
 	protected void resolveCoordinateSystems(final ADQLQuery query, final UnresolvedIdentifiersException errors){
-		ISearchHandler sHandler = new SearchCoordSysHandler();
-		sHandler.search(query);
+		ISearchHandler sHandler = getQueryItems(query).coordSys;
 		for(ADQLObject result : sHandler)
 			checkCoordinateSystem((StringConstant)result, errors);
 	}
@@ -1134,9 +1190,8 @@ public class DBChecker implements QueryChecker {
 	 * @since 1.3
 	 */
 	protected void resolveSTCSExpressions(final ADQLQuery query, final BinarySearch<String,String> binSearch, final UnresolvedIdentifiersException errors){
-		// Search REGION functions:
-		ISearchHandler sHandler = new SearchRegionHandler();
-		sHandler.search(query);
+		// Get all REGION functions:
+		ISearchHandler sHandler = getQueryItems(query).regions;
 
 		// Parse and check their STC-S expression:
 		String stcs;
@@ -1235,9 +1290,8 @@ public class DBChecker implements QueryChecker {
 	 * @since 1.3
 	 */
 	protected void checkTypes(final ADQLQuery query, final UnresolvedIdentifiersException errors){
-		// Search all unknown types:
-		ISearchHandler sHandler = new SearchUnknownTypeHandler();
-		sHandler.search(query);
+		// Get all unknown types:
+		ISearchHandler sHandler = getQueryItems(query).unknownTypes;
 
 		// Check whether their type matches the expected one:
 		UnknownType unknown;
@@ -1296,8 +1350,7 @@ public class DBChecker implements QueryChecker {
 	 */
 	protected void checkSubQueries(final ADQLQuery query, Stack<SearchColumnList> fathersList, final SearchColumnList availableColumns, final UnresolvedIdentifiersException errors){
 		// Check sub-queries outside the clause FROM:
-		ISearchHandler sHandler = new SearchSubQueryHandler();
-		sHandler.search(query);
+		ISearchHandler sHandler = getQueryItems(query).subQueries;
 		if (sHandler.getNbMatch() > 0){
 
 			// Push the list of columns into the father columns stack:
@@ -1325,6 +1378,60 @@ public class DBChecker implements QueryChecker {
 	/* SEARCH HANDLERS */
 	/* *************** */
 
+	/**
+	 * <p>All the items of a query which have to be checked by a {@link DBChecker}.</p>
+	 *
+	 * <p>
+	 * 	All of them are collected at the creation of this object, with only
+	 * 	one traversal of the query (thanks to a {@link MultiSearchHandler}).
+	 * 	As for a non-recursive search, the items of the sub-queries are not
+	 * 	collected.
+	 * </p>
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 1.5 (10/2026)
+	 * @since 1.5
+	 */
+	protected static class QueryItems {
+		/** The query whose items are collected. */
+		protected final ADQLQuery query;
+		/** All tables of the clause FROM. */
+		protected final SimpleSearchHandler tables = new SearchTableHandler();
+		/** All wildcards with a table reference ("{table}.*") of the clause SELECT. */
+		protected final SimpleSearchHandler wildcards = new SearchWildCardHandler();
+		/** All columns, except those of the clause GROUP BY. */
+		protected final SimpleSearchHandler columns = new SearchColumnOutsideGroupByHandler();
+		/** All columns of the clause GROUP BY. */
+		protected final SimpleSearchHandler groupByColumns = new SearchColumnHandler();
+		/** All column references (i.e. index of a selected column). */
+		protected final SimpleSearchHandler colReferences = new SearchColReferenceHandler();
+		/** All user defined functions. */
+		protected final SimpleSearchHandler udfs = new SearchUDFHandler();
+		/** All geometrical functions. */
+		protected final SimpleSearchHandler geometries = new SearchGeometryHandler();
+		/** All explicit coordinate systems. */
+		protected final SimpleSearchHandler coordSys = new SearchCoordSysHandler();
+		/** All REGION functions with a constant STC-S expression. */
+		protected final SimpleSearchHandler regions = new SearchRegionHandler();
+		/** All operands whose the type is still unknown. */
+		protected final SimpleSearchHandler unknownTypes = new SearchUnknownTypeHandler();
+		/** All sub-queries outside the clause FROM. */
+		protected final SimpleSearchHandler subQueries = new SearchSubQueryHandler();
+
+		/**
+		 * Collect all the items of the given query.
+		 *
+		 * @param query	The query whose items must be collected.
+		 */
+		public QueryItems(final ADQLQuery query){
+			this.query = query;
+			MultiSearchHandler multiSearch = new MultiSearchHandler();
+			multiSearch.add(tables, query.getFrom()).add(wildcards, query.getSelect()).add(columns).add(groupByColumns, query.getGroupBy()).add(colReferences);
+			multiSearch.add(udfs).add(geometries).add(coordSys).add(regions).add(unknownTypes).add(subQueries);
+			multiSearch.search(query);
+		}
+	}
+
 	/**
 	 * Lets searching all {@link ADQLColumn} in the given object, EXCEPT in the GROUP BY clause.
 	 *
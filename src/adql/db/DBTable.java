@@ -16,7 +16,7 @@ package adql.db;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2016 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -29,7 +29,7 @@ package adql.db;
  * </p>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (07/2016)
+ * @version 1.5 (10/2026)
  */
 public interface DBTable extends Iterable<DBColumn> {
 
@@ -86,6 +86,34 @@ public interface DBTable extends Iterable<DBColumn> {
 	 */
 	public DBColumn getColumn(String colName, boolean adqlName);
 
+	/**
+	 * <p>Gets the list of all columns of this table, indexed by ADQL name.</p>
+	 * 
+	 * <p>
+	 * 	This list is used to resolve the columns of an ADQL query (see
+	 * 	{@link adql.query.from.FromContent#getDBColumns()}). It is frozen (see
+	 * 	{@link SearchColumnList#freeze()}) so that it can be built only once and
+	 * 	then shared by all queries.
+	 * </p>
+	 * 
+	 * <p><i>Note:
+	 * 	By default, a new list is built at each call. Implementations whose the
+	 * 	columns rarely change should rather keep it and build it again only
+	 * 	when a column is added or removed.
+	 * </i></p>
+	 * 
+	 * @return	The frozen list of all columns of this table.
+	 * 
+	 * @since 1.5
+	 */
+	public default SearchColumnList getColumnIndex(){
+		SearchColumnList index = new SearchColumnList();
+		for(DBColumn col : this)
+			index.add(col);
+		index.freeze();
+		return index;
+	}
+
 	/**
 	 * <p>Makes a copy of this instance of {@link DBTable}, with the possibility to change the DB and ADQL names.</p>
 	 * 
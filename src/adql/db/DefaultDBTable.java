@@ -16,7 +16,7 @@ package adql.db;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -29,7 +29,7 @@ import java.util.Map;
  * Default implementation of {@link DBTable}.
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (08/2015)
+ * @version 1.5 (10/2026)
  */
 public class DefaultDBTable implements DBTable {
 
@@ -43,6 +43,21 @@ public class DefaultDBTable implements DBTable {
 
 	protected Map<String,DBColumn> columns = new LinkedHashMap<String,DBColumn>();
 
+	/** Frozen list of all columns, indexed by ADQL name.
+	 * NULL if not yet built or if the columns have changed since.
+	 * @since 1.5 */
+	private volatile SearchColumnList columnIndex = null;
+
+	/** Number of modifications of the columns. It lets {@link #getColumnIndex()}
+	 * know whether the columns changed while the index was being built.
+	 * <i>Any access MUST be synchronized on {@link #columnIndexLock}.</i>
+	 * @since 1.5 */
+	private int columnsVersion = 0;
+
+	/** Lock guarding {@link #columnsVersion} and the publication of {@link #columnIndex}.
+	 * @since 1.5 */
+	private final Object columnIndexLock = new Object();
+
 	/**
 	 * <p>Builds a default {@link DBTable} with the given DB name.</p>
 	 * 
@@ -200,9 +215,55 @@ public class DefaultDBTable implements DBTable {
 		return columns.values().iterator();
 	}
 
+	/**
+	 * <p>The list of columns is built at the first call, and then kept until
+	 * a column is added with {@link #addColumn(DBColumn)}.</p>
+	 * 
+	 * <p><i><b>Warning:</b>
+	 * 	An extension of this class modifying directly {@link #columns} must
+	 * 	also call {@link #invalidateColumnIndex()}.
+	 * </i></p>
+	 * 
+	 * @see adql.db.DBTable#getColumnIndex()
+	 * 
+	 * @since 1.5
+	 */
+	@Override
+	public SearchColumnList getColumnIndex(){
+		SearchColumnList index = columnIndex;
+		if (index == null){
+			int version;
+			synchronized(columnIndexLock){
+				version = columnsVersion;
+			}
+			index = DBTable.super.getColumnIndex();
+			// Keep the index only if the columns did not change while it was being built:
+			synchronized(columnIndexLock){
+				if (version == columnsVersion)
+					columnIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Forget the list of columns returned by {@link #getColumnIndex()}, so
+	 * that it is built again at the next call.
+	 * 
+	 * @since 1.5
+	 */
+	protected final void invalidateColumnIndex(){
+		synchronized(columnIndexLock){
+			columnsVersion++;
+			columnIndex = null;
+		}
+	}
+
 	public void addColumn(DBColumn column){
-		if (column != null)
+		if (column != null){
 			columns.put(column.getADQLName(), column);
+			invalidateColumnIndex();
+		}
 	}
 
 	public void addAllColumns(Collection<DBColumn> colList){
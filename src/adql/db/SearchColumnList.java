@@ -16,7 +16,7 @@ package adql.db;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -46,8 +46,14 @@ import cds.utils.TextualSearchList;
  * 	Table aliases can be listed here with their corresponding table name. Consequently, a table alias can be given as table name in the search parameters.
  * </i></p>
  * 
+ * <p><i>
+ * 	<u>Note:</u>
+ * 	The list of all columns of a table is built only once, frozen and then shared (see {@link DBTable#getColumnIndex()}).
+ * 	Such list can not be modified ; it must be copied (e.g. {@link #SearchColumnList(Collection)}) before any modification.
+ * </i></p>
+ * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (09/2017)
+ * @version 1.5 (10/2026)
  */
 public class SearchColumnList extends TextualSearchList<DBColumn> {
 	private static final long serialVersionUID = 1L;
@@ -324,6 +330,8 @@ public class SearchColumnList extends TextualSearchList<DBColumn> {
 		else{
 			// Special case: the columns merged by a NATURAL JOIN or a USING may have no table reference:
 			if (tmpResult.size() > 1){
+				// copy the matches before modifying them (see TextualSearchList#get(String, boolean)):
+				tmpResult = new ArrayList<DBColumn>(tmpResult);
 				// List all common columns. If there are several, only the list of matching normal columns must be returned.
 				// This list must not contain common columns.
 				// Instead, it must contains all normal columns covered by the common columns.
@@ -361,6 +369,11 @@ public class SearchColumnList extends TextualSearchList<DBColumn> {
 			return super.add(item);
 	}
 
+	@Override
+	protected boolean canAddAllAtOnce(final TextualSearchList<? extends DBColumn> list){
+		return !distinct && super.canAddAllAtOnce(list);
+	}
+
 	@Override
 	public boolean addAll(final Collection<? extends DBColumn> c){
 		boolean changed = super.addAll(c);
@@ -16,7 +16,7 @@ package adql.db;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -37,7 +37,7 @@ import cds.utils.TextualSearchList;
  * </p>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (09/2017)
+ * @version 1.5 (10/2026)
  */
 public class SearchTableList extends TextualSearchList<DBTable> implements SearchTableApi {
 	private static final long serialVersionUID = 1L;
@@ -201,6 +201,11 @@ public class SearchTableList extends TextualSearchList<DBTable> implements Searc
 			return super.add(item);
 	}
 
+	@Override
+	protected boolean canAddAllAtOnce(final TextualSearchList<? extends DBTable> list){
+		return !distinct && super.canAddAllAtOnce(list);
+	}
+
 	/**
 	 * Lets extracting a key to associate with a given {@link DBTable} instance.
 	 * 
@@ -16,7 +16,7 @@ package adql.query;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -47,7 +47,7 @@ import adql.search.ISearchHandler;
  * <p>The resulting object of the {@link ADQLParser} is an object of this class.</p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (11/2017)
+ * @version 1.5 (10/2026)
  */
 public class ADQLQuery implements ADQLObject {
 
@@ -100,6 +100,15 @@ public class ADQLQuery implements ADQLObject {
 		having = (ClauseConstraints)toCopy.having.getCopy();
 		orderBy = (ClauseADQL<ADQLOrder>)toCopy.orderBy.getCopy();
 		position = (toCopy.position == null) ? null : new TextPosition(toCopy.position);
+
+		// A "SELECT *" on the copied query must now concern this copy:
+		for(SelectItem item : select){
+			if (item instanceof SelectAllColumns && ((SelectAllColumns)item).getQuery() == toCopy){
+				TextPosition itemPosition = item.getPosition();
+				((SelectAllColumns)item).setQuery(this);
+				item.setPosition(itemPosition);
+			}
+		}
 	}
 
 	/**
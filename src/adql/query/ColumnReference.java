@@ -16,7 +16,7 @@ package adql.query;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
  */
 
 import adql.db.DBColumn;
@@ -27,7 +27,7 @@ import adql.query.operand.ADQLColumn;
  * Represents a reference to a selected column either by an index or by a non-qualified column name/alias.
  * 
  * @author Gr&eacute;gory Mantelet (CDS)
- * @version 01/2012
+ * @version 1.5 (10/2026)
  * 
  * @see ADQLOrder
  */
@@ -87,6 +87,9 @@ public class ColumnReference implements ADQLObject {
 		columnName = toCopy.columnName;
 		caseSensitive = toCopy.caseSensitive;
 		columnIndex = toCopy.columnIndex;
+		dbLink = toCopy.dbLink;
+		adqlTable = toCopy.adqlTable;
+		position = (toCopy.position == null) ? null : new TextPosition(toCopy.position);
 	}
 
 	/**
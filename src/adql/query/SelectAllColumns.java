@@ -20,7 +20,7 @@ import adql.query.from.ADQLTable;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -29,7 +29,7 @@ import adql.query.from.ADQLTable;
  * It means: 'select all columns'.
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (06/2015)
+ * @version 1.5 (10/2026)
  */
 public final class SelectAllColumns extends SelectItem {
 
@@ -62,11 +62,20 @@ public final class SelectAllColumns extends SelectItem {
 	/**
 	 * Builds a {@link SelectAllColumns} by copying the given one.
 	 * 
+	 * <p><i>Note:
+	 * 	The query or the table whose all columns must be selected is not
+	 * 	copied: the copy refers to the same object. When a whole
+	 * 	{@link ADQLQuery} is copied, its copy is then set as query of the
+	 * 	copied {@link SelectAllColumns}.
+	 * </i></p>
+	 * 
 	 * @param toCopy		The {@link SelectAllColumns} to copy.
 	 * @throws Exception	If there is an error during the copy.
 	 */
 	public SelectAllColumns(SelectAllColumns toCopy) throws Exception{
 		super(toCopy);
+		query = toCopy.query;
+		adqlTable = toCopy.adqlTable;
 	}
 
 	/**
@@ -16,7 +16,7 @@ package adql.query.constraint;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institute (ARI)
  */
 
@@ -34,7 +34,7 @@ import adql.query.operand.ADQLOperand;
  * between the value of the two other operands, else it returns <i>false</i>.</p>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (06/2015)
+ * @version 1.5 (10/2026)
  */
 public class Between implements ADQLConstraint {
 
@@ -92,6 +92,7 @@ public class Between implements ADQLConstraint {
 		setLeftOperand((ADQLOperand)toCopy.leftOperand.getCopy());
 		setMinOperand((ADQLOperand)toCopy.minOperand.getCopy());
 		setMaxOperand((ADQLOperand)toCopy.maxOperand.getCopy());
+		notBetween = toCopy.notBetween;
 		position = (toCopy.position == null) ? null : new TextPosition(toCopy.position);
 	}
 
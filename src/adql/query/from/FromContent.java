@@ -16,7 +16,7 @@ package adql.query.from;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -33,7 +33,7 @@ import adql.query.TextPosition;
  * It could be either a table ({@link ADQLTable}) or a join ({@link ADQLJoin}).
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (09/2017)
+ * @version 1.5 (10/2026)
  */
 public interface FromContent extends ADQLObject {
 
@@ -42,6 +42,12 @@ public interface FromContent extends ADQLObject {
 	 * 
 	 * <p><i><u>Note:</u> In the most cases, this list is generated on the fly !</i></p>
 	 * 
+	 * <p><i><u>Note:</u>
+	 * 	The returned list may be frozen (see {@link SearchColumnList#freeze()}) ;
+	 * 	it is particularly the case for a single table (see {@link adql.db.DBTable#getColumnIndex()}).
+	 * 	So, it must be copied before any modification.
+	 * </i></p>
+	 * 
 	 * @return	All the available {@link DBColumn}s.
 	 * @throws UnresolvedJoinException If a join is not possible.
 	 */
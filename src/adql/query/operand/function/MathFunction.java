@@ -16,7 +16,7 @@ package adql.query.operand.function;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -28,7 +28,7 @@ import adql.query.operand.ADQLOperand;
  * It represents any basic mathematical function.
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (06/2015)
+ * @version 1.5 (10/2026)
  * 
  * @see MathFunctionType
  */
@@ -115,8 +115,9 @@ public class MathFunction extends ADQLFunction {
 	 */
 	public MathFunction(MathFunction toCopy) throws Exception{
 		type = toCopy.type;
-		param1 = (ADQLOperand)toCopy.param1.getCopy();
-		param2 = (ADQLOperand)toCopy.param2.getCopy();
+		param1 = (toCopy.param1 == null) ? null : (ADQLOperand)toCopy.param1.getCopy();
+		param2 = (toCopy.param2 == null) ? null : (ADQLOperand)toCopy.param2.getCopy();
+		nbParams = toCopy.nbParams;
 		setPosition((toCopy.getPosition() == null) ? null : new TextPosition(toCopy.getPosition()));
 	}
 
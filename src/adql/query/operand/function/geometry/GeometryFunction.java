@@ -16,7 +16,7 @@ package adql.query.operand.function.geometry;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -33,7 +33,7 @@ import adql.query.operand.function.ADQLFunction;
  * <p>It represents any geometric function of ADQL.</p>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (06/2015)
+ * @version 1.5 (10/2026)
  */
 public abstract class GeometryFunction extends ADQLFunction {
 
@@ -66,7 +66,7 @@ public abstract class GeometryFunction extends ADQLFunction {
 	 * @throws Exception	If there is an error during the copy.
 	 */
 	protected GeometryFunction(GeometryFunction toCopy) throws Exception{
-		coordSys = (ADQLOperand)(toCopy.coordSys.getCopy());
+		coordSys = (toCopy.coordSys == null) ? null : (ADQLOperand)(toCopy.coordSys.getCopy());
 		setPosition((toCopy.getPosition() == null) ? null : new TextPosition(toCopy.getPosition()));
 	}
 
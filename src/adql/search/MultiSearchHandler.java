@@ -0,0 +1,270 @@
+package adql.search;
+
+/*
+ * This file is part of ADQLLibrary.
+ *
+ * ADQLLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ADQLLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.ArrayList;
+import java.util.Stack;
+
+import adql.query.ADQLIterator;
+import adql.query.ADQLObject;
+
+/**
+ * <p>Lets run several {@link SimpleSearchHandler}s with only one traversal
+ * of the ADQL tree.</p>
+ *
+ * <p>
+ * 	Each ADQL object met during the traversal is given to all the registered
+ * 	handlers. Each handler keeps its own behavior: match condition
+ * 	({@link SimpleSearchHandler#match(ADQLObject) match(ADQLObject)}),
+ * 	collection of results ({@link SimpleSearchHandler#addMatch(ADQLObject, ADQLIterator) addMatch(...)}),
+ * 	recursion ({@link SimpleSearchHandler#goInto(ADQLObject) goInto(ADQLObject)})
+ * 	and end of search ({@link SimpleSearchHandler#isFinished() isFinished()}).
+ * 	Thus, after {@link #search(ADQLObject)}, each handler contains exactly the
+ * 	same results as if its own {@link SimpleSearchHandler#search(ADQLObject) search(ADQLObject)}
+ * 	had been called.
+ * </p>
+ *
+ * <p>
+ * 	A handler may also be restricted to a part of the tree (e.g. only one
+ * 	clause of the query) with {@link #add(SimpleSearchHandler, ADQLObject)}.
+ * 	It is then equivalent to call its own search function with this part of
+ * 	the tree as starting object.
+ * </p>
+ *
+ * <p>
+ * 	The traversal does not go inside an ADQL object if none of the handlers
+ * 	needs it. It stops as soon as all handlers are finished.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	Replacements are not supported ; {@link SimpleReplaceHandler}s must still
+ * 	be run on their own.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 1.5 (10/2026)
+ * @since 1.5
+ */
+public class MultiSearchHandler {
+
+	/** All the registered handlers, with their traversal state. */
+	protected final ArrayList<HandlerState> handlers = new ArrayList<HandlerState>();
+
+	/**
+	 * Register a handler which must search in the whole tree.
+	 *
+	 * @param handler	The handler to run. <i>Ignored if NULL.</i>
+	 *
+	 * @return	This object (so that several calls can be chained).
+	 */
+	public MultiSearchHandler add(final SimpleSearchHandler handler){
+		return add(handler, null);
+	}
+
+	/**
+	 * Register a handler which must search only inside the given ADQL object
+	 * (included).
+	 *
+	 * <p><i>Note:
+	 * 	If the given ADQL object is not met while searching, the handler will
+	 * 	not have any result.
+	 * </i></p>
+	 *
+	 * @param handler	The handler to run. <i>Ignored if NULL.</i>
+	 * @param scope		The ADQL object from which the handler must search.
+	 *             		<i>If NULL, the handler searches in the whole tree.</i>
+	 *
+	 * @return	This object (so that several calls can be chained).
+	 */
+	public MultiSearchHandler add(final SimpleSearchHandler handler, final ADQLObject scope){
+		if (handler != null)
+			handlers.add(new HandlerState(handler, scope));
+		return this;
+	}
+
+	/**
+	 * Get the number of registered handlers.
+	 *
+	 * @return	Number of handlers.
+	 */
+	public final int getNbHandlers(){
+		return handlers.size();
+	}
+
+	/**
+	 * Run all registered handlers from the given ADQL object (included).
+	 *
+	 * <p><i>Note:
+	 * 	All handlers are reset before searching.
+	 * </i></p>
+	 *
+	 * @param startObj	The ADQL object from which the search must start.
+	 */
+	public void search(final ADQLObject startObj){
+		for(HandlerState state : handlers)
+			state.reset();
+
+		if (startObj == null)
+			return;
+
+		// Test the root search object:
+		if (!visit(startObj, null, 0))
+			return;
+
+		Stack<ADQLIterator> stackIt = new Stack<ADQLIterator>();
+		ADQLObject obj = null;
+		ADQLIterator it = startObj.adqlIterator();
+
+		while(true){
+			// Fetch the next ADQL object to test:
+			do{
+				if (it != null && it.hasNext())
+					obj = it.next();
+				else if (!stackIt.isEmpty())
+					it = stackIt.pop();
+				else
+					return;
+			}while(obj == null);
+
+			// Give it to all handlers and continue inside it if needed:
+			boolean goInto = visit(obj, it, stackIt.size() + 1);
+			if (isFinished())
+				return;
+			else if (goInto){
+				stackIt.push(it);
+				it = obj.adqlIterator();
+			}
+
+			obj = null;
+		}
+	}
+
+	/**
+	 * Give the given ADQL object to all the handlers concerned by it.
+	 *
+	 * @param obj	The ADQL object to test.
+	 * @param it	The iterator from which this object has been extracted.
+	 *          	<i>NULL for the root search object.</i>
+	 * @param depth	Depth of this object in the tree (0 for the root search object).
+	 *
+	 * @return	<i>true</i> if at least one handler wants to search inside this object,
+	 *        	<i>false</i> otherwise.
+	 */
+	protected boolean visit(final ADQLObject obj, final ADQLIterator it, final int depth){
+		boolean goInto = false;
+		for(HandlerState state : handlers){
+			if (state.finished)
+				continue;
+
+			// Leave the sub-tree this handler does not want to search in:
+			if (state.skipDepth >= 0 && depth <= state.skipDepth)
+				state.skipDepth = -1;
+
+			// Enter or leave the scope of this handler:
+			if (state.scopeDepth >= 0 && depth <= state.scopeDepth){
+				// the scope has been entirely searched:
+				state.finished = true;
+				continue;
+			}else if (state.scopeDepth < 0){
+				if (state.scope == null || obj == state.scope)
+					state.scopeDepth = depth;
+				else{
+					// the scope may still be somewhere inside this object:
+					goInto = true;
+					continue;
+				}
+			}
+
+			if (state.skipDepth >= 0)
+				continue;
+
+			// Test the object:
+			if (state.handler.match(obj))
+				state.handler.addMatch(obj, it);
+
+			// Stop this handler or continue its search inside this object:
+			/* Note: as in SimpleSearchHandler, the search always continues
+			 *       inside the object from which the handler searches. */
+			if (state.handler.isFinished())
+				state.finished = true;
+			else if (depth == state.scopeDepth || state.handler.goInto(obj))
+				goInto = true;
+			else
+				state.skipDepth = depth;
+		}
+		return goInto;
+	}
+
+	/**
+	 * Tell whether all handlers have finished their search.
+	 *
+	 * @return	<i>true</i> if the traversal can stop now, <i>false</i> otherwise.
+	 */
+	protected boolean isFinished(){
+		for(HandlerState state : handlers){
+			if (!state.finished)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * A registered handler and its state in the current traversal.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 1.5 (10/2026)
+	 * @since 1.5
+	 */
+	protected static class HandlerState {
+		/** The handler to run. */
+		protected final SimpleSearchHandler handler;
+		/** The ADQL object from which the handler must search. */
+		protected final ADQLObject scope;
+		/** Depth of {@link #scope} in the tree, or -1 if not yet met. */
+		protected int scopeDepth = -1;
+		/** Depth of the object inside which the handler does not want to search, or -1. */
+		protected int skipDepth = -1;
+		/** Indicates whether the handler has finished its search. */
+		protected boolean finished = false;
+
+		/**
+		 * Build the state of the given handler.
+		 *
+		 * @param handler	The handler to run.
+		 * @param scope		The ADQL object from which the handler must search.
+		 *             		<i>NULL for the whole tree.</i>
+		 */
+		protected HandlerState(final SimpleSearchHandler handler, final ADQLObject scope){
+			this.handler = handler;
+			this.scope = scope;
+		}
+
+		/**
+		 * Reset the handler and its state before a new search.
+		 */
+		protected void reset(){
+			handler.reset();
+			scopeDepth = -1;
+			skipDepth = -1;
+			finished = false;
+		}
+	}
+
+}
@@ -20,7 +20,10 @@ package adql.translator;
  *                       UDS/Centre de Données astronomiques de Strasbourg (CDS)
  */
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import adql.db.DBColumn;
 import adql.db.DBTable;
@@ -161,8 +164,22 @@ import adql.query.operand.function.geometry.RegionFunction;
  * 	and their case sensitivity are kept like in ADQL.
  * </p>
  *
+ * <h3>Translation with bind parameters</h3>
+ *
+ * <p>
+ * 	{@link #translateWithParameters(ADQLQuery)} translates the constants of the
+ * 	WHERE clauses into JDBC placeholders (<code>?</code>) and returns their
+ * 	values aside (see {@link ParameterizedSQL}). So, queries differing only by
+ * 	their constraint values get the same SQL and can share the same prepared
+ * 	statement. Constants of the other clauses (e.g. SELECT, GROUP BY, ORDER BY)
+ * 	are always written in the SQL, because some DBMS require the same
+ * 	expression in the SELECT and GROUP BY clauses. A translation function
+ * 	which must keep a constant in the SQL can disable the binding with
+ * 	{@link #setBindingEnabled(boolean)}.
+ * </p>
+ *
  * @author Gr&eacute;gory Mantelet (ARI;CDS)
- * @version 1.5 (03/2019)
+ * @version 1.5 (10/2026)
  * @since 1.4
  *
  * @see PostgreSQLTranslator
@@ -172,6 +189,11 @@ import adql.query.operand.function.geometry.RegionFunction;
  */
 public abstract class JDBCTranslator implements ADQLTranslator {
 
+	/** State of the translation with bind parameters run by the current
+	 * thread. NULL if no such translation is running.
+	 * @since 1.5 */
+	private final ThreadLocal<BindState> bindState = new ThreadLocal<BindState>();
+
 	/**
 	 * <p>Tell whether the specified identifier MUST be translated so that being interpreted case sensitively or not.
 	 * By default, an identifier that must be translated with case sensitivity will be surrounded by double quotes.
@@ -355,28 +377,173 @@ public abstract class JDBCTranslator implements ADQLTranslator {
 			return obj.toADQL();
 	}
 
+	/**
+	 * <p>Translate the given ADQL query into SQL, with a JDBC placeholder
+	 * (<code>?</code>) instead of each constant of its WHERE clauses.</p>
+	 *
+	 * <p>
+	 * 	Only numeric and string constants are replaced. The resulting SQL is
+	 * 	exactly the same as the one of {@link #translate(ADQLQuery)} for all
+	 * 	the other parts of the query.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	Numeric values are given as {@link Integer} if they fit in 32 bits,
+	 * 	as {@link Long} if they fit in 64 bits, and as {@link BigDecimal}
+	 * 	otherwise (i.e. the type a DBMS like PostgreSQL would give to the
+	 * 	same literal). String values are given as {@link String}.
+	 * </i></p>
+	 *
+	 * @param query	The ADQL query to translate.
+	 *
+	 * @return	The SQL query and the values of its parameters.
+	 *
+	 * @throws TranslationException	If the translation fails.
+	 *
+	 * @since 1.5
+	 */
+	public ParameterizedSQL translateWithParameters(final ADQLQuery query) throws TranslationException{
+		final BindState previous = bindState.get();
+		final BindState state = new BindState();
+		bindState.set(state);
+		try{
+			String sql = translate(query);
+			return new ParameterizedSQL(sql, state.parameters);
+		}finally{
+			if (previous == null)
+				bindState.remove();
+			else
+				bindState.set(previous);
+		}
+	}
+
+	/**
+	 * <p>Tell whether the constants translated now must be replaced by a
+	 * JDBC placeholder.</p>
+	 *
+	 * <p><i>Note:
+	 * 	This is never the case outside {@link #translateWithParameters(ADQLQuery)}.
+	 * </i></p>
+	 *
+	 * @return	<code>true</code> if constants are bound,
+	 *        	<code>false</code> if they are written in the SQL.
+	 *
+	 * @since 1.5
+	 */
+	protected final boolean isBindingEnabled(){
+		BindState state = bindState.get();
+		return (state != null && state.enabled);
+	}
+
+	/**
+	 * <p>Enable or disable the replacement of constants by JDBC placeholders
+	 * for the translations to come.</p>
+	 *
+	 * <p>
+	 * 	A translation function must restore the previous value when it is
+	 * 	done. For instance:
+	 * </p>
+	 * <pre>
+	 * 	boolean binding = setBindingEnabled(false);
+	 * 	try{
+	 * 		...
+	 * 	}finally{
+	 * 		setBindingEnabled(binding);
+	 * 	}
+	 * </pre>
+	 *
+	 * <p><i>Note:
+	 * 	Nothing is done outside {@link #translateWithParameters(ADQLQuery)}.
+	 * </i></p>
+	 *
+	 * @param enabled	<code>true</code> to bind constants,
+	 *               	<code>false</code> to write them in the SQL.
+	 *
+	 * @return	The previous value.
+	 *
+	 * @since 1.5
+	 */
+	protected final boolean setBindingEnabled(final boolean enabled){
+		BindState state = bindState.get();
+		if (state == null)
+			return false;
+		boolean previous = state.enabled;
+		state.enabled = enabled;
+		return previous;
+	}
+
+	/**
+	 * Add the given value to the parameters of the current translation and
+	 * return its placeholder.
+	 *
+	 * @param value	Value of the parameter.
+	 *
+	 * @return	The placeholder to write in the SQL query (i.e. <code>?</code>).
+	 *
+	 * @since 1.5
+	 */
+	private String bind(final Object value){
+		bindState.get().parameters.add(value);
+		return "?";
+	}
+
+	/**
+	 * Convert the given ADQL numeric value into the Java object to bind.
+	 *
+	 * @param value	An ADQL numeric value.
+	 *
+	 * @return	An {@link Integer}, a {@link Long} or a {@link BigDecimal},
+	 *        	or NULL if the value can not be converted.
+	 *
+	 * @since 1.5
+	 */
+	private static Object toParameter(final String value){
+		try{
+			if (value.indexOf('.') < 0 && value.indexOf('e') < 0 && value.indexOf('E') < 0){
+				long l = Long.parseLong(value);
+				if (l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE)
+					return Integer.valueOf((int)l);
+				else
+					return Long.valueOf(l);
+			}
+		}catch(NumberFormatException nfe){
+			// too big for a long => BigDecimal
+		}
+		try{
+			return new BigDecimal(value);
+		}catch(NumberFormatException nfe){
+			return null;
+		}
+	}
+
 	@Override
 	public String translate(ADQLQuery query) throws TranslationException{
-		StringBuffer sql = new StringBuffer(translate(query.getSelect()));
+		// Only the constants of a WHERE clause can be bound (see translate(ClauseConstraints)):
+		boolean binding = setBindingEnabled(false);
+		try{
+			StringBuffer sql = new StringBuffer(translate(query.getSelect()));
 
-		sql.append("\nFROM ").append(translate(query.getFrom()));
+			sql.append("\nFROM ").append(translate(query.getFrom()));
 
-		if (!query.getWhere().isEmpty())
-			sql.append('\n').append(translate(query.getWhere()));
+			if (!query.getWhere().isEmpty())
+				sql.append('\n').append(translate(query.getWhere()));
 
-		if (!query.getGroupBy().isEmpty())
-			sql.append('\n').append(translate(query.getGroupBy()));
+			if (!query.getGroupBy().isEmpty())
+				sql.append('\n').append(translate(query.getGroupBy()));
 
-		if (!query.getHaving().isEmpty())
-			sql.append('\n').append(translate(query.getHaving()));
+			if (!query.getHaving().isEmpty())
+				sql.append('\n').append(translate(query.getHaving()));
 
-		if (!query.getOrderBy().isEmpty())
-			sql.append('\n').append(translate(query.getOrderBy()));
+			if (!query.getOrderBy().isEmpty())
+				sql.append('\n').append(translate(query.getOrderBy()));
 
-		if (query.getSelect().hasLimit())
-			sql.append("\nLimit ").append(query.getSelect().getLimit());
+			if (query.getSelect().hasLimit())
+				sql.append("\nLimit ").append(query.getSelect().getLimit());
 
-		return sql.toString();
+			return sql.toString();
+		}finally{
+			setBindingEnabled(binding);
+		}
 	}
 
 	/* *************************** */
@@ -456,10 +623,18 @@ public abstract class JDBCTranslator implements ADQLTranslator {
 
 	@Override
 	public String translate(ClauseConstraints clause) throws TranslationException{
-		if (clause instanceof ConstraintsGroup)
-			return "(" + getDefaultADQLList(clause) + ")";
-		else
-			return getDefaultADQLList(clause);
+		// Constants are bound only inside a WHERE clause:
+		final boolean where = "WHERE".equalsIgnoreCase(clause.getName());
+		final boolean binding = where ? setBindingEnabled(true) : false;
+		try{
+			if (clause instanceof ConstraintsGroup)
+				return "(" + getDefaultADQLList(clause) + ")";
+			else
+				return getDefaultADQLList(clause);
+		}finally{
+			if (where)
+				setBindingEnabled(binding);
+		}
 	}
 
 	@Override
@@ -725,11 +900,18 @@ public abstract class JDBCTranslator implements ADQLTranslator {
 
 	@Override
 	public String translate(NumericConstant numConst) throws TranslationException{
+		if (isBindingEnabled()){
+			Object value = toParameter(numConst.getValue());
+			if (value != null)
+				return bind(value);
+		}
 		return numConst.getValue();
 	}
 
 	@Override
 	public String translate(StringConstant strConst) throws TranslationException{
+		if (isBindingEnabled() && strConst.getValue() != null)
+			return bind(strConst.getValue());
 		return "'" + strConst.getValue().replaceAll("'", "''") + "'";
 	}
 
@@ -958,4 +1140,18 @@ public abstract class JDBCTranslator implements ADQLTranslator {
 	 */
 	public abstract Object translateGeometryToDB(final Region region) throws ParseException;
 
+	/**
+	 * State of a translation with bind parameters.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 1.5 (10/2026)
+	 * @since 1.5
+	 */
+	private static final class BindState {
+		/** Values of the parameters bound so far. */
+		final List<Object> parameters = new ArrayList<Object>();
+		/** Whether the constants translated now must be bound. */
+		boolean enabled = false;
+	}
+
 }
@@ -0,0 +1,100 @@
+package adql.translator;
+
+/*
+ * This file is part of ADQLLibrary.
+ *
+ * ADQLLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * ADQLLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>SQL translation of an ADQL query in which some constants have been
+ * replaced by JDBC placeholders (<code>?</code>).</p>
+ *
+ * <p>
+ * 	The values of these placeholders are listed, in the same order, by
+ * 	{@link #getParameters()}. Each value is either an {@link Integer}, a
+ * 	{@link Long}, a {@link java.math.BigDecimal} or a {@link String}.
+ * </p>
+ *
+ * <p>
+ * 	Two ADQL queries differing only by the value of their constraints have
+ * 	then the same SQL translation. This lets the database (and the JDBC
+ * 	driver) reuse the same prepared statement and its execution plan.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 1.5 (10/2026)
+ * @since 1.5
+ *
+ * @see JDBCTranslator#translateWithParameters(adql.query.ADQLQuery)
+ */
+public final class ParameterizedSQL {
+
+	/** The SQL query, with a <code>?</code> for each parameter. */
+	private final String sql;
+
+	/** Values of all parameters, in the same order as in the SQL query. */
+	private final List<Object> parameters;
+
+	/**
+	 * Build a parameterized SQL query.
+	 *
+	 * @param sql			The SQL query.
+	 * @param parameters	Values of all parameters.
+	 *                  	<i>If NULL, the query has no parameter.</i>
+	 */
+	public ParameterizedSQL(final String sql, final List<Object> parameters){
+		this.sql = sql;
+		this.parameters = (parameters == null) ? Collections.emptyList() : Collections.unmodifiableList(parameters);
+	}
+
+	/**
+	 * Get the SQL query. It contains a <code>?</code> for each parameter.
+	 *
+	 * @return	The SQL query.
+	 */
+	public String getSQL(){
+		return sql;
+	}
+
+	/**
+	 * Get the values of all parameters, in the same order as their
+	 * placeholder in the SQL query.
+	 *
+	 * @return	An unmodifiable list of values. <i>Never NULL</i>
+	 */
+	public List<Object> getParameters(){
+		return parameters;
+	}
+
+	/**
+	 * Get the number of parameters.
+	 *
+	 * @return	Number of parameters.
+	 */
+	public int getNbParameters(){
+		return parameters.size();
+	}
+
+	@Override
+	public String toString(){
+		return sql + (parameters.isEmpty() ? "" : " ; parameters: " + parameters);
+	}
+
+}
@@ -32,6 +32,7 @@ import adql.parser.ParseException;
 import adql.query.TextPosition;
 import adql.query.constraint.Comparison;
 import adql.query.constraint.ComparisonOperator;
+import adql.query.operand.ADQLOperand;
 import adql.query.operand.function.geometry.AreaFunction;
 import adql.query.operand.function.geometry.BoxFunction;
 import adql.query.operand.function.geometry.CentroidFunction;
@@ -52,7 +53,7 @@ import adql.query.operand.function.geometry.PolygonFunction;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 1.4 (07/2017)
+ * @version 1.5 (10/2026)
  */
 public class PgSphereTranslator extends PostgreSQLTranslator {
 
@@ -202,13 +203,38 @@ public class PgSphereTranslator extends PostgreSQLTranslator {
 	@Override
 	public String translate(Comparison comp) throws TranslationException{
 		if ((comp.getLeftOperand() instanceof ContainsFunction || comp.getLeftOperand() instanceof IntersectsFunction) && (comp.getOperator() == ComparisonOperator.EQUAL || comp.getOperator() == ComparisonOperator.NOT_EQUAL) && comp.getRightOperand().isNumeric())
-			return translate(comp.getLeftOperand()) + " " + comp.getOperator().toADQL() + " '" + translate(comp.getRightOperand()) + "'";
+			return translate(comp.getLeftOperand()) + " " + comp.getOperator().toADQL() + " '" + translateInline(comp.getRightOperand()) + "'";
 		else if ((comp.getRightOperand() instanceof ContainsFunction || comp.getRightOperand() instanceof IntersectsFunction) && (comp.getOperator() == ComparisonOperator.EQUAL || comp.getOperator() == ComparisonOperator.NOT_EQUAL) && comp.getLeftOperand().isNumeric())
-			return "'" + translate(comp.getLeftOperand()) + "' " + comp.getOperator().toADQL() + " " + translate(comp.getRightOperand());
+			return "'" + translateInline(comp.getLeftOperand()) + "' " + comp.getOperator().toADQL() + " " + translate(comp.getRightOperand());
 		else
 			return super.translate(comp);
 	}
 
+	/**
+	 * Translate the given operand without any bind parameter.
+	 *
+	 * <p><i>Note:
+	 * 	This is needed when the translation is written inside quotes, as the
+	 * 	numeric operand compared to CONTAINS or INTERSECTS.
+	 * </i></p>
+	 *
+	 * @param op	The operand to translate.
+	 *
+	 * @return	Its SQL translation.
+	 *
+	 * @throws TranslationException	If the translation fails.
+	 *
+	 * @since 1.5
+	 */
+	protected String translateInline(final ADQLOperand op) throws TranslationException{
+		boolean binding = setBindingEnabled(false);
+		try{
+			return translate(op);
+		}finally{
+			setBindingEnabled(binding);
+		}
+	}
+
 	@Override
 	public DBType convertTypeFromDB(final int dbmsType, final String rawDbmsTypeName, String dbmsTypeName, final String[] params){
 		// If no type is provided return VARCHAR:
@@ -77,7 +77,7 @@ import adql.query.operand.function.geometry.RegionFunction;
  * </i></p>
  *
  * @author Gr&eacute;gory Mantelet (ARI;CDS)
- * @version 1.5 (03/2023)
+ * @version 1.5 (10/2026)
  * @since 1.4
  *
  * @see SQLServer_ADQLQueryFactory
@@ -140,23 +140,29 @@ public class SQLServerTranslator extends JDBCTranslator {
 	 */
 	@Override
 	public String translate(ADQLQuery query) throws TranslationException{
-		StringBuffer sql = new StringBuffer(translate(query.getSelect()));
+		// Only the constants of a WHERE clause can be bound:
+		boolean binding = setBindingEnabled(false);
+		try{
+			StringBuffer sql = new StringBuffer(translate(query.getSelect()));
 
-		sql.append("\nFROM ").append(translate(query.getFrom()));
+			sql.append("\nFROM ").append(translate(query.getFrom()));
 
-		if (!query.getWhere().isEmpty())
-			sql.append('\n').append(translate(query.getWhere()));
+			if (!query.getWhere().isEmpty())
+				sql.append('\n').append(translate(query.getWhere()));
 
-		if (!query.getGroupBy().isEmpty())
-			sql.append('\n').append(translate(query.getGroupBy()));
+			if (!query.getGroupBy().isEmpty())
+				sql.append('\n').append(translate(query.getGroupBy()));
 
-		if (!query.getHaving().isEmpty())
-			sql.append('\n').append(translate(query.getHaving()));
+			if (!query.getHaving().isEmpty())
+				sql.append('\n').append(translate(query.getHaving()));
 
-		if (!query.getOrderBy().isEmpty())
-			sql.append('\n').append(translate(query.getOrderBy()));
+			if (!query.getOrderBy().isEmpty())
+				sql.append('\n').append(translate(query.getOrderBy()));
 
-		return sql.toString();
+			return sql.toString();
+		}finally{
+			setBindingEnabled(binding);
+		}
 	}
 
 	@Override
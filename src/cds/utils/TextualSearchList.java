@@ -16,14 +16,19 @@ package cds.utils;
  * You should have received a copy of the GNU Lesser General Public License
  * along with ADQLLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 /**
  * <p>A TextualSearchList is an {@link ArrayList} with a textual search capability.</p>
@@ -37,10 +42,15 @@ import java.util.List;
  * 	by the {@link Object#toString() toString()} function will be used as key.
  * </p>
  * <p><b><u>WARNING:</u> The extracted key MUST be CASE-SENSITIVE and UNIQUE !</b></p>
+ * <p>
+ * 	A list can be frozen with {@link #freeze()}. It can not be modified
+ * 	anymore afterwards, and so, it can be safely shared (e.g. as an index of
+ * 	all the columns of a table, built only once).
+ * </p>
  * 
  * @param <E>	Type of object to manage in this list.
  * @author 		Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 	1.4 (09/2017)
+ * @version 	1.5 (10/2026)
  */
 public class TextualSearchList< E > extends ArrayList<E> {
 	private static final long serialVersionUID = 1L;
@@ -54,6 +64,10 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	/** Map which associates objects of type E with their lower-case textual string. */
 	protected final HashMap<String,ArrayList<E>> ncsMap;
 
+	/** Indicates whether this list can not be modified anymore.
+	 * @since 1.5 */
+	private boolean frozen = false;
+
 	/* ************ */
 	/* CONSTRUCTORS */
 	/* ************ */
@@ -179,23 +193,97 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	}
 
 	/**
-	 * Searches of all the object which has the given key.
+	 * <p>Searches of all the object which has the given key.</p>
+	 * 
+	 * <p><i>Note:
+	 * 	Since v1.5, the returned list is not a copy anymore: it is a read-only
+	 * 	view of the matches kept by this list. It must then be copied if it
+	 * 	has to be modified.
+	 * </i></p>
 	 * 
 	 * @param key			Textual key of the object to search.
 	 * @param caseSensitive	<i>true</i> to consider the case of the key, <i>false</i> otherwise.
 	 * 
 	 * @return		All the objects whose the key is the same as the given one.
+	 *        		<i>This list can not be modified.</i>
 	 */
 	@SuppressWarnings("unchecked")
 	public List<E> get(final String key, final boolean caseSensitive){
 		if (key == null)
-			return new ArrayList<E>(0);
+			return Collections.emptyList();
 
 		ArrayList<E> founds = caseSensitive ? csMap.get(key) : ncsMap.get(key.toLowerCase());
 		if (founds == null)
-			return new ArrayList<E>(0);
+			return Collections.emptyList();
+		else if (founds instanceof Matches)
+			return ((Matches<E>)founds).readOnly;
 		else
-			return (ArrayList<E>)founds.clone();
+			return Collections.unmodifiableList(founds);
+	}
+
+	/**
+	 * Forbid any further modification of this list.
+	 * 
+	 * <p><i>Note:
+	 * 	Once frozen, a list can not be unfrozen.
+	 * </i></p>
+	 * 
+	 * @since 1.5
+	 */
+	public final void freeze(){
+		frozen = true;
+	}
+
+	/**
+	 * Tells whether this list can not be modified anymore.
+	 * 
+	 * @return	<i>true</i> if frozen, <i>false</i> otherwise.
+	 * 
+	 * @see #freeze()
+	 * 
+	 * @since 1.5
+	 */
+	public final boolean isFrozen(){
+		return frozen;
+	}
+
+	/**
+	 * Throws an {@link UnsupportedOperationException} if this list is frozen.
+	 * 
+	 * @throws UnsupportedOperationException	If this list can not be modified anymore.
+	 * 
+	 * @since 1.5
+	 */
+	protected final void checkNotFrozen() throws UnsupportedOperationException{
+		if (frozen)
+			throw new UnsupportedOperationException("Impossible to modify this list: it is frozen!");
+	}
+
+	/**
+	 * <p>Tells whether the objects of the given list can be added in one go
+	 * (i.e. without calling {@link #add(Object)} for each of them).</p>
+	 * 
+	 * <p>
+	 * 	This is possible only if the keys of the given list are also the keys
+	 * 	of this list (i.e. same {@link KeyExtractor} class) ; the indexes of the
+	 * 	given list are then merged with the indexes of this list, without
+	 * 	extracting again all keys.
+	 * </p>
+	 * 
+	 * <p><i>Note:
+	 * 	An extension of this class with a special {@link #add(Object)} must
+	 * 	return <i>false</i> when this special behavior must apply.
+	 * </i></p>
+	 * 
+	 * @param list	The list whose the objects must be added.
+	 * 
+	 * @return	<i>true</i> if all objects can be added in one go,
+	 *        	<i>false</i> if they must be added one by one.
+	 * 
+	 * @since 1.5
+	 */
+	protected boolean canAddAllAtOnce(final TextualSearchList<? extends E> list){
+		return list != this && list.keyExtractor.getClass() == keyExtractor.getClass();
 	}
 
 	/**
@@ -240,13 +328,33 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	private static final < E > void putIntoMap(final HashMap<String,ArrayList<E>> map, final String key, final E value){
 		ArrayList<E> lst = map.get(key);
 		if (lst == null){
-			lst = new ArrayList<E>();
+			lst = new Matches<E>();
 			lst.add(value);
 			map.put(key, lst);
 		}else
 			lst.add(value);
 	}
 
+	/**
+	 * Adds all the given objects in the given map with the given key.
+	 * 
+	 * @param map		The map in which the given values must be added.
+	 * @param key		The key with which the given objects must be associated.
+	 * @param values	The objects to add.
+	 * 
+	 * @param <E>	The type of objects managed in the given map.
+	 * 
+	 * @since 1.5
+	 */
+	private static final < E > void putAllIntoMap(final HashMap<String,ArrayList<E>> map, final String key, final List<? extends E> values){
+		ArrayList<E> lst = map.get(key);
+		if (lst == null){
+			lst = new Matches<E>(values.size());
+			map.put(key, lst);
+		}
+		lst.addAll(values);
+	}
+
 	/**
 	 * Adds the given object at the end of this list.
 	 * 
@@ -259,6 +367,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	 */
 	@Override
 	public boolean add(E obj) throws NullPointerException, IllegalArgumentException{
+		checkNotFrozen();
 		if (obj == null)
 			throw new NullPointerException("Null objects are not allowed in a TextualSearchList !");
 
@@ -287,6 +396,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	 */
 	@Override
 	public void add(int index, E obj) throws NullPointerException, IllegalArgumentException, IndexOutOfBoundsException{
+		checkNotFrozen();
 		if (obj == null)
 			throw new NullPointerException("Null objects are not allowed in a TextualSearchList !");
 
@@ -311,12 +421,28 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	 * 
 	 * @see java.util.ArrayList#addAll(java.util.Collection)
 	 * @see #add(Object)
+	 * @see #canAddAllAtOnce(TextualSearchList)
 	 */
 	@Override
 	public boolean addAll(Collection<? extends E> c) throws NullPointerException, IllegalArgumentException{
+		checkNotFrozen();
 		if (c == null)
 			return false;
 
+		// Merge directly the indexes of another TextualSearchList, if possible:
+		if (c instanceof TextualSearchList){
+			TextualSearchList<? extends E> list = (TextualSearchList<? extends E>)c;
+			if (canAddAllAtOnce(list)){
+				if (list.isEmpty() || !super.addAll(list))
+					return false;
+				for(Map.Entry<String,? extends ArrayList<? extends E>> entry : list.csMap.entrySet())
+					putAllIntoMap(csMap, entry.getKey(), entry.getValue());
+				for(Map.Entry<String,? extends ArrayList<? extends E>> entry : list.ncsMap.entrySet())
+					putAllIntoMap(ncsMap, entry.getKey(), entry.getValue());
+				return true;
+			}
+		}
+
 		boolean modified = false;
 		for(E obj : c)
 			modified = add(obj) || modified;
@@ -341,6 +467,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	 */
 	@Override
 	public boolean addAll(int index, Collection<? extends E> c) throws NullPointerException, IllegalArgumentException, IndexOutOfBoundsException{
+		checkNotFrozen();
 		if (c == null)
 			return false;
 
@@ -370,6 +497,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	 */
 	@Override
 	public E set(int index, E obj) throws NullPointerException, IllegalArgumentException{
+		checkNotFrozen();
 		if (obj == null)
 			throw new NullPointerException("Null objects are not allowed in a TextualSearchList !");
 
@@ -392,6 +520,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 
 	@Override
 	public void clear(){
+		checkNotFrozen();
 		super.clear();
 		csMap.clear();
 		ncsMap.clear();
@@ -430,6 +559,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 
 	@Override
 	public E remove(int index){
+		checkNotFrozen();
 		E removed = super.remove(index);
 		if (removed != null){
 			String key = keyExtractor.getKey(removed);
@@ -441,6 +571,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean remove(Object obj){
+		checkNotFrozen();
 		boolean removed = super.remove(obj);
 		if (removed){
 			String key = keyExtractor.getKey((E)obj);
@@ -451,6 +582,7 @@ public class TextualSearchList< E > extends ArrayList<E> {
 
 	@Override
 	protected void removeRange(int fromIndex, int toIndex) throws IndexOutOfBoundsException{
+		checkNotFrozen();
 		if (fromIndex < 0 || fromIndex >= size() || toIndex < 0 || toIndex >= size() || fromIndex > toIndex)
 			throw new IndexOutOfBoundsException("Incorrect range indexes: from " + fromIndex + " to " + toIndex + " !");
 
@@ -458,6 +590,61 @@ public class TextualSearchList< E > extends ArrayList<E> {
 			remove(i);
 	}
 
+	@Override
+	public boolean removeAll(Collection<?> c){
+		checkNotFrozen();
+		return super.removeAll(c);
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c){
+		checkNotFrozen();
+		return super.retainAll(c);
+	}
+
+	@Override
+	public boolean removeIf(Predicate<? super E> filter){
+		checkNotFrozen();
+		return super.removeIf(filter);
+	}
+
+	@Override
+	public void replaceAll(UnaryOperator<E> operator){
+		checkNotFrozen();
+		super.replaceAll(operator);
+	}
+
+	@Override
+	public void sort(Comparator<? super E> c){
+		checkNotFrozen();
+		super.sort(c);
+	}
+
+	/**
+	 * List of all the objects associated with the same key, with a read-only
+	 * view of it (returned by {@link TextualSearchList#get(String, boolean)}).
+	 * 
+	 * @param <E>	Type of the listed objects.
+	 * 
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 1.5 (10/2026)
+	 * @since 1.5
+	 */
+	private static final class Matches< E > extends ArrayList<E> {
+		private static final long serialVersionUID = 1L;
+
+		/** Read-only view of this list. */
+		final List<E> readOnly = Collections.unmodifiableList(this);
+
+		Matches(){
+			super(1);
+		}
+
+		Matches(final int initialCapacity){
+			super(initialCapacity);
+		}
+	}
+
 	/* ************************************************ */
 	/* KEY_EXTRACTOR INTERFACE & DEFAULT IMPLEMENTATION */
 	/* ************************************************ */
@@ -16,7 +16,7 @@ package org.json;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2022 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -38,7 +38,7 @@ import uws.service.UWSUrl;
  * Useful conversion functions from UWS to JSON.
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.5 (04/2022)
+ * @version 4.6 (10/2026)
  */
 public final class Json4Uws {
 
@@ -118,13 +118,10 @@ public final class Json4Uws {
 			JSONArray jsonJobs = new JSONArray();
 			UWSUrl jobsListUrl = jobsList.getUrl();
 
-			// Security filter: retrieve only the jobs of the specified owner:
-			Iterator<UWSJob> it = jobsList.getJobs(owner);
-
-			/* User filter: filter the jobs in function of filters specified by
-			 * the user:  */
-			if (listRefiner != null)
-				it = listRefiner.refine(it);
+			/* Security filter: retrieve only the jobs of the specified owner
+			 * + User filter: filter the jobs in function of filters specified
+			 *   by the user: */
+			Iterator<UWSJob> it = (listRefiner == null) ? jobsList.getJobs(owner) : listRefiner.refine(jobsList, owner);
 
 			// Append the JSON serialization of all filtered jobs:
 			JSONObject jsonObj = null;
@@ -140,6 +137,57 @@ public final class Json4Uws {
 		return json;
 	}
 
+	/**
+	 * Writes the JSON representation of the given jobs list (filtered by owner
+	 * and some user-filters) in the given output.
+	 *
+	 * <p>
+	 * 	Contrary to {@link #getJson(JobList, JobOwner, JobListRefiner)}, the
+	 * 	whole JSON object is never built in memory: each job reference is
+	 * 	written as soon as it is serialized.
+	 * </p>
+	 *
+	 * @param jobsList		The jobs list to represent in JSON.
+	 * @param owner			The user who asks to serialize the given jobs list.
+	 *             			(MAY BE NULL)
+	 * @param listRefiner	Represent all the specified job filters to apply ;
+	 *                   	only the job that pass through this filter should be
+	 *                   	displayed. If NULL, all jobs are displayed.
+	 * @param output		The output in which the JSON must be written.
+	 *
+	 * @throws JSONException	If there is an error while building the JSON
+	 *                      	objects or while writing in the given output.
+	 *
+	 * @since 4.6
+	 */
+	public static void writeJson(final JobList jobsList, final JobOwner owner, final JobListRefiner listRefiner, final Appendable output) throws JSONException{
+		JSONWriter json = new JSONWriter(output);
+		json.object();
+		if (jobsList != null){
+			if (jobsList.getName() != null)
+				json.key("name").value(jobsList.getName());
+			json.key("version").value(UWS.VERSION);
+			json.key("jobs").array();
+			UWSUrl jobsListUrl = jobsList.getUrl();
+
+			/* Security filter: retrieve only the jobs of the specified owner
+			 * + User filter: filter the jobs in function of filters specified
+			 *   by the user: */
+			Iterator<UWSJob> it = (listRefiner == null) ? jobsList.getJobs(owner) : listRefiner.refine(jobsList, owner);
+
+			// Write the JSON serialization of all filtered jobs:
+			JSONObject jsonObj = null;
+			while(it.hasNext()){
+				jsonObj = getJson(it.next(), jobsListUrl, true);
+				if (jsonObj != null)
+					json.value(jsonObj);
+			}
+
+			json.endArray();
+		}
+		json.endObject();
+	}
+
 	/**
 	 * Gets the JSON representation of the given job.
 	 * @param job				The job to represent in JSON.
@@ -16,10 +16,11 @@ package tap;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2019 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -105,7 +106,7 @@ import uws.service.log.UWSLog.LogLevel;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (10/2020)
+ * @version 2.4 (10/2026)
  */
 public class ADQLExecutor {
 
@@ -428,6 +429,11 @@ public class ADQLExecutor {
 				service.getFactory().freeConnection(dbConn);
 				dbConn = null;
 			}
+
+			// Record the metrics of this execution (if enabled):
+			TAPMetrics metrics = service.getFactory().getMetrics();
+			if (metrics != null)
+				metrics.record(report, System.currentTimeMillis() - start);
 		}
 	}
 
@@ -525,6 +531,13 @@ public class ADQLExecutor {
 	 * 	The "+1" aims to detect overflows.
 	 * </p>
 	 *
+	 * <p>
+	 * 	If the TAP factory provides an {@link ADQLQueryCache} and if no table
+	 * 	has been uploaded, the checked query is first searched in this cache.
+	 * 	If not found, the query is parsed and checked and then put in the
+	 * 	cache.
+	 * </p>
+	 *
 	 * @return	The object representation of the ADQL query.
 	 *
 	 * @throws ParseException			If the given ADQL query can not be parsed or if the construction of the object representation has failed.
@@ -535,45 +548,64 @@ public class ADQLExecutor {
 		// Log the start of the parsing:
 		logger.logTAP(LogLevel.INFO, report, "PARSING", "Parsing ADQL: " + tapParams.getQuery().replaceAll("(\t|\r?\n)+", " "), null);
 
-		// Create the ADQL parser:
-		ADQLParser parser = service.getFactory().createADQLParser();
-		if (parser == null) {
-			logger.logTAP(LogLevel.WARNING, null, "PARSING", "No ADQL parser returned by the TAPFactory! The default implementation is used instead.", null);
-			parser = new ADQLParser();
+		// Search the query in the cache (only if no table is uploaded):
+		final ADQLQueryCache cache = service.getFactory().getQueryCache();
+		final boolean cacheable = (cache != null && (uploadSchema == null || uploadSchema.isEmpty()));
+		ADQLQuery query = null;
+		if (cacheable) {
+			ADQLQueryCache.CachedQuery cached = cache.get(tapParams.getQuery(), service.getTAPMetadata());
+			if (cached != null) {
+				logger.logTAP(LogLevel.INFO, report, "PARSING", "Already parsed and checked query found in cache.", null);
+				if (cached.fixedQuery != null)
+					report.fixedQuery = cached.fixedQuery;
+				query = cached.query;
+			}
 		}
 
-		// Set the ADQL factory:
-		if (parser.getQueryFactory() == null || parser.getQueryFactory().getClass() == ADQLQueryFactory.class)
-			parser.setQueryFactory(service.getFactory().createQueryFactory());
+		// Parse the ADQL query, if not in cache:
+		if (query == null) {
+			// Create the ADQL parser:
+			ADQLParser parser = service.getFactory().createADQLParser();
+			if (parser == null) {
+				logger.logTAP(LogLevel.WARNING, null, "PARSING", "No ADQL parser returned by the TAPFactory! The default implementation is used instead.", null);
+				parser = new ADQLParser();
+			}
 
-		// Set the query checker:
-		if (parser.getQueryChecker() == null)
-			parser.setQueryChecker(service.getFactory().createQueryChecker(uploadSchema));
+			// Set the ADQL factory:
+			if (parser.getQueryFactory() == null || parser.getQueryFactory().getClass() == ADQLQueryFactory.class)
+				parser.setQueryFactory(service.getFactory().createQueryFactory());
 
-		// Parse the ADQL query:
-		ADQLQuery query = null;
-		// if the fixOnFail option is enabled...
-		if (service.fixOnFailEnabled()) {
-			try {
-				// try parsing the query:
+			// Set the query checker:
+			if (parser.getQueryChecker() == null)
+				parser.setQueryChecker(service.getFactory().createQueryChecker(uploadSchema));
+
+			// if the fixOnFail option is enabled...
+			if (service.fixOnFailEnabled()) {
+				try {
+					// try parsing the query:
+					query = parser.parseQuery(tapParams.getQuery());
+				} catch(ParseException pe) {
+					// if it fails...
+					// ...log the auto fix attempt:
+					logger.logTAP(LogLevel.INFO, report, "PARSING", "Parse attempt of the original input query failed! Trying auto-fix...", null);
+					// ...try fixing the query:
+					String fixedQuery = parser.tryQuickFix(tapParams.getQuery());
+					// ...log the auto fixed query, if successful:
+					logger.logTAP(LogLevel.INFO, report, "PARSING", "Auto-fixed query: " + fixedQuery.replaceAll("(\t|\r?\n)+", " "), null);
+					// ...keep this fixed query in the exec report:
+					report.fixedQuery = fixedQuery;
+					// ...and finally try parsing it a last time:
+					query = parser.parseQuery(fixedQuery);
+				}
+			}
+			// if not enabled, parse immediately the query:
+			else {
 				query = parser.parseQuery(tapParams.getQuery());
-			} catch(ParseException pe) {
-				// if it fails...
-				// ...log the auto fix attempt:
-				logger.logTAP(LogLevel.INFO, report, "PARSING", "Parse attempt of the original input query failed! Trying auto-fix...", null);
-				// ...try fixing the query:
-				String fixedQuery = parser.tryQuickFix(tapParams.getQuery());
-				// ...log the auto fixed query, if successful:
-				logger.logTAP(LogLevel.INFO, report, "PARSING", "Auto-fixed query: " + fixedQuery.replaceAll("(\t|\r?\n)+", " "), null);
-				// ...keep this fixed query in the exec report:
-				report.fixedQuery = fixedQuery;
-				// ...and finally try parsing it a last time:
-				query = parser.parseQuery(fixedQuery);
 			}
-		}
-		// if not enabled, parse immediately the query:
-		else {
-			query = parser.parseQuery(tapParams.getQuery());
+
+			// Cache the checked query:
+			if (cacheable)
+				cache.put(tapParams.getQuery(), service.getTAPMetadata(), query, report.fixedQuery);
 		}
 
 		// Set or check the row limit:
@@ -663,6 +695,7 @@ public class ADQLExecutor {
 
 		// Get the appropriate result formatter:
 		OutputFormat formatter = getFormatter();
+		report.format = (formatter.getShortMimeType() != null) ? formatter.getShortMimeType() : formatter.getMimeType();
 
 		// CASE SYNCHRONOUS:
 		if (response != null) {
@@ -674,9 +707,15 @@ public class ADQLExecutor {
 			// Set the character encoding:
 			response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
 
-			// Write the formatted result in the HTTP response output:
+			// Write the formatted result in the HTTP response output
+			// (counting the written bytes only if metrics are enabled):
 			start = System.currentTimeMillis();
-			writeResult(queryResult, formatter, response.getOutputStream());
+			if (service.getFactory().getMetrics() != null) {
+				ByteCountOutputStream output = new ByteCountOutputStream(response.getOutputStream());
+				writeResult(queryResult, formatter, output);
+				report.nbBytes = output.getNbBytes();
+			} else
+				writeResult(queryResult, formatter, response.getOutputStream());
 
 			logger.logTAP(LogLevel.INFO, report, "RESULT_WRITTEN", "Result formatted (in " + formatter.getMimeType() + " ; " + (report.nbRows < 0 ? "?" : report.nbRows) + " rows ; " + ((report.resultingColumns == null) ? "?" : report.resultingColumns.length) + " columns) in " + ((start <= 0) ? "?" : (System.currentTimeMillis() - start)) + "ms!", null);
 		}
@@ -701,6 +740,7 @@ public class ADQLExecutor {
 
 				// Set the size (in bytes) of the result in the result description:
 				result.setSize(jobThread.getResultSize(result));
+				report.nbBytes = result.getSize();
 
 				// Add the result description and link in the job description:
 				jobThread.publishResult(result);
@@ -772,4 +812,49 @@ public class ADQLExecutor {
 		}
 	}
 
+	/**
+	 * Output stream counting the bytes written in another one.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected static class ByteCountOutputStream extends FilterOutputStream {
+
+		/** Number of bytes written so far. */
+		protected long nbBytes = 0;
+
+		/**
+		 * Count the bytes written in the given stream.
+		 *
+		 * @param output	The stream in which bytes are really written.
+		 */
+		public ByteCountOutputStream(final OutputStream output) {
+			super(output);
+		}
+
+		/**
+		 * Get the number of bytes written so far.
+		 *
+		 * @return	Number of written bytes.
+		 */
+		public final long getNbBytes() {
+			return nbBytes;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			out.write(b);
+			nbBytes++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			// write all the bytes at once (FilterOutputStream writes them one by one):
+			out.write(b, off, len);
+			nbBytes += len;
+		}
+
+	}
+
 }
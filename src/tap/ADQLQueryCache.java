@@ -0,0 +1,391 @@
+package tap;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import adql.query.ADQLQuery;
+import tap.metadata.TAPMetadata;
+
+/**
+ * <p>LRU cache of parsed and checked ADQL queries.</p>
+ *
+ * <p>
+ * 	Parsing and checking an ADQL query has a cost which is paid again and
+ * 	again when the same query (e.g. sent by a portal) is submitted many times.
+ * 	This cache keeps the checked {@link ADQLQuery} trees so that
+ * 	{@link ADQLExecutor} can skip these steps.
+ * </p>
+ *
+ * <p>
+ * 	Queries are identified by their text normalized with
+ * 	{@link #normalize(String)}. The whole cache is cleared as soon as the
+ * 	given {@link TAPMetadata} is another instance or has another version
+ * 	(see {@link TAPMetadata#getVersion()}) than the metadata against which
+ * 	the cached queries have been checked. An entry is also ignored if it is
+ * 	older than the specified time-to-live.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	Cached trees are never returned directly: a copy is returned each time
+ * 	(see {@link adql.query.ADQLObject#getCopy()}). So, the returned query can
+ * 	be modified (e.g. its row limit) without affecting the cache.
+ * </i></p>
+ *
+ * <p><i><b>Warning:</b>
+ * 	Queries checked against uploaded tables must not be cached since these
+ * 	tables are specific to one job.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class ADQLQueryCache {
+
+	/**
+	 * Query retrieved from the cache.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public final static class CachedQuery {
+		/** Copy of the cached checked query. */
+		public final ADQLQuery query;
+		/** The query actually parsed after an automatic fix of the original
+		 * one, or NULL if no fix has been needed. */
+		public final String fixedQuery;
+
+		/**
+		 * Build a cached query.
+		 *
+		 * @param query			The checked query.
+		 * @param fixedQuery	The auto-fixed query. <i>May be NULL.</i>
+		 */
+		protected CachedQuery(final ADQLQuery query, final String fixedQuery){
+			this.query = query;
+			this.fixedQuery = fixedQuery;
+		}
+	}
+
+	/**
+	 * Entry of this cache.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected final static class Entry {
+		/** The cached checked query. <b>Never modified.</b> */
+		protected final ADQLQuery query;
+		/** The auto-fixed query, or NULL if no fix was needed. */
+		protected final String fixedQuery;
+		/** Date (in ms) at which this entry has been created. */
+		protected final long creationTime;
+
+		protected Entry(final ADQLQuery query, final String fixedQuery){
+			this.query = query;
+			this.fixedQuery = fixedQuery;
+			this.creationTime = System.currentTimeMillis();
+		}
+	}
+
+	/** Maximum number of queries kept in this cache. */
+	protected final int maxSize;
+
+	/** Time (in milliseconds) during which a query is kept.
+	 * <i>A negative or null value means no limit.</i> */
+	protected final long timeToLive;
+
+	/** All cached queries, in the order of their last access.
+	 * <i>Any access MUST be synchronized on this map.</i> */
+	protected final LinkedHashMap<String, Entry> entries;
+
+	/** Metadata against which all the cached queries have been checked.
+	 * <i>Any access MUST be synchronized on {@link #entries}.</i> */
+	protected TAPMetadata metadata = null;
+
+	/** Version of {@link #metadata} against which all the cached queries
+	 * have been checked.
+	 * <i>Any access MUST be synchronized on {@link #entries}.</i> */
+	protected long metadataVersion = -1;
+
+	/** Number of queries found in this cache. */
+	protected final AtomicLong nbHits = new AtomicLong(0);
+
+	/** Number of queries not found in this cache. */
+	protected final AtomicLong nbMisses = new AtomicLong(0);
+
+	/**
+	 * Build an empty cache.
+	 *
+	 * @param maxSize		Maximum number of queries to keep.
+	 *               		<i>Must be strictly positive.</i>
+	 * @param timeToLive	Time (in milliseconds) during which a query is kept.
+	 *                  	<i>A negative or null value means no limit.</i>
+	 *
+	 * @throws IllegalArgumentException	If the given size is negative or null.
+	 */
+	public ADQLQueryCache(final int maxSize, final long timeToLive) throws IllegalArgumentException{
+		if (maxSize <= 0)
+			throw new IllegalArgumentException("The maximum size of an ADQL query cache must be strictly positive! (given size: " + maxSize + ")");
+		this.maxSize = maxSize;
+		this.timeToLive = timeToLive;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest){
+				return size() > ADQLQueryCache.this.maxSize;
+			}
+		};
+	}
+
+	/**
+	 * <p>Normalize the given ADQL query so that queries differing only by
+	 * their spaces share the same cache entry.</p>
+	 *
+	 * <p>
+	 * 	Consecutive space characters (including line returns) are replaced by
+	 * 	a single space, except after a comment where a single line return is
+	 * 	kept. Everything between simple or double quotes and comments are kept
+	 * 	unchanged. Leading and trailing spaces are removed.
+	 * </p>
+	 *
+	 * @param adql	The ADQL query to normalize.
+	 *
+	 * @return	The normalized query, or NULL if NULL was given.
+	 */
+	public static String normalize(final String adql){
+		if (adql == null)
+			return null;
+
+		final String query = adql.trim();
+		final StringBuilder buf = new StringBuilder(query.length());
+		char quote = 0;
+		boolean space = false, endOfComment = false;
+		for(int i = 0; i < query.length(); i++){
+			final char c = query.charAt(i);
+			// inside a string or an identifier => keep everything:
+			if (quote != 0){
+				buf.append(c);
+				if (c == quote)
+					quote = 0;
+			}
+			// spaces are merged:
+			else if (Character.isWhitespace(c))
+				space = true;
+			else{
+				if (endOfComment)
+					buf.append('\n');
+				else if (space)
+					buf.append(' ');
+				space = endOfComment = false;
+				// comment => keep it until the end of the line:
+				if (c == '-' && i + 1 < query.length() && query.charAt(i + 1) == '-'){
+					while(i < query.length() && query.charAt(i) != '\n' && query.charAt(i) != '\r')
+						buf.append(query.charAt(i++));
+					endOfComment = true;
+					continue;
+				}
+				if (c == '\'' || c == '"')
+					quote = c;
+				buf.append(c);
+			}
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Build the key of the given query.
+	 *
+	 * @param adql	The ADQL query.
+	 *
+	 * @return	Its key in this cache.
+	 */
+	protected String getKey(final String adql){
+		return normalize(adql);
+	}
+
+	/**
+	 * Clear this cache if the given metadata are not the ones against which
+	 * the cached queries have been checked (i.e. another instance or another
+	 * version).
+	 *
+	 * <p><i>Note:
+	 * 	This function MUST be called inside a block synchronized on
+	 * 	{@link #entries}.
+	 * </i></p>
+	 *
+	 * @param metadata	The metadata currently published by the service.
+	 */
+	protected void checkMetadata(final TAPMetadata metadata){
+		final long version = (metadata == null) ? -1 : metadata.getVersion();
+		if (metadata != this.metadata || version != metadataVersion){
+			entries.clear();
+			this.metadata = metadata;
+			metadataVersion = version;
+		}
+	}
+
+	/**
+	 * Get a copy of the cached checked query corresponding to the given ADQL
+	 * query.
+	 *
+	 * @param adql		The ADQL query as submitted by the user.
+	 * @param metadata	The metadata currently published by the service.
+	 *
+	 * @return	A copy of the cached query,
+	 *        	or NULL if not in cache (or if the copy failed).
+	 */
+	public CachedQuery get(final String adql, final TAPMetadata metadata){
+		if (adql == null){
+			nbMisses.incrementAndGet();
+			return null;
+		}
+
+		final String key = getKey(adql);
+		Entry entry;
+		synchronized(entries){
+			checkMetadata(metadata);
+			entry = entries.get(key);
+			if (entry != null && isExpired(entry)){
+				entries.remove(key);
+				entry = null;
+			}
+		}
+
+		if (entry != null){
+			try{
+				CachedQuery cached = new CachedQuery((ADQLQuery)entry.query.getCopy(), entry.fixedQuery);
+				nbHits.incrementAndGet();
+				return cached;
+			}catch(Exception ex){
+				synchronized(entries){
+					entries.remove(key);
+				}
+			}
+		}
+
+		nbMisses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * <p>Cache the given checked query.</p>
+	 *
+	 * <p><i>Note:
+	 * 	A copy of the given query is cached. If this copy fails or if it is
+	 * 	not serialized in ADQL exactly as the given query, nothing is cached.
+	 * </i></p>
+	 *
+	 * @param adql			The ADQL query as submitted by the user.
+	 * @param metadata		The metadata against which the query has been checked.
+	 * @param query			The parsed and checked query.
+	 * @param fixedQuery	The query actually parsed after an automatic fix,
+	 *                  	or NULL if no fix has been needed.
+	 */
+	public void put(final String adql, final TAPMetadata metadata, final ADQLQuery query, final String fixedQuery){
+		if (adql == null || query == null)
+			return;
+
+		final Entry entry;
+		try{
+			ADQLQuery copy = (ADQLQuery)query.getCopy();
+			if (!copy.toADQL().equals(query.toADQL()))
+				return;
+			entry = new Entry(copy, fixedQuery);
+		}catch(Exception ex){
+			return;
+		}
+
+		final String key = getKey(adql);
+		synchronized(entries){
+			checkMetadata(metadata);
+			entries.put(key, entry);
+		}
+	}
+
+	/**
+	 * Tell whether the given entry is too old to be used.
+	 *
+	 * @param entry	The entry to test.
+	 *
+	 * @return	<code>true</code> if expired, <code>false</code> otherwise.
+	 */
+	protected boolean isExpired(final Entry entry){
+		return timeToLive > 0 && (System.currentTimeMillis() - entry.creationTime) > timeToLive;
+	}
+
+	/**
+	 * Remove all queries from this cache.
+	 *
+	 * <p><i>Note:
+	 * 	Hit and miss counters are not reset.
+	 * </i></p>
+	 */
+	public void clear(){
+		synchronized(entries){
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Get the number of queries currently in this cache.
+	 *
+	 * @return	Number of cached queries.
+	 */
+	public int getSize(){
+		synchronized(entries){
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Get the maximum number of queries this cache can keep.
+	 *
+	 * @return	Maximum number of cached queries.
+	 */
+	public final int getMaxSize(){
+		return maxSize;
+	}
+
+	/**
+	 * Get the number of queries found in this cache since its creation.
+	 *
+	 * @return	Number of cache hits.
+	 */
+	public final long getNbHits(){
+		return nbHits.get();
+	}
+
+	/**
+	 * Get the number of queries not found in this cache since its creation.
+	 *
+	 * @return	Number of cache misses.
+	 */
+	public final long getNbMisses(){
+		return nbMisses.get();
+	}
+
+}
@@ -0,0 +1,283 @@
+package tap;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uws.job.JobThread;
+import uws.service.UWSScheduler;
+
+/**
+ * <p>Bounded pool of threads executing synchronous TAP queries.</p>
+ *
+ * <p>
+ * 	Without this pool, a new thread is created for each synchronous query
+ * 	(see {@link TAPSyncJob}) while the HTTP request thread waits for its end.
+ * 	With it, threads are reused and, if the servlet supports the asynchronous
+ * 	mode of Servlet 3.0, the HTTP request thread is released while the query
+ * 	is running (see {@link tap.resource.TAP#executeRequest(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse) TAP.executeRequest(...)}).
+ * </p>
+ *
+ * <p>
+ * 	At most {@link #getMaxThreads()} threads are running at the same time.
+ * 	When all of them are busy, a new task is executed by the thread asking
+ * 	for its execution (i.e. as if there were no pool).
+ * </p>
+ *
+ * <p>
+ * 	If asked and if the JVM supports them (Java 21 or more), the threads of
+ * 	this pool are virtual threads.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	This executor also provides a timer (see
+ * 	{@link #schedule(Runnable, long)}) in order to interrupt the queries
+ * 	exceeding their execution duration. It relies on a {@link UWSScheduler}.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class SyncExecutor {
+
+	/** Maximum number of threads. */
+	protected final int maxThreads;
+
+	/** Indicate whether threads of this pool are virtual threads. */
+	protected final boolean virtualThreads;
+
+	/** The pool of threads. */
+	protected final ThreadPoolExecutor pool;
+
+	/** Timer used to interrupt the queries exceeding their execution
+	 * duration. */
+	protected final UWSScheduler timer;
+
+	/** Flag set in all the threads of this pool. */
+	private final ThreadLocal<Boolean> workerFlag = new ThreadLocal<Boolean>();
+
+	/**
+	 * Build a pool of platform threads.
+	 *
+	 * @param maxThreads	Maximum number of threads.
+	 *                  	<i>If negative or null, 1 is used.</i>
+	 */
+	public SyncExecutor(final int maxThreads) {
+		this(maxThreads, false);
+	}
+
+	/**
+	 * Build a pool of threads.
+	 *
+	 * @param maxThreads		Maximum number of threads.
+	 *                  		<i>If negative or null, 1 is used.</i>
+	 * @param virtualThreads	<code>true</code> to use virtual threads if the
+	 *                      	JVM supports them,
+	 *                      	<code>false</code> to always use platform
+	 *                      	threads.
+	 */
+	public SyncExecutor(final int maxThreads, final boolean virtualThreads) {
+		this(maxThreads, virtualThreads, null);
+	}
+
+	/**
+	 * Build a pool of threads.
+	 *
+	 * @param maxThreads		Maximum number of threads.
+	 *                  		<i>If negative or null, 1 is used.</i>
+	 * @param virtualThreads	<code>true</code> to use virtual threads if the
+	 *                      	JVM supports them,
+	 *                      	<code>false</code> to always use platform
+	 *                      	threads.
+	 * @param timer				Scheduler to use to interrupt the queries
+	 *             				exceeding their execution duration.
+	 *             				<i>If NULL, the shared scheduler is used (see
+	 *             				{@link UWSScheduler#getShared()}).</i>
+	 */
+	public SyncExecutor(final int maxThreads, final boolean virtualThreads, final UWSScheduler timer) {
+		this.maxThreads = Math.max(1, maxThreads);
+
+		ThreadFactory virtualFactory = virtualThreads ? createVirtualThreadFactory() : null;
+		this.virtualThreads = (virtualFactory != null);
+
+		pool = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new WorkerFactory(virtualFactory), new ThreadPoolExecutor.CallerRunsPolicy());
+		pool.allowCoreThreadTimeOut(true);
+
+		this.timer = (timer == null) ? UWSScheduler.getShared() : timer;
+	}
+
+	/**
+	 * Get a factory of virtual threads, if the JVM supports them.
+	 *
+	 * <p><i>Note:
+	 * 	Since this library is compiled for Java 8, the virtual threads API
+	 * 	(<code>Thread.ofVirtual()</code>) is reached by reflection.
+	 * </i></p>
+	 *
+	 * @return	A factory of virtual threads,
+	 *        	or NULL if not supported.
+	 */
+	protected static ThreadFactory createVirtualThreadFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "SYNC_", 0L);
+			return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+		} catch(Exception ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Get the maximum number of threads of this pool.
+	 *
+	 * @return	Maximum number of threads.
+	 */
+	public final int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * Tell whether the threads of this pool are virtual threads.
+	 *
+	 * @return	<code>true</code> if virtual threads are used,
+	 *        	<code>false</code> if they are platform threads.
+	 */
+	public final boolean usesVirtualThreads() {
+		return virtualThreads;
+	}
+
+	/**
+	 * Get the number of threads currently running a task.
+	 *
+	 * @return	Number of busy threads.
+	 */
+	public int getNbActiveThreads() {
+		return pool.getActiveCount();
+	}
+
+	/**
+	 * Tell whether the current thread is a thread of this pool.
+	 *
+	 * @return	<code>true</code> if the current thread belongs to this pool,
+	 *        	<code>false</code> otherwise.
+	 */
+	public boolean isWorkerThread() {
+		return workerFlag.get() != null;
+	}
+
+	/**
+	 * Execute the given task in a thread of this pool.
+	 *
+	 * <p><i>Note:
+	 * 	If all threads are busy, the task is executed immediately in the
+	 * 	current thread. The same happens if this pool has been shut down.
+	 * </i></p>
+	 *
+	 * @param task	The task to execute.
+	 */
+	public void execute(final Runnable task) {
+		if (pool.isShutdown())
+			task.run();
+		else
+			pool.execute(task);
+	}
+
+	/**
+	 * Run the given action after the given delay.
+	 *
+	 * @param action	Action to run (e.g. interrupting a query).
+	 *              	<i>It must be quick.</i>
+	 * @param delay		Delay (in milliseconds) before running the action.
+	 *
+	 * @return	The scheduled action (it can be cancelled),
+	 *        	or NULL if this pool has been shut down.
+	 */
+	public ScheduledFuture<?> schedule(final Runnable action, final long delay) {
+		if (pool.isShutdown())
+			return null;
+		return timer.schedule(action, delay);
+	}
+
+	/**
+	 * Stop this pool.
+	 *
+	 * <p><i>Note:
+	 * 	Running tasks are interrupted.
+	 * </i></p>
+	 */
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Factory of the threads of this pool.
+	 *
+	 * <p>
+	 * 	It flags all the created threads so that
+	 * 	{@link SyncExecutor#isWorkerThread()} can recognize them.
+	 * </p>
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected class WorkerFactory implements ThreadFactory {
+
+		/** Factory of virtual threads. <i>If NULL, platform threads are
+		 * created.</i> */
+		private final ThreadFactory virtualFactory;
+
+		/** Number of created threads (used to name them). */
+		private final AtomicInteger nbThreads = new AtomicInteger(0);
+
+		/**
+		 * Build a factory of threads.
+		 *
+		 * @param virtualFactory	Factory of virtual threads,
+		 *                      	or NULL to create platform threads.
+		 */
+		public WorkerFactory(final ThreadFactory virtualFactory) {
+			this.virtualFactory = virtualFactory;
+		}
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			Runnable flaggedTask = new Runnable() {
+				@Override
+				public void run() {
+					workerFlag.set(Boolean.TRUE);
+					r.run();
+				}
+			};
+			if (virtualFactory != null)
+				return virtualFactory.newThread(flaggedTask);
+			else
+				return new Thread(JobThread.tg, flaggedTask, "SYNC_" + nbThreads.getAndIncrement());
+		}
+	}
+
+}
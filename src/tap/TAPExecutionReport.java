@@ -41,7 +41,7 @@ import tap.parameters.TAPParameters;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.3 (03/2019)
+ * @version 2.4 (10/2026)
  */
 public class TAPExecutionReport {
 
@@ -68,6 +68,15 @@ public class TAPExecutionReport {
 	 * @since 2.0 */
 	public long nbRows = -1;
 
+	/** Total number of written bytes. <i>-1 if unknown.</i>
+	 * @since 2.4 */
+	public long nbBytes = -1;
+
+	/** Output format of the result (short MIME type if any, MIME type
+	 * otherwise). <i>NULL if not yet known.</i>
+	 * @since 2.4 */
+	public String format = null;
+
 	/** Duration of all execution steps. <i>For the moment only 4 steps (in the
 	 * order): uploading, parsing, executing and writing.</i> */
 	protected final long[] durations = new long[]{ -1, -1, -1, -1 };
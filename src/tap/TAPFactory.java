@@ -16,7 +16,7 @@ package tap;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2018 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -64,7 +64,7 @@ import uws.service.request.RequestParser;
  * </ul>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.3 (09/2018)
+ * @version 2.4 (10/2026)
  */
 public abstract class TAPFactory implements UWSFactory {
 
@@ -204,6 +204,73 @@ public abstract class TAPFactory implements UWSFactory {
 	 */
 	public abstract ADQLParser createADQLParser() throws TAPException;
 
+	/**
+	 * <p>Get the cache of parsed and checked ADQL queries to use.</p>
+	 *
+	 * <p>
+	 * 	If a cache is returned, {@link ADQLExecutor} looks for the query to
+	 * 	execute in it before parsing and checking it (except when tables
+	 * 	are uploaded).
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	The same cache should be returned at each call.
+	 * 	By default, NULL is returned (i.e. no cache).
+	 * </i></p>
+	 *
+	 * @return	The ADQL query cache, or NULL if none should be used.
+	 *
+	 * @since 2.4
+	 */
+	public ADQLQueryCache getQueryCache(){
+		return null;
+	}
+
+	/**
+	 * <p>Get the pool of threads in which synchronous queries must be executed.</p>
+	 *
+	 * <p>
+	 * 	If a pool is returned, {@link TAPSyncJob} executes its query in a thread of this pool
+	 * 	instead of creating a new thread. Besides, if the servlet supports the asynchronous
+	 * 	mode of Servlet 3.0, the thread of the servlet container is released while the query
+	 * 	is running.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	The same pool should be returned at each call. It should be shut down in {@link #destroy()}.
+	 * 	By default, NULL is returned (i.e. a new thread is created for each synchronous query).
+	 * </i></p>
+	 *
+	 * @return	The pool of threads for synchronous queries, or NULL if none should be used.
+	 *
+	 * @since 2.4
+	 */
+	public SyncExecutor getSyncExecutor(){
+		return null;
+	}
+
+	/**
+	 * <p>Get the registry in which the metrics of all ADQL queries executions must be recorded.</p>
+	 *
+	 * <p>
+	 * 	If a registry is returned, {@link ADQLExecutor} records in it the durations, the number of rows
+	 * 	and the number of bytes of each execution. These metrics can then be read through the TAP
+	 * 	resource {@link tap.resource.Metrics}.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	The same registry should be returned at each call.
+	 * 	By default, NULL is returned (i.e. no metrics).
+	 * </i></p>
+	 *
+	 * @return	The metrics registry, or NULL if metrics are disabled.
+	 *
+	 * @since 2.4
+	 */
+	public TAPMetrics getMetrics(){
+		return null;
+	}
+
 	/**
 	 * <p>Create a factory able to build every part of an {@link ADQLQuery} object.</p>
 	 *
@@ -48,7 +48,7 @@ import uws.service.log.UWSLog.LogLevel;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.2 (09/2017)
+ * @version 2.4 (10/2026)
  */
 public class TAPJob extends UWSJob {
 	private static final long serialVersionUID = 1L;
@@ -424,7 +424,7 @@ public class TAPJob extends UWSJob {
 
 			// Run the job:
 			thread.start();
-			(new JobTimeOut()).start();
+			scheduleTimeOut();
 
 			// Log the start of this job:
 			getLogger().logJob(LogLevel.INFO, this, "START", "Job \"" + jobId + "\" started.", null);
@@ -0,0 +1,536 @@
+package tap;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.JSONException;
+import org.json.JSONWriter;
+
+/**
+ * <p>Registry of metrics about the execution of ADQL queries.</p>
+ *
+ * <p>
+ * 	At the end of each execution, {@link ADQLExecutor} gives its
+ * 	{@link TAPExecutionReport} to {@link #record(TAPExecutionReport, long)}.
+ * 	The following metrics are then updated:
+ * </p>
+ * <ul>
+ * 	<li>the number of executed queries (by execution mode and status),</li>
+ * 	<li>the number of written rows and bytes,</li>
+ * 	<li>a latency histogram for each execution step (uploading, parsing,
+ * 		executing and writing) and for the whole execution,</li>
+ * 	<li>a latency histogram of the writing step for each output format.</li>
+ * </ul>
+ *
+ * <p>
+ * 	Other components may also register {@link Gauge}s (see
+ * 	{@link #registerGauge(String, String, Gauge)}), e.g. the number of
+ * 	database connections in use or the number of queued jobs. Their value
+ * 	is read only when the metrics are written.
+ * </p>
+ *
+ * <p>
+ * 	All metrics can be written in JSON (see {@link #writeJSON(Writer)}) or in
+ * 	the Prometheus text format (see {@link #writePrometheus(Writer)}). This is
+ * 	what the TAP resource {@link tap.resource.Metrics} does.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	All counters are {@link LongAdder}s. So, recording the metrics of an
+ * 	execution never blocks the other executions.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class TAPMetrics {
+
+	/** Default upper bounds (in milliseconds) of the buckets of all latency
+	 * histograms. */
+	public final static long[] DEFAULT_BUCKETS = new long[]{ 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 300000 };
+
+	/** Execution steps having their own latency histogram. */
+	protected final static ExecutionProgression[] STEPS = new ExecutionProgression[]{ ExecutionProgression.UPLOADING, ExecutionProgression.PARSING, ExecutionProgression.EXECUTING_ADQL, ExecutionProgression.WRITING_RESULT };
+
+	/** Upper bounds (in milliseconds) of the buckets of all histograms. */
+	protected final long[] buckets;
+
+	/** Number of successful synchronous queries. */
+	protected final LongAdder nbSyncSuccesses = new LongAdder();
+	/** Number of failed (or aborted) synchronous queries. */
+	protected final LongAdder nbSyncErrors = new LongAdder();
+	/** Number of successful asynchronous queries. */
+	protected final LongAdder nbAsyncSuccesses = new LongAdder();
+	/** Number of failed (or aborted) asynchronous queries. */
+	protected final LongAdder nbAsyncErrors = new LongAdder();
+
+	/** Total number of written rows. */
+	protected final LongAdder nbRows = new LongAdder();
+	/** Total number of written bytes. */
+	protected final LongAdder nbBytes = new LongAdder();
+
+	/** Latency histogram of each execution step of {@link #STEPS}
+	 * (same order). */
+	protected final Histogram[] stepLatencies;
+	/** Latency histogram of the whole execution. */
+	protected final Histogram totalLatency;
+	/** Latency histogram of the writing step, by output format. */
+	protected final Map<String, Histogram> formatLatencies = new ConcurrentSkipListMap<String, Histogram>();
+
+	/** Registered gauges (by name). */
+	protected final Map<String, Gauge> gauges = new ConcurrentSkipListMap<String, Gauge>();
+	/** Description of the registered gauges (by name). */
+	protected final Map<String, String> gaugeDescriptions = new ConcurrentHashMap<String, String>();
+
+	/**
+	 * Build an empty registry whose histograms use {@link #DEFAULT_BUCKETS}.
+	 */
+	public TAPMetrics(){
+		this(DEFAULT_BUCKETS);
+	}
+
+	/**
+	 * Build an empty registry whose histograms use the given buckets.
+	 *
+	 * @param buckets	Upper bounds (in milliseconds, ascending order) of the
+	 *               	buckets of all latency histograms.
+	 *               	<i>If NULL, {@link #DEFAULT_BUCKETS} is used.</i>
+	 */
+	public TAPMetrics(final long[] buckets){
+		this.buckets = (buckets == null) ? DEFAULT_BUCKETS : buckets.clone();
+		stepLatencies = new Histogram[STEPS.length];
+		for(int i = 0; i < STEPS.length; i++)
+			stepLatencies[i] = new Histogram(this.buckets);
+		totalLatency = new Histogram(this.buckets);
+	}
+
+	/**
+	 * Record the metrics of the given execution.
+	 *
+	 * @param report		Report of the execution.
+	 * @param totalDuration	Duration (in milliseconds) of the whole execution.
+	 *                     	<i>Needed because {@link TAPExecutionReport#getTotalDuration()}
+	 *                     	is set only in case of success.</i>
+	 */
+	public void record(final TAPExecutionReport report, final long totalDuration){
+		if (report == null)
+			return;
+
+		// Count the query:
+		if (report.synchronous)
+			(report.success ? nbSyncSuccesses : nbSyncErrors).increment();
+		else
+			(report.success ? nbAsyncSuccesses : nbAsyncErrors).increment();
+
+		// Count the written rows and bytes:
+		if (report.nbRows > 0)
+			nbRows.add(report.nbRows);
+		if (report.nbBytes > 0)
+			nbBytes.add(report.nbBytes);
+
+		// Observe the duration of each processed step:
+		for(int i = 0; i < STEPS.length; i++){
+			long duration = report.getDuration(STEPS[i]);
+			if (duration >= 0)
+				stepLatencies[i].observe(duration);
+		}
+		if (totalDuration >= 0)
+			totalLatency.observe(totalDuration);
+
+		// Observe the writing duration for the used output format:
+		if (report.format != null && report.getFormattingDuration() >= 0){
+			Histogram histogram = formatLatencies.get(report.format);
+			if (histogram == null){
+				formatLatencies.putIfAbsent(report.format, new Histogram(buckets));
+				histogram = formatLatencies.get(report.format);
+			}
+			histogram.observe(report.getFormattingDuration());
+		}
+	}
+
+	/**
+	 * Register a gauge. If a gauge with the same name already exists, it is
+	 * replaced.
+	 *
+	 * @param name			Name of the gauge.
+	 *            			<i>It should contain only letters, digits and
+	 *            			underscores.</i>
+	 * @param description	Short description of the gauge. <i>May be NULL.</i>
+	 * @param gauge			The gauge. <i>If NULL, the gauge is unregistered.</i>
+	 */
+	public void registerGauge(final String name, final String description, final Gauge gauge){
+		if (name == null)
+			return;
+		if (gauge == null){
+			gauges.remove(name);
+			gaugeDescriptions.remove(name);
+		}else{
+			gauges.put(name, gauge);
+			gaugeDescriptions.put(name, (description == null) ? name : description);
+		}
+	}
+
+	/**
+	 * Get the total number of recorded executions.
+	 *
+	 * @return	Number of executed queries.
+	 */
+	public long getNbQueries(){
+		return nbSyncSuccesses.sum() + nbSyncErrors.sum() + nbAsyncSuccesses.sum() + nbAsyncErrors.sum();
+	}
+
+	/**
+	 * Get the total number of written rows.
+	 *
+	 * @return	Number of rows.
+	 */
+	public long getNbRows(){
+		return nbRows.sum();
+	}
+
+	/**
+	 * Get the total number of written bytes.
+	 *
+	 * @return	Number of bytes.
+	 */
+	public long getNbBytes(){
+		return nbBytes.sum();
+	}
+
+	/**
+	 * Get the latency histogram of the given execution step.
+	 *
+	 * @param step	An execution step.
+	 *
+	 * @return	The corresponding histogram,
+	 *        	or NULL if this step has no histogram.
+	 */
+	public Histogram getStepLatency(final ExecutionProgression step){
+		for(int i = 0; i < STEPS.length; i++){
+			if (STEPS[i] == step)
+				return stepLatencies[i];
+		}
+		return null;
+	}
+
+	/**
+	 * Get the latency histogram of the whole execution.
+	 *
+	 * @return	The histogram of the total durations.
+	 */
+	public Histogram getTotalLatency(){
+		return totalLatency;
+	}
+
+	/**
+	 * Get the latency histogram of the writing step for the given format.
+	 *
+	 * @param format	Short MIME type (or MIME type) of an output format.
+	 *
+	 * @return	The corresponding histogram,
+	 *        	or NULL if no result has been written in this format.
+	 */
+	public Histogram getFormatLatency(final String format){
+		return (format == null) ? null : formatLatencies.get(format);
+	}
+
+	/**
+	 * Write all metrics in JSON.
+	 *
+	 * <p>The written document has the following structure:</p>
+	 * <pre>{
+	 *   "queries": {"sync": {"success": 0, "error": 0}, "async": {"success": 0, "error": 0}},
+	 *   "rows": 0,
+	 *   "bytes": 0,
+	 *   "gauges": {"name": 0, ...},
+	 *   "latencies": {
+	 *     "steps": {"uploading": HISTOGRAM, "parsing": HISTOGRAM, "executing_adql": HISTOGRAM, "writing_result": HISTOGRAM, "total": HISTOGRAM},
+	 *     "formats": {"votable": HISTOGRAM, ...}
+	 *   }
+	 * }</pre>
+	 * <p>
+	 * 	where HISTOGRAM is
+	 * 	<code>{"count": 0, "sum": 0, "buckets": {"5": 0, ..., "+Inf": 0}}</code>
+	 * 	(durations in milliseconds, cumulative counts).
+	 * </p>
+	 *
+	 * @param output	Where metrics must be written.
+	 *
+	 * @throws IOException	If an error occurs while writing.
+	 */
+	public void writeJSON(final Writer output) throws IOException{
+		try{
+			JSONWriter json = new JSONWriter(output);
+			json.object();
+
+			json.key("queries").object();
+			json.key("sync").object().key("success").value(nbSyncSuccesses.sum()).key("error").value(nbSyncErrors.sum()).endObject();
+			json.key("async").object().key("success").value(nbAsyncSuccesses.sum()).key("error").value(nbAsyncErrors.sum()).endObject();
+			json.endObject();
+
+			json.key("rows").value(nbRows.sum());
+			json.key("bytes").value(nbBytes.sum());
+
+			json.key("gauges").object();
+			for(Map.Entry<String, Gauge> entry : gauges.entrySet())
+				json.key(entry.getKey()).value(entry.getValue().getValue());
+			json.endObject();
+
+			json.key("latencies").object();
+			json.key("steps").object();
+			for(int i = 0; i < STEPS.length; i++)
+				writeJSON(json.key(STEPS[i].name().toLowerCase()), stepLatencies[i]);
+			writeJSON(json.key("total"), totalLatency);
+			json.endObject();
+			json.key("formats").object();
+			for(Map.Entry<String, Histogram> entry : formatLatencies.entrySet())
+				writeJSON(json.key(entry.getKey()), entry.getValue());
+			json.endObject();
+			json.endObject();
+
+			json.endObject();
+			output.flush();
+		}catch(JSONException je){
+			throw new IOException("Impossible to write the metrics in JSON!", je);
+		}
+	}
+
+	/**
+	 * Write the given histogram in JSON.
+	 *
+	 * @param json		Where the histogram must be written.
+	 * @param histogram	The histogram to write.
+	 *
+	 * @throws JSONException	If an error occurs while writing.
+	 */
+	protected void writeJSON(final JSONWriter json, final Histogram histogram) throws JSONException{
+		long[] counts = histogram.getCumulativeCounts();
+		json.object();
+		json.key("count").value(histogram.getCount());
+		json.key("sum").value(histogram.getSum());
+		json.key("buckets").object();
+		for(int i = 0; i < buckets.length; i++)
+			json.key(String.valueOf(buckets[i])).value(counts[i]);
+		json.key("+Inf").value(counts[buckets.length]);
+		json.endObject();
+		json.endObject();
+	}
+
+	/**
+	 * Write all metrics in the text format of Prometheus
+	 * (version 0.0.4).
+	 *
+	 * <p><i>Note:
+	 * 	Following the Prometheus conventions, durations are expressed in
+	 * 	seconds and all metrics names are prefixed by <code>tap_</code>.
+	 * </i></p>
+	 *
+	 * @param output	Where metrics must be written.
+	 *
+	 * @throws IOException	If an error occurs while writing.
+	 */
+	public void writePrometheus(final Writer output) throws IOException{
+		writeHeader(output, "tap_queries_total", "counter", "Number of executed ADQL queries.");
+		output.write("tap_queries_total{mode=\"sync\",status=\"success\"} " + nbSyncSuccesses.sum() + "\n");
+		output.write("tap_queries_total{mode=\"sync\",status=\"error\"} " + nbSyncErrors.sum() + "\n");
+		output.write("tap_queries_total{mode=\"async\",status=\"success\"} " + nbAsyncSuccesses.sum() + "\n");
+		output.write("tap_queries_total{mode=\"async\",status=\"error\"} " + nbAsyncErrors.sum() + "\n");
+
+		writeHeader(output, "tap_result_rows_total", "counter", "Number of written result rows.");
+		output.write("tap_result_rows_total " + nbRows.sum() + "\n");
+
+		writeHeader(output, "tap_result_bytes_total", "counter", "Number of written result bytes.");
+		output.write("tap_result_bytes_total " + nbBytes.sum() + "\n");
+
+		for(Map.Entry<String, Gauge> entry : gauges.entrySet()){
+			String name = "tap_" + entry.getKey();
+			writeHeader(output, name, "gauge", gaugeDescriptions.get(entry.getKey()));
+			output.write(name + " " + entry.getValue().getValue() + "\n");
+		}
+
+		writeHeader(output, "tap_step_duration_seconds", "histogram", "Duration of each step of the ADQL queries execution.");
+		for(int i = 0; i < STEPS.length; i++)
+			writePrometheus(output, "tap_step_duration_seconds", "step=\"" + STEPS[i].name().toLowerCase() + "\"", stepLatencies[i]);
+		writePrometheus(output, "tap_step_duration_seconds", "step=\"total\"", totalLatency);
+
+		if (!formatLatencies.isEmpty()){
+			writeHeader(output, "tap_format_duration_seconds", "histogram", "Duration of the result writing, by output format.");
+			for(Map.Entry<String, Histogram> entry : formatLatencies.entrySet())
+				writePrometheus(output, "tap_format_duration_seconds", "format=\"" + escapeLabel(entry.getKey()) + "\"", entry.getValue());
+		}
+
+		output.flush();
+	}
+
+	/**
+	 * Write the HELP and TYPE lines of a Prometheus metric.
+	 *
+	 * @param output		Where to write.
+	 * @param name			Name of the metric.
+	 * @param type			Type of the metric.
+	 * @param description	Description of the metric.
+	 *
+	 * @throws IOException	If an error occurs while writing.
+	 */
+	protected void writeHeader(final Writer output, final String name, final String type, final String description) throws IOException{
+		output.write("# HELP " + name + " " + description.replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+		output.write("# TYPE " + name + " " + type + "\n");
+	}
+
+	/**
+	 * Write the given histogram in the text format of Prometheus.
+	 *
+	 * @param output	Where to write.
+	 * @param name		Name of the metric.
+	 * @param label		Label identifying the histogram
+	 *             		(e.g. <code>step="parsing"</code>).
+	 * @param histogram	The histogram to write.
+	 *
+	 * @throws IOException	If an error occurs while writing.
+	 */
+	protected void writePrometheus(final Writer output, final String name, final String label, final Histogram histogram) throws IOException{
+		long[] counts = histogram.getCumulativeCounts();
+		for(int i = 0; i < buckets.length; i++)
+			output.write(name + "_bucket{" + label + ",le=\"" + (buckets[i] / 1000.0) + "\"} " + counts[i] + "\n");
+		output.write(name + "_bucket{" + label + ",le=\"+Inf\"} " + counts[buckets.length] + "\n");
+		output.write(name + "_sum{" + label + "} " + (histogram.getSum() / 1000.0) + "\n");
+		output.write(name + "_count{" + label + "} " + histogram.getCount() + "\n");
+	}
+
+	/**
+	 * Escape the given label value for the text format of Prometheus.
+	 *
+	 * @param value	A label value.
+	 *
+	 * @return	The escaped value.
+	 */
+	protected static String escapeLabel(final String value){
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	/**
+	 * Value which can be read at any time (e.g. a number of connections in
+	 * use).
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public static interface Gauge {
+		/**
+		 * Get the current value of this gauge.
+		 *
+		 * @return	The current value.
+		 */
+		public long getValue();
+	}
+
+	/**
+	 * Histogram of durations (in milliseconds).
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public static class Histogram {
+
+		/** Upper bounds (in milliseconds) of the buckets. */
+		protected final long[] bounds;
+
+		/** Number of observations in each bucket (NOT cumulative). The last
+		 * bucket gathers the observations greater than all bounds. */
+		protected final LongAdder[] counts;
+
+		/** Sum of all observed durations. */
+		protected final LongAdder sum = new LongAdder();
+
+		/**
+		 * Build an empty histogram.
+		 *
+		 * @param bounds	Upper bounds (in milliseconds, ascending order) of
+		 *              	the buckets.
+		 */
+		public Histogram(final long[] bounds){
+			this.bounds = bounds;
+			counts = new LongAdder[bounds.length + 1];
+			for(int i = 0; i < counts.length; i++)
+				counts[i] = new LongAdder();
+		}
+
+		/**
+		 * Add the given duration to this histogram.
+		 *
+		 * @param duration	A duration (in milliseconds).
+		 */
+		public void observe(final long duration){
+			int i = 0;
+			while(i < bounds.length && duration > bounds[i])
+				i++;
+			counts[i].increment();
+			sum.add(duration);
+		}
+
+		/**
+		 * Get the number of observations.
+		 *
+		 * @return	Number of observed durations.
+		 */
+		public long getCount(){
+			long count = 0;
+			for(LongAdder c : counts)
+				count += c.sum();
+			return count;
+		}
+
+		/**
+		 * Get the sum of all observed durations.
+		 *
+		 * @return	Sum of durations (in milliseconds).
+		 */
+		public long getSum(){
+			return sum.sum();
+		}
+
+		/**
+		 * Get the cumulative number of observations for each bucket.
+		 *
+		 * @return	For each bucket, the number of durations lower or equal to
+		 *        	its upper bound. The last item is the number of all
+		 *        	observations.
+		 */
+		public long[] getCumulativeCounts(){
+			long[] cumulative = new long[counts.length];
+			long total = 0;
+			for(int i = 0; i < counts.length; i++){
+				total += counts[i].sum();
+				cumulative[i] = total;
+			}
+			return cumulative;
+		}
+	}
+
+}
@@ -23,6 +23,9 @@ package tap;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -59,7 +62,7 @@ import uws.service.request.UploadFile;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (08/2020)
+ * @version 2.4 (10/2026)
  */
 public class TAPSyncJob {
 
@@ -84,9 +87,15 @@ public class TAPSyncJob {
 	 * execute. */
 	protected final TAPParameters tapParams;
 
-	/** The thread in which the query execution will be done. */
+	/** The thread in which the query execution will be done.
+	 * <i>It stays NULL if the query is executed in a {@link SyncExecutor}.</i> */
 	protected SyncThread thread;
 
+	/** The task executing the query in a {@link SyncExecutor}.
+	 * <i>It stays NULL if the query is executed in a {@link SyncThread}.</i>
+	 * @since 2.4 */
+	protected SyncTask task;
+
 	/** Report of the query execution. It stays NULL until the execution ends. */
 	protected TAPExecutionReport execReport = null;
 
@@ -226,7 +235,8 @@ public class TAPSyncJob {
 	 *
 	 * <p>
 	 * 	The execution itself will be processed by an {@link ADQLExecutor} inside
-	 * 	a thread ({@link SyncThread}).
+	 * 	a thread ({@link SyncThread}), or inside a thread of the
+	 * 	{@link SyncExecutor} of the factory (see {@link SyncTask}) if any.
 	 * </p>
 	 *
 	 * <p><i><b>Important:</b>
@@ -269,45 +279,68 @@ public class TAPSyncJob {
 		// Determine the maximum execution duration (in milliseconds):
 		final long timeToStop = determineMaxExecutionDuration();
 
-		// Give to a thread which will execute the query:
-		thread = new SyncThread(executor, ID, tapParams, response);
-		thread.start();
-
-		// Wait the end of the thread until the maximum execution duration is reached:
 		boolean timeout = false;
-		try {
-			// wait the end:
-			thread.join(timeToStop);
-			// if still alive after this duration, interrupt it:
-			if (thread.isAlive()) {
-				timeout = true;
-				thread.interrupt();
-				thread.join(waitForStop);
-				// Log the timeout:
-				if (thread.isAlive())
-					service.getLogger().logTAP(LogLevel.WARNING, this, "TIME_OUT", "Time out (after " + (timeToStop / 1000) + " seconds) for the synchonous job " + ID + ", but the thread can not be interrupted!", null);
-				else
-					service.getLogger().logTAP(LogLevel.INFO, this, "TIME_OUT", "Time out (after " + (timeToStop / 1000) + " seconds) for the synchonous job " + ID + ".", null);
+		Throwable error;
+		boolean success;
+
+		// Execute the query in a thread of the pool, if any:
+		SyncExecutor syncExecutor = service.getFactory().getSyncExecutor();
+		if (syncExecutor != null) {
+			task = new SyncTask(executor, ID, tapParams, response);
+			try {
+				timeout = runTask(syncExecutor, timeToStop);
+			} finally {
+				// Whatever the way the execution stops (normal, cancel or error), an execution report must be fulfilled:
+				execReport = task.getExecutionReport();
+
+				// Delete uploaded files:
+				deleteUploads(tapParams);
 			}
-		} catch(InterruptedException ie) {
-			/* Having a such exception here, is not surprising, because we may have interrupted the thread! */
-		} finally {
-			// Whatever the way the execution stops (normal, cancel or error), an execution report must be fulfilled:
-			execReport = thread.getExecutionReport();
+			error = task.getError();
+			success = task.isSuccess();
+		}
+
+		// Otherwise, give to a new thread which will execute the query:
+		else {
+			thread = new SyncThread(executor, ID, tapParams, response);
+			thread.start();
 
-			// Delete uploaded files:
-			deleteUploads(tapParams);
+			// Wait the end of the thread until the maximum execution duration is reached:
+			try {
+				// wait the end:
+				thread.join(timeToStop);
+				// if still alive after this duration, interrupt it:
+				if (thread.isAlive()) {
+					timeout = true;
+					thread.interrupt();
+					thread.join(waitForStop);
+					// Log the timeout:
+					if (thread.isAlive())
+						service.getLogger().logTAP(LogLevel.WARNING, this, "TIME_OUT", "Time out (after " + (timeToStop / 1000) + " seconds) for the synchonous job " + ID + ", but the thread can not be interrupted!", null);
+					else
+						service.getLogger().logTAP(LogLevel.INFO, this, "TIME_OUT", "Time out (after " + (timeToStop / 1000) + " seconds) for the synchonous job " + ID + ".", null);
+				}
+			} catch(InterruptedException ie) {
+				/* Having a such exception here, is not surprising, because we may have interrupted the thread! */
+			} finally {
+				// Whatever the way the execution stops (normal, cancel or error), an execution report must be fulfilled:
+				execReport = thread.getExecutionReport();
+
+				// Delete uploaded files:
+				deleteUploads(tapParams);
+			}
+			error = thread.getError();
+			success = thread.isSuccess();
 		}
 
 		// Report any error that may have occurred while the thread execution:
-		Throwable error = thread.getError();
 		// CASE: TIMEOUT
 		if (timeout && error != null && error instanceof InterruptedException) {
 			// Report the timeout to the user:
 			throw new TAPException("Time out! The execution of this synchronous TAP query was limited to " + tapParams.getExecutionDuration() + " seconds. You should try again but in asynchronous mode.", UWSException.ACCEPTED_BUT_NOT_COMPLETE);
 		}
 		// CASE: ERRORS
-		else if (!thread.isSuccess()) {
+		else if (!success) {
 			// INTERRUPTION:
 			if (error instanceof InterruptedException) {
 				// log the unexpected interruption (unexpected because not caused by a timeout):
@@ -344,7 +377,69 @@ public class TAPSyncJob {
 		} else
 			service.getLogger().logTAP(LogLevel.INFO, this, "END", "Success of the synchronous job " + ID + ".", null);
 
-		return thread.isSuccess();
+		return success;
+	}
+
+	/**
+	 * Run {@link #task} in the given pool of threads and wait for its end.
+	 *
+	 * <p>
+	 * 	If the current thread already belongs to this pool (e.g. when the
+	 * 	servlet request is processed asynchronously), the task is directly
+	 * 	run in the current thread. In all cases, the query is interrupted by
+	 * 	the timer of the pool once the given duration is elapsed.
+	 * </p>
+	 *
+	 * @param syncExecutor	The pool of threads to use.
+	 * @param timeToStop	Maximum execution duration (in milliseconds).
+	 *
+	 * @return	<code>true</code> if the execution has been interrupted because
+	 *        	of a timeout,
+	 *        	<code>false</code> otherwise.
+	 *
+	 * @since 2.4
+	 */
+	protected boolean runTask(final SyncExecutor syncExecutor, final long timeToStop) {
+		final SyncTask syncTask = task;
+
+		// Interrupt the execution once the maximum duration is reached:
+		ScheduledFuture<?> timer = syncExecutor.schedule(new Runnable() {
+			@Override
+			public void run() {
+				syncTask.timeout();
+			}
+		}, timeToStop);
+
+		boolean stillRunning = false;
+		try {
+			// Run the task in the current thread if it is already one of the pool:
+			if (syncExecutor.isWorkerThread())
+				syncTask.run();
+
+			// Otherwise, run it in the pool and wait its end:
+			else {
+				syncExecutor.execute(syncTask);
+				if (!syncTask.waitForEnd(timeToStop + waitForStop)) {
+					syncTask.timeout();
+					stillRunning = !syncTask.waitForEnd(waitForStop);
+				}
+			}
+		} catch(InterruptedException ie) {
+			/* Having a such exception here, is not surprising, because we may have interrupted the thread! */
+		} finally {
+			if (timer != null)
+				timer.cancel(false);
+		}
+
+		// Log the timeout:
+		if (syncTask.isTimedOut()) {
+			if (stillRunning)
+				service.getLogger().logTAP(LogLevel.WARNING, this, "TIME_OUT", "Time out (after " + (timeToStop / 1000) + " seconds) for the synchonous job " + ID + ", but the thread can not be interrupted!", null);
+			else
+				service.getLogger().logTAP(LogLevel.INFO, this, "TIME_OUT", "Time out (after " + (timeToStop / 1000) + " seconds) for the synchonous job " + ID + ".", null);
+		}
+
+		return syncTask.isTimedOut();
 	}
 
 	/**
@@ -547,4 +642,187 @@ public class TAPSyncJob {
 
 	}
 
+	/**
+	 * Task executing the query in a thread of a {@link SyncExecutor}.
+	 *
+	 * <p>
+	 * 	It does the same as {@link SyncThread}, but in the thread running it.
+	 * 	The query can be interrupted by {@link #timeout()}.
+	 * </p>
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected class SyncTask implements Runnable {
+
+		/** Object knowing how to execute an ADQL query and which will execute
+		 * it by calling {@link ADQLExecutor#start(Thread, String, TAPParameters, HttpServletResponse)}. */
+		protected final ADQLExecutor executor;
+		/** Response in which the query result must be written. */
+		protected final HttpServletResponse response;
+		/** ID of the synchronous job owning this task. */
+		protected final String ID;
+		/** Parameters containing the ADQL query to execute and other execution
+		 * parameters/options. */
+		protected final TAPParameters tapParams;
+
+		/** Exception that occurs while executing this task. NULL if the
+		 * execution was a success. */
+		protected volatile Throwable exception = null;
+		/** Query execution report. NULL if the execution has not yet ended. */
+		protected volatile TAPExecutionReport report = null;
+
+		/** Thread currently running this task. */
+		private Thread runningThread = null;
+		/** Indicate whether this task has ended. */
+		private boolean ended = false;
+		/** Indicate whether this task has been interrupted by a timeout. */
+		private boolean timedOut = false;
+		/** Released when this task ends. */
+		private final CountDownLatch endSignal = new CountDownLatch(1);
+
+		/**
+		 * Create a task that will run the given executor with the given
+		 * parameters.
+		 *
+		 * @param executor	Object to execute and which knows how to execute an
+		 *                	ADQL query.
+		 * @param ID		ID of the synchronous job owning this task.
+		 * @param tapParams	TAP parameters to use to get the query to execute
+		 *                	and the execution parameters.
+		 * @param response	HTTP response in which the ADQL query result must be
+		 *                	written.
+		 */
+		public SyncTask(final ADQLExecutor executor, final String ID, final TAPParameters tapParams, final HttpServletResponse response) {
+			this.executor = executor;
+			this.ID = ID;
+			this.tapParams = tapParams;
+			this.response = response;
+		}
+
+		/**
+		 * Tell whether the execution has ended with success.
+		 *
+		 * @return	<code>true</code> if the query has been successfully
+		 *        	executed,
+		 *        	<code>false</code> otherwise (or if this task is still
+		 *        	running).
+		 */
+		public final synchronized boolean isSuccess() {
+			return ended && report != null && exception == null;
+		}
+
+		/**
+		 * Tell whether this task has been interrupted by {@link #timeout()}.
+		 *
+		 * @return	<code>true</code> if a timeout occurred,
+		 *        	<code>false</code> otherwise.
+		 */
+		public final synchronized boolean isTimedOut() {
+			return timedOut;
+		}
+
+		/**
+		 * Get the error that has interrupted/stopped this task.
+		 *
+		 * @return	Error that occurs while executing the query
+		 *        	or NULL if the execution was a success.
+		 */
+		public final Throwable getError() {
+			return exception;
+		}
+
+		/**
+		 * Get the report of the query execution.
+		 *
+		 * @return	Query execution report.
+		 */
+		public final TAPExecutionReport getExecutionReport() {
+			return report;
+		}
+
+		/**
+		 * Wait for the end of this task.
+		 *
+		 * @param timeout	Maximum time to wait (in milliseconds).
+		 *
+		 * @return	<code>true</code> if this task has ended,
+		 *        	<code>false</code> if the given time has elapsed before.
+		 *
+		 * @throws InterruptedException	If the current thread is interrupted
+		 *                             	while waiting.
+		 */
+		public boolean waitForEnd(final long timeout) throws InterruptedException {
+			return endSignal.await(timeout, TimeUnit.MILLISECONDS);
+		}
+
+		/**
+		 * Interrupt the query execution because its maximum duration is
+		 * reached.
+		 *
+		 * <p><i>Note:
+		 * 	Nothing is done if this task has already ended.
+		 * </i></p>
+		 */
+		public void timeout() {
+			synchronized (this) {
+				if (ended)
+					return;
+				timedOut = true;
+				if (runningThread != null)
+					runningThread.interrupt();
+			}
+			executor.cancelQuery();
+		}
+
+		@Override
+		public void run() {
+			final Thread currentThread = Thread.currentThread();
+			synchronized (this) {
+				runningThread = currentThread;
+				// if already timed out, ADQLExecutor will stop (and free its resources) immediately:
+				if (timedOut)
+					currentThread.interrupt();
+			}
+
+			// Log the start of this task:
+			executor.getLogger().logThread(LogLevel.INFO, currentThread, "START", "Synchronous thread \"" + ID + "\" started.", null);
+
+			try {
+				// Execute the ADQL query:
+				report = executor.start(currentThread, ID, tapParams, response);
+
+				// Log the successful end of this task:
+				executor.getLogger().logThread(LogLevel.INFO, currentThread, "END", "Synchronous thread \"" + ID + "\" successfully ended.", null);
+
+			} catch(Throwable e) {
+
+				// Save the exception for later reporting:
+				exception = e;
+
+				// Log the end of the job:
+				if (e instanceof InterruptedException || e instanceof IOException)
+					// Abortion:
+					executor.getLogger().logThread(LogLevel.INFO, currentThread, "END", "Synchronous thread \"" + ID + "\" cancelled.", null);
+				else if (e instanceof TAPException)
+					// Error:
+					executor.getLogger().logThread(LogLevel.ERROR, currentThread, "END", "Synchronous thread \"" + ID + "\" ended with an error.", null);
+				else
+					// GRAVE error:
+					executor.getLogger().logThread(LogLevel.FATAL, currentThread, "END", "Synchronous thread \"" + ID + "\" ended with a FATAL error.", null);
+			} finally {
+				synchronized (this) {
+					ended = true;
+					runningThread = null;
+				}
+				/* Clear the interrupted flag, so that the thread can still be
+				 * used (e.g. to write an error in the HTTP response): */
+				Thread.interrupted();
+				endSignal.countDown();
+			}
+		}
+
+	}
+
 }
@@ -16,7 +16,7 @@ package tap.backup;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2020 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -46,11 +46,12 @@ import uws.service.request.UploadFile;
  * <p><i>note: Basically the saved data are the same, but in addition some execution statistics are also added.</i></p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (01/2020)
+ * @version 2.4 (10/2026)
  *
  * @see DefaultUWSBackupManager
  */
 public class DefaultTAPBackupManager extends DefaultUWSBackupManager {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * Build a default TAP jobs backup manager.
@@ -16,7 +16,7 @@ package tap.config;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2016-2021 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2016-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -24,6 +24,7 @@ import adql.db.FunctionDef;
 import adql.db.STCS;
 import adql.parser.ParseException;
 import adql.query.operand.function.UserDefinedFunction;
+import cds.util.LargeAsciiTable;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.TAPFactory;
@@ -39,8 +40,11 @@ import uk.ac.starlink.votable.DataFormat;
 import uk.ac.starlink.votable.VOTableVersion;
 import uws.UWSException;
 import uws.service.UserIdentifier;
+import uws.service.file.BlobUWSFileManager;
 import uws.service.file.LocalUWSFileManager;
 import uws.service.file.UWSFileManager;
+import uws.service.file.blob.ContentAddressedStore;
+import uws.service.file.blob.LocalBlobStore;
 import uws.service.log.UWSLog.LogLevel;
 
 import java.io.File;
@@ -66,7 +70,7 @@ import static tap.config.TAPConfiguration.*;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (11/2021)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
 public final class ConfigurableServiceConnection implements ServiceConnection {
@@ -119,6 +123,10 @@ public final class ConfigurableServiceConnection implements ServiceConnection {
 	/** Array of 2 limit units: resp. unit of the default output limit and unit
 	 * of the maximum output limit. */
 	private LimitUnit[] outputLimitTypes = new LimitUnit[2];
+	/** Number of rows read by the text output format before writing anything.
+	 * <em>If negative, all rows are buffered.</em>
+	 * @since 2.4 */
+	private int textSampleSize = DEFAULT_TEXT_SAMPLE_SIZE;
 
 	/** Indicate whether the UPLOAD feature is enabled or not. */
 	private boolean isUploadEnabled = false;
@@ -216,6 +224,8 @@ public final class ConfigurableServiceConnection implements ServiceConnection {
 		// 7. CONFIGURE OUTPUT:
 		// default output format = VOTable:
 		outputFormats = new ArrayList<OutputFormat>(1);
+		// set the way the text format is written:
+		initTextSampleSize(tapConfig);
 		// set output formats:
 		addOutputFormats(tapConfig);
 		// set output limits:
@@ -306,6 +316,17 @@ public final class ConfigurableServiceConnection implements ServiceConnection {
 			} catch(UWSException e) {
 				throw new TAPException("The property \"" + KEY_FILE_ROOT_PATH + "\" (" + rootPath + ") is incorrect: " + e.getMessage());
 			}
+
+			// Store the results in a content-addressed store, if asked:
+			String resultStorePath = getProperty(tapConfig, KEY_RESULT_STORE_PATH);
+			if (resultStorePath != null) {
+				try {
+					ContentAddressedStore resultStore = new ContentAddressedStore(new LocalBlobStore(getFile(resultStorePath, webAppRootDir, KEY_RESULT_STORE_PATH)));
+					fileManager = new BlobUWSFileManager(rootFile, oneDirectoryPerUser, groupUserDirectories, null, resultStore);
+				} catch(UWSException e) {
+					throw new TAPException("The property \"" + KEY_RESULT_STORE_PATH + "\" (" + resultStorePath + ") is incorrect: " + e.getMessage());
+				}
+			}
 		}
 		// CUSTOM file manager:
 		else
@@ -599,6 +620,27 @@ public final class ConfigurableServiceConnection implements ServiceConnection {
 		}
 	}
 
+	/**
+	 * Initialize the number of rows read by the text output format before
+	 * writing anything.
+	 *
+	 * @param tapConfig	The content of the TAP configuration file.
+	 *
+	 * @throws TAPException	If the corresponding TAP configuration property is wrong.
+	 *
+	 * @since 2.4
+	 */
+	private void initTextSampleSize(final Properties tapConfig) throws TAPException {
+		// Get the property value:
+		String propValue = getProperty(tapConfig, KEY_TEXT_SAMPLE_SIZE);
+		try {
+			// If a value is provided, cast it into an integer and set the attribute:
+			textSampleSize = (propValue == null) ? DEFAULT_TEXT_SAMPLE_SIZE : Integer.parseInt(propValue);
+		} catch(NumberFormatException nfe) {
+			throw new TAPException("Integer expected for the property \"" + KEY_TEXT_SAMPLE_SIZE + "\", instead of: \"" + propValue + "\"!");
+		}
+	}
+
 	/**
 	 * Initialize the default and maximum retention period.
 	 *
@@ -708,7 +750,7 @@ public final class ConfigurableServiceConnection implements ServiceConnection {
 			outputFormats.add(new JSONFormat(this));
 			outputFormats.add(new SVFormat(this, ",", true));
 			outputFormats.add(new SVFormat(this, "\t", true));
-			outputFormats.add(new TextFormat(this));
+			outputFormats.add(new TextFormat(this, new int[]{ LargeAsciiTable.LEFT }, textSampleSize));
 			outputFormats.add(new HTMLFormat(this));
 			return;
 		}
@@ -758,7 +800,7 @@ public final class ConfigurableServiceConnection implements ServiceConnection {
 				outputFormats.add(new HTMLFormat(this));
 			// TEXT
 			else if (f.equalsIgnoreCase(VALUE_TEXT))
-				outputFormats.add(new TextFormat(this));
+				outputFormats.add(new TextFormat(this, new int[]{ LargeAsciiTable.LEFT }, textSampleSize));
 			// CSV
 			else if (f.equalsIgnoreCase(VALUE_CSV))
 				outputFormats.add(new SVFormat(this, ",", true));
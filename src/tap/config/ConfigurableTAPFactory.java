@@ -16,25 +16,52 @@ package tap.config;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2016-2017 - Astronomisches Rechen Institut (ARI)
+ * Copyright 2016-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ *                       Astronomisches Rechen Institut (ARI)
  */
 
+import static tap.config.TAPConfiguration.DEFAULT_ADQL_CACHE_SIZE;
+import static tap.config.TAPConfiguration.DEFAULT_ADQL_CACHE_TTL;
 import static tap.config.TAPConfiguration.DEFAULT_BACKUP_BY_USER;
 import static tap.config.TAPConfiguration.DEFAULT_BACKUP_FREQUENCY;
+import static tap.config.TAPConfiguration.DEFAULT_BACKUP_RESTORE_PARALLELISM;
+import static tap.config.TAPConfiguration.DEFAULT_DB_POOL_MAX_ACTIVE;
+import static tap.config.TAPConfiguration.DEFAULT_DB_POOL_MAX_IDLE;
+import static tap.config.TAPConfiguration.DEFAULT_DB_POOL_MAX_WAIT;
+import static tap.config.TAPConfiguration.DEFAULT_DB_POOL_VALIDATION_TIMEOUT;
+import static tap.config.TAPConfiguration.DEFAULT_DB_STATEMENT_CACHE_SIZE;
+import static tap.config.TAPConfiguration.DEFAULT_METRICS;
+import static tap.config.TAPConfiguration.DEFAULT_SYNC_MAX_THREADS;
+import static tap.config.TAPConfiguration.DEFAULT_SYNC_VIRTUAL_THREADS;
+import static tap.config.TAPConfiguration.KEY_ADQL_CACHE_SIZE;
+import static tap.config.TAPConfiguration.KEY_ADQL_CACHE_TTL;
 import static tap.config.TAPConfiguration.KEY_BACKUP_BY_USER;
 import static tap.config.TAPConfiguration.KEY_BACKUP_FREQUENCY;
+import static tap.config.TAPConfiguration.KEY_BACKUP_RESTORE_PARALLELISM;
 import static tap.config.TAPConfiguration.KEY_DATABASE_ACCESS;
 import static tap.config.TAPConfiguration.KEY_DATASOURCE_JNDI_NAME;
+import static tap.config.TAPConfiguration.KEY_DB_POOL_MAX_ACTIVE;
+import static tap.config.TAPConfiguration.KEY_DB_POOL_MAX_IDLE;
+import static tap.config.TAPConfiguration.KEY_DB_POOL_MAX_WAIT;
+import static tap.config.TAPConfiguration.KEY_DB_POOL_VALIDATION_TIMEOUT;
+import static tap.config.TAPConfiguration.KEY_DB_STATEMENT_CACHE_SIZE;
 import static tap.config.TAPConfiguration.KEY_DB_PASSWORD;
 import static tap.config.TAPConfiguration.KEY_DB_USERNAME;
 import static tap.config.TAPConfiguration.KEY_JDBC_DRIVER;
 import static tap.config.TAPConfiguration.KEY_JDBC_URL;
+import static tap.config.TAPConfiguration.KEY_METRICS;
 import static tap.config.TAPConfiguration.KEY_SQL_TRANSLATOR;
+import static tap.config.TAPConfiguration.KEY_SYNC_MAX_THREADS;
+import static tap.config.TAPConfiguration.KEY_SYNC_VIRTUAL_THREADS;
+import static tap.config.TAPConfiguration.KEY_UPLOAD_COPY_FORMAT;
+import static tap.config.TAPConfiguration.VALUE_BINARY;
+import static tap.config.TAPConfiguration.VALUE_CSV;
 import static tap.config.TAPConfiguration.VALUE_JDBC;
 import static tap.config.TAPConfiguration.VALUE_JDBC_DRIVERS;
 import static tap.config.TAPConfiguration.VALUE_JNDI;
 import static tap.config.TAPConfiguration.VALUE_MYSQL;
 import static tap.config.TAPConfiguration.VALUE_NEVER;
+import static tap.config.TAPConfiguration.VALUE_NONE;
 import static tap.config.TAPConfiguration.VALUE_PGSPHERE;
 import static tap.config.TAPConfiguration.VALUE_POSTGRESQL;
 import static tap.config.TAPConfiguration.VALUE_SQLSERVER;
@@ -56,13 +83,19 @@ import adql.translator.MySQLTranslator;
 import adql.translator.PgSphereTranslator;
 import adql.translator.PostgreSQLTranslator;
 import adql.translator.SQLServerTranslator;
+import tap.ADQLQueryCache;
+import tap.SyncExecutor;
+import tap.TAPMetrics;
 import tap.AbstractTAPFactory;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.TAPFactory;
 import tap.backup.DefaultTAPBackupManager;
 import tap.db.DBConnection;
+import tap.db.DBException;
 import tap.db.JDBCConnection;
+import tap.db.JDBCConnectionPool;
+import tap.db.PgCopyWriter;
 import uws.UWSException;
 import uws.service.UWSService;
 import uws.service.backup.UWSBackupManager;
@@ -77,8 +110,25 @@ import uws.service.log.UWSLog.LogLevel;
  *  {@link #destroy()}, {@link #createADQLTranslator()} and {@link #createUWSBackupManager(UWSService)}.
  * </p>
  *
- * @author Gr&eacute;gory Mantelet (ARI)
- * @version 2.1 (08/2017)
+ * <p>
+ * 	Since v2.4, database connections are kept in a {@link JDBCConnectionPool}
+ * 	configured with the properties <code>db_pool_max_active</code>,
+ * 	<code>db_pool_max_idle</code>, <code>db_pool_max_wait</code> and
+ * 	<code>db_pool_validation_timeout</code>.
+ * 	Parsed and checked ADQL queries are also kept in an {@link ADQLQueryCache}
+ * 	configured with the properties <code>adql_cache_size</code> and
+ * 	<code>adql_cache_ttl</code>.
+ * 	With PostgreSQL, uploaded tables can be filled with a <code>COPY</code>
+ * 	command, as set by the property <code>upload_copy_format</code>.
+ * 	Synchronous queries can be executed by a {@link SyncExecutor} configured
+ * 	with the properties <code>sync_max_threads</code> and
+ * 	<code>sync_virtual_threads</code>. Metrics about the execution of ADQL
+ * 	queries are recorded in a {@link TAPMetrics} if the property
+ * 	<code>metrics</code> is enabled.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (ARI;CDS)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
 public class ConfigurableTAPFactory extends AbstractTAPFactory {
@@ -107,11 +157,46 @@ public class ConfigurableTAPFactory extends AbstractTAPFactory {
 	 * <em>This attribute is actually used only if the chosen database access method is JDBC.</em> */
 	protected final String dbPassword;
 
+	/* Upload: */
+	/** Format of the PostgreSQL COPY command to use to fill uploaded tables.
+	 * NULL if rows must be inserted with INSERT statements.
+	 * @since 2.4 */
+	protected final PgCopyWriter.Format uploadCopyFormat;
+
+	/* Prepared statements: */
+	/** Maximum number of prepared statements kept open by each connection.
+	 * 0 if ADQL queries must be executed without prepared statement.
+	 * @since 2.4 */
+	protected final int statementCacheSize;
+
+	/* Connections pool: */
+	/** Pool of all the {@link JDBCConnection}s created by this factory.
+	 * @since 2.4 */
+	protected final JDBCConnectionPool connectionPool;
+
+	/* ADQL queries cache: */
+	/** Cache of parsed and checked ADQL queries. NULL if disabled.
+	 * @since 2.4 */
+	protected final ADQLQueryCache queryCache;
+
+	/* Synchronous queries execution: */
+	/** Pool of threads executing the synchronous queries. NULL if disabled.
+	 * @since 2.4 */
+	protected final SyncExecutor syncExecutor;
+
+	/* Metrics: */
+	/** Registry of the metrics of all ADQL queries executions. NULL if disabled.
+	 * @since 2.4 */
+	protected final TAPMetrics metrics;
+
 	/* UWS's jobs backup: */
 	/** Indicate whether the jobs must be backuped gathered by user or just all mixed together. */
 	protected boolean backupByUser;
 	/** Frequency at which the jobs must be backuped. */
 	protected long backupFrequency;
+	/** Maximum number of backup files read in parallel during a restoration.
+	 * @since 2.4 */
+	protected int backupRestoreParallelism;
 
 	/**
 	 * Build a {@link TAPFactory} using the given TAP service description and TAP configuration file.
@@ -223,11 +308,69 @@ public class ConfigurableTAPFactory extends AbstractTAPFactory {
 		/* 3. Test the construction of the ADQLTranslator */
 		createADQLTranslator();
 
-		/* 4. Test the DB connection (note: a translator is needed to create a connection) */
+		/* 4. Set the way uploaded tables are filled */
+		String copyFormat = getProperty(tapConfig, KEY_UPLOAD_COPY_FORMAT);
+		if (copyFormat == null || copyFormat.equalsIgnoreCase(VALUE_NONE))
+			uploadCopyFormat = null;
+		else if (copyFormat.equalsIgnoreCase(VALUE_CSV))
+			uploadCopyFormat = PgCopyWriter.Format.CSV;
+		else if (copyFormat.equalsIgnoreCase(VALUE_BINARY))
+			uploadCopyFormat = PgCopyWriter.Format.BINARY;
+		else
+			throw new TAPException("Unsupported value for the property " + KEY_UPLOAD_COPY_FORMAT + ": \"" + copyFormat + "\"! Allowed values: \"" + VALUE_NONE.toLowerCase() + "\", \"" + VALUE_CSV + "\" or \"" + VALUE_BINARY + "\".");
+
+		/* 4bis. Set the number of prepared statements to keep open */
+		statementCacheSize = Math.max(0, getIntProperty(tapConfig, KEY_DB_STATEMENT_CACHE_SIZE, DEFAULT_DB_STATEMENT_CACHE_SIZE));
+
+		/* 5. Create the connections pool */
+		connectionPool = new JDBCConnectionPool(new JDBCConnectionPool.ConnectionCreator() {
+			@Override
+			public JDBCConnection createConnection(final String connID) throws DBException{
+				return ConfigurableTAPFactory.this.createConnection(connID);
+			}
+		}, getIntProperty(tapConfig, KEY_DB_POOL_MAX_ACTIVE, DEFAULT_DB_POOL_MAX_ACTIVE), getIntProperty(tapConfig, KEY_DB_POOL_MAX_IDLE, DEFAULT_DB_POOL_MAX_IDLE), getLongProperty(tapConfig, KEY_DB_POOL_MAX_WAIT, DEFAULT_DB_POOL_MAX_WAIT), getIntProperty(tapConfig, KEY_DB_POOL_VALIDATION_TIMEOUT, DEFAULT_DB_POOL_VALIDATION_TIMEOUT), this.service.getLogger());
+
+		/* 6. Test the DB connection (note: a translator is needed to create a connection) */
 		DBConnection dbConn = getConnection("0");
 		freeConnection(dbConn);
 
-		/* 5. Set the UWS Backup Parameter */
+		/* 7. Create the ADQL queries cache */
+		final int cacheSize = getIntProperty(tapConfig, KEY_ADQL_CACHE_SIZE, DEFAULT_ADQL_CACHE_SIZE);
+		queryCache = (cacheSize > 0) ? new ADQLQueryCache(cacheSize, getLongProperty(tapConfig, KEY_ADQL_CACHE_TTL, DEFAULT_ADQL_CACHE_TTL) * 1000) : null;
+
+		/* 7bis. Create the pool of threads for synchronous queries */
+		final int syncMaxThreads = getIntProperty(tapConfig, KEY_SYNC_MAX_THREADS, DEFAULT_SYNC_MAX_THREADS);
+		final String virtualThreads = getProperty(tapConfig, KEY_SYNC_VIRTUAL_THREADS);
+		syncExecutor = (syncMaxThreads > 0) ? new SyncExecutor(syncMaxThreads, (virtualThreads == null) ? DEFAULT_SYNC_VIRTUAL_THREADS : Boolean.parseBoolean(virtualThreads), getScheduler()) : null;
+
+		/* 7ter. Create the metrics registry */
+		final String metricsEnabled = getProperty(tapConfig, KEY_METRICS);
+		if ((metricsEnabled == null) ? DEFAULT_METRICS : Boolean.parseBoolean(metricsEnabled)){
+			metrics = new TAPMetrics();
+			metrics.registerGauge("db_connections_active", "Number of database connections in use.", new TAPMetrics.Gauge(){
+				@Override
+				public long getValue(){
+					return connectionPool.getNbActive();
+				}
+			});
+			metrics.registerGauge("db_connections_idle", "Number of idle database connections kept in the pool.", new TAPMetrics.Gauge(){
+				@Override
+				public long getValue(){
+					return connectionPool.getNbIdle();
+				}
+			});
+			if (syncExecutor != null){
+				metrics.registerGauge("sync_active_threads", "Number of threads executing a synchronous query.", new TAPMetrics.Gauge(){
+					@Override
+					public long getValue(){
+						return syncExecutor.getNbActiveThreads();
+					}
+				});
+			}
+		}else
+			metrics = null;
+
+		/* 8. Set the UWS Backup Parameter */
 		// Set the backup frequency:
 		String propValue = getProperty(tapConfig, KEY_BACKUP_FREQUENCY);
 		// determine whether the value is a time period ; if yes, set the frequency:
@@ -250,6 +393,10 @@ public class ConfigurableTAPFactory extends AbstractTAPFactory {
 		// Specify whether the backup must be organized by user or not:
 		propValue = getProperty(tapConfig, KEY_BACKUP_BY_USER);
 		backupByUser = (propValue == null) ? DEFAULT_BACKUP_BY_USER : Boolean.parseBoolean(propValue);
+		// Set the number of backup files read in parallel during a restoration:
+		backupRestoreParallelism = getIntProperty(tapConfig, KEY_BACKUP_RESTORE_PARALLELISM, DEFAULT_BACKUP_RESTORE_PARALLELISM);
+		if (backupRestoreParallelism < 1)
+			throw new TAPException("Positive integer expected for the property \"" + KEY_BACKUP_RESTORE_PARALLELISM + "\", instead of: \"" + getProperty(tapConfig, KEY_BACKUP_RESTORE_PARALLELISM) + "\"!");
 	}
 
 	/**
@@ -271,39 +418,146 @@ public class ConfigurableTAPFactory extends AbstractTAPFactory {
 		}
 	}
 
+	/**
+	 * Get the integer value of the specified property.
+	 *
+	 * @param tapConfig		The TAP configuration.
+	 * @param key			Name of the property.
+	 * @param defaultValue	Value to return if the property is not set.
+	 *
+	 * @return	The property value, or the default value if not set.
+	 *
+	 * @throws TAPException	If the property value is not an integer.
+	 *
+	 * @since 2.4
+	 */
+	private static int getIntProperty(final Properties tapConfig, final String key, final int defaultValue) throws TAPException{
+		String propValue = getProperty(tapConfig, key);
+		try{
+			return (propValue == null) ? defaultValue : Integer.parseInt(propValue);
+		}catch(NumberFormatException nfe){
+			throw new TAPException("Integer expected for the property \"" + key + "\", instead of: \"" + propValue + "\"!");
+		}
+	}
+
+	/**
+	 * Get the long value of the specified property.
+	 *
+	 * @param tapConfig		The TAP configuration.
+	 * @param key			Name of the property.
+	 * @param defaultValue	Value to return if the property is not set.
+	 *
+	 * @return	The property value, or the default value if not set.
+	 *
+	 * @throws TAPException	If the property value is not a long.
+	 *
+	 * @since 2.4
+	 */
+	private static long getLongProperty(final Properties tapConfig, final String key, final long defaultValue) throws TAPException{
+		String propValue = getProperty(tapConfig, key);
+		try{
+			return (propValue == null) ? defaultValue : Long.parseLong(propValue);
+		}catch(NumberFormatException nfe){
+			throw new TAPException("Long expected for the property \"" + key + "\", instead of: \"" + propValue + "\"!");
+		}
+	}
+
 	/**
 	 * Build a {@link JDBCConnection} thanks to the database parameters specified
 	 * in the TAP configuration file (the properties: jdbc_driver_path, db_url, db_user, db_password).
 	 *
+	 * <p><i>Note:
+	 * 	This function is called by {@link #connectionPool} only when no free
+	 * 	connection can be reused.
+	 * </i></p>
+	 *
+	 * @param jobID	ID of the job which needs a connection.
+	 *
+	 * @return	A new connection.
+	 *
+	 * @throws DBException	If the connection or the translator can not be created.
+	 *
 	 * @see JDBCConnection#JDBCConnection(java.sql.Connection, JDBCTranslator, String, tap.log.TAPLog)
 	 * @see JDBCConnection#JDBCConnection(String, String, String, String, JDBCTranslator, String, tap.log.TAPLog)
+	 *
+	 * @since 2.4
 	 */
-	@Override
-	public DBConnection getConnection(String jobID) throws TAPException{
+	protected JDBCConnection createConnection(final String jobID) throws DBException{
+		JDBCTranslator sqlTranslator;
+		try{
+			sqlTranslator = createADQLTranslator();
+		}catch(DBException de){
+			throw de;
+		}catch(TAPException te){
+			throw new DBException(te.getMessage(), te);
+		}
+
+		JDBCConnection conn;
 		if (datasource != null){
 			try{
-				return new JDBCConnection(datasource.getConnection(), createADQLTranslator(), jobID, this.service.getLogger());
+				conn = new JDBCConnection(datasource.getConnection(), sqlTranslator, jobID, this.service.getLogger());
 			}catch(SQLException se){
-				throw new TAPException("Impossible to establish a connection to the database using the set up datasource!", se);
+				throw new DBException("Impossible to establish a connection to the database using the set up datasource!", se);
 			}
 		}else
-			return new JDBCConnection(driverPath, dbUrl, dbUser, dbPassword, createADQLTranslator(), jobID, this.service.getLogger());
+			conn = new JDBCConnection(driverPath, dbUrl, dbUser, dbPassword, sqlTranslator, jobID, this.service.getLogger());
+
+		// Set the way uploaded tables must be filled:
+		conn.setUploadCopyFormat(uploadCopyFormat);
+
+		// Set whether ADQL queries must be executed with prepared statements:
+		conn.setStatementCacheSize(statementCacheSize);
+
+		return conn;
+	}
+
+	@Override
+	public ADQLQueryCache getQueryCache(){
+		return queryCache;
+	}
+
+	@Override
+	public SyncExecutor getSyncExecutor(){
+		return syncExecutor;
 	}
 
+	@Override
+	public TAPMetrics getMetrics(){
+		return metrics;
+	}
+
+	/**
+	 * Get a {@link JDBCConnection} from {@link #connectionPool}. A new one is
+	 * created only if no free connection is available.
+	 *
+	 * @see JDBCConnectionPool#getConnection(String)
+	 * @see #createConnection(String)
+	 */
+	@Override
+	public DBConnection getConnection(String jobID) throws TAPException{
+		return connectionPool.getConnection(jobID);
+	}
+
+	/**
+	 * Give back the given connection to {@link #connectionPool}. Any running
+	 * query is ended and, if not kept in the pool, the connection is closed.
+	 *
+	 * @see JDBCConnectionPool#freeConnection(JDBCConnection)
+	 */
 	@Override
 	public void freeConnection(DBConnection conn){
-		try{
-			// End properly any query that is not yet stopped and cleaned (i.e. no more transaction opened):
-			conn.endQuery();
-			// Close the connection (if a connection pool is used, the connection is not really closed but is freed and kept in the pool for further usage):
-			((JDBCConnection)conn).getInnerConnection().close();
-		}catch(SQLException se){
-			service.getLogger().error("Can not close properly the connection \"" + conn.getID() + "\"!", se);
-		}
+		connectionPool.freeConnection((JDBCConnection)conn);
 	}
 
 	@Override
 	public void destroy(){
+		// Stop the threads executing synchronous queries:
+		if (syncExecutor != null)
+			syncExecutor.shutdown();
+
+		// Close all the kept connections:
+		connectionPool.close();
+
 		// Unregister the JDBC driver, only if registered by the library (i.e. database_access=jdbc):
 		if (dbUrl != null){
 			// Now deregister JDBC drivers in this context's ClassLoader:
@@ -328,7 +582,8 @@ public class ConfigurableTAPFactory extends AbstractTAPFactory {
 
 	/**
 	 * Build an {@link DefaultTAPBackupManager} thanks to the backup manager parameters specified
-	 * in the TAP configuration file (the properties: backup_frequency, backup_by_user).
+	 * in the TAP configuration file (the properties: backup_frequency, backup_by_user,
+	 * backup_restore_parallelism).
 	 *
 	 * Note: If the specified backup_frequency is negative, no backup manager is returned.
 	 *
@@ -340,7 +595,11 @@ public class ConfigurableTAPFactory extends AbstractTAPFactory {
 	@Override
 	public UWSBackupManager createUWSBackupManager(UWSService uws) throws TAPException{
 		try{
-			return (backupFrequency < 0) ? null : new DefaultTAPBackupManager(uws, backupByUser, backupFrequency);
+			if (backupFrequency < 0)
+				return null;
+			DefaultTAPBackupManager backupManager = new DefaultTAPBackupManager(uws, backupByUser, backupFrequency);
+			backupManager.setRestoreParallelism(backupRestoreParallelism);
+			return backupManager;
 		}catch(UWSException ex){
 			throw new TAPException("Impossible to create a backup manager, because: " + ex.getMessage(), ex);
 		}
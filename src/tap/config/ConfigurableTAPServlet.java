@@ -46,6 +46,7 @@ import javax.servlet.http.HttpServletResponse;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.resource.Examples;
+import tap.resource.Metrics;
 import tap.resource.HomePage;
 import tap.resource.TAP;
 import tap.resource.TAPResource;
@@ -60,7 +61,7 @@ import tap.resource.TAPResource;
  * </p>
  * 
  * @author Gr&eacute;gory Mantelet (ARI)
- * @version 2.1 (07/2016)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
 public class ConfigurableTAPServlet extends HttpServlet {
@@ -161,6 +162,15 @@ public class ConfigurableTAPServlet extends HttpServlet {
 		if (propValue != null)
 			tap.addResource(new Examples(tap, propValue));
 
+		/* 4Quinquies. SET THE METRICS ENDPOINT (if metrics are recorded) */
+		if (serviceConn.getFactory().getMetrics() != null){
+			try{
+				tap.addResource(new Metrics(tap));
+			}catch(TAPException te){
+				throw new ServletException(te.getMessage(), te.getCause());
+			}
+		}
+
 		/* 5. SET ADDITIONAL TAP RESOURCES */
 		propValue = getProperty(tapConf, KEY_ADD_TAP_RESOURCES);
 		if (propValue != null){
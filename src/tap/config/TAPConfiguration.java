@@ -16,7 +16,7 @@ package tap.config;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2015-2021 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2015-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -41,7 +41,7 @@ import java.util.Properties;
  * </i></p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (11/2021)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
 public final class TAPConfiguration {
@@ -86,6 +86,13 @@ public final class TAPConfiguration {
 	/** Default value of the property {@value #KEY_GROUP_USER_DIRECTORIES}:
 	 * {@value #DEFAULT_GROUP_USER_DIRECTORIES}. */
 	public final static boolean DEFAULT_GROUP_USER_DIRECTORIES = false;
+	/** Name/Key of the property setting the directory in which job results
+	 * must be stored in a content-addressed store (i.e. cut in deduplicated
+	 * chunks). If not set, the results are stored in
+	 * {@value #KEY_FILE_ROOT_PATH}. <em>This property is used only if
+	 * {@value #KEY_FILE_MANAGER} is set to {@link #VALUE_LOCAL}.</em>
+	 * @since 2.4 */
+	public final static String KEY_RESULT_STORE_PATH = "result_store_path";
 	/** Name/Key of the property specifying the default period (in seconds)
 	 * while a job must remain on the server. This value is set automatically to
 	 * any job whose the retention period has never been specified by the user. */
@@ -147,6 +154,16 @@ public final class TAPConfiguration {
 	 * {@value #DEFAULT_BACKUP_BY_USER}. This property can be enabled only if a
 	 * user identification method is provided. */
 	public final static boolean DEFAULT_BACKUP_BY_USER = false;
+	/** Name/Key of the property specifying the maximum number of backup files
+	 * read in parallel during the restoration of the jobs. This property is
+	 * used only if {@value #KEY_BACKUP_BY_USER} is "true".
+	 * @since 2.4 */
+	public final static String KEY_BACKUP_RESTORE_PARALLELISM = "backup_restore_parallelism";
+	/** Default value of the property {@value #KEY_BACKUP_RESTORE_PARALLELISM}:
+	 * {@value #DEFAULT_BACKUP_RESTORE_PARALLELISM} (i.e. backup files read one
+	 * after the other).
+	 * @since 2.4 */
+	public final static int DEFAULT_BACKUP_RESTORE_PARALLELISM = 1;
 
 	/* ASYNCHRONOUS JOBS */
 	/** Name/Key of the property specifying the maximum number of asynchronous
@@ -174,6 +191,22 @@ public final class TAPConfiguration {
 	 * {@value #KEY_MAX_EXECUTION_DURATION}:
 	 * {@value #DEFAULT_EXECUTION_DURATION}. */
 	public final static int DEFAULT_EXECUTION_DURATION = 0;
+	/** Name/Key of the property specifying the maximum number of threads
+	 * executing SYNCHRONOUS queries at the same time.
+	 * @since 2.4 */
+	public final static String KEY_SYNC_MAX_THREADS = "sync_max_threads";
+	/** Default value of the property {@value #KEY_SYNC_MAX_THREADS}:
+	 * {@value #DEFAULT_SYNC_MAX_THREADS} (i.e. no pool of threads).
+	 * @since 2.4 */
+	public final static int DEFAULT_SYNC_MAX_THREADS = 0;
+	/** Name/Key of the property specifying whether the threads executing
+	 * SYNCHRONOUS queries should be virtual threads.
+	 * @since 2.4 */
+	public final static String KEY_SYNC_VIRTUAL_THREADS = "sync_virtual_threads";
+	/** Default value of the property {@value #KEY_SYNC_VIRTUAL_THREADS}:
+	 * {@value #DEFAULT_SYNC_VIRTUAL_THREADS}.
+	 * @since 2.4 */
+	public final static boolean DEFAULT_SYNC_VIRTUAL_THREADS = false;
 
 	/* DATABASE KEYS */
 	/** Name/Key of the property specifying the database access method to use. */
@@ -222,6 +255,62 @@ public final class TAPConfiguration {
 	 * {@value #DEFAULT_FIX_ON_FAIL}.
 	 * @since 2.3  */
 	public final static boolean DEFAULT_FIX_ON_FAIL = false;
+	/** Name/Key of the property specifying the maximum number of database
+	 * connections that can be used at the same time.
+	 * @since 2.4 */
+	public final static String KEY_DB_POOL_MAX_ACTIVE = "db_pool_max_active";
+	/** Default value of the property {@value #KEY_DB_POOL_MAX_ACTIVE}:
+	 * {@value #DEFAULT_DB_POOL_MAX_ACTIVE} (i.e. no limit).
+	 * @since 2.4 */
+	public final static int DEFAULT_DB_POOL_MAX_ACTIVE = 0;
+	/** Name/Key of the property specifying the maximum number of unused
+	 * database connections to keep open for a further usage.
+	 * @since 2.4 */
+	public final static String KEY_DB_POOL_MAX_IDLE = "db_pool_max_idle";
+	/** Default value of the property {@value #KEY_DB_POOL_MAX_IDLE}:
+	 * {@value #DEFAULT_DB_POOL_MAX_IDLE}.
+	 * @since 2.4 */
+	public final static int DEFAULT_DB_POOL_MAX_IDLE = 10;
+	/** Name/Key of the property specifying how long (in milliseconds) to wait
+	 * for a database connection when all of them are already used.
+	 * @since 2.4 */
+	public final static String KEY_DB_POOL_MAX_WAIT = "db_pool_max_wait";
+	/** Default value of the property {@value #KEY_DB_POOL_MAX_WAIT}:
+	 * {@value #DEFAULT_DB_POOL_MAX_WAIT}.
+	 * @since 2.4 */
+	public final static long DEFAULT_DB_POOL_MAX_WAIT = 30000;
+	/** Name/Key of the property specifying the time (in seconds) given to the
+	 * database to validate an unused connection before reusing it.
+	 * @since 2.4 */
+	public final static String KEY_DB_POOL_VALIDATION_TIMEOUT = "db_pool_validation_timeout";
+	/** Default value of the property {@value #KEY_DB_POOL_VALIDATION_TIMEOUT}:
+	 * {@value #DEFAULT_DB_POOL_VALIDATION_TIMEOUT}.
+	 * @since 2.4 */
+	public final static int DEFAULT_DB_POOL_VALIDATION_TIMEOUT = 5;
+	/** Name/Key of the property specifying the maximum number of prepared
+	 * statements kept open by each database connection.
+	 * @since 2.4 */
+	public final static String KEY_DB_STATEMENT_CACHE_SIZE = "db_statement_cache_size";
+	/** Default value of the property {@value #KEY_DB_STATEMENT_CACHE_SIZE}:
+	 * {@value #DEFAULT_DB_STATEMENT_CACHE_SIZE} (i.e. no prepared statement).
+	 * @since 2.4 */
+	public final static int DEFAULT_DB_STATEMENT_CACHE_SIZE = 0;
+	/** Name/Key of the property specifying the maximum number of parsed and
+	 * checked ADQL queries to keep in cache.
+	 * @since 2.4 */
+	public final static String KEY_ADQL_CACHE_SIZE = "adql_cache_size";
+	/** Default value of the property {@value #KEY_ADQL_CACHE_SIZE}:
+	 * {@value #DEFAULT_ADQL_CACHE_SIZE}.
+	 * @since 2.4 */
+	public final static int DEFAULT_ADQL_CACHE_SIZE = 1000;
+	/** Name/Key of the property specifying how long (in seconds) a parsed and
+	 * checked ADQL query is kept in cache.
+	 * @since 2.4 */
+	public final static String KEY_ADQL_CACHE_TTL = "adql_cache_ttl";
+	/** Default value of the property {@value #KEY_ADQL_CACHE_TTL}:
+	 * {@value #DEFAULT_ADQL_CACHE_TTL}.
+	 * @since 2.4 */
+	public final static long DEFAULT_ADQL_CACHE_TTL = 3600;
 	/** Name/Key of the property specifying the name of the DataSource into the
 	 * JDNI. */
 	public final static String KEY_DATASOURCE_JNDI_NAME = "datasource_jndi_name";
@@ -288,6 +377,15 @@ public final class TAPConfiguration {
 	 * the expected syntax is defined either by TAPNotes 1.0 or DALI 1.0.</i></p>
 	 * @since 2.1 */
 	public final static String KEY_EXAMPLES = "examples";
+	/** Name/Key of the property specifying whether metrics about the
+	 * execution of ADQL queries must be recorded and exposed by the TAP
+	 * resource <code>/metrics</code>.
+	 * @since 2.4 */
+	public final static String KEY_METRICS = "metrics";
+	/** Default value of the property {@value #KEY_METRICS}:
+	 * {@value #DEFAULT_METRICS}.
+	 * @since 2.4 */
+	public final static boolean DEFAULT_METRICS = false;
 
 	/* PROVIDER KEYS */
 	/** Name/Key of the property specifying the name of the organization/person
@@ -338,6 +436,16 @@ public final class TAPConfiguration {
 	 * {@value #DEFAULT_UPLOAD_MAX_REQUEST_SIZE}.
 	 * @since 2.3 */
 	public final static int DEFAULT_UPLOAD_MAX_REQUEST_SIZE = 250 * 1024 * 1024;
+	/** Name/Key of the property specifying the format of the PostgreSQL COPY
+	 * command to use in order to fill uploaded tables in the database.
+	 * By default, no COPY is used (i.e. {@value #VALUE_NONE}): rows are
+	 * inserted with INSERT statements.
+	 * @since 2.4 */
+	public final static String KEY_UPLOAD_COPY_FORMAT = "upload_copy_format";
+	/** Value of the property {@value #KEY_UPLOAD_COPY_FORMAT} selecting the
+	 * binary format of the PostgreSQL COPY command.
+	 * @since 2.4 */
+	public final static String VALUE_BINARY = "binary";
 
 	/* OUTPUT KEYS */
 	/** Name/Key of the property specifying the list of all result output
@@ -384,6 +492,15 @@ public final class TAPConfiguration {
 	/** Name/Key of the property specifying the maximum number of result rows
 	 * that can be returned by the TAP service. */
 	public final static String KEY_MAX_OUTPUT_LIMIT = "output_max_limit";
+	/** Name/Key of the property specifying how many rows the text output
+	 * format must read before writing anything, in order to compute the width
+	 * of all columns. If negative, all rows are buffered.
+	 * @since 2.4 */
+	public final static String KEY_TEXT_SAMPLE_SIZE = "text_sample_size";
+	/** Default value of the property {@value #KEY_TEXT_SAMPLE_SIZE}:
+	 * {@value #DEFAULT_TEXT_SAMPLE_SIZE} (all rows are buffered).
+	 * @since 2.4 */
+	public final static int DEFAULT_TEXT_SAMPLE_SIZE = -1;
 
 	/* USER IDENTIFICATION */
 	/** Name/Key of the property specifying the user identification method to
@@ -0,0 +1,92 @@
+package tap.data;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+/**
+ * <p>{@link TableIterator} able to read several rows at once into a
+ * {@link ColumnBatch}.</p>
+ *
+ * <p>
+ * 	Implementing this interface is optional. Output formats check whether the
+ * 	given {@link TableIterator} is a {@link BatchTableIterator} and, if so,
+ * 	read the rows block by block instead of cell by cell. This avoids an
+ * 	interface call and (for numeric columns) a boxed object per cell.
+ * </p>
+ *
+ * <p>Example of an expected usage:</p>
+ * <pre>
+ * 	BatchTableIterator it = ...;
+ * 	try{
+ * 		ColumnBatch batch = new ColumnBatch(it.getMetadata(), ColumnBatch.DEFAULT_CAPACITY);
+ * 		while(it.nextBatch(batch) &gt; 0){
+ * 			for(int r = 0; r &lt; batch.getRowCount(); r++){
+ * 				...
+ * 			}
+ * 		}
+ * 	}catch(DataReadException dre){
+ * 		...
+ * 	}finally{
+ * 		try{
+ * 			it.close();
+ * 		}catch(DataReadException dre){ ... }
+ * 	}
+ * </pre>
+ *
+ * <p><i><b>Warning:</b>
+ * 	{@link #nextBatch(ColumnBatch)} and {@link #nextRow()} should not be
+ * 	mixed. After a call to {@link #nextBatch(ColumnBatch)}, the row cursor is
+ * 	set on the last row put in the batch and all its columns are considered
+ * 	as already read.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public interface BatchTableIterator extends TableIterator {
+
+	/**
+	 * <p>Read the next rows and store them in the given batch.</p>
+	 *
+	 * <p>
+	 * 	The batch is first cleared (see {@link ColumnBatch#clear()}) and then
+	 * 	filled until it is full (see {@link ColumnBatch#getCapacity()}) or
+	 * 	until no more row is available.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	Values put in the batch must be exactly the same as the ones that
+	 * 	would have been returned by {@link #nextCol()}.
+	 * </i></p>
+	 *
+	 * @param batch	The batch to fill. Its number of columns must be the same
+	 *             	as the one of the metadata returned by
+	 *             	{@link #getMetadata()}.
+	 *
+	 * @return	The number of rows put in the batch,
+	 *        	or 0 if no more rows can be read.
+	 *
+	 * @throws NullPointerException	If the given batch is NULL.
+	 * @throws DataReadException	If an error occurs while reading the table
+	 *                          	dataset.
+	 */
+	public int nextBatch(final ColumnBatch batch) throws NullPointerException, DataReadException;
+
+}
@@ -0,0 +1,618 @@
+package tap.data;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import adql.db.DBType;
+import tap.metadata.TAPColumn;
+
+/**
+ * <p>Block of rows read from a {@link BatchTableIterator}, stored column by
+ * column.</p>
+ *
+ * <p>
+ * 	Each column is stored in an array whose type depends on the declared
+ * 	datatype of the column: SMALLINT, INTEGER, BIGINT, REAL and DOUBLE columns
+ * 	are stored in primitive arrays (respectively <code>short[]</code>,
+ * 	<code>int[]</code>, <code>long[]</code>, <code>float[]</code> and
+ * 	<code>double[]</code>), all the others in an <code>Object[]</code>.
+ * 	NULL values are flagged separately in a boolean array.
+ * </p>
+ *
+ * <p>
+ * 	A value which does not match exactly the primitive storage of its column
+ * 	(e.g. a {@link Long} in a column declared as INTEGER) is never truncated:
+ * 	the whole column is then switched to an <code>Object[]</code> storage
+ * 	(see {@link StorageType#OBJECT}) for the rest of the life of this batch.
+ * 	Thus, {@link #getValue(int, int)} always returns exactly the same object
+ * 	as the one that {@link TableIterator#nextCol()} would have returned.
+ * </p>
+ *
+ * <p>Example of an expected usage:</p>
+ * <pre>
+ * 	BatchTableIterator it = ...;
+ * 	ColumnBatch batch = new ColumnBatch(it.getMetadata(), ColumnBatch.DEFAULT_CAPACITY);
+ * 	while(it.nextBatch(batch) &gt; 0){
+ * 		for(int r = 0; r &lt; batch.getRowCount(); r++){
+ * 			for(int c = 0; c &lt; batch.getColumnCount(); c++){
+ * 				if (batch.isNull(c, r))
+ * 					...
+ * 				else if (batch.getStorageType(c) == StorageType.DOUBLE)
+ * 					double d = batch.getDouble(c, r);
+ * 				...
+ * 			}
+ * 		}
+ * 	}
+ * </pre>
+ *
+ * <p><i>Note:
+ * 	A batch is designed to be filled and read by one thread at a time ; it is
+ * 	not thread-safe.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class ColumnBatch {
+
+	/** Default maximum number of rows that a batch can contain. */
+	public static final int DEFAULT_CAPACITY = 1000;
+
+	/**
+	 * Kind of array in which the values of a column are stored.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public static enum StorageType{
+		SHORT, INT, LONG, FLOAT, DOUBLE, OBJECT;
+	}
+
+	/** Maximum number of rows this batch can contain. */
+	private final int capacity;
+
+	/** Number of columns of each row. */
+	private final int nbColumns;
+
+	/** Storage type of each column. */
+	private final StorageType[] storageTypes;
+
+	/** Values of each column. Each item is an array of the type given by
+	 * {@link #storageTypes} for the same column. */
+	private final Object[] columns;
+
+	/** NULL flags of each column. */
+	private final boolean[][] nulls;
+
+	/** Number of rows currently stored in this batch. */
+	private int nbRows = 0;
+
+	/**
+	 * Build an empty batch whose columns storage is based on the datatype
+	 * of the given columns.
+	 *
+	 * @param metadata	Metadata of all the columns to store.
+	 * @param capacity	Maximum number of rows this batch can contain.
+	 *                	<i>If negative or 0, {@link #DEFAULT_CAPACITY} will
+	 *                	be used.</i>
+	 *
+	 * @throws NullPointerException	If the given metadata array is NULL.
+	 */
+	public ColumnBatch(final TAPColumn[] metadata, final int capacity) throws NullPointerException{
+		this(extractTypes(metadata), capacity);
+	}
+
+	/**
+	 * Build an empty batch whose columns storage is based on the given
+	 * datatypes.
+	 *
+	 * @param types		Datatype of all the columns to store.
+	 *             		<i>A NULL item means an unknown datatype ; such
+	 *             		column is then stored as {@link StorageType#OBJECT}.</i>
+	 * @param capacity	Maximum number of rows this batch can contain.
+	 *                	<i>If negative or 0, {@link #DEFAULT_CAPACITY} will
+	 *                	be used.</i>
+	 *
+	 * @throws NullPointerException	If the given types array is NULL.
+	 */
+	public ColumnBatch(final DBType[] types, final int capacity) throws NullPointerException{
+		if (types == null)
+			throw new NullPointerException("Missing column types!");
+
+		this.capacity = (capacity <= 0) ? DEFAULT_CAPACITY : capacity;
+		nbColumns = types.length;
+		storageTypes = new StorageType[nbColumns];
+		columns = new Object[nbColumns];
+		nulls = new boolean[nbColumns][this.capacity];
+
+		for(int c = 0; c < nbColumns; c++){
+			storageTypes[c] = getStorageType(types[c]);
+			columns[c] = createArray(storageTypes[c], this.capacity);
+		}
+	}
+
+	/**
+	 * Extract the datatype of all the given columns.
+	 *
+	 * @param metadata	Columns whose the datatype must be extracted.
+	 *
+	 * @return	The datatype of all columns.
+	 *
+	 * @throws NullPointerException	If the given array is NULL.
+	 */
+	private static DBType[] extractTypes(final TAPColumn[] metadata) throws NullPointerException{
+		if (metadata == null)
+			throw new NullPointerException("Missing column metadata!");
+		DBType[] types = new DBType[metadata.length];
+		for(int c = 0; c < metadata.length; c++)
+			types[c] = (metadata[c] == null) ? null : metadata[c].getDatatype();
+		return types;
+	}
+
+	/**
+	 * Get the storage type to use for a column having the given datatype.
+	 *
+	 * @param type	A column datatype. <i>MAY be NULL</i>
+	 *
+	 * @return	The corresponding storage type.
+	 */
+	protected static StorageType getStorageType(final DBType type){
+		if (type == null)
+			return StorageType.OBJECT;
+		switch(type.type){
+			case SMALLINT:
+				return StorageType.SHORT;
+			case INTEGER:
+				return StorageType.INT;
+			case BIGINT:
+				return StorageType.LONG;
+			case REAL:
+				return StorageType.FLOAT;
+			case DOUBLE:
+				return StorageType.DOUBLE;
+			default:
+				return StorageType.OBJECT;
+		}
+	}
+
+	/**
+	 * Create an array able to store the given number of values of the given
+	 * storage type.
+	 *
+	 * @param type		Storage type.
+	 * @param length	Length of the array to create.
+	 *
+	 * @return	The created array.
+	 */
+	private static Object createArray(final StorageType type, final int length){
+		switch(type){
+			case SHORT:
+				return new short[length];
+			case INT:
+				return new int[length];
+			case LONG:
+				return new long[length];
+			case FLOAT:
+				return new float[length];
+			case DOUBLE:
+				return new double[length];
+			default:
+				return new Object[length];
+		}
+	}
+
+	/**
+	 * Get the maximum number of rows this batch can contain.
+	 *
+	 * @return	The batch capacity.
+	 */
+	public final int getCapacity(){
+		return capacity;
+	}
+
+	/**
+	 * Get the number of columns of each row.
+	 *
+	 * @return	Number of columns.
+	 */
+	public final int getColumnCount(){
+		return nbColumns;
+	}
+
+	/**
+	 * Get the number of rows currently stored in this batch.
+	 *
+	 * @return	Number of rows.
+	 */
+	public final int getRowCount(){
+		return nbRows;
+	}
+
+	/**
+	 * Tell whether no more row can be added in this batch.
+	 *
+	 * @return	<i>true</i> if the batch is full, <i>false</i> otherwise.
+	 */
+	public final boolean isFull(){
+		return nbRows >= capacity;
+	}
+
+	/**
+	 * Forget all the rows stored in this batch so that it can be filled
+	 * again.
+	 *
+	 * <p><i>Note:
+	 * 	The storage type of the columns is kept.
+	 * </i></p>
+	 */
+	public void clear(){
+		nbRows = 0;
+	}
+
+	/**
+	 * <p>Append a new row in this batch.</p>
+	 *
+	 * <p>
+	 * 	All values of the new row are initially NULL. They must be set using
+	 * 	one of the setters (e.g. {@link #setValue(int, int, Object)}) with
+	 * 	the returned row index.
+	 * </p>
+	 *
+	 * @return	Index of the new row.
+	 *
+	 * @throws IllegalStateException	If this batch is already full.
+	 */
+	public int newRow() throws IllegalStateException{
+		if (nbRows >= capacity)
+			throw new IllegalStateException("Full batch: no more than " + capacity + " rows can be stored!");
+		for(int c = 0; c < nbColumns; c++)
+			nulls[c][nbRows] = true;
+		return nbRows++;
+	}
+
+	/**
+	 * Get the type of array used to store the values of the specified
+	 * column.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 *
+	 * @return	The column storage type.
+	 */
+	public final StorageType getStorageType(final int col){
+		return storageTypes[col];
+	}
+
+	/**
+	 * Tell whether the specified cell is NULL.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	<i>true</i> if the value is NULL, <i>false</i> otherwise.
+	 */
+	public final boolean isNull(final int col, final int row){
+		return nulls[col][row];
+	}
+
+	/**
+	 * Get the specified value of a {@link StorageType#SHORT SHORT} column.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	The value. <i>Meaningless if {@link #isNull(int, int)} is
+	 *        	<i>true</i>.</i>
+	 *
+	 * @throws ClassCastException	If the column is not stored as a SHORT.
+	 */
+	public final short getShort(final int col, final int row) throws ClassCastException{
+		return ((short[])columns[col])[row];
+	}
+
+	/**
+	 * Get the specified value of an {@link StorageType#INT INT} column.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	The value. <i>Meaningless if {@link #isNull(int, int)} is
+	 *        	<i>true</i>.</i>
+	 *
+	 * @throws ClassCastException	If the column is not stored as an INT.
+	 */
+	public final int getInt(final int col, final int row) throws ClassCastException{
+		return ((int[])columns[col])[row];
+	}
+
+	/**
+	 * Get the specified value of a {@link StorageType#LONG LONG} column.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	The value. <i>Meaningless if {@link #isNull(int, int)} is
+	 *        	<i>true</i>.</i>
+	 *
+	 * @throws ClassCastException	If the column is not stored as a LONG.
+	 */
+	public final long getLong(final int col, final int row) throws ClassCastException{
+		return ((long[])columns[col])[row];
+	}
+
+	/**
+	 * Get the specified value of a {@link StorageType#FLOAT FLOAT} column.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	The value. <i>Meaningless if {@link #isNull(int, int)} is
+	 *        	<i>true</i>.</i>
+	 *
+	 * @throws ClassCastException	If the column is not stored as a FLOAT.
+	 */
+	public final float getFloat(final int col, final int row) throws ClassCastException{
+		return ((float[])columns[col])[row];
+	}
+
+	/**
+	 * Get the specified value of a {@link StorageType#DOUBLE DOUBLE} column.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	The value. <i>Meaningless if {@link #isNull(int, int)} is
+	 *        	<i>true</i>.</i>
+	 *
+	 * @throws ClassCastException	If the column is not stored as a DOUBLE.
+	 */
+	public final double getDouble(final int col, final int row) throws ClassCastException{
+		return ((double[])columns[col])[row];
+	}
+
+	/**
+	 * <p>Get the specified value, whatever is the storage type of its column.</p>
+	 *
+	 * <p><i>Note:
+	 * 	Values of primitive columns are boxed in their corresponding wrapper
+	 * 	class (e.g. {@link Short} for {@link StorageType#SHORT SHORT}).
+	 * </i></p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 *
+	 * @return	The value, or NULL if the cell is NULL.
+	 */
+	public Object getValue(final int col, final int row){
+		if (nulls[col][row])
+			return null;
+		switch(storageTypes[col]){
+			case SHORT:
+				return ((short[])columns[col])[row];
+			case INT:
+				return ((int[])columns[col])[row];
+			case LONG:
+				return ((long[])columns[col])[row];
+			case FLOAT:
+				return ((float[])columns[col])[row];
+			case DOUBLE:
+				return ((double[])columns[col])[row];
+			default:
+				return ((Object[])columns[col])[row];
+		}
+	}
+
+	/**
+	 * Set the specified cell to NULL.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 */
+	public final void setNull(final int col, final int row){
+		nulls[col][row] = true;
+	}
+
+	/**
+	 * Set a value in a {@link StorageType#SHORT SHORT} column.
+	 *
+	 * <p><i>Note:
+	 * 	If the column is not stored as SHORT, the value is boxed and set with
+	 * 	{@link #setValue(int, int, Object)}.
+	 * </i></p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 * @param value	The value to set.
+	 */
+	public final void setShort(final int col, final int row, final short value){
+		if (storageTypes[col] == StorageType.SHORT){
+			((short[])columns[col])[row] = value;
+			nulls[col][row] = false;
+		}else
+			setValue(col, row, value);
+	}
+
+	/**
+	 * Set a value in an {@link StorageType#INT INT} column.
+	 *
+	 * <p><i>Note:
+	 * 	If the column is not stored as INT, the value is boxed and set with
+	 * 	{@link #setValue(int, int, Object)}.
+	 * </i></p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 * @param value	The value to set.
+	 */
+	public final void setInt(final int col, final int row, final int value){
+		if (storageTypes[col] == StorageType.INT){
+			((int[])columns[col])[row] = value;
+			nulls[col][row] = false;
+		}else
+			setValue(col, row, value);
+	}
+
+	/**
+	 * Set a value in a {@link StorageType#LONG LONG} column.
+	 *
+	 * <p><i>Note:
+	 * 	If the column is not stored as LONG, the value is boxed and set with
+	 * 	{@link #setValue(int, int, Object)}.
+	 * </i></p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 * @param value	The value to set.
+	 */
+	public final void setLong(final int col, final int row, final long value){
+		if (storageTypes[col] == StorageType.LONG){
+			((long[])columns[col])[row] = value;
+			nulls[col][row] = false;
+		}else
+			setValue(col, row, value);
+	}
+
+	/**
+	 * Set a value in a {@link StorageType#FLOAT FLOAT} column.
+	 *
+	 * <p><i>Note:
+	 * 	If the column is not stored as FLOAT, the value is boxed and set with
+	 * 	{@link #setValue(int, int, Object)}.
+	 * </i></p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 * @param value	The value to set.
+	 */
+	public final void setFloat(final int col, final int row, final float value){
+		if (storageTypes[col] == StorageType.FLOAT){
+			((float[])columns[col])[row] = value;
+			nulls[col][row] = false;
+		}else
+			setValue(col, row, value);
+	}
+
+	/**
+	 * Set a value in a {@link StorageType#DOUBLE DOUBLE} column.
+	 *
+	 * <p><i>Note:
+	 * 	If the column is not stored as DOUBLE, the value is boxed and set with
+	 * 	{@link #setValue(int, int, Object)}.
+	 * </i></p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 * @param value	The value to set.
+	 */
+	public final void setDouble(final int col, final int row, final double value){
+		if (storageTypes[col] == StorageType.DOUBLE){
+			((double[])columns[col])[row] = value;
+			nulls[col][row] = false;
+		}else
+			setValue(col, row, value);
+	}
+
+	/**
+	 * <p>Set any value in the specified cell.</p>
+	 *
+	 * <p>
+	 * 	If the column is stored in a primitive array, the value is unboxed
+	 * 	only if its class is exactly the wrapper class of this primitive type.
+	 * 	Otherwise, the whole column is switched to an {@link StorageType#OBJECT}
+	 * 	storage, so that no value is ever altered.
+	 * </p>
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 * @param row	Index of the row (starting from 0).
+	 * @param value	The value to set. <i>MAY be NULL</i>
+	 */
+	public void setValue(final int col, final int row, final Object value){
+		if (value == null){
+			nulls[col][row] = true;
+			return;
+		}
+
+		switch(storageTypes[col]){
+			case SHORT:
+				if (value instanceof Short){
+					((short[])columns[col])[row] = (Short)value;
+					nulls[col][row] = false;
+					return;
+				}
+				break;
+			case INT:
+				if (value instanceof Integer){
+					((int[])columns[col])[row] = (Integer)value;
+					nulls[col][row] = false;
+					return;
+				}
+				break;
+			case LONG:
+				if (value instanceof Long){
+					((long[])columns[col])[row] = (Long)value;
+					nulls[col][row] = false;
+					return;
+				}
+				break;
+			case FLOAT:
+				if (value instanceof Float){
+					((float[])columns[col])[row] = (Float)value;
+					nulls[col][row] = false;
+					return;
+				}
+				break;
+			case DOUBLE:
+				if (value instanceof Double){
+					((double[])columns[col])[row] = (Double)value;
+					nulls[col][row] = false;
+					return;
+				}
+				break;
+			default:
+				((Object[])columns[col])[row] = value;
+				nulls[col][row] = false;
+				return;
+		}
+
+		// The value does not fit in the primitive storage => switch to OBJECT:
+		toObjectStorage(col);
+		((Object[])columns[col])[row] = value;
+		nulls[col][row] = false;
+	}
+
+	/**
+	 * Switch the storage of the specified column to {@link StorageType#OBJECT}.
+	 * All already stored values are boxed and kept.
+	 *
+	 * @param col	Index of the column (starting from 0).
+	 */
+	protected void toObjectStorage(final int col){
+		if (storageTypes[col] == StorageType.OBJECT)
+			return;
+
+		Object[] values = new Object[capacity];
+		for(int r = 0; r < nbRows; r++)
+			values[r] = getValue(col, r);
+
+		storageTypes[col] = StorageType.OBJECT;
+		columns[col] = values;
+	}
+
+}
@@ -53,11 +53,16 @@ import tap.upload.LimitedSizeInputStream;
  *	or of another problem.
  * </p>
  *
- * @author Gr&eacute;gory Mantelet (ARI)
- * @version 2.0 (01/2015)
+ * <p>
+ * 	Rows can also be read by block with {@link #nextBatch(ColumnBatch)}. If the wrapped iterator is itself a
+ * 	{@link BatchTableIterator}, the whole block is read by it ; otherwise, the block is filled row by row.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (ARI;CDS)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
-public class LimitedTableIterator implements TableIterator {
+public class LimitedTableIterator implements BatchTableIterator {
 
 	/** The wrapped {@link TableIterator}. */
 	private final TableIterator innerIt;
@@ -205,6 +210,63 @@ public class LimitedTableIterator implements TableIterator {
 		return nextRow;
 	}
 
+	/**
+	 * <p>Read the next rows and store them in the given batch.</p>
+	 *
+	 * <p>
+	 * 	As for {@link #nextRow()}, if the limit is reached, this iterator is set as overflowed
+	 * 	and a {@link DataReadException} is thrown.
+	 * </p>
+	 *
+	 * @see BatchTableIterator#nextBatch(ColumnBatch)
+	 *
+	 * @since 2.4
+	 */
+	@Override
+	public int nextBatch(final ColumnBatch batch) throws NullPointerException, DataReadException{
+		if (batch == null)
+			throw new NullPointerException("Missing batch to fill!");
+
+		// If the wrapped iterator can not read by block, fill the batch row by row:
+		if (!(innerIt instanceof BatchTableIterator)){
+			batch.clear();
+			while(!batch.isFull() && nextRow()){
+				int row = batch.newRow();
+				for(int c = 0; hasNextCol(); c++)
+					batch.setValue(c, row, nextCol());
+			}
+			return batch.getRowCount();
+		}
+
+		// Test the overflow flag and proceed only if not overflowed:
+		if (overflow)
+			throw new DataReadException("Data read overflow: the limit has already been reached! No more data can be read.");
+
+		// Read the next rows:
+		int nbRead;
+		try{
+			nbRead = ((BatchTableIterator)innerIt).nextBatch(batch);
+			countRow += nbRead;
+		}catch(DataReadException ex){
+			ExceededSizeException exceedEx = getExceededSizeException(ex);
+			// if an error caused by an ExceedSizeException occurs, set this iterator as overflowed and throw the exception:
+			if (exceedEx != null){
+				overflow = true;
+				throw new DataReadException(exceedEx.getMessage());
+			}else
+				throw ex;
+		}
+
+		// If, counting these ones, the number of rows exceeds the limit, set this iterator as overflowed and throw an exception:
+		if (nbRead > 0 && maxNbRows >= 0 && countRow > maxNbRows){
+			overflow = true;
+			throw new DataReadException("Data read overflow: the limit of " + maxNbRows + " rows has been reached!");
+		}
+
+		// Send back the value returned by the inner iterator:
+		return nbRead;
+	}
+
 	@Override
 	public boolean hasNextCol() throws IllegalStateException, DataReadException{
 		testOverflow();
@@ -28,6 +28,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.text.SimpleDateFormat;
 import java.util.NoSuchElementException;
 
@@ -48,11 +49,33 @@ import uws.ISO8601Format;
  * 	{@link #getColType()} will return a TAP type based on the one declared in the {@link ResultSetMetaData} object.
  * </i></p>
  *
+ * <p><i>Note:
+ * 	Rows can also be read by block thanks to {@link #nextBatch(ColumnBatch)}.
+ * </i></p>
+ *
+ * <h3>Column converters</h3>
+ *
+ * <p>
+ * 	At creation, one {@link ColumnConverter} is chosen for each column
+ * 	(see {@link #createConverter(int, ResultSetMetaData, TAPColumn, String)}),
+ * 	in function of the JDBC type and class declared by the {@link ResultSetMetaData}
+ * 	and of the TAP type of the column. Each converter reads the column value with the
+ * 	most appropriate JDBC getter (e.g. {@link ResultSet#getDouble(int)}) and formats it
+ * 	exactly as {@link #formatColValue(Object)} would do. Thus, the type of the column
+ * 	is not checked again for each row.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	If {@link #formatColValue(Object)} is overwritten in an extension of this class,
+ * 	all columns are read with {@link ResultSet#getObject(int)} and formatted by
+ * 	{@link #formatColValue(Object)} (as it was before the converters).
+ * </i></p>
+ *
  * @author Gr&eacute;gory Mantelet (ARI;CDS)
- * @version 2.3 (03/2019)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
-public class ResultSetTableIterator implements TableIterator {
+public class ResultSetTableIterator implements BatchTableIterator {
 
 	/** Connection associated with the ResultSet/Dataset to read.
 	 * <i>MAY be NULL</i>
@@ -71,6 +94,9 @@ public class ResultSetTableIterator implements TableIterator {
 	private final int nbColumns;
 	/** Metadata of all columns identified before the iteration. */
 	private final TAPColumn[] colMeta;
+	/** Reader/Formatter of each column (in the same order as {@link #colMeta}).
+	 * @since 2.4 */
+	private final ColumnConverter[] converters;
 
 	/** Indicate whether the row iteration has already started. */
 	private boolean iterationStarted = false;
@@ -596,6 +622,11 @@ public class ResultSetTableIterator implements TableIterator {
 					colMeta[i - 1] = new TAPColumn(metadata.getColumnLabel(i), datatype);
 				}
 			}
+			// choose how to read and format each column:
+			converters = new ColumnConverter[nbColumns];
+			final boolean customFormat = isFormatColValueOverwritten();
+			for(int i = 1; i <= nbColumns; i++)
+				converters[i - 1] = (customFormat ? new DefaultConverter() : createConverter(i, metadata, colMeta[i - 1], dbms));
 		}catch(SQLException se){
 			throw new DataReadException("Can not get the column types of the given ResultSet!", se);
 		}
@@ -637,6 +668,54 @@ public class ResultSetTableIterator implements TableIterator {
 		}
 	}
 
+	/**
+	 * <p>Read the next rows and store them in the given batch.</p>
+	 *
+	 * <p>
+	 * 	Exactly as {@link #nextCol()}, each column value is read and formatted by
+	 * 	the {@link ColumnConverter} of its column before being stored in the batch.
+	 * 	Numeric values are then never boxed.
+	 * </p>
+	 *
+	 * @see BatchTableIterator#nextBatch(ColumnBatch)
+	 *
+	 * @since 2.4
+	 */
+	@Override
+	public int nextBatch(final ColumnBatch batch) throws NullPointerException, DataReadException{
+		if (batch == null)
+			throw new NullPointerException("Missing batch to fill!");
+
+		batch.clear();
+
+		// If no more rows, return 0 directly:
+		if (endReached)
+			return 0;
+
+		iterationStarted = true;
+		try{
+			while(!batch.isFull()){
+				// go to the next row:
+				if (!data.next()){
+					endReached = true;
+					break;
+				}
+
+				// read and format all its columns:
+				int row = batch.newRow();
+				for(colIndex = 1; colIndex <= nbColumns; colIndex++)
+					converters[colIndex - 1].fill(data, colIndex, batch, colIndex - 1, row);
+			}
+		}catch(SQLException se){
+			throw new DataReadException("Can not read the value of the " + colIndex + "-th column!", se);
+		}
+
+		// all the columns of the last row are now read:
+		colIndex = nbColumns;
+
+		return batch.getRowCount();
+	}
+
 	/**
 	 * <p>Check the row iteration state. That's to say whether:</p>
 	 * <ul>
@@ -665,6 +744,10 @@ public class ResultSetTableIterator implements TableIterator {
 	/**
 	 * <p>Return the value of the next column and format it (see {@link #formatColValue(Object)}).</p>
 	 *
+	 * <p><i>Note:
+	 * 	The value is read and formatted by the {@link ColumnConverter} chosen at creation for this column.
+	 * </i></p>
+	 *
 	 * <p><i>Note: The column type can be fetched using {@link #getColType()} <b>after</b> a call to {@link #nextCol()}.</i></p>
 	 *
 	 * @return	Get the value of the next column.
@@ -684,8 +767,8 @@ public class ResultSetTableIterator implements TableIterator {
 
 		// Get the column value:
 		try{
-			Object o = data.getObject(++colIndex);
-			return formatColValue(o);
+			colIndex++;
+			return converters[colIndex - 1].getValue(data, colIndex);
 		}catch(SQLException se){
 			throw new DataReadException("Can not read the value of the " + colIndex + "-th column!", se);
 		}
@@ -800,6 +883,146 @@ public class ResultSetTableIterator implements TableIterator {
 		return colMeta[colIndex - 1].getDatatype();
 	}
 
+	/**
+	 * Tell whether {@link #formatColValue(Object)} is overwritten by the
+	 * class of this iterator.
+	 *
+	 * @return	<i>true</i> if an extension of this class defines its own
+	 *        	{@link #formatColValue(Object)},
+	 *        	<i>false</i> otherwise.
+	 *
+	 * @since 2.4
+	 */
+	private boolean isFormatColValueOverwritten(){
+		for(Class<?> c = getClass(); c != null && c != ResultSetTableIterator.class; c = c.getSuperclass()){
+			try{
+				c.getDeclaredMethod("formatColValue", Object.class);
+				return true;
+			}catch(NoSuchMethodException nsme){}
+		}
+		return false;
+	}
+
+	/**
+	 * <p>Choose how the specified column must be read and formatted.</p>
+	 *
+	 * <p>
+	 * 	The choice is based on the JDBC type ({@link ResultSetMetaData#getColumnType(int)})
+	 * 	and class ({@link ResultSetMetaData#getColumnClassName(int)}) of the column,
+	 * 	and on its TAP type. A specialized converter is returned only when both
+	 * 	JDBC information agree ; otherwise, the value will be read with
+	 * 	{@link ResultSet#getObject(int)} and formatted with {@link #formatColValue(Object)}.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	SQLite columns are always read with {@link ResultSet#getObject(int)}, because the
+	 * 	class of a SQLite value depends on the value itself and not on the column.
+	 * </i></p>
+	 *
+	 * @param index		Index of the column in the {@link ResultSet} (starting from 1).
+	 * @param metadata	Metadata of the {@link ResultSet}.
+	 * @param column	TAP metadata of this column.
+	 * @param dbms		Lower-case string which indicates from which DBMS the ResultSet is coming. <i>note: MAY be NULL.</i>
+	 *
+	 * @return	The converter to use for this column.
+	 *
+	 * @throws SQLException	If the JDBC metadata of this column can not be fetched.
+	 *
+	 * @since 2.4
+	 */
+	protected ColumnConverter createConverter(final int index, final ResultSetMetaData metadata, final TAPColumn column, final String dbms) throws SQLException{
+		final DBType colType = column.getDatatype();
+
+		// SQLite: the class of a value is not determined by its column:
+		if (dbms != null && dbms.equals("sqlite"))
+			return new DefaultConverter();
+
+		final int jdbcType = metadata.getColumnType(index);
+		final String className = metadata.getColumnClassName(index);
+		if (className == null)
+			return new DefaultConverter();
+
+		switch(jdbcType){
+			case Types.TIME:
+				if (className.equals(Time.class.getName()))
+					return new TimeConverter();
+				break;
+
+			case Types.DATE:
+				if (className.equals(Date.class.getName()))
+					return new DateConverter();
+				break;
+
+			case Types.TIMESTAMP:
+				if (className.equals(Timestamp.class.getName()))
+					return new TimestampConverter();
+				break;
+
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+				if (className.equals(BigDecimal.class.getName()))
+					return new BigDecimalConverter((colType == null) ? null : colType.type);
+				break;
+
+			case Types.BOOLEAN:
+			case Types.BIT:
+				if (className.equals(Boolean.class.getName()))
+					return new BooleanConverter();
+				break;
+
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				if (className.equals(Integer.class.getName())){
+					if (colType != null && colType.type == DBDatatype.SMALLINT)
+						return new IntegerToShortConverter();
+					else
+						return new IntegerConverter();
+				}else if (className.equals(Short.class.getName()))
+					return new ShortConverter();
+				break;
+
+			case Types.BIGINT:
+				if (className.equals(Long.class.getName()))
+					return new LongConverter();
+				break;
+
+			case Types.REAL:
+				if (className.equals(Float.class.getName()))
+					return new FloatConverter();
+				break;
+
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				if (className.equals(Double.class.getName()))
+					return new DoubleConverter();
+				break;
+
+			case Types.CHAR:
+			case Types.VARCHAR:
+			case Types.LONGVARCHAR:
+			case Types.NCHAR:
+			case Types.NVARCHAR:
+			case Types.LONGNVARCHAR:
+				if (className.equals(String.class.getName())){
+					if (colType != null && colType.type == DBDatatype.CHAR && (colType.length == 1 || colType.length <= 0))
+						return new CharConverter();
+					else if (translator != null && colType != null && colType.isGeometry())
+						return new GeometryConverter();
+					else
+						return new StringConverter();
+				}
+				break;
+		}
+
+		// Geometries are always read with getObject(...):
+		if (translator != null && colType != null && colType.isGeometry())
+			return new GeometryConverter();
+
+		// By default, use getObject(...) and formatColValue(...):
+		return new DefaultConverter();
+	}
+
 	/**
 	 * <p>Convert the given DBMS type into the corresponding {@link DBType} instance.</p>
 	 *
@@ -953,4 +1176,365 @@ public class ResultSetTableIterator implements TableIterator {
 		}
 	}
 
+	/* ********************************************************************** */
+	/* COLUMN CONVERTERS                                                      */
+	/* ********************************************************************** */
+
+	/**
+	 * <p>Read and format the value of one column of the current {@link ResultSet} row.</p>
+	 *
+	 * <p>
+	 * 	One instance is chosen for each column when the iterator is created
+	 * 	(see {@link ResultSetTableIterator#createConverter(int, ResultSetMetaData, TAPColumn, String)}),
+	 * 	so that the column type is not checked again for each row.
+	 * </p>
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected static abstract class ColumnConverter {
+		/**
+		 * Read and format the value of the specified column in the current row.
+		 *
+		 * @param rs	The {@link ResultSet} to read.
+		 * @param index	Index of the column to read (starting from 1).
+		 *
+		 * @return	The formatted value. <i>MAY be NULL</i>
+		 *
+		 * @throws SQLException			If the value can not be read.
+		 * @throws DataReadException	If the value can not be formatted.
+		 */
+		public abstract Object getValue(final ResultSet rs, final int index) throws SQLException, DataReadException;
+
+		/**
+		 * <p>Read and format the value of the specified column in the current row,
+		 * and store it in the given batch.</p>
+		 *
+		 * <p><i>Note:
+		 * 	By default, the value returned by {@link #getValue(ResultSet, int)} is stored.
+		 * 	Converters of numeric columns should overwrite this function in order to
+		 * 	avoid boxing the value.
+		 * </i></p>
+		 *
+		 * @param rs	The {@link ResultSet} to read.
+		 * @param index	Index of the column to read (starting from 1).
+		 * @param batch	The batch in which the value must be stored.
+		 * @param col	Index of the column in the batch (starting from 0).
+		 * @param row	Index of the row in the batch (starting from 0).
+		 *
+		 * @throws SQLException			If the value can not be read.
+		 * @throws DataReadException	If the value can not be formatted.
+		 */
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException, DataReadException{
+			batch.setValue(col, row, getValue(rs, index));
+		}
+	}
+
+	/**
+	 * Read the value with {@link ResultSet#getObject(int)} and format it with
+	 * {@link ResultSetTableIterator#formatColValue(Object)}.
+	 *
+	 * @since 2.4
+	 */
+	protected class DefaultConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException, DataReadException{
+			return formatColValue(rs.getObject(index));
+		}
+	}
+
+	/**
+	 * Read a {@link Time} and format it into an ISO8601 time (i.e. with the format: HH:mm:ss).
+	 *
+	 * @since 2.4
+	 */
+	protected static class TimeConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			Time time = rs.getTime(index);
+			return (time == null) ? null : timeFormat.format(time);
+		}
+	}
+
+	/**
+	 * Read a {@link Date} and format it into an ISO8601 date (i.e. with the format: yyyy-MM-dd).
+	 *
+	 * @since 2.4
+	 */
+	protected static class DateConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			Date date = rs.getDate(index);
+			return (date == null) ? null : dateFormat.format(date);
+		}
+	}
+
+	/**
+	 * Read a {@link Timestamp} and format it into an ISO8601 date-time (see {@link ISO8601Format}).
+	 *
+	 * @since 2.4
+	 */
+	protected static class TimestampConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			Timestamp timestamp = rs.getTimestamp(index);
+			return (timestamp == null) ? null : ISO8601Format.format(timestamp);
+		}
+	}
+
+	/**
+	 * Read a {@link BigDecimal} and convert it into the Java type matching the TAP type of the column
+	 * (because BigDecimal is supported neither in FITS nor in VOTable).
+	 *
+	 * @since 2.4
+	 */
+	protected static class BigDecimalConverter extends ColumnConverter {
+		/** TAP type of the column. <i>MAY be NULL</i> */
+		private final DBDatatype targetType;
+
+		/**
+		 * @param targetType	TAP type of the column. <i>MAY be NULL</i>
+		 */
+		public BigDecimalConverter(final DBDatatype targetType){
+			this.targetType = targetType;
+		}
+
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			BigDecimal bd = rs.getBigDecimal(index);
+			if (bd == null)
+				return null;
+			else if (targetType == DBDatatype.BIGINT)
+				return bd.longValue();
+			else if (targetType == DBDatatype.INTEGER)
+				return bd.intValue();
+			else if (targetType == DBDatatype.SMALLINT)
+				return bd.shortValue();
+			else if (targetType == DBDatatype.REAL)
+				return bd.floatValue();
+			else
+				return bd.doubleValue();
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			BigDecimal bd = rs.getBigDecimal(index);
+			if (bd == null)
+				batch.setNull(col, row);
+			else if (targetType == DBDatatype.BIGINT)
+				batch.setLong(col, row, bd.longValue());
+			else if (targetType == DBDatatype.INTEGER)
+				batch.setInt(col, row, bd.intValue());
+			else if (targetType == DBDatatype.SMALLINT)
+				batch.setShort(col, row, bd.shortValue());
+			else if (targetType == DBDatatype.REAL)
+				batch.setFloat(col, row, bd.floatValue());
+			else
+				batch.setDouble(col, row, bd.doubleValue());
+		}
+	}
+
+	/**
+	 * Read a boolean and format it as a SMALLINT (1 or 0).
+	 *
+	 * @since 2.4
+	 */
+	protected static class BooleanConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			boolean b = rs.getBoolean(index);
+			return rs.wasNull() ? null : (b ? Short.valueOf((short)1) : Short.valueOf((short)0));
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			boolean b = rs.getBoolean(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setShort(col, row, (short)(b ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Read an integer declared as a SMALLINT and cast it into a short
+	 * (absolutely required for the FITS format).
+	 *
+	 * @since 2.4
+	 */
+	protected static class IntegerToShortConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			int i = rs.getInt(index);
+			return rs.wasNull() ? null : Short.valueOf((short)i);
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			int i = rs.getInt(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setShort(col, row, (short)i);
+		}
+	}
+
+	/**
+	 * Read a short value.
+	 *
+	 * @since 2.4
+	 */
+	protected static class ShortConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			short s = rs.getShort(index);
+			return rs.wasNull() ? null : Short.valueOf(s);
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			short s = rs.getShort(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setShort(col, row, s);
+		}
+	}
+
+	/**
+	 * Read an integer value.
+	 *
+	 * @since 2.4
+	 */
+	protected static class IntegerConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			int i = rs.getInt(index);
+			return rs.wasNull() ? null : Integer.valueOf(i);
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			int i = rs.getInt(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setInt(col, row, i);
+		}
+	}
+
+	/**
+	 * Read a long value.
+	 *
+	 * @since 2.4
+	 */
+	protected static class LongConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			long l = rs.getLong(index);
+			return rs.wasNull() ? null : Long.valueOf(l);
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			long l = rs.getLong(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setLong(col, row, l);
+		}
+	}
+
+	/**
+	 * Read a float value.
+	 *
+	 * @since 2.4
+	 */
+	protected static class FloatConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			float f = rs.getFloat(index);
+			return rs.wasNull() ? null : Float.valueOf(f);
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			float f = rs.getFloat(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setFloat(col, row, f);
+		}
+	}
+
+	/**
+	 * Read a double value.
+	 *
+	 * @since 2.4
+	 */
+	protected static class DoubleConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			double d = rs.getDouble(index);
+			return rs.wasNull() ? null : Double.valueOf(d);
+		}
+
+		@Override
+		public void fill(final ResultSet rs, final int index, final ColumnBatch batch, final int col, final int row) throws SQLException{
+			double d = rs.getDouble(index);
+			if (rs.wasNull())
+				batch.setNull(col, row);
+			else
+				batch.setDouble(col, row, d);
+		}
+	}
+
+	/**
+	 * Read a character string.
+	 *
+	 * @since 2.4
+	 */
+	protected static class StringConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			return rs.getString(index);
+		}
+	}
+
+	/**
+	 * Read a character string declared as a single character, and return only its first character.
+	 *
+	 * @since 2.4
+	 */
+	protected static class CharConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException{
+			String str = rs.getString(index);
+			return (str == null || str.length() == 0) ? str : (Object)str.charAt(0);
+		}
+	}
+
+	/**
+	 * Read a geometrical value and serialize it in STC-S thanks to the translator.
+	 *
+	 * @since 2.4
+	 */
+	protected class GeometryConverter extends ColumnConverter {
+		@Override
+		public Object getValue(final ResultSet rs, final int index) throws SQLException, DataReadException{
+			Object colValue = rs.getObject(index);
+			if (colValue != null){
+				try{
+					Region region = translator.translateGeometryFromDB(colValue);
+					if (region != null)
+						colValue = region.toSTCS();
+				}catch(ParseException pe){
+					throw new DataReadException(pe.getMessage());
+				}
+			}
+			return colValue;
+		}
+	}
+
 }
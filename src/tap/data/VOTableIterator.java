@@ -21,6 +21,8 @@ package tap.data;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 import org.xml.sax.SAXParseException;
@@ -43,20 +45,43 @@ import uk.ac.starlink.table.TableSink;
  * 
  * <p>{@link #getColType()} will return TAP type based on the type declared in the VOTable metadata part.</p>
  * 
- * @author Gr&eacute;gory Mantelet (ARI)
- * @version 2.1 (03/2017)
+ * <p><i>Note:
+ * 	Rows can also be read by block thanks to {@link #nextBatch(ColumnBatch)}.
+ * </i></p>
+ * 
+ * <p><i>Note:
+ * 	The VOTable is parsed in a separate thread. The parsed rows are handed over to this iterator
+ * 	by batches (see {@link #VOTableIterator(InputStream, int)}), so that both threads synchronize
+ * 	themselves only once per batch.
+ * </i></p>
+ * 
+ * @author Gr&eacute;gory Mantelet (ARI;CDS)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
-public class VOTableIterator implements TableIterator {
+public class VOTableIterator implements BatchTableIterator {
 
 	/** Message of the IOException sent when the streaming is aborted. */
 	protected static final String STREAM_ABORTED_MESSAGE = "Streaming aborted!";
 
+	/** Default number of rows transferred at once from the VOTable parsing thread to the {@link VOTableIterator}.
+	 * @since 2.4 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/** Maximum number of row batches which can wait to be fetched by the {@link VOTableIterator}.
+	 * When this limit is reached, the VOTable parsing thread waits until a batch has been fetched.
+	 * @since 2.4 */
+	public static final int MAX_PENDING_BATCHES = 4;
+
 	/**
 	 * <p>This class lets consume the metadata and rows of a VOTable document.</p>
 	 * 
 	 * <p>
-	 * 	On the contrary to a usual TableSink, this one will stop after each row until this row has been fetched by {@link VOTableIterator}.
+	 * 	On the contrary to a usual TableSink, this one will not keep all the rows in memory. Accepted rows are grouped in batches
+	 * 	of a fixed size ; each full batch is handed over to {@link VOTableIterator} through a bounded queue. The parsing thread
+	 * 	waits only when {@link VOTableIterator#MAX_PENDING_BATCHES} batches are still waiting to be fetched, and the reading
+	 * 	thread waits only when it has consumed all the rows of its current batch. Thus, the threads synchronize themselves
+	 * 	once per batch instead of once per row.
 	 * </p>
 	 * 
 	 * <p>
@@ -65,8 +90,8 @@ public class VOTableIterator implements TableIterator {
 	 * 	{@link VOTableIterator}.
 	 * </p>
 	 * 
-	 * @author Gr&eacute;gory Mantelet (ARI)
-	 * @version 2.1 (03/2017)
+	 * @author Gr&eacute;gory Mantelet (ARI;CDS)
+	 * @version 2.4 (10/2026)
 	 * @since 2.0
 	 */
 	protected static class StreamVOTableSink implements TableSink {
@@ -79,12 +104,55 @@ public class VOTableIterator implements TableIterator {
 		/** The error which happened while converting the StarTable metadata into TAP metadata. */
 		private DataReadException metaError = null;
 
-		/** The last accepted row. */
-		private Object[] pendingRow = null;
+		/** Number of rows of a full batch.
+		 * @since 2.4 */
+		private final int batchSize;
+
+		/** Batches of rows ready to be fetched by {@link #getRow()}, the oldest first.
+		 * <i>Its size never exceeds {@link VOTableIterator#MAX_PENDING_BATCHES} + 1.</i>
+		 * @since 2.4 */
+		private final ArrayDeque<Object[][]> readyBatches;
+
+		/** Batch being filled by the VOTable parsing thread. <i>Only accessed by this thread.</i>
+		 * @since 2.4 */
+		private Object[][] fillingBatch = null;
+		/** Number of rows already stored in {@link #fillingBatch}.
+		 * @since 2.4 */
+		private int nbFilled = 0;
+
+		/** Batch whose rows are being returned by {@link #getRow()}. <i>Only accessed by the reading thread.</i>
+		 * @since 2.4 */
+		private Object[][] readingBatch = null;
+		/** Index of the next row of {@link #readingBatch} to return.
+		 * @since 2.4 */
+		private int indReading = 0;
 
-		/** Flag meaning that the end of the stream has been reached
-		 * OR if the VOTable reading should be stopped before reading more rows. */
-		private boolean endReached = false;
+		/** Flag meaning that all rows have been accepted ; the remaining ones are all in {@link #readyBatches}.
+		 * @since 2.4 */
+		private boolean rowsComplete = false;
+
+		/** Flag meaning that the VOTable reading should be stopped before reading more rows. */
+		private volatile boolean endReached = false;
+
+		/**
+		 * Build a TableSink transferring rows by batches of {@link VOTableIterator#DEFAULT_BATCH_SIZE} rows.
+		 */
+		public StreamVOTableSink(){
+			this(DEFAULT_BATCH_SIZE);
+		}
+
+		/**
+		 * Build a TableSink transferring rows by batches of the given size.
+		 * 
+		 * @param batchSize	Number of rows to transfer at once to {@link VOTableIterator}.
+		 *                 	<i>If negative or 0, {@link VOTableIterator#DEFAULT_BATCH_SIZE} will be used.</i>
+		 * 
+		 * @since 2.4
+		 */
+		public StreamVOTableSink(final int batchSize){
+			this.batchSize = (batchSize <= 0) ? DEFAULT_BATCH_SIZE : batchSize;
+			readyBatches = new ArrayDeque<Object[][]>(MAX_PENDING_BATCHES + 1);
+		}
 
 		/**
 		 * <p>Stop nicely reading the VOTable.</p>
@@ -93,8 +161,16 @@ public class VOTableIterator implements TableIterator {
 		 * 	An exception will be thrown to the STILTS class using this TableSink,
 		 * 	but no exception should be thrown to VOTableIterator.
 		 * </p>
+		 * 
+		 * <p><i>Note:
+		 * 	This function is expected to be called by the reading thread, when no more rows are needed.
+		 * 	So, all the rows not yet fetched are discarded.
+		 * </i></p>
 		 */
 		public void stop(){
+			synchronized(this){
+				readyBatches.clear();
+			}
 			stop(null);
 		}
 
@@ -106,6 +182,10 @@ public class VOTableIterator implements TableIterator {
 		 * 	but no exception should be thrown to VOTableIterator.
 		 * </p>
 		 * 
+		 * <p><i>Note:
+		 * 	The rows already handed over to VOTableIterator can still be fetched with {@link #getRow()}.
+		 * </i></p>
+		 * 
 		 * @param reason	Reason why this Sink should be stop.
 		 *              	<i>This should be used in case of external grave error that
 		 *              	should be raised when trying to access data through
@@ -160,32 +240,61 @@ public class VOTableIterator implements TableIterator {
 		}
 
 		@Override
-		public synchronized void acceptRow(final Object[] row) throws IOException{
+		public void acceptRow(final Object[] row) throws IOException{
+			/* If the end has been reached, this is not normal
+			 * (because endRows() is always called after acceptRow()...so, it means the iteration has been aborted before the end)
+			 * and so the stream reading should be interrupted: */
+			if (endReached)
+				throw new IOException(STREAM_ABORTED_MESSAGE);
+
+			/* Security for the cases where a row to accept is NULL.
+			 * This case is not supposed to happen because the caller of acceptRow(...) should not give a NULL row...
+			 * ...which should then mean that the end of the stream has been reached. */
+			if (row == null){
+				endRows();
+				return;
+			}
+
+			// Append the row to the batch being filled (no synchronization needed, only this thread uses it):
+			if (fillingBatch == null)
+				fillingBatch = new Object[batchSize][];
+			fillingBatch[nbFilled++] = row;
+
+			// Hand over the batch once full:
+			if (nbFilled == batchSize)
+				handOverBatch();
+		}
+
+		/**
+		 * <p>Wait until there is room in the queue of ready batches, and then append the batch being filled to it.</p>
+		 * 
+		 * <p><i>Note:
+		 * 	If the thread is interrupted while waiting, this TableSink is set in a state similar to
+		 * 	when the end of the stream has been reached, and the rows of the batch are discarded.
+		 * </i></p>
+		 * 
+		 * @throws IOException	If the reading has been stopped.
+		 * 
+		 * @since 2.4
+		 */
+		private synchronized void handOverBatch() throws IOException{
 			try{
-				// Wait until the last accepted row has been consumed:
-				while(!endReached && pendingRow != null)
+				// Wait until the oldest batches have been consumed:
+				while(!endReached && readyBatches.size() >= MAX_PENDING_BATCHES)
 					wait();
 
-				/* If the end has been reached, this is not normal
-				 * (because endRows() is always called after acceptRow()...so, it means the iteration has been aborted before the end)
-				 * and so the stream reading should be interrupted: */
+				// Interrupt the stream reading if aborted in the meantime:
 				if (endReached)
 					throw new IOException(STREAM_ABORTED_MESSAGE);
 
-				// Otherwise, keep the given row:
-				pendingRow = row;
-
-				/* Security for the cases where a row to accept is NULL.
-				 * In such case, pendingRow will be set to NULL and the function getRow() will wait for ever.
-				 * This case is not supposed to happen because the caller of acceptRow(...) should not give a NULL row...
-				 * ...which should then mean that the end of the stream has been reached. */
-				if (pendingRow == null)
-					endReached = true;
+				// Otherwise, make the batch available:
+				queueFilledRows();
 
 			}catch(InterruptedException ie){
 				/* If the thread has been interrupted, set this TableSink in a state similar to
 				 * when the end of the stream has been reached: */
-				pendingRow = null;
+				fillingBatch = null;
+				nbFilled = 0;
 				endReached = true;
 
 			}finally{
@@ -194,22 +303,48 @@ public class VOTableIterator implements TableIterator {
 			}
 		}
 
+		/**
+		 * <p>Make the rows accepted so far (if any) available to {@link #getRow()}, whatever is the number of pending batches.</p>
+		 * 
+		 * <p><i>Note:
+		 * 	This function must be called only by the VOTable parsing thread.
+		 * 	It lets not loose the last rows accepted before the end of the stream or before an error.
+		 * </i></p>
+		 * 
+		 * @since 2.4
+		 */
+		protected synchronized void flushRows(){
+			if (!endReached)
+				queueFilledRows();
+			else{
+				fillingBatch = null;
+				nbFilled = 0;
+			}
+			notifyAll();
+		}
+
+		/**
+		 * Append the rows of the batch being filled to the queue of ready batches (if not empty),
+		 * and start a new batch.
+		 * 
+		 * @since 2.4
+		 */
+		private void queueFilledRows(){
+			if (nbFilled > 0){
+				readyBatches.add((nbFilled == fillingBatch.length) ? fillingBatch : Arrays.copyOf(fillingBatch, nbFilled));
+				fillingBatch = null;
+				nbFilled = 0;
+			}
+		}
+
 		@Override
 		public synchronized void endRows() throws IOException{
-			try{
-				// Wait until the last accepted row has been consumed:
-				while(!endReached && pendingRow != null)
-					wait();
-			}catch(InterruptedException ie){
-				/* Nothing to do in particular ; the end of the stream will be set anyway. */
-			}finally{
-				// No more rows are available:
-				pendingRow = null;
-				// Set the END flag:
-				endReached = true;
-				// Notify all waiting threads that the end has been reached:
-				notifyAll();
-			}
+			// Make the last accepted rows available:
+			flushRows();
+			// No more rows will be accepted:
+			rowsComplete = true;
+			// Notify all waiting threads that the end has been reached:
+			notifyAll();
 		}
 
 		/**
@@ -256,41 +391,62 @@ public class VOTableIterator implements TableIterator {
 		}
 
 		/**
-		 * <p>Get the last accepted row.</p>
+		 * <p>Get the next accepted row.</p>
 		 * 
 		 * <p><i>Note:
-		 * 	This function is blocking until a row has been accepted or the end of the stream has been reached.
+		 * 	This function is blocking only when all the rows of the current batch have been returned,
+		 * 	until a new batch is available or the end of the stream has been reached.
 		 * 	A Thread interruption will also make this function returning.
 		 * </i></p>
 		 * 
-		 * @return	The last accepted row,
+		 * @return	The next accepted row,
 		 * 			or <i>NULL</i> if no more rows are available or if the iteration has been interrupted/canceled.
 		 */
-		public synchronized Object[] getRow(){
+		public Object[] getRow(){
+			// Fetch the next batch if the current one has been entirely read:
+			if ((readingBatch == null || indReading >= readingBatch.length) && !fetchBatch())
+				return null;
+
+			// Return the next row of the current batch (and forget it, so that it can be garbage collected):
+			Object[] row = readingBatch[indReading];
+			readingBatch[indReading++] = null;
+			return row;
+		}
+
+		/**
+		 * <p>Wait for the next batch of rows and make it the current one.</p>
+		 * 
+		 * <p><i>Note:
+		 * 	If the thread is interrupted while waiting, this TableSink is set in a state similar to
+		 * 	when the end of the stream has been reached.
+		 * </i></p>
+		 * 
+		 * @return	<i>true</i> if a new batch is available,
+		 *        	<i>false</i> if no more rows are available or if the iteration has been interrupted/canceled.
+		 * 
+		 * @since 2.4
+		 */
+		private synchronized boolean fetchBatch(){
+			readingBatch = null;
+			indReading = 0;
 			try{
-				// Wait until a row has been accepted or the end has been reached:
-				while(!endReached && pendingRow == null)
+				// Wait until a batch is available or the end has been reached:
+				while(!endReached && !rowsComplete && readyBatches.isEmpty())
 					wait();
 
-				// If there is no more rows, just return NULL (meaning for the called "end of stream"):
-				if (endReached && pendingRow == null)
-					return null;
-
-				/* Otherwise, reset pendingRow to NULL in order to enable the reading of the next row,
-				 * and finally return the last accepted row: */
-				Object[] row = pendingRow;
-				pendingRow = null;
-				return row;
+				// Take the oldest batch (NULL if there are no more rows, meaning for the caller "end of stream"):
+				readingBatch = readyBatches.poll();
+				return (readingBatch != null);
 
 			}catch(InterruptedException ie){
 				/* If the thread has been interrupted, set this TableSink in a state similar to
 				 * when the end of the stream has been reached: */
 				endReached = true;
-				// Return NULL, meaning the end of the stream has been reached:
-				return null;
+				// Return false, meaning the end of the stream has been reached:
+				return false;
 
 			}finally{
-				// In all cases, the waiting threads must be freed:
+				// In all cases, the waiting threads must be freed (the parsing thread may wait for room):
 				notifyAll();
 			}
 		}
@@ -380,7 +536,11 @@ public class VOTableIterator implements TableIterator {
 	protected int nbCol = 0;
 
 	/**
-	 * Build a TableIterator able to read rows and columns inside the given VOTable input stream.
+	 * <p>Build a TableIterator able to read rows and columns inside the given VOTable input stream.</p>
+	 * 
+	 * <p><i>Note:
+	 * 	Rows are transferred from the parsing thread by batches of {@link #DEFAULT_BATCH_SIZE} rows.
+	 * </i></p>
 	 * 
 	 * @param input	Input stream over a VOTable document.
 	 * 
@@ -388,6 +548,22 @@ public class VOTableIterator implements TableIterator {
 	 * @throws DataReadException	If the given VOTable can not be parsed.
 	 */
 	public VOTableIterator(final InputStream input) throws DataReadException{
+		this(input, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Build a TableIterator able to read rows and columns inside the given VOTable input stream.
+	 * 
+	 * @param input		Input stream over a VOTable document.
+	 * @param batchSize	Number of rows transferred at once from the parsing thread to this iterator.
+	 *                 	<i>If negative or 0, {@link #DEFAULT_BATCH_SIZE} will be used.</i>
+	 * 
+	 * @throws NullPointerException	If NULL is given in parameter.
+	 * @throws DataReadException	If the given VOTable can not be parsed.
+	 * 
+	 * @since 2.4
+	 */
+	public VOTableIterator(final InputStream input, final int batchSize) throws DataReadException{
 		// An input stream MUST BE provided:
 		if (input == null)
 			throw new NullPointerException("Missing VOTable document input stream over which to iterate!");
@@ -399,7 +575,7 @@ public class VOTableIterator implements TableIterator {
 			final TableBuilder tb = (new StarTableFactory()).getTableBuilder("votable");
 
 			// Build the TableSink to use:
-			sink = new StreamVOTableSink();
+			sink = new StreamVOTableSink(batchSize);
 
 			// Initiate the stream process:
 			Thread streamThread = new Thread(){
@@ -408,6 +584,9 @@ public class VOTableIterator implements TableIterator {
 					try{
 						tb.streamStarTable(input, sink, null);
 					}catch(IOException e){
+						/* Keep the rows accepted before the error
+						 * (they would otherwise be lost in the partially filled batch): */
+						sink.flushRows();
 						/* Stop the VOTable sink
 						 *(otherwise it may still waiting for a Thread notification to wake it up): */
 						sink.stop(e);
@@ -447,6 +626,48 @@ public class VOTableIterator implements TableIterator {
 		return !endReached;
 	}
 
+	/**
+	 * @since 2.4
+	 */
+	@Override
+	public int nextBatch(final ColumnBatch batch) throws NullPointerException, DataReadException{
+		if (batch == null)
+			throw new NullPointerException("Missing batch to fill!");
+
+		batch.clear();
+
+		// If no more rows, return 0 directly:
+		if (endReached)
+			return 0;
+
+		while(!batch.isFull()){
+			// Fetch the row:
+			row = sink.getRow();
+
+			// Initialize the column iteration:
+			if (!iterationStarted){
+				iterationStarted = true;
+				nbCol = sink.getMeta().length;
+			}
+
+			// Stop if there is no more rows:
+			if (row == null){
+				endReached = true;
+				break;
+			}
+
+			// Copy all its fields:
+			int indRow = batch.newRow();
+			for(int c = 0; c < nbCol; c++)
+				batch.setValue(c, indRow, row[c]);
+		}
+
+		// All the fields of the last row are now read:
+		indCol = nbCol;
+
+		return batch.getRowCount();
+	}
+
 	@Override
 	public boolean hasNextCol() throws IllegalStateException, DataReadException{
 		// Check the read state:
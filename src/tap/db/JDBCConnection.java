@@ -16,10 +16,11 @@ package tap.db;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2023 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
@@ -32,8 +33,10 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -47,7 +50,9 @@ import adql.query.ADQLQuery;
 import adql.query.IdentifierField;
 import adql.translator.ADQLTranslator;
 import adql.translator.JDBCTranslator;
+import adql.translator.ParameterizedSQL;
 import adql.translator.TranslationException;
+import tap.ADQLQueryCache;
 import tap.data.DataReadException;
 import tap.data.ResultSetTableIterator;
 import tap.data.TableIterator;
@@ -180,8 +185,40 @@ import uws.service.log.UWSLog.LogLevel;
  * 	{@link ResultSetTableIterator#close()} for more details).
  * </i></p>
  *
+ *
+ * <h3>Bulk load of uploaded tables</h3>
+ *
+ * <p>
+ * 	With PostgreSQL, uploaded rows can be streamed into the table with a <code>COPY ... FROM STDIN</code> command
+ * 	instead of being inserted with <code>INSERT</code> statements. This is much faster for large tables.
+ * 	This feature is disabled by default ; it can be enabled with {@link #setUploadCopyFormat(PgCopyWriter.Format)}.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	If the JDBC connection is not a PostgreSQL one (see {@link PgCopyWriter#isSupported(Connection)}),
+ * 	this feature is automatically disabled and rows are inserted as usual.
+ * </i></p>
+ *
+ *
+ * <h3>Prepared statements</h3>
+ *
+ * <p>
+ * 	ADQL queries can be translated with bind parameters (see {@link JDBCTranslator#translateWithParameters(ADQLQuery)})
+ * 	and executed with a {@link PreparedStatement}. The prepared statements are kept open in a cache of this connection,
+ * 	indexed by their SQL. So, when a query differing only by its constraint values is executed again with the same
+ * 	connection, the same prepared statement is reused and the DBMS does not have to parse and plan it again (with
+ * 	PostgreSQL, after a few executions ; see the JDBC parameter <code>prepareThreshold</code>).
+ * 	This feature is disabled by default ; it can be enabled with {@link #setStatementCacheSize(int)}.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	String constants are bound as <code>VARCHAR</code>. Some DBMS may then refuse to compare them with a column of
+ * 	another type (e.g. a timestamp). With PostgreSQL, the JDBC parameter <code>stringtype=unspecified</code> solves
+ * 	this problem.
+ * </i></p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (08/2023)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
 public class JDBCConnection implements DBConnection {
@@ -207,8 +244,13 @@ public class JDBCConnection implements DBConnection {
 	 * @since 2.1 */
 	protected final static String COOSYS_ID_COLUMN = "coosys_id";
 
-	/** Connection ID (typically, the job ID). It lets identify the DB errors linked to the Job execution in the logs. */
-	protected final String ID;
+	/** Connection ID (typically, the job ID). It lets identify the DB errors linked to the Job execution in the logs.
+	 * <p><i>Note:
+	 * 	Since v2.4, this ID is no longer final, so that a connection kept in a
+	 * 	{@link JDBCConnectionPool} can be labelled with the ID of the job it is
+	 * 	lent to (see {@link #setID(String)}).
+	 * </i></p> */
+	protected volatile String ID;
 
 	/** JDBC connection (created and initialized at the creation of this {@link JDBCConnection} instance). */
 	protected final Connection connection;
@@ -308,6 +350,31 @@ public class JDBCConnection implements DBConnection {
 	 * <p><i>Note 2: if this feature is enabled (i.e. has a value &gt; 0), the AutoCommit will be disabled.</i></p> */
 	protected int fetchSize = DEFAULT_FETCH_SIZE;
 
+	/* BULK LOAD OF UPLOADED TABLES */
+
+	/** <p>Format of the PostgreSQL <code>COPY</code> command used to fill uploaded tables.</p>
+	 * <p>If NULL, rows are inserted with <code>INSERT</code> statements (in batches if supported).</p>
+	 * <p><i>Note: if the JDBC connection turns out not to be a PostgreSQL one, this attribute is set back to NULL.</i></p>
+	 * @since 2.4 */
+	protected PgCopyWriter.Format uploadCopyFormat = null;
+
+	/* PREPARED STATEMENTS */
+
+	/** <p>Maximum number of prepared statements kept open by this connection.</p>
+	 * <p>If negative or null, ADQL queries are translated without bind parameters and executed with a simple {@link Statement}.</p>
+	 * @since 2.4 */
+	protected int statementCacheSize = 0;
+
+	/** Prepared statements kept open by this connection, indexed by their SQL.
+	 * The least recently used statement is closed first. NULL if {@link #statementCacheSize} is negative or null.
+	 * @since 2.4 */
+	protected Map<String,PreparedStatement> preparedStatements = null;
+
+	/** Indicate whether {@link #stmt} is a prepared statement of {@link #preparedStatements}.
+	 * If <code>true</code>, it must not be closed at the end of the query.
+	 * @since 2.4 */
+	protected boolean stmtCached = false;
+
 	/* TAP_SCHEMA MAPPING */
 
 	/** Mapping of the TAP_SCHEMA items between their ADQL name and their name in the database.
@@ -470,6 +537,23 @@ public class JDBCConnection implements DBConnection {
 		return ID;
 	}
 
+	/**
+	 * <p>Change the ID of this connection.</p>
+	 *
+	 * <p>
+	 * 	This function is used by {@link JDBCConnectionPool} when an already
+	 * 	existing connection is lent to a new job: the connection then takes
+	 * 	the ID of this job so that its log messages are still easy to localize.
+	 * </p>
+	 *
+	 * @param connID	The new ID of this connection. <i>May be NULL.</i>
+	 *
+	 * @since 2.4
+	 */
+	public final void setID(final String connID){
+		ID = connID;
+	}
+
 	/**
 	 * <p>Get the JDBC connection wrapped by this {@link JDBCConnection} object.</p>
 	 *
@@ -512,20 +596,90 @@ public class JDBCConnection implements DBConnection {
 	 * @since 2.1
 	 */
 	protected Statement getStatement() throws SQLException{
-		if (hasStatement())
+		if (hasStatement() && !stmtCached)
 			return stmt;
-		else
+		else{
+			stmtCached = false;
 			return (stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+		}
+	}
+
+	/**
+	 * <p>Get the prepared statement of the given SQL query and set it as the current statement
+	 * of this {@link JDBCConnection} (i.e. {@link #stmt}).</p>
+	 *
+	 * <p>
+	 * 	The prepared statement is taken from the cache of this connection, or created and put in this cache
+	 * 	if not already there. If the cache is full, the least recently used statement is closed and removed.
+	 * </p>
+	 *
+	 * @param sql	SQL query with a <code>?</code> for each parameter.
+	 *
+	 * @return	The prepared statement. <i>Never NULL</i>
+	 *
+	 * @throws SQLException	In case a {@link PreparedStatement} can not be created.
+	 *
+	 * @since 2.4
+	 */
+	protected PreparedStatement getPreparedStatement(final String sql) throws SQLException{
+		if (preparedStatements == null){
+			preparedStatements = new LinkedHashMap<String,PreparedStatement>(16, 0.75f, true){
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String,PreparedStatement> eldest){
+					if (size() > statementCacheSize){
+						close(eldest.getValue());
+						return true;
+					}else
+						return false;
+				}
+			};
+		}
+
+		PreparedStatement pstmt = preparedStatements.get(sql);
+		if (pstmt == null || pstmt.isClosed()){
+			pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			preparedStatements.put(sql, pstmt);
+		}
+
+		stmt = pstmt;
+		stmtCached = true;
+		return pstmt;
 	}
 
 	/**
-	 * Close the only statement associated with this {@link JDBCConnection}.
+	 * Close all the prepared statements kept open by this {@link JDBCConnection}.
+	 *
+	 * @since 2.4
+	 */
+	protected void closePreparedStatements(){
+		if (preparedStatements != null){
+			for(PreparedStatement pstmt : preparedStatements.values())
+				close(pstmt);
+			preparedStatements.clear();
+		}
+		if (stmtCached){
+			stmt = null;
+			stmtCached = false;
+		}
+	}
+
+	/**
+	 * <p>Close the only statement associated with this {@link JDBCConnection}.</p>
+	 *
+	 * <p><i>Note:
+	 * 	A prepared statement of the cache (see {@link #getPreparedStatement(String)}) is not closed.
+	 * 	It is just no longer the current statement.
+	 * </i></p>
 	 *
 	 * @since 2.1
 	 */
 	protected void closeStatement(){
-		close(stmt);
+		if (!stmtCached)
+			close(stmt);
 		stmt = null;
+		stmtCached = false;
 	}
 
 	/**
@@ -688,12 +842,17 @@ public class JDBCConnection implements DBConnection {
 		resetCancel();
 
 		String sql = null;
+		ParameterizedSQL psql = null;
 		ResultSet result = null;
 		try{
-			// 1. Translate the ADQL query into SQL:
+			// 1. Translate the ADQL query into SQL (with bind parameters, if prepared statements are enabled):
 			if (logger != null)
 				logger.logDB(LogLevel.INFO, this, "TRANSLATE", "Translating ADQL: " + adqlQuery.toADQL().replaceAll("(\t|\r?\n)+", " "), null);
-			sql = translator.translate(adqlQuery);
+			if (statementCacheSize > 0){
+				psql = translator.translateWithParameters(adqlQuery);
+				sql = psql.getSQL();
+			}else
+				sql = translator.translate(adqlQuery);
 
 			// 2. Create the statement and if needed, configure it for the given fetch size:
 			if (supportsTransaction && supportsFetchSize && fetchSize > 0){
@@ -713,7 +872,10 @@ public class JDBCConnection implements DBConnection {
 				throw new DBCancelledException();
 
 			// Get a statement:
-			getStatement();
+			if (psql != null)
+				getPreparedStatement(sql);
+			else
+				getStatement();
 
 			// Adjust the fetching size of this statement:
 			if (supportsFetchSize){
@@ -729,9 +891,19 @@ public class JDBCConnection implements DBConnection {
 			}
 
 			// 3. Execute the SQL query:
-			if (logger != null)
-				logger.logDB(LogLevel.INFO, this, "EXECUTE", "SQL query: " + sql.replaceAll("(\t|\r?\n)+", " "), null);
-			result = stmt.executeQuery(sql);
+			if (psql != null){
+				if (logger != null)
+					logger.logDB(LogLevel.INFO, this, "EXECUTE", "SQL query: " + sql.replaceAll("(\t|\r?\n)+", " ") + (psql.getNbParameters() > 0 ? " ; parameters: " + psql.getParameters() : ""), null);
+				PreparedStatement pstmt = (PreparedStatement)stmt;
+				int i = 1;
+				for(Object param : psql.getParameters())
+					pstmt.setObject(i++, param);
+				result = pstmt.executeQuery();
+			}else{
+				if (logger != null)
+					logger.logDB(LogLevel.INFO, this, "EXECUTE", "SQL query: " + sql.replaceAll("(\t|\r?\n)+", " "), null);
+				result = stmt.executeQuery(sql);
+			}
 
 			// If the query has been aborted, return immediately:
 			if (isCancelled())
@@ -745,6 +917,11 @@ public class JDBCConnection implements DBConnection {
 		}catch(Exception ex){
 			// Close the ResultSet, if one was open:
 			close(result);
+			// Forget the prepared statement in case of error (it will be closed by endQuery()):
+			if (stmtCached && !isCancelled()){
+				preparedStatements.remove(sql);
+				stmtCached = false;
+			}
 			// End properly the query:
 			endQuery();
 			// Propagate the exception if it is just about the cancellation:
@@ -1533,6 +1710,12 @@ public class JDBCConnection implements DBConnection {
 	 * 	Consequently, any failure (exception/error) will not clean the partial modifications done by this function.
 	 * </i></p>
 	 *
+	 * <p><i>Note:
+	 * 	Since v2.4, {@link TAPMetadata#invalidateCache()} is called at the end of this function,
+	 * 	so that the queries checked against the former metadata are no longer taken from an
+	 * 	{@link ADQLQueryCache}.
+	 * </i></p>
+	 *
 	 * @see tap.db.DBConnection#setTAPSchema(tap.metadata.TAPMetadata)
 	 */
 	@Override
@@ -1593,6 +1776,9 @@ public class JDBCConnection implements DBConnection {
 		}finally{
 			closeStatement();
 			endTransaction();
+			// The metadata may have changed => already checked queries must be checked again:
+			if (metadata != null)
+				metadata.invalidateCache();
 		}
 	}
 
@@ -2425,6 +2611,11 @@ public class JDBCConnection implements DBConnection {
 	 * </i></p>
 	 *
 	 * <p><i>Note:
+	 * 	If a COPY format is set (see {@link #setUploadCopyFormat(PgCopyWriter.Format)}), all rows are sent with
+	 * 	{@link #copyUploadedTable(TAPTable, TableIterator)} instead.
+	 * </i></p>
+	 *
+	 * <p><i>Note:
 	 * 	This function proceeds to a formatting of TIMESTAMP and GEOMETRY (point, circle, box, polygon) values.
 	 * </i></p>
 	 *
@@ -2439,6 +2630,17 @@ public class JDBCConnection implements DBConnection {
 	 * @throws DataReadException	If there is any error while reading the data from the given {@link TableIterator} (and particularly if a limit - in byte or row - has been reached).
 	 */
 	protected int fillUploadedTable(final TAPTable metaTable, final TableIterator data) throws SQLException, DBCancelledException, DBException, DataReadException{
+		// 0. Stream all rows with a COPY command, if enabled and possible:
+		if (uploadCopyFormat != null){
+			if (PgCopyWriter.isSupported(connection))
+				return copyUploadedTable(metaTable, data);
+			else{
+				uploadCopyFormat = null;
+				if (logger != null)
+					logger.logDB(LogLevel.WARNING, this, "UPLOAD", "COPY not supported by the JDBC connection (only PostgreSQL connections can do it)! Uploaded rows will be inserted with INSERT statements.", null);
+			}
+		}
+
 		// 1. Build the SQL update query:
 		StringBuffer sql = new StringBuffer("INSERT INTO ");
 		StringBuffer varParam = new StringBuffer();
@@ -2468,45 +2670,7 @@ public class JDBCConnection implements DBConnection {
 				nbRows++;
 				int c = 1;
 				while(data.hasNextCol()){
-					Object val = data.nextCol();
-					if (val != null && cols[c - 1] != null){
-						/* TIMESTAMP FORMATTING */
-						if (cols[c - 1].getDatatype().type == DBDatatype.TIMESTAMP){
-							try{
-								val = new Timestamp(ISO8601Format.parse(val.toString()));
-							}catch(ParseException pe){
-								if (logger != null)
-									logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + nbRows + ", c. " + c + "] Unexpected date format for the value: \"" + val + "\"! A date formatted in ISO8601 was expected.", pe);
-								throw new DBException("[l. " + nbRows + ", c. " + c + "] Unexpected date format for the value: \"" + val + "\"! A date formatted in ISO8601 was expected.", pe);
-							}
-						}
-						/* GEOMETRY FORMATTING */
-						else if (cols[c - 1].getDatatype().type == DBDatatype.POINT || cols[c - 1].getDatatype().type == DBDatatype.REGION){
-							Region region;
-							// parse the region as an STC-S expression:
-							try{
-								region = STCS.parseRegion(val.toString());
-							}catch(adql.parser.ParseException e){
-								if (logger != null)
-									logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + nbRows + ", c. " + c + "] Incorrect STC-S syntax for the geometrical value \"" + val + "\"! " + e.getMessage(), e);
-								throw new DataReadException("[l. " + nbRows + ", c. " + c + "] Incorrect STC-S syntax for the geometrical value \"" + val + "\"! " + e.getMessage(), e);
-							}
-							// translate this STC region into the corresponding column value:
-							try{
-								val = translator.translateGeometryToDB(region);
-							}catch(adql.parser.ParseException e){
-								if (logger != null)
-									logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + nbRows + ", c. " + c + "] Impossible to import the ADQL geometry \"" + val + "\" into the database! " + e.getMessage(), e);
-								throw new DataReadException("[l. " + nbRows + ", c. " + c + "] Impossible to import the ADQL geometry \"" + val + "\" into the database! " + e.getMessage(), e);
-							}
-						}
-						/* BOOLEAN CASE (more generally, type incompatibility) */
-						else if (val != null && cols[c - 1].getDatatype().type == DBDatatype.SMALLINT && val instanceof Boolean)
-							val = ((Boolean)val) ? (short)1 : (short)0;
-						/* NULL CHARACTER CASE (JUST FOR POSTGRESQL) */
-						else if ((dbms == null || dbms.equalsIgnoreCase(DBMS_POSTGRES)) && val instanceof Character && (Character)val == 0x00)
-							val = null;
-					}
+					Object val = convertUploadedValue(cols[c - 1], data.nextCol(), nbRows, c);
 
 					// If the query has been aborted, return immediately:
 					if (isCancelled())
@@ -2535,6 +2699,166 @@ public class JDBCConnection implements DBConnection {
 		}
 	}
 
+	/**
+	 * <p>Fill the table uploaded by the user with the given data, using a PostgreSQL <code>COPY ... FROM STDIN</code> command.</p>
+	 *
+	 * <p>
+	 * 	Rows are encoded in the format set with {@link #setUploadCopyFormat(PgCopyWriter.Format)} and sent to the database
+	 * 	by blocks, while being read from the given {@link TableIterator}. However, the binary format is used only if
+	 * 	all column types are compatible with it (see {@link PgCopyWriter#isBinaryCompatible(DBType[])}) ; the CSV format
+	 * 	is used otherwise.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	Values are converted exactly as for an insertion (see {@link #convertUploadedValue(TAPColumn, Object, int, int)}).
+	 * </i></p>
+	 *
+	 * @param metaTable	Description of the updated table.
+	 * @param data		Iterator over the rows to insert.
+	 *
+	 * @return	Number of inserted rows.
+	 *
+	 * @throws DBCancelledException	If {@link #cancel(boolean)} has been called during the processing,
+	 * @throws DBException			If rows can not be sent to the database or if the COPY command has failed.
+	 * @throws SQLException			If the COPY command can not be started.
+	 * @throws DataReadException	If there is any error while reading the data from the given {@link TableIterator} (and particularly if a limit - in byte or row - has been reached).
+	 *
+	 * @since 2.4
+	 */
+	protected int copyUploadedTable(final TAPTable metaTable, final TableIterator data) throws SQLException, DBCancelledException, DBException, DataReadException{
+		// 1. Get the type of all columns:
+		TAPColumn[] cols = data.getMetadata();
+		DBType[] types = new DBType[cols.length];
+		for(int c = 0; c < cols.length; c++)
+			types[c] = (cols[c] == null) ? null : cols[c].getDatatype();
+
+		// 2. Choose the format:
+		PgCopyWriter.Format format = (uploadCopyFormat == PgCopyWriter.Format.BINARY && PgCopyWriter.isBinaryCompatible(types)) ? PgCopyWriter.Format.BINARY : PgCopyWriter.Format.CSV;
+
+		// 3. Build the COPY command:
+		StringBuffer sql = new StringBuffer("COPY ");
+		// ...table name:
+		sql.append(translator.getTableName(metaTable, supportsSchema)).append(" (");
+		// ...list of columns:
+		for(int c = 0; c < cols.length; c++){
+			if (c > 0)
+				sql.append(", ");
+			sql.append(translator.getColumnName(cols[c]));
+		}
+		// ...format:
+		sql.append(") FROM STDIN WITH ").append(format);
+
+		// 4. Start the COPY and send each given row:
+		PgCopyWriter writer = null;
+		int nbRows = 0;
+		try{
+			writer = PgCopyWriter.open(connection, sql.toString(), types, format);
+
+			Object[] row = new Object[cols.length];
+			while(data.nextRow()){
+				nbRows++;
+				int c = 0;
+				while(data.hasNextCol()){
+					row[c] = convertUploadedValue(cols[c], data.nextCol(), nbRows, c + 1);
+					c++;
+				}
+				// The missing columns of a short row are NULL (and not the values of the previous row):
+				Arrays.fill(row, c, row.length, null);
+
+				// If the query has been aborted, return immediately:
+				if (isCancelled())
+					throw new DBCancelledException();
+
+				try{
+					writer.writeRow(row);
+				}catch(DataReadException dre){
+					if (logger != null)
+						logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + nbRows + "] " + dre.getMessage(), dre);
+					throw new DataReadException("[l. " + nbRows + "] " + dre.getMessage(), dre);
+				}
+			}
+
+			// If the query has been aborted, return immediately:
+			if (isCancelled())
+				throw new DBCancelledException();
+
+			// 5. End the COPY:
+			long nbCopiedRows = writer.endCopy();
+			if (nbCopiedRows != nbRows)
+				throw new DBException("Unexpected number of copied rows: " + nbCopiedRows + " (expected: " + nbRows + ")!");
+
+			return nbRows;
+
+		}catch(IOException ioe){
+			throw new DBException("Impossible to send the uploaded rows to the database!", ioe);
+		}finally{
+			// Abort the COPY if it is not finished (i.e. in case of error):
+			if (writer != null)
+				writer.cancelCopy();
+		}
+	}
+
+	/**
+	 * <p>Convert the given value of an uploaded row into the value to insert in the database.</p>
+	 *
+	 * <p><i>Note:
+	 * 	This function proceeds to a formatting of TIMESTAMP and GEOMETRY (point, circle, box, polygon) values.
+	 * </i></p>
+	 *
+	 * @param col		Description of the column. <i>If NULL, the value is returned as such.</i>
+	 * @param val		The value to convert.
+	 * @param indRow	Index (from 1) of the row.
+	 * @param indCol	Index (from 1) of the column.
+	 *
+	 * @return	The value to insert.
+	 *
+	 * @throws DBException			If a date can not be parsed.
+	 * @throws DataReadException	If a geometry can not be parsed or translated.
+	 *
+	 * @since 2.4
+	 */
+	protected Object convertUploadedValue(final TAPColumn col, Object val, final int indRow, final int indCol) throws DBException, DataReadException{
+		if (val != null && col != null){
+			/* TIMESTAMP FORMATTING */
+			if (col.getDatatype().type == DBDatatype.TIMESTAMP){
+				try{
+					val = new Timestamp(ISO8601Format.parse(val.toString()));
+				}catch(ParseException pe){
+					if (logger != null)
+						logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + indRow + ", c. " + indCol + "] Unexpected date format for the value: \"" + val + "\"! A date formatted in ISO8601 was expected.", pe);
+					throw new DBException("[l. " + indRow + ", c. " + indCol + "] Unexpected date format for the value: \"" + val + "\"! A date formatted in ISO8601 was expected.", pe);
+				}
+			}
+			/* GEOMETRY FORMATTING */
+			else if (col.getDatatype().type == DBDatatype.POINT || col.getDatatype().type == DBDatatype.REGION){
+				Region region;
+				// parse the region as an STC-S expression:
+				try{
+					region = STCS.parseRegion(val.toString());
+				}catch(adql.parser.ParseException e){
+					if (logger != null)
+						logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + indRow + ", c. " + indCol + "] Incorrect STC-S syntax for the geometrical value \"" + val + "\"! " + e.getMessage(), e);
+					throw new DataReadException("[l. " + indRow + ", c. " + indCol + "] Incorrect STC-S syntax for the geometrical value \"" + val + "\"! " + e.getMessage(), e);
+				}
+				// translate this STC region into the corresponding column value:
+				try{
+					val = translator.translateGeometryToDB(region);
+				}catch(adql.parser.ParseException e){
+					if (logger != null)
+						logger.logDB(LogLevel.ERROR, this, "UPLOAD", "[l. " + indRow + ", c. " + indCol + "] Impossible to import the ADQL geometry \"" + val + "\" into the database! " + e.getMessage(), e);
+					throw new DataReadException("[l. " + indRow + ", c. " + indCol + "] Impossible to import the ADQL geometry \"" + val + "\" into the database! " + e.getMessage(), e);
+				}
+			}
+			/* BOOLEAN CASE (more generally, type incompatibility) */
+			else if (val != null && col.getDatatype().type == DBDatatype.SMALLINT && val instanceof Boolean)
+				val = ((Boolean)val) ? (short)1 : (short)0;
+			/* NULL CHARACTER CASE (JUST FOR POSTGRESQL) */
+			else if ((dbms == null || dbms.equalsIgnoreCase(DBMS_POSTGRES)) && val instanceof Character && (Character)val == 0x00)
+				val = null;
+		}
+		return val;
+	}
+
 	/**
 	 * <p><i><b>Important note:</b>
 	 * 	Only tables uploaded by users can be dropped from the database. To ensure that, the schema name of this table MUST be {@link STDSchema#UPLOADSCHEMA} ("TAP_UPLOAD") in ADQL.
@@ -3660,4 +3984,68 @@ public class JDBCConnection implements DBConnection {
 		supportsFetchSize = true;
 		fetchSize = (size > 0) ? size : IGNORE_FETCH_SIZE;
 	}
+
+	/**
+	 * Get the format of the PostgreSQL <code>COPY</code> command used to fill uploaded tables.
+	 *
+	 * @return	The COPY format,
+	 *        	or NULL if rows are inserted with <code>INSERT</code> statements.
+	 *
+	 * @since 2.4
+	 */
+	public final PgCopyWriter.Format getUploadCopyFormat(){
+		return uploadCopyFormat;
+	}
+
+	/**
+	 * <p>Set the format of the PostgreSQL <code>COPY</code> command to use to fill uploaded tables.</p>
+	 *
+	 * <p><i>Note:
+	 * 	If the JDBC connection is not a PostgreSQL one, the format will be reset to NULL
+	 * 	at the first upload, and rows will be inserted as usual.
+	 * </i></p>
+	 *
+	 * @param format	The COPY format,
+	 *              	or NULL to insert rows with <code>INSERT</code> statements (default).
+	 *
+	 * @since 2.4
+	 */
+	public void setUploadCopyFormat(final PgCopyWriter.Format format){
+		uploadCopyFormat = format;
+	}
+
+	/**
+	 * Get the maximum number of prepared statements kept open by this connection.
+	 *
+	 * @return	The maximum number of prepared statements,
+	 *        	or 0 if ADQL queries are executed without prepared statement.
+	 *
+	 * @since 2.4
+	 */
+	public final int getStatementCacheSize(){
+		return statementCacheSize;
+	}
+
+	/**
+	 * <p>Set the maximum number of prepared statements kept open by this connection.</p>
+	 *
+	 * <p>
+	 * 	If positive, ADQL queries are translated with bind parameters and executed with a {@link PreparedStatement}
+	 * 	kept open for the next queries having the same SQL translation.
+	 * 	Otherwise, they are executed with a simple {@link Statement} (default).
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	All prepared statements currently kept open are closed.
+	 * </i></p>
+	 *
+	 * @param size	The maximum number of prepared statements,
+	 *            	or a negative or null value to execute ADQL queries without prepared statement.
+	 *
+	 * @since 2.4
+	 */
+	public synchronized void setStatementCacheSize(final int size){
+		closePreparedStatements();
+		statementCacheSize = (size > 0) ? size : 0;
+	}
 }
@@ -0,0 +1,378 @@
+package tap.db;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import tap.log.TAPLog;
+import uws.service.log.UWSLog.LogLevel;
+
+/**
+ * <p>Bounded pool of {@link JDBCConnection}s.</p>
+ *
+ * <p>
+ * 	Creating a {@link JDBCConnection} means opening (or getting from a
+ * 	datasource) a JDBC connection and then detecting all features supported by
+ * 	the DBMS (transactions, batch updates, fetch size, identifiers case, ...).
+ * 	This pool keeps the whole {@link JDBCConnection} wrappers once freed, so
+ * 	that they can be lent again to another job without doing all this work
+ * 	again.
+ * </p>
+ *
+ * <p>The pool is configured with the following parameters:</p>
+ * <ul>
+ * 	<li><b>maxActive:</b> maximum number of connections that can be lent at
+ * 		the same time. When reached, {@link #getConnection(String)} waits until
+ * 		a connection is freed. <i>A negative or null value means no limit.</i></li>
+ * 	<li><b>maxIdle:</b> maximum number of free connections kept in the pool.
+ * 		Extra freed connections are merely closed.
+ * 		<i>A negative or null value means that no connection is kept.</i></li>
+ * 	<li><b>maxWait:</b> maximum time (in milliseconds) to wait for a
+ * 		connection when maxActive is reached.
+ * 		<i>A negative value means waiting indefinitely.</i></li>
+ * 	<li><b>validationTimeout:</b> time (in seconds) given to the database to
+ * 		confirm that a kept connection is still valid before lending it again
+ * 		(see {@link java.sql.Connection#isValid(int)}).
+ * 		<i>A negative value disables this validation.</i></li>
+ * </ul>
+ *
+ * <p>
+ * 	A lent connection is used by only one job at a time. So, even though the
+ * 	main functions of {@link JDBCConnection} are synchronized, several jobs can
+ * 	query the database in parallel (each with its own connection).
+ * </p>
+ *
+ * <p><i>Note:
+ * 	A connection MUST be given back to the pool with
+ * 	{@link #freeConnection(JDBCConnection)} once not needed any more, even if
+ * 	it has been closed in the meantime. A connection which is not currently
+ * 	lent by this pool (e.g. already freed) is ignored.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class JDBCConnectionPool {
+
+	/**
+	 * Object able to create a new {@link JDBCConnection} when the pool does
+	 * not have any free one.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public static interface ConnectionCreator {
+		/**
+		 * Create a new {@link JDBCConnection}.
+		 *
+		 * @param connID	ID of the connection to create (typically a job ID).
+		 *
+		 * @return	The created connection.
+		 *
+		 * @throws DBException	If the connection can not be created.
+		 */
+		public JDBCConnection createConnection(final String connID) throws DBException;
+	}
+
+	/** Object to use to create new connections. */
+	protected final ConnectionCreator creator;
+
+	/** Maximum number of connections lent at the same time.
+	 * <i>-1 means no limit.</i> */
+	protected final int maxActive;
+
+	/** Maximum number of free connections kept in this pool. */
+	protected final int maxIdle;
+
+	/** Maximum time (in milliseconds) to wait for a connection.
+	 * <i>Negative means waiting indefinitely.</i> */
+	protected final long maxWait;
+
+	/** Time (in seconds) given to the database to validate a kept connection.
+	 * <i>Negative means no validation.</i> */
+	protected final int validationTimeout;
+
+	/** Permits to lend a connection. NULL if there is no limit. */
+	protected final Semaphore permits;
+
+	/** Connections currently lent (compared by identity). */
+	protected final Set<JDBCConnection> borrowed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<JDBCConnection,Boolean>()));
+
+	/** Free connections. The most recently freed connection is at the head. */
+	protected final LinkedBlockingDeque<JDBCConnection> idle;
+
+	/** Logger to use. <i>May be NULL.</i> */
+	protected final TAPLog logger;
+
+	/** Indicate whether this pool has been closed. */
+	protected volatile boolean closed = false;
+
+	/**
+	 * Build a connection pool.
+	 *
+	 * @param creator			Object able to create new connections.
+	 * @param maxActive			Maximum number of connections lent at the same time.
+	 *                 			<i>Negative or null = no limit.</i>
+	 * @param maxIdle			Maximum number of free connections to keep.
+	 *               			<i>Negative or null = none.</i>
+	 * @param maxWait			Maximum time (in ms) to wait for a connection.
+	 *               			<i>Negative = no time limit.</i>
+	 * @param validationTimeout	Time (in seconds) given to validate a kept connection.
+	 *                         	<i>Negative = no validation.</i>
+	 * @param logger			Logger to use. <i>May be NULL.</i>
+	 *
+	 * @throws NullPointerException	If the given creator is NULL.
+	 */
+	public JDBCConnectionPool(final ConnectionCreator creator, final int maxActive, final int maxIdle, final long maxWait, final int validationTimeout, final TAPLog logger) throws NullPointerException{
+		if (creator == null)
+			throw new NullPointerException("Missing connection creator! => can not create a JDBCConnectionPool.");
+		this.creator = creator;
+		this.maxActive = (maxActive > 0) ? maxActive : -1;
+		this.permits = (maxActive > 0) ? new Semaphore(maxActive, true) : null;
+		this.maxIdle = Math.max(0, maxIdle);
+		this.maxWait = maxWait;
+		this.validationTimeout = validationTimeout;
+		this.idle = new LinkedBlockingDeque<JDBCConnection>();
+		this.logger = logger;
+	}
+
+	/**
+	 * <p>Get a connection for the given job.</p>
+	 *
+	 * <p>
+	 * 	A free connection is taken if any (and if still valid). Otherwise a new
+	 * 	one is created. In both cases, the returned connection gets the given
+	 * 	ID.
+	 * </p>
+	 *
+	 * @param connID	ID of the job which needs a connection.
+	 *
+	 * @return	A connection ready to be used.
+	 *
+	 * @throws DBException	If this pool is closed, if no connection is
+	 *                    	available after the maximum waiting time, if the
+	 *                    	current thread is interrupted while waiting or if
+	 *                    	a new connection can not be created.
+	 */
+	public JDBCConnection getConnection(final String connID) throws DBException{
+		if (closed)
+			throw new DBException("The connection pool is closed! => no more database connection can be provided.");
+
+		// Wait for the permission to lend a connection:
+		if (permits != null){
+			try{
+				if (maxWait < 0)
+					permits.acquire();
+				else if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS))
+					throw new DBException("No database connection available after " + maxWait + "ms! All the " + maxActive + " connections are already used.");
+			}catch(InterruptedException ie){
+				Thread.currentThread().interrupt();
+				throw new DBException("Interrupted while waiting for a database connection!", ie);
+			}
+		}
+
+		try{
+			// Take the most recently used connection, if still valid:
+			JDBCConnection conn;
+			while((conn = idle.pollFirst()) != null){
+				if (isValid(conn)){
+					conn.setID(connID);
+					conn.resetCancel();
+					borrowed.add(conn);
+					return conn;
+				}else
+					discard(conn);
+			}
+
+			// Otherwise, create a new one:
+			conn = creator.createConnection(connID);
+			borrowed.add(conn);
+			return conn;
+
+		}catch(DBException de){
+			if (permits != null)
+				permits.release();
+			throw de;
+		}catch(RuntimeException re){
+			if (permits != null)
+				permits.release();
+			throw re;
+		}
+	}
+
+	/**
+	 * <p>Give back the given connection to this pool.</p>
+	 *
+	 * <p>
+	 * 	Any running query is ended (see {@link JDBCConnection#endQuery()}).
+	 * 	Then, the connection is kept for a further usage, except if the pool
+	 * 	is closed, if there are already enough free connections or if the
+	 * 	JDBC connection has been closed ; in these cases, it is closed.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	If the given connection is not currently lent by this pool (e.g. if it
+	 * 	has already been freed), nothing is done. Thus, freeing a connection
+	 * 	twice can neither give back two permits nor let the same connection
+	 * 	be lent to two jobs.
+	 * </i></p>
+	 *
+	 * @param conn	The connection to free. <i>If NULL, nothing is done.</i>
+	 */
+	public void freeConnection(final JDBCConnection conn){
+		if (conn == null)
+			return;
+
+		if (!borrowed.remove(conn)){
+			if (logger != null)
+				logger.logDB(LogLevel.WARNING, conn, "FREE_CONNECTION", "The connection \"" + conn.getID() + "\" is not lent by this pool (or has already been freed)! It is ignored.", null);
+			return;
+		}
+
+		try{
+			// End properly any query that is not yet stopped and cleaned:
+			conn.endQuery();
+
+			// Keep the connection, if possible:
+			boolean kept = false;
+			if (!closed && idle.size() < maxIdle && !conn.getInnerConnection().isClosed()){
+				conn.setFetchSize(JDBCConnection.DEFAULT_FETCH_SIZE);
+				idle.offerFirst(conn);
+				kept = true;
+				// the pool may have been closed in the meantime:
+				if (closed && idle.remove(conn))
+					kept = false;
+			}
+			if (!kept)
+				discard(conn);
+
+		}catch(SQLException se){
+			if (logger != null)
+				logger.logDB(LogLevel.WARNING, conn, "FREE_CONNECTION", "Can not check whether the connection is closed! It is then closed and removed from the pool.", se);
+			discard(conn);
+		}finally{
+			if (permits != null)
+				permits.release();
+		}
+	}
+
+	/**
+	 * <p>Tell whether the given free connection can still be used.</p>
+	 *
+	 * <p><i>Note:
+	 * 	If the JDBC driver does not support {@link java.sql.Connection#isValid(int)},
+	 * 	the connection is considered as valid if it is not closed.
+	 * </i></p>
+	 *
+	 * @param conn	The connection to test.
+	 *
+	 * @return	<code>true</code> if the connection can be lent again,
+	 *        	<code>false</code> otherwise.
+	 */
+	protected boolean isValid(final JDBCConnection conn){
+		try{
+			if (conn.getInnerConnection().isClosed())
+				return false;
+			else if (validationTimeout < 0)
+				return true;
+			else
+				return conn.getInnerConnection().isValid(validationTimeout);
+		}catch(SQLException se){
+			return false;
+		}catch(AbstractMethodError ame){
+			// case of JDBC drivers anterior to JDBC 4.0:
+			return true;
+		}
+	}
+
+	/**
+	 * Close the given connection without keeping it in this pool.
+	 *
+	 * @param conn	The connection to close.
+	 */
+	protected void discard(final JDBCConnection conn){
+		try{
+			conn.getInnerConnection().close();
+		}catch(SQLException se){
+			if (logger != null)
+				logger.logDB(LogLevel.ERROR, conn, "CLOSE_CONNECTION", "Can not close properly the connection \"" + conn.getID() + "\"!", se);
+		}
+	}
+
+	/**
+	 * <p>Close this pool and all its free connections.</p>
+	 *
+	 * <p><i>Note:
+	 * 	The connections still lent will be closed when given back.
+	 * </i></p>
+	 */
+	public void close(){
+		closed = true;
+		JDBCConnection conn;
+		while((conn = idle.pollFirst()) != null)
+			discard(conn);
+	}
+
+	/**
+	 * Tell whether this pool is closed.
+	 *
+	 * @return	<code>true</code> if closed, <code>false</code> otherwise.
+	 */
+	public final boolean isClosed(){
+		return closed;
+	}
+
+	/**
+	 * Get the number of free connections currently kept in this pool.
+	 *
+	 * @return	Number of free connections.
+	 */
+	public final int getNbIdle(){
+		return idle.size();
+	}
+
+	/**
+	 * Get the number of connections currently lent.
+	 *
+	 * @return	Number of lent connections.
+	 */
+	public final int getNbActive(){
+		return borrowed.size();
+	}
+
+	/**
+	 * Get the maximum number of connections that can be lent at the same time.
+	 *
+	 * @return	The maximum number of lent connections,
+	 *        	or -1 if there is no limit.
+	 */
+	public final int getMaxActive(){
+		return maxActive;
+	}
+
+}
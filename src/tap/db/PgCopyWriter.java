@@ -0,0 +1,509 @@
+package tap.db;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import adql.db.DBType;
+import adql.db.DBType.DBDatatype;
+import tap.data.DataReadException;
+
+/**
+ * <p>Writer of rows in the input stream of a PostgreSQL <code>COPY ... FROM STDIN</code> command.</p>
+ *
+ * <p>
+ * 	Rows are encoded either in the CSV format or in the binary format of PostgreSQL (see {@link Format}),
+ * 	and are sent to the database by blocks thanks to the <code>CopyManager</code> of the PostgreSQL JDBC driver.
+ * </p>
+ *
+ * <p>Example of an expected usage:</p>
+ * <pre>
+ * 	PgCopyWriter writer = PgCopyWriter.open(connection, "COPY myTable (a, b) FROM STDIN WITH CSV", types, Format.CSV);
+ * 	try{
+ * 		while(...)
+ * 			writer.writeRow(row);
+ * 		long nbRows = writer.endCopy();
+ * 	}finally{
+ * 		writer.cancelCopy();
+ * 	}
+ * </pre>
+ *
+ * <p><i>Note:
+ * 	This class is the only one of this package depending on the PostgreSQL JDBC driver.
+ * 	It is loaded only when a <code>COPY</code> is really performed.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class PgCopyWriter {
+
+	/**
+	 * Format of the rows sent to a PostgreSQL <code>COPY</code> command.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public static enum Format {
+		/** Text format where values are separated by a comma and strings are quoted.
+		 * <i>It works whatever are the column types.</i> */
+		CSV,
+		/** Binary format of PostgreSQL. It avoids parsing numbers and dates in the database,
+		 * but it can be used only with some column types (see {@link PgCopyWriter#isBinaryCompatible(DBType[])}). */
+		BINARY;
+	}
+
+	/** Signature starting any PostgreSQL binary COPY stream. */
+	private final static byte[] BINARY_SIGNATURE = new byte[]{ 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte)0xFF, '\r', '\n', 0 };
+
+	/** Number of milliseconds between the Java epoch (1970-01-01) and the PostgreSQL epoch (2000-01-01). */
+	private final static long PG_EPOCH_MILLIS = 946684800000L;
+
+	/** Hexadecimal digits used to write binary values in CSV. */
+	private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** Charset of all text sent to the database. <i>The PostgreSQL JDBC driver always sets the client encoding to UTF-8.</i> */
+	private final static Charset UTF8 = Charset.forName("UTF-8");
+
+	/** Size (in bytes) of the blocks sent to the database. */
+	protected final static int BUFFER_SIZE = 65536;
+
+	/** Stream in which rows are written. */
+	protected final DataOutputStream out;
+
+	/** Datatype of each column. */
+	protected final DBType[] types;
+
+	/** Format in which rows are written. */
+	protected final Format format;
+
+	/** The running COPY operation. <i>NULL if this writer does not write into a database.</i> */
+	private final CopyIn copyIn;
+
+	/** Buffer in which a CSV row is built before being written. */
+	private final StringBuilder csvRow = new StringBuilder();
+
+	/** Time zone used to convert dates into the local time expected by a <code>TIMESTAMP</code> column. */
+	private final TimeZone timeZone = TimeZone.getDefault();
+
+	/**
+	 * Build a writer of rows in the given stream.
+	 *
+	 * <p><i>Note:
+	 * 	In the binary format, the header of the COPY stream is immediately written.
+	 * </i></p>
+	 *
+	 * @param out		Stream in which rows must be written.
+	 * @param types		Datatype of each column. <i>A NULL item is considered as a VARCHAR column.</i>
+	 * @param format	Format in which rows must be written.
+	 *
+	 * @throws NullPointerException	If one of the parameters is missing.
+	 * @throws IOException			If the binary header can not be written.
+	 */
+	public PgCopyWriter(final OutputStream out, final DBType[] types, final Format format) throws NullPointerException, IOException{
+		this(out, types, format, null);
+	}
+
+	/**
+	 * Build a writer of rows in the given stream, linked to the given COPY operation.
+	 *
+	 * @param out		Stream in which rows must be written.
+	 * @param types		Datatype of each column.
+	 * @param format	Format in which rows must be written.
+	 * @param copyIn	The COPY operation fed by the given stream. <i>May be NULL.</i>
+	 *
+	 * @throws NullPointerException	If one of the first three parameters is missing.
+	 * @throws IOException			If the binary header can not be written.
+	 */
+	private PgCopyWriter(final OutputStream out, final DBType[] types, final Format format, final CopyIn copyIn) throws NullPointerException, IOException{
+		if (out == null)
+			throw new NullPointerException("Missing output stream!");
+		else if (types == null)
+			throw new NullPointerException("Missing column types!");
+		else if (format == null)
+			throw new NullPointerException("Missing COPY format!");
+
+		this.out = (out instanceof DataOutputStream) ? (DataOutputStream)out : new DataOutputStream(out);
+		this.types = types;
+		this.format = format;
+		this.copyIn = copyIn;
+
+		// Write the header of a binary COPY stream (signature + flags + length of the header extension):
+		if (format == Format.BINARY){
+			this.out.write(BINARY_SIGNATURE);
+			this.out.writeInt(0);
+			this.out.writeInt(0);
+		}
+	}
+
+	/**
+	 * Start the given <code>COPY ... FROM STDIN</code> command and build a writer feeding it.
+	 *
+	 * @param conn		PostgreSQL connection.
+	 * @param copySQL	The COPY command. <i>Its format MUST be the given one.</i>
+	 * @param types		Datatype of each copied column.
+	 * @param format	Format in which rows must be written.
+	 *
+	 * @return	The writer to use to send rows to the database.
+	 *
+	 * @throws SQLException	If the given connection is not a PostgreSQL one or if the COPY command can not be started.
+	 * @throws IOException	If the binary header can not be written.
+	 *
+	 * @see #isSupported(Connection)
+	 */
+	public static PgCopyWriter open(final Connection conn, final String copySQL, final DBType[] types, final Format format) throws SQLException, IOException{
+		final CopyIn copyIn = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(copySQL);
+		try{
+			return new PgCopyWriter(new BufferedOutputStream(new OutputStream(){
+				@Override
+				public void write(final int b) throws IOException{
+					write(new byte[]{ (byte)b }, 0, 1);
+				}
+
+				@Override
+				public void write(final byte[] b, final int off, final int len) throws IOException{
+					try{
+						copyIn.writeToCopy(b, off, len);
+					}catch(SQLException se){
+						throw new IOException("Impossible to send rows to the database!", se);
+					}
+				}
+			}, BUFFER_SIZE), types, format, copyIn);
+		}catch(IOException ioe){
+			copyIn.cancelCopy();
+			throw ioe;
+		}
+	}
+
+	/**
+	 * Tell whether the given connection lets run <code>COPY ... FROM STDIN</code> commands,
+	 * that's to say whether it is (or wraps) a connection of the PostgreSQL JDBC driver.
+	 *
+	 * @param conn	The connection to test.
+	 *
+	 * @return	<i>true</i> if {@link #open(Connection, String, DBType[], Format)} can be used with this connection,
+	 *        	<i>false</i> otherwise (and particularly if the PostgreSQL JDBC driver is not available).
+	 */
+	public static boolean isSupported(final Connection conn){
+		try{
+			return conn != null && conn.isWrapperFor(PGConnection.class);
+		}catch(SQLException se){
+			return false;
+		}catch(LinkageError le){
+			return false;
+		}
+	}
+
+	/**
+	 * <p>Tell whether columns of the given types can be copied with the binary format.</p>
+	 *
+	 * <p>
+	 * 	It is the case only for numeric, character string, binary and timestamp columns,
+	 * 	provided they are created with the usual PostgreSQL types
+	 * 	(as done by {@link adql.translator.PostgreSQLTranslator#convertTypeToDB(DBType)}).
+	 * 	Geometries (and so, pgSphere types) can not be sent in the binary format.
+	 * </p>
+	 *
+	 * @param types	The types to test.
+	 *
+	 * @return	<i>true</i> if all types are compatible with the binary format, <i>false</i> otherwise.
+	 */
+	public static boolean isBinaryCompatible(final DBType[] types){
+		for(DBType type : types){
+			if (type != null && (type.type == DBDatatype.POINT || type.type == DBDatatype.REGION || type.type == DBDatatype.UNKNOWN || type.type == DBDatatype.UNKNOWN_NUMERIC))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Write the given row.
+	 *
+	 * @param row	Value of each column. <i>NULL items are NULL values.</i>
+	 *
+	 * @throws DataReadException	If a value can not be written in the format of its column (e.g. an array which is
+	 *                          	not a byte array).
+	 * @throws IOException			If the row can not be sent to the database.
+	 */
+	public void writeRow(final Object[] row) throws DataReadException, IOException{
+		if (format == Format.BINARY)
+			writeBinaryRow(row);
+		else
+			writeCSVRow(row);
+	}
+
+	/**
+	 * Write the given row in CSV.
+	 *
+	 * <p>
+	 * 	Numbers and booleans are written as such, NULL values are left empty, byte arrays are written in hexadecimal
+	 * 	and all the other values are written as a quoted string (so that an empty string is not taken as a NULL value).
+	 * 	Other arrays are not supported.
+	 * </p>
+	 *
+	 * @param row	Value of each column.
+	 *
+	 * @throws DataReadException	If a value is an array which is not a byte array.
+	 * @throws IOException			If the row can not be sent to the database.
+	 */
+	protected void writeCSVRow(final Object[] row) throws DataReadException, IOException{
+		csvRow.setLength(0);
+		for(int c = 0; c < types.length; c++){
+			if (c > 0)
+				csvRow.append(',');
+			Object val = row[c];
+			if (val == null)
+				continue;
+			else if (val instanceof Number || val instanceof Boolean)
+				csvRow.append(val);
+			else if (val instanceof byte[]){
+				csvRow.append("\"\\x");
+				for(byte b : (byte[])val)
+					csvRow.append(HEX_DIGITS[(b >> 4) & 0x0F]).append(HEX_DIGITS[b & 0x0F]);
+				csvRow.append('"');
+			}else{
+				String str = toString(val, c);
+				csvRow.append('"');
+				for(int i = 0; i < str.length(); i++){
+					char ch = str.charAt(i);
+					if (ch == '"')
+						csvRow.append('"');
+					csvRow.append(ch);
+				}
+				csvRow.append('"');
+			}
+		}
+		csvRow.append('\n');
+		out.write(csvRow.toString().getBytes(UTF8));
+	}
+
+	/**
+	 * Write the given row in the binary format of PostgreSQL.
+	 *
+	 * @param row	Value of each column.
+	 *
+	 * @throws DataReadException	If a value does not match the type of its column.
+	 * @throws IOException			If the row can not be sent to the database.
+	 */
+	protected void writeBinaryRow(final Object[] row) throws DataReadException, IOException{
+		out.writeShort(types.length);
+		for(int c = 0; c < types.length; c++){
+			Object val = row[c];
+
+			// NULL value:
+			if (val == null){
+				out.writeInt(-1);
+				continue;
+			}
+
+			switch((types[c] == null) ? DBDatatype.VARCHAR : types[c].type){
+				case SMALLINT:
+					out.writeInt(2);
+					out.writeShort((int)toLong(val, c, Short.MIN_VALUE, Short.MAX_VALUE));
+					break;
+				case INTEGER:
+					out.writeInt(4);
+					out.writeInt((int)toLong(val, c, Integer.MIN_VALUE, Integer.MAX_VALUE));
+					break;
+				case BIGINT:
+					out.writeInt(8);
+					out.writeLong(toLong(val, c, Long.MIN_VALUE, Long.MAX_VALUE));
+					break;
+				case REAL:
+					out.writeInt(4);
+					out.writeFloat(toNumber(val, c).floatValue());
+					break;
+				case DOUBLE:
+					out.writeInt(8);
+					out.writeDouble(toNumber(val, c).doubleValue());
+					break;
+				case TIMESTAMP:
+					if (!(val instanceof Date))
+						throw new DataReadException("Unexpected value for the column " + (c + 1) + ": \"" + val + "\"! A date was expected.");
+					out.writeInt(8);
+					out.writeLong(toPgMicros((Date)val));
+					break;
+				case BINARY:
+				case VARBINARY:
+				case BLOB:
+					if (val instanceof byte[]){
+						out.writeInt(((byte[])val).length);
+						out.write((byte[])val);
+					}
+					// otherwise, write the value as a string:
+					else
+						writeString(val, c);
+					break;
+				default:
+					writeString(val, c);
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Write the given value as a string in the binary format of PostgreSQL.
+	 *
+	 * @param val	The value. <b>MUST NOT be NULL.</b>
+	 * @param c		Index (from 0) of its column.
+	 *
+	 * @throws DataReadException	If the value is an array.
+	 * @throws IOException			If the value can not be sent to the database.
+	 */
+	private void writeString(final Object val, final int c) throws DataReadException, IOException{
+		byte[] bytes = toString(val, c).getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Get the given value as a string.
+	 *
+	 * <p><i>Note:
+	 * 	Arrays are rejected: their {@link Object#toString()} does not return their items (e.g. <code>[I@1b6d3586</code>),
+	 * 	and such value could not be inserted with an INSERT statement either.
+	 * </i></p>
+	 *
+	 * @param val	The value. <b>MUST NOT be NULL.</b>
+	 * @param c		Index (from 0) of its column.
+	 *
+	 * @return	The value as a string.
+	 *
+	 * @throws DataReadException	If the value is an array.
+	 */
+	private String toString(final Object val, final int c) throws DataReadException{
+		if (val.getClass().isArray())
+			throw new DataReadException("Unexpected value for the column " + (c + 1) + ": an array of " + val.getClass().getComponentType().getSimpleName() + "! Only byte arrays can be copied.");
+		return val.toString();
+	}
+
+	/**
+	 * Get the given value as a number.
+	 *
+	 * @param val	The value.
+	 * @param c		Index (from 0) of its column.
+	 *
+	 * @return	The value as a number.
+	 *
+	 * @throws DataReadException	If the value is not a number.
+	 */
+	private Number toNumber(final Object val, final int c) throws DataReadException{
+		if (val instanceof Number)
+			return (Number)val;
+		else
+			throw new DataReadException("Unexpected value for the column " + (c + 1) + ": \"" + val + "\"! A number was expected.");
+	}
+
+	/**
+	 * Get the given value as an integer number in the given range.
+	 *
+	 * @param val	The value.
+	 * @param c		Index (from 0) of its column.
+	 * @param min	Minimum allowed value.
+	 * @param max	Maximum allowed value.
+	 *
+	 * @return	The value as a long.
+	 *
+	 * @throws DataReadException	If the value is not an integer number in the given range.
+	 */
+	private long toLong(final Object val, final int c, final long min, final long max) throws DataReadException{
+		Number nb = toNumber(val, c);
+		long l = nb.longValue();
+		if (l < min || l > max || l != nb.doubleValue())
+			throw new DataReadException("Unexpected value for the column " + (c + 1) + ": \"" + val + "\"! An integer between " + min + " and " + max + " was expected.");
+		return l;
+	}
+
+	/**
+	 * Convert the given date into the number of microseconds since 2000-01-01 in the local time zone,
+	 * as done by the PostgreSQL JDBC driver for a <code>TIMESTAMP</code> (without time zone) column.
+	 *
+	 * @param date	The date to convert.
+	 *
+	 * @return	The corresponding number of microseconds since the PostgreSQL epoch.
+	 */
+	protected long toPgMicros(final Date date){
+		long millis = date.getTime();
+		long micros = (millis + timeZone.getOffset(millis) - PG_EPOCH_MILLIS) * 1000;
+		if (date instanceof Timestamp)
+			micros += (((Timestamp)date).getNanos() / 1000) % 1000;
+		return micros;
+	}
+
+	/**
+	 * <p>Write the end of the COPY stream and send all the remaining rows.</p>
+	 *
+	 * <p><i>Note:
+	 * 	This function does not end the COPY command ; see {@link #endCopy()}.
+	 * </i></p>
+	 *
+	 * @throws IOException	If the end of the stream can not be sent.
+	 */
+	public void finish() throws IOException{
+		if (format == Format.BINARY)
+			out.writeShort(-1);
+		out.flush();
+	}
+
+	/**
+	 * Send all the remaining rows and end the COPY command.
+	 *
+	 * @return	Number of rows copied by the database,
+	 *        	or -1 if this writer is not linked to a COPY command.
+	 *
+	 * @throws IOException	If the remaining rows can not be sent.
+	 * @throws SQLException	If the COPY command fails.
+	 */
+	public long endCopy() throws IOException, SQLException{
+		finish();
+		return (copyIn == null) ? -1 : copyIn.endCopy();
+	}
+
+	/**
+	 * Abort the COPY command, if still running. <i>Nothing is done otherwise.</i>
+	 *
+	 * <p><i>Note:
+	 * 	No error is thrown by this function. It is then safe to call it in a <code>finally</code> block.
+	 * </i></p>
+	 */
+	public void cancelCopy(){
+		try{
+			if (copyIn != null && copyIn.isActive())
+				copyIn.cancelCopy();
+		}catch(SQLException se){
+			/* Nothing to do: the transaction will be rolled back anyway. */
+		}
+	}
+
+}
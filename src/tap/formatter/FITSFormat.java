@@ -20,24 +20,63 @@ package tap.formatter;
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
+import adql.db.DBColumn;
+import adql.db.DBType;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.TAPExecutionReport;
 import tap.data.TableIterator;
 import tap.formatter.VOTableFormat.LimitedStarTable;
+import tap.metadata.TAPColumn;
 import uk.ac.starlink.fits.FitsTableWriter;
+import uk.ac.starlink.fits.StandardFitsTableSerializer;
+import uk.ac.starlink.fits.WideFits;
 import uk.ac.starlink.table.ColumnInfo;
 import uk.ac.starlink.table.StarTable;
 import uk.ac.starlink.table.StoragePolicy;
+import uk.ac.starlink.table.Tables;
+import uk.ac.starlink.table.WrapperStarTable;
 
 /**
  * Format any given query (table) result into FITS.
  *
+ * <h3>Single-pass writing</h3>
+ *
+ * <p>
+ * 	A FITS binary table starts with a header declaring the number of rows
+ * 	and the width of all columns. When these information can not be known
+ * 	before reading the rows, the whole result is first copied on disk (or in
+ * 	memory if short) so that STIL can read it twice.
+ * </p>
+ *
+ * <p>
+ * 	However, when all columns have a fixed width according to their
+ * 	{@link DBType} (see {@link #getFixedWidthColumnInfos(ColumnInfo[], TableIterator, TAPExecutionReport)}),
+ * 	the rows are written in FITS as they are read. The number of rows
+ * 	(NAXIS2) is then written in the header only at the end:
+ * </p>
+ * <ul>
+ * 	<li>directly in the output if it is a {@link FileOutputStream}
+ * 		<i>(e.g. the result file of an asynchronous job)</i>,</li>
+ * 	<li>otherwise, in a spill buffer: the first bytes are kept in memory and
+ * 		the rest is written in a temporary file ; both are then copied in
+ * 		the output <i>(see {@link #getSpillThreshold()})</i>.</li>
+ * </ul>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.4 (08/2020)
+ * @version 2.4 (10/2026)
  * @since 2.0
  */
 public class FITSFormat implements OutputFormat {
@@ -46,6 +85,26 @@ public class FITSFormat implements OutputFormat {
 	 * information about the service (particularly: name, description). */
 	protected final ServiceConnection service;
 
+	/** Default number of bytes kept in memory before spilling a
+	 * single-pass FITS output in a temporary file.
+	 * @since 2.4 */
+	public final static int DEFAULT_SPILL_THRESHOLD = 1048576;
+
+	/** Size (in bytes) of the FITS header block. */
+	private final static int FITS_BLOCK_SIZE = 2880;
+
+	/** Size (in bytes) of a FITS header card. */
+	private final static int FITS_CARD_SIZE = 80;
+
+	/** Index of the card NAXIS2 in a binary table header
+	 * (after XTENSION, BITPIX, NAXIS and NAXIS1). */
+	private final static int NAXIS2_CARD_INDEX = 4;
+
+	/** Number of bytes kept in memory before spilling a single-pass FITS
+	 * output in a temporary file.
+	 * @since 2.4 */
+	protected final int spillThreshold;
+
 	/**
 	 * Creates a FITS formatter.
 	 *
@@ -56,10 +115,45 @@ public class FITSFormat implements OutputFormat {
 	 * @throws NullPointerException	If the given service connection is NULL.
 	 */
 	public FITSFormat(final ServiceConnection service) throws NullPointerException {
+		this(service, DEFAULT_SPILL_THRESHOLD);
+	}
+
+	/**
+	 * Creates a FITS formatter.
+	 *
+	 * @param service			The service to use (for the log and to have
+	 *               			some information about the service
+	 *               			(particularly: name, description).
+	 * @param spillThreshold	Number of bytes to keep in memory before
+	 *                      	spilling a single-pass FITS output in a
+	 *                      	temporary file. <i>This buffer is used only
+	 *                      	when the output is not a file.</i>
+	 *                      	<i>If smaller than the two first FITS blocks
+	 *                      	(2 x 2880 bytes), these two blocks are anyway
+	 *                      	kept in memory.</i>
+	 *
+	 * @throws NullPointerException	If the given service connection is NULL.
+	 *
+	 * @since 2.4
+	 */
+	public FITSFormat(final ServiceConnection service, final int spillThreshold) throws NullPointerException {
 		if (service == null)
 			throw new NullPointerException("The given service connection is NULL !");
 
 		this.service = service;
+		this.spillThreshold = Math.max(spillThreshold, 2 * FITS_BLOCK_SIZE);
+	}
+
+	/**
+	 * Get the number of bytes kept in memory before spilling a single-pass
+	 * FITS output in a temporary file.
+	 *
+	 * @return	Size (in bytes) of the memory part of the spill buffer.
+	 *
+	 * @since 2.4
+	 */
+	public final int getSpillThreshold() {
+		return spillThreshold;
 	}
 
 	@Override
@@ -90,28 +184,36 @@ public class FITSFormat implements OutputFormat {
 		// Turns the result set into a table:
 		LimitedStarTable table = new LimitedStarTable(result, colInfos, execReport.parameters.getMaxRec(), thread);
 
-		// Copy the table on disk (or in memory if the table is short):
-		StarTable copyTable;
-		try {
-			copyTable = StoragePolicy.PREFER_DISK.copyTable(table);
-		} catch(IOException ioe) {
-			/* In case of time out, LimitedStarTable makes copyTable to stop by
-			 * throwing an IOException. In such case, this IOException has to be
-			 * interpreted as a normal interruption: */
+		// If all columns have a fixed width, write the rows as they come:
+		ColumnInfo[] fixedInfos = getFixedWidthColumnInfos(colInfos, result, execReport);
+		if (fixedInfos != null)
+			writeSinglePass(table, fixedInfos, output, thread);
+
+		// Otherwise, STIL needs to read twice the rows:
+		else {
+			// Copy the table on disk (or in memory if the table is short):
+			StarTable copyTable;
+			try {
+				copyTable = StoragePolicy.PREFER_DISK.copyTable(table);
+			} catch(IOException ioe) {
+				/* In case of time out, LimitedStarTable makes copyTable to stop by
+				 * throwing an IOException. In such case, this IOException has to be
+				 * interpreted as a normal interruption: */
+				if (thread.isInterrupted())
+					throw new InterruptedException();
+				/* Otherwise, the error has to be managed properly (so, wrap it
+				 * inside a TAPException): */
+				else
+					throw new TAPException("Unexpected error while formatting the result!", ioe);
+			}
+
 			if (thread.isInterrupted())
 				throw new InterruptedException();
-			/* Otherwise, the error has to be managed properly (so, wrap it
-			 * inside a TAPException): */
-			else
-				throw new TAPException("Unexpected error while formatting the result!", ioe);
-		}
 
-		if (thread.isInterrupted())
-			throw new InterruptedException();
-
-		/* Format the table in FITS (2 passes are needed for that, hence the copy on disk),
-		 * and write it in the given output stream: */
-		new FitsTableWriter().writeStarTable(copyTable, output);
+			/* Format the table in FITS (2 passes are needed for that, hence the copy on disk),
+			 * and write it in the given output stream: */
+			new FitsTableWriter().writeStarTable(copyTable, output);
+		}
 
 		if (thread.isInterrupted())
 			throw new InterruptedException();
@@ -121,4 +223,388 @@ public class FITSFormat implements OutputFormat {
 		output.flush();
 	}
 
+	/**
+	 * Get the metadata of all columns so that they can be written in FITS
+	 * without reading first all the rows.
+	 *
+	 * <p>
+	 * 	This is possible only if all columns have a fixed width according to
+	 * 	their {@link DBType}:
+	 * </p>
+	 * <ul>
+	 * 	<li>numeric scalar types, except the nullable integer columns without
+	 * 		any declared null value <i>(see below)</i>,</li>
+	 * 	<li>CHAR, VARCHAR and UNICODECHAR with a length: longer values are
+	 * 		truncated to this length,</li>
+	 * 	<li>BINARY with a length.</li>
+	 * </ul>
+	 *
+	 * <p><b>Important note about the blank values:</b>
+	 * 	Since the rows are not read before writing the header, the blank
+	 * 	value (TNULL) of an integer column can not be chosen among the values
+	 * 	not used by the column (as STIL does when the rows are read twice).
+	 * 	So, a nullable integer column (see {@link ColumnInfo#isNullable()})
+	 * 	can be written in a single pass only if the given metadata already
+	 * 	declare its null value (i.e. {@link Tables#NULL_VALUE_INFO}) ;
+	 * 	otherwise, NULL is returned and the result is written in two passes.
+	 * </p>
+	 *
+	 * @param colInfos		Metadata of all columns, as returned by
+	 *                		{@link VOTableFormat#toColumnInfos(TableIterator, TAPExecutionReport, Thread)}.
+	 * @param result		The result to write.
+	 * @param execReport	The report of the query execution.
+	 *
+	 * @return	A copy of the given metadata completed with the width of all
+	 *        	columns,
+	 *        	or NULL if at least one column has not a fixed width.
+	 *
+	 * @throws TAPException	If the metadata of the result can not be read.
+	 *
+	 * @since 2.4
+	 */
+	protected ColumnInfo[] getFixedWidthColumnInfos(final ColumnInfo[] colInfos, final TableIterator result, final TAPExecutionReport execReport) throws TAPException {
+		DBColumn[] columnsFromQuery = execReport.resultingColumns;
+		if (colInfos == null || columnsFromQuery == null || columnsFromQuery.length != colInfos.length)
+			return null;
+
+		TAPColumn[] columnsFromResult = result.getMetadata();
+
+		ColumnInfo[] fixedInfos = new ColumnInfo[colInfos.length];
+		for(int i = 0; i < colInfos.length; i++) {
+			TAPColumn colFromResult = (columnsFromResult != null && i < columnsFromResult.length) ? columnsFromResult[i] : null;
+			DBType type = VOTableFormat.getValidColMeta(columnsFromQuery[i], colFromResult).getDatatype();
+
+			ColumnInfo info = new ColumnInfo(colInfos[i]);
+			Class<?> clazz = info.getContentClass();
+			switch(type.type) {
+				case SMALLINT:
+				case INTEGER:
+				case BIGINT:
+				case REAL:
+				case DOUBLE:
+					break;
+				case CHAR:
+				case VARCHAR:
+				case UNICODECHAR:
+					if (clazz == String.class) {
+						if (type.length <= 0)
+							return null;
+						info.setElementSize(type.length);
+					}
+					break;
+				case BINARY:
+					if (clazz.isArray() && (info.getShape() == null || info.getShape().length == 0 || info.getShape()[0] < 0))
+						return null;
+					break;
+				default:
+					return null;
+			}
+
+			/* A nullable integer column needs a blank value not used by the
+			 * column ; it can not be chosen without reading first the rows,
+			 * unless a null value is already declared: */
+			if ((clazz == Short.class || clazz == Integer.class || clazz == Long.class) && info.isNullable() && info.getAuxDatum(Tables.NULL_VALUE_INFO) == null)
+				return null;
+
+			fixedInfos[i] = info;
+		}
+
+		return fixedInfos;
+	}
+
+	/**
+	 * Write the given table in FITS while reading its rows (so, only once).
+	 *
+	 * <p>
+	 * 	The FITS header is written with a number of rows (NAXIS2) set to 0.
+	 * 	The actual number of rows is set once all rows have been written:
+	 * 	directly in the output if it is a {@link FileOutputStream}, or in a
+	 * 	spill buffer copied in the output at the end otherwise.
+	 * </p>
+	 *
+	 * @param table			The table to write.
+	 * @param fixedInfos	Metadata of all columns, with a fixed width.
+	 * @param output		The stream in which the FITS must be written.
+	 * @param thread		The thread which asked for the result writing.
+	 *
+	 * @throws TAPException			If the rows can not be read or written.
+	 * @throws IOException			If the output can not be written.
+	 * @throws InterruptedException	If the given thread has been interrupted.
+	 *
+	 * @since 2.4
+	 */
+	protected void writeSinglePass(final LimitedStarTable table, final ColumnInfo[] fixedInfos, final OutputStream output, final Thread thread) throws TAPException, IOException, InterruptedException {
+		/* Declare no row ; this is not true but it lets STIL write the header
+		 * without reading first all the rows: */
+		StarTable fixedTable = new WrapperStarTable(table) {
+			@Override
+			public long getRowCount() {
+				return 0;
+			}
+
+			@Override
+			public ColumnInfo getColumnInfo(final int icol) {
+				return fixedInfos[icol];
+			}
+		};
+
+		// Write directly in the result file, if possible:
+		FileChannel channel = null;
+		long startPosition = -1;
+		if (output instanceof FileOutputStream) {
+			try {
+				channel = ((FileOutputStream)output).getChannel();
+				startPosition = channel.position();
+			} catch(IOException ioe) {
+				channel = null;
+			}
+		}
+
+		// ...otherwise, use a spill buffer:
+		SpillBuffer spill = (channel == null) ? new SpillBuffer(spillThreshold, (service.getFileManager() == null) ? null : service.getFileManager().getTmpDirectory()) : null;
+
+		try {
+			HeaderCapture capture = new HeaderCapture((spill == null) ? output : spill);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(capture, 65536));
+
+			// Write the whole FITS:
+			FitsTableWriter fitsWriter = new FitsTableWriter();
+			try {
+				fitsWriter.writePrimaryHDU(out);
+				int naxis2Offset = out.size() + NAXIS2_CARD_INDEX * FITS_CARD_SIZE;
+				fitsWriter.writeTableHDU(fixedTable, new StandardFitsTableSerializer(fixedTable, true, WideFits.DEFAULT), out);
+				out.flush();
+
+				if (thread.isInterrupted())
+					throw new InterruptedException();
+
+				// Set the actual number of rows:
+				byte[] naxis2Card = capture.getCard(naxis2Offset, table.getNbReadRows());
+				if (spill == null)
+					channel.write(ByteBuffer.wrap(naxis2Card), startPosition + naxis2Offset);
+				else {
+					spill.patch(naxis2Offset, naxis2Card);
+					spill.copyTo(output);
+				}
+			} catch(IOException ioe) {
+				// same as in writeResult(...): an interruption may be behind this error
+				if (thread.isInterrupted())
+					throw new InterruptedException();
+				else
+					throw new TAPException("Unexpected error while formatting the result!", ioe);
+			}
+		} finally {
+			if (spill != null)
+				spill.close();
+		}
+	}
+
+	/**
+	 * Output stream keeping a copy of the two first FITS blocks, so that the
+	 * number of rows can be set in the header once all rows are written.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected static class HeaderCapture extends FilterOutputStream {
+
+		/** Copy of the first written bytes. */
+		private final byte[] head = new byte[2 * FITS_BLOCK_SIZE];
+
+		/** Number of bytes copied in {@link #head}. */
+		private int headLength = 0;
+
+		/**
+		 * Build a stream copying the header of the FITS written in the given
+		 * stream.
+		 *
+		 * @param out	Stream in which the FITS is written.
+		 */
+		public HeaderCapture(final OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			if (headLength < head.length)
+				head[headLength++] = (byte)b;
+			out.write(b);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			int nbCopied = Math.min(len, head.length - headLength);
+			if (nbCopied > 0) {
+				System.arraycopy(b, off, head, headLength, nbCopied);
+				headLength += nbCopied;
+			}
+			out.write(b, off, len);
+		}
+
+		/**
+		 * Build the NAXIS2 card with the given number of rows.
+		 *
+		 * <p><i>Note:
+		 * 	Only the value of the card is changed ; the comment is kept.
+		 * </i></p>
+		 *
+		 * @param offset	Position of the card NAXIS2 in the output.
+		 * @param nbRows	The actual number of rows.
+		 *
+		 * @return	The 80 bytes of the card NAXIS2.
+		 *
+		 * @throws IOException	If the card NAXIS2 is not at the given position.
+		 */
+		public byte[] getCard(final int offset, final long nbRows) throws IOException {
+			if (offset + FITS_CARD_SIZE > headLength || !new String(head, offset, 10, "US-ASCII").equals("NAXIS2  = "))
+				throw new IOException("Impossible to set the number of rows: no NAXIS2 card found in the FITS header!");
+
+			// The integer value is right justified in the columns 11 to 30:
+			String value = Long.toString(nbRows);
+			byte[] card = new byte[FITS_CARD_SIZE];
+			System.arraycopy(head, offset, card, 0, FITS_CARD_SIZE);
+			for(int i = 10; i < 30; i++)
+				card[i] = (byte)' ';
+			for(int i = 0; i < value.length(); i++)
+				card[30 - value.length() + i] = (byte)value.charAt(i);
+			return card;
+		}
+	}
+
+	/**
+	 * Output stream keeping in memory the first bytes and writing the rest in
+	 * a temporary file.
+	 *
+	 * <p>
+	 * 	Only the bytes kept in memory can be changed
+	 * 	(see {@link #patch(int, byte[])}).
+	 * </p>
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	protected static class SpillBuffer extends OutputStream {
+
+		/** Bytes kept in memory. */
+		private final byte[] head;
+
+		/** Number of bytes written in {@link #head}. */
+		private int headLength = 0;
+
+		/** Directory in which the temporary file must be created.
+		 * <i>If NULL, the default temporary directory is used.</i> */
+		private final File tmpDirectory;
+
+		/** Temporary file containing all bytes after {@link #head}.
+		 * <i>NULL until {@link #head} is full.</i> */
+		private File tmpFile = null;
+
+		/** Stream writing in {@link #tmpFile}. */
+		private OutputStream tmpOutput = null;
+
+		/**
+		 * Build a spill buffer.
+		 *
+		 * @param threshold		Number of bytes to keep in memory.
+		 * @param tmpDirectory	Directory of the temporary file.
+		 *                    	<i>If NULL, the default temporary directory is
+		 *                    	used.</i>
+		 */
+		public SpillBuffer(final int threshold, final File tmpDirectory) {
+			head = new byte[threshold];
+			this.tmpDirectory = tmpDirectory;
+		}
+
+		@Override
+		public void write(final int b) throws IOException {
+			if (headLength < head.length)
+				head[headLength++] = (byte)b;
+			else
+				getTmpOutput().write(b);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException {
+			int nbCopied = Math.min(len, head.length - headLength);
+			if (nbCopied > 0) {
+				System.arraycopy(b, off, head, headLength, nbCopied);
+				headLength += nbCopied;
+			}
+			if (nbCopied < len)
+				getTmpOutput().write(b, off + nbCopied, len - nbCopied);
+		}
+
+		/**
+		 * Get the stream writing in the temporary file.
+		 * The temporary file is created if not already done.
+		 *
+		 * @return	Stream writing in the temporary file.
+		 *
+		 * @throws IOException	If the temporary file can not be created.
+		 */
+		private OutputStream getTmpOutput() throws IOException {
+			if (tmpOutput == null) {
+				tmpFile = File.createTempFile("tap_fits_", ".tmp", tmpDirectory);
+				tmpOutput = new FileOutputStream(tmpFile);
+			}
+			return tmpOutput;
+		}
+
+		/**
+		 * Replace some bytes kept in memory.
+		 *
+		 * @param offset	Position of the first byte to replace.
+		 * @param bytes		The new bytes.
+		 *
+		 * @throws IOException	If the bytes to replace are not in memory.
+		 */
+		public void patch(final int offset, final byte[] bytes) throws IOException {
+			if (offset < 0 || offset + bytes.length > headLength)
+				throw new IOException("Impossible to change bytes which are not kept in memory!");
+			System.arraycopy(bytes, 0, head, offset, bytes.length);
+		}
+
+		/**
+		 * Write all buffered bytes in the given stream.
+		 *
+		 * @param output	The stream in which the buffered bytes must be
+		 *              	written.
+		 *
+		 * @throws IOException	If the temporary file can not be read or if
+		 *                    	the given stream can not be written.
+		 */
+		public void copyTo(final OutputStream output) throws IOException {
+			output.write(head, 0, headLength);
+			if (tmpOutput != null) {
+				tmpOutput.close();
+				InputStream input = new FileInputStream(tmpFile);
+				try {
+					byte[] buffer = new byte[8192];
+					int len;
+					while((len = input.read(buffer)) > 0)
+						output.write(buffer, 0, len);
+				} finally {
+					input.close();
+				}
+			}
+		}
+
+		/**
+		 * Close the temporary file (if any) and delete it.
+		 */
+		@Override
+		public void close() throws IOException {
+			if (tmpOutput != null) {
+				try {
+					tmpOutput.close();
+				} finally {
+					tmpFile.delete();
+					tmpOutput = null;
+				}
+			}
+		}
+	}
+
 }
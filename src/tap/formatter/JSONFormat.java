@@ -16,7 +16,7 @@ package tap.formatter;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -31,6 +31,8 @@ import org.json.JSONWriter;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.TAPExecutionReport;
+import tap.data.BatchTableIterator;
+import tap.data.ColumnBatch;
 import tap.data.TableIterator;
 import tap.metadata.TAPColumn;
 import tap.metadata.VotType;
@@ -42,7 +44,7 @@ import adql.db.DBType.DBDatatype;
  * Format any given query (table) result into JSON.
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.1 (08/2015)
+ * @version 2.4 (10/2026)
  */
 public class JSONFormat implements OutputFormat {
 
@@ -242,7 +244,13 @@ public class JSONFormat implements OutputFormat {
 	}
 
 	/**
-	 * Write the whole data part of the JSON file.
+	 * <p>Write the whole data part of the JSON file.</p>
+	 * 
+	 * <p><i>Note:
+	 * 	If the given result is a {@link BatchTableIterator} able to provide its metadata,
+	 * 	rows are read by block thanks to {@link #writeData(BatchTableIterator, DBColumn[], JSONWriter, TAPExecutionReport, Thread)}
+	 * 	(only if {@link #isBatchWritingAllowed()} returns <i>true</i>).
+	 * </i></p>
 	 * 
 	 * @param result			Result to write.	
 	 * @param selectedColumns	All columns' metadata.
@@ -256,6 +264,12 @@ public class JSONFormat implements OutputFormat {
 	 * @throws TAPException				If any other error occurs.
 	 */
 	protected void writeData(TableIterator result, DBColumn[] selectedColumns, JSONWriter out, TAPExecutionReport execReport, Thread thread) throws IOException, TAPException, InterruptedException, JSONException{
+		// Read the rows by block, if possible:
+		if (result instanceof BatchTableIterator && result.getMetadata() != null && isBatchWritingAllowed()){
+			writeData((BatchTableIterator)result, selectedColumns, out, execReport, thread);
+			return;
+		}
+
 		// [
 		out.array();
 
@@ -284,6 +298,94 @@ public class JSONFormat implements OutputFormat {
 		out.endArray();
 	}
 
+	/**
+	 * <p>Tell whether the rows of a {@link BatchTableIterator} can be written by block.</p>
+	 * 
+	 * <p>
+	 * 	It is not the case when the class of this formatter overrides
+	 * 	{@link #writeFieldValue(Object, DBColumn, JSONWriter)} without overriding also
+	 * 	{@link #writeFieldValue(ColumnBatch, int, int, DBColumn, JSONWriter)}: the numeric values
+	 * 	of a block would otherwise be written without this customized formatting.
+	 * </p>
+	 * 
+	 * @return	<i>true</i> if the rows can be written by block,
+	 *        	<i>false</i> if they must be written one value after the other.
+	 * 
+	 * @since 2.4
+	 */
+	protected boolean isBatchWritingAllowed(){
+		return !isOverridden(Object.class, DBColumn.class, JSONWriter.class) || isOverridden(ColumnBatch.class, int.class, int.class, DBColumn.class, JSONWriter.class);
+	}
+
+	/**
+	 * Tell whether the method <code>writeFieldValue</code> with the given parameter types
+	 * is declared by a subclass of {@link JSONFormat}.
+	 * 
+	 * @param paramTypes	Parameter types of the method.
+	 * 
+	 * @return	<i>true</i> if the class of this formatter overrides this method,
+	 *        	<i>false</i> otherwise.
+	 */
+	private boolean isOverridden(final Class<?>... paramTypes){
+		for(Class<?> c = getClass(); c != JSONFormat.class; c = c.getSuperclass()){
+			try{
+				c.getDeclaredMethod("writeFieldValue", paramTypes);
+				return true;
+			}catch(NoSuchMethodException nsme){}
+		}
+		return false;
+	}
+
+	/**
+	 * Write the whole data part of the JSON file, reading the rows by block.
+	 * 
+	 * @param result			Result to write.	
+	 * @param selectedColumns	All columns' metadata.
+	 * @param out				Output stream in which the data must be written.
+	 * @param execReport		Execution report (which contains the maximum allowed number of records to output).
+	 * @param thread			Thread which has asked for this formatting (it must be used in order to test the {@link Thread#isInterrupted()} flag and so interrupt everything if need).
+	 * 
+	 * @throws IOException				If there is an error while writing something in the output stream.
+	 * @throws InterruptedException		If the thread has been interrupted.
+	 * @throws JSONException			If there is an error while formatting something in JSON.
+	 * @throws TAPException				If any other error occurs.
+	 * 
+	 * @since 2.4
+	 */
+	protected void writeData(BatchTableIterator result, DBColumn[] selectedColumns, JSONWriter out, TAPExecutionReport execReport, Thread thread) throws IOException, TAPException, InterruptedException, JSONException{
+		// [
+		out.array();
+
+		execReport.nbRows = 0;
+
+		final int maxRec = execReport.parameters.getMaxRec();
+		final ColumnBatch batch = new ColumnBatch(result.getMetadata(), ColumnBatch.DEFAULT_CAPACITY);
+
+		readLoop: while(result.nextBatch(batch) > 0){
+			for(int r = 0; r < batch.getRowCount(); r++){
+				// Stop right now the formatting if the job has been aborted/canceled/interrupted:
+				if (thread.isInterrupted())
+					throw new InterruptedException();
+
+				// Deal with OVERFLOW, if needed:
+				if (maxRec > 0 && execReport.nbRows >= maxRec)
+					break readLoop;
+
+				// [
+				out.array();
+				for(int c = 0; c < batch.getColumnCount(); c++)
+					// ...
+					writeFieldValue(batch, c, r, selectedColumns[c], out);
+				// ]
+				out.endArray();
+				execReport.nbRows++;
+			}
+		}
+
+		// ]
+		out.endArray();
+	}
+
 	/**
 	 * <p>Writes the given field value in JSON and into the given output.</p>
 	 * 
@@ -304,4 +406,60 @@ public class JSONFormat implements OutputFormat {
 		else
 			out.value(value);
 	}
+
+	/**
+	 * <p>Writes the specified field value of the given batch in JSON and into the given output.</p>
+	 * 
+	 * <p>
+	 * 	Integer values stored in a primitive array are written directly, without being boxed.
+	 * 	All non-numeric values are written with {@link #writeFieldValue(Object, DBColumn, JSONWriter)}.
+	 * </p>
+	 * 
+	 * <p><i>note: special numeric values NaN and Inf (double or float) will be written as NULL values.</i></p>
+	 * 
+	 * @param batch				The batch containing the value to write.
+	 * @param col				Index of the column (starting from 0) of the value to write.
+	 * @param row				Index of the row (starting from 0) of the value to write.
+	 * @param column			The corresponding column metadata.
+	 * @param out				The stream in which the field value must be written.
+	 * 
+	 * @throws IOException		If there is an error while writing the given field value in the given stream.
+	 * @throws TAPException		If there is any other error (by default: never happen).
+	 * 
+	 * @since 2.4
+	 */
+	protected void writeFieldValue(final ColumnBatch batch, final int col, final int row, final DBColumn column, final JSONWriter out) throws IOException, TAPException, JSONException{
+		if (batch.isNull(col, row)){
+			out.value((Object)null);
+			return;
+		}
+
+		switch(batch.getStorageType(col)){
+			case SHORT:
+				out.value(batch.getShort(col, row));
+				break;
+			case INT:
+				out.value(batch.getInt(col, row));
+				break;
+			case LONG:
+				out.value(batch.getLong(col, row));
+				break;
+			case FLOAT:
+				float f = batch.getFloat(col, row);
+				if (Float.isNaN(f) || Float.isInfinite(f))
+					out.value((Object)null);
+				else
+					out.value((Object)f);
+				break;
+			case DOUBLE:
+				double d = batch.getDouble(col, row);
+				if (Double.isNaN(d) || Double.isInfinite(d))
+					out.value((Object)null);
+				else
+					out.value(d);
+				break;
+			default:
+				writeFieldValue(batch.getValue(col, row), column, out);
+		}
+	}
 }
@@ -16,7 +16,7 @@ package tap.formatter;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -28,6 +28,8 @@ import java.io.OutputStreamWriter;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.TAPExecutionReport;
+import tap.data.BatchTableIterator;
+import tap.data.ColumnBatch;
 import tap.data.TableIterator;
 import adql.db.DBColumn;
 
@@ -35,7 +37,7 @@ import adql.db.DBColumn;
  * Format any given query (table) result into CSV or TSV (or with custom separator).
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.0 (04/2015)
+ * @version 2.4 (10/2026)
  */
 public class SVFormat implements OutputFormat {
 
@@ -293,7 +295,13 @@ public class SVFormat implements OutputFormat {
 	}
 
 	/**
-	 * Write all the data rows.
+	 * <p>Write all the data rows.</p>
+	 * 
+	 * <p><i>Note:
+	 * 	If the given result is a {@link BatchTableIterator} able to provide its metadata,
+	 * 	rows are read by block thanks to {@link #writeData(BatchTableIterator, DBColumn[], BufferedWriter, TAPExecutionReport, Thread)}
+	 * 	(only if {@link #isBatchWritingAllowed()} returns <i>true</i>).
+	 * </i></p>
 	 * 
 	 * @param result			Result to write.	
 	 * @param selectedColumns	All columns' metadata.
@@ -306,6 +314,12 @@ public class SVFormat implements OutputFormat {
 	 * @throws TAPException				If any other error occurs.
 	 */
 	protected void writeData(TableIterator result, DBColumn[] selectedColumns, BufferedWriter writer, TAPExecutionReport execReport, Thread thread) throws IOException, TAPException, InterruptedException{
+		// Read the rows by block, if possible:
+		if (result instanceof BatchTableIterator && result.getMetadata() != null && isBatchWritingAllowed()){
+			writeData((BatchTableIterator)result, selectedColumns, writer, execReport, thread);
+			return;
+		}
+
 		execReport.nbRows = 0;
 
 		while(result.nextRow()){
@@ -337,6 +351,96 @@ public class SVFormat implements OutputFormat {
 		writer.flush();
 	}
 
+	/**
+	 * <p>Tell whether the rows of a {@link BatchTableIterator} can be written by block.</p>
+	 * 
+	 * <p>
+	 * 	It is not the case when the class of this formatter overrides
+	 * 	{@link #writeFieldValue(Object, DBColumn, BufferedWriter)} without overriding also
+	 * 	{@link #writeFieldValue(ColumnBatch, int, int, DBColumn, BufferedWriter)}: the numeric values
+	 * 	of a block would otherwise be written without this customized formatting.
+	 * </p>
+	 * 
+	 * @return	<i>true</i> if the rows can be written by block,
+	 *        	<i>false</i> if they must be written one value after the other.
+	 * 
+	 * @since 2.4
+	 */
+	protected boolean isBatchWritingAllowed(){
+		return !isOverridden(Object.class, DBColumn.class, BufferedWriter.class) || isOverridden(ColumnBatch.class, int.class, int.class, DBColumn.class, BufferedWriter.class);
+	}
+
+	/**
+	 * Tell whether the method <code>writeFieldValue</code> with the given parameter types
+	 * is declared by a subclass of {@link SVFormat}.
+	 * 
+	 * @param paramTypes	Parameter types of the method.
+	 * 
+	 * @return	<i>true</i> if the class of this formatter overrides this method,
+	 *        	<i>false</i> otherwise.
+	 */
+	private boolean isOverridden(final Class<?>... paramTypes){
+		for(Class<?> c = getClass(); c != SVFormat.class; c = c.getSuperclass()){
+			try{
+				c.getDeclaredMethod("writeFieldValue", paramTypes);
+				return true;
+			}catch(NoSuchMethodException nsme){}
+		}
+		return false;
+	}
+
+	/**
+	 * Write all the data rows, reading them by block.
+	 * 
+	 * @param result			Result to write.	
+	 * @param selectedColumns	All columns' metadata.
+	 * @param writer			Writer in which the data must be written.
+	 * @param execReport		Execution report (which contains the maximum allowed number of records to output).
+	 * @param thread			Thread which has asked for this formatting (it must be used in order to test the {@link Thread#isInterrupted()} flag and so interrupt everything if need).
+	 * 
+	 * @throws IOException				If there is an error while writing something in the given writer.
+	 * @throws InterruptedException		If the thread has been interrupted.
+	 * @throws TAPException				If any other error occurs.
+	 * 
+	 * @since 2.4
+	 */
+	protected void writeData(BatchTableIterator result, DBColumn[] selectedColumns, BufferedWriter writer, TAPExecutionReport execReport, Thread thread) throws IOException, TAPException, InterruptedException{
+		execReport.nbRows = 0;
+
+		final int maxRec = execReport.parameters.getMaxRec();
+		final ColumnBatch batch = new ColumnBatch(result.getMetadata(), ColumnBatch.DEFAULT_CAPACITY);
+
+		while(result.nextBatch(batch) > 0){
+			for(int r = 0; r < batch.getRowCount(); r++){
+				// Stop right now the formatting if the job has been aborted/canceled/interrupted:
+				if (thread.isInterrupted())
+					throw new InterruptedException();
+
+				// Deal with OVERFLOW, if needed:
+				if (maxRec > 0 && execReport.nbRows >= maxRec){ // that's to say: OVERFLOW !
+					writer.flush();
+					return;
+				}
+
+				for(int c = 0; c < batch.getColumnCount(); c++){
+					// Append the column separator:
+					if (c > 0)
+						writer.write(separator);
+
+					// Write the column value:
+					writeFieldValue(batch, c, r, selectedColumns[c], writer);
+				}
+				writer.newLine();
+
+				execReport.nbRows++;
+			}
+
+			// flush the writer after each block:
+			writer.flush();
+		}
+		writer.flush();
+	}
+
 	/**
 	 * <p>Writes the given field value in the given Writer.</p>
 	 * 
@@ -362,4 +466,57 @@ public class SVFormat implements OutputFormat {
 				writer.write(value.toString());
 		}
 	}
+
+	/**
+	 * <p>Writes the specified field value of the given batch in the given Writer.</p>
+	 * 
+	 * <p>
+	 * 	Numeric values stored in a primitive array are written directly, without being boxed.
+	 * 	All the other values are written with {@link #writeFieldValue(Object, DBColumn, BufferedWriter)}.
+	 * </p>
+	 * 
+	 * @param batch				The batch containing the value to write.
+	 * @param col				Index of the column (starting from 0) of the value to write.
+	 * @param row				Index of the row (starting from 0) of the value to write.
+	 * @param column			The corresponding column metadata.
+	 * @param writer			The stream in which the field value must be written.
+	 * 
+	 * @throws IOException		If there is an error while writing the given field value in the given stream.
+	 * @throws TAPException		If there is any other error (by default: never happen).
+	 * 
+	 * @since 2.4
+	 */
+	protected void writeFieldValue(final ColumnBatch batch, final int col, final int row, final DBColumn column, final BufferedWriter writer) throws IOException, TAPException{
+		if (batch.isNull(col, row))
+			return;
+
+		String str;
+		switch(batch.getStorageType(col)){
+			case SHORT:
+				str = Short.toString(batch.getShort(col, row));
+				break;
+			case INT:
+				str = Integer.toString(batch.getInt(col, row));
+				break;
+			case LONG:
+				str = Long.toString(batch.getLong(col, row));
+				break;
+			case FLOAT:
+				str = Float.toString(batch.getFloat(col, row));
+				break;
+			case DOUBLE:
+				str = Double.toString(batch.getDouble(col, row));
+				break;
+			default:
+				writeFieldValue(batch.getValue(col, row), column, writer);
+				return;
+		}
+
+		if (str.contains(separator)){
+			writer.write('"');
+			writer.write(str);
+			writer.write('"');
+		}else
+			writer.write(str);
+	}
 }
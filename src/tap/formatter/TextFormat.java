@@ -24,8 +24,10 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
 
 import adql.db.DBColumn;
+import adql.db.DBType;
 import cds.util.LargeAsciiTable;
 import cds.util.LargeAsciiTable.LineProcessor;
 import cds.util.LargeAsciiTable.LineProcessorException;
@@ -39,8 +41,26 @@ import tap.data.TableIterator;
  * representation (columns' width are adjusted so that all columns are well
  * aligned and of the same width).
  *
+ * <h3>Buffered or streamed</h3>
+ *
+ * <p>
+ * 	By default, all rows are first buffered in a {@link LargeAsciiTable}
+ * 	(in memory, and then in a temporary file) in order to know the exact width
+ * 	of all columns before writing anything.
+ * </p>
+ *
+ * <p>
+ * 	With a positive or null sample size (see
+ * 	{@link #TextFormat(ServiceConnection, int[], int)}), rows are instead
+ * 	written as soon as they are read. Columns' width are then computed from
+ * 	the first rows (the sample) or, if the sample size is 0, from the column
+ * 	metadata (i.e. {@link DBType} ; see {@link #getColumnWidth(DBColumn)}).
+ * 	If a value is larger than its column, the column is widened for all the
+ * 	following rows.
+ * </p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.3 (11/2018)
+ * @version 2.4 (10/2026)
  */
 public class TextFormat implements OutputFormat {
 
@@ -54,6 +74,17 @@ public class TextFormat implements OutputFormat {
 	 * @since 2.3 */
 	protected int[] alignment = new int[]{ LargeAsciiTable.LEFT };
 
+	/** Sample size selecting the default buffered mode: all rows are buffered
+	 * before being aligned and written.
+	 * @since 2.4 */
+	public static final int BUFFERED = -1;
+
+	/** Number of rows to read before writing anything, in order to compute
+	 * the width of all columns. If negative, all rows are buffered
+	 * (see {@link #BUFFERED}).
+	 * @since 2.4 */
+	protected final int sampleSize;
+
 	/** The {@link ServiceConnection} to use (for the log and to have some
 	 * information about the service (particularly: name, description). */
 	protected final ServiceConnection service;
@@ -88,11 +119,46 @@ public class TextFormat implements OutputFormat {
 	 * @since 2.3
 	 */
 	public TextFormat(final ServiceConnection service, final int[] customAlignment) throws NullPointerException{
+		this(service, customAlignment, BUFFERED);
+	}
+
+	/**
+	 * Build a {@link TextFormat}.
+	 *
+	 * @param service			Description of the TAP service.
+	 * @param customAlignment	How columns must be aligned.
+	 *                       	<em>(see {@link LargeAsciiTable#streamAligned(LineProcessor, int[])}
+	 *                       	to know the rules about this array)</em>
+	 * @param sampleSize		Number of rows to read before writing anything
+	 *                  		(they are used to compute the width of all
+	 *                  		columns). If 0, columns' width are computed from
+	 *                  		the column metadata. If negative
+	 *                  		(e.g. {@link #BUFFERED}), all rows are buffered
+	 *                  		before being written.
+	 *
+	 * @throws NullPointerException	If the given service connection is NULL.
+	 *
+	 * @since 2.4
+	 */
+	public TextFormat(final ServiceConnection service, final int[] customAlignment, final int sampleSize) throws NullPointerException{
 		if (service == null)
 			throw new NullPointerException("The given service connection is NULL!");
 
 		this.service = service;
 		this.alignment = customAlignment;
+		this.sampleSize = sampleSize;
+	}
+
+	/**
+	 * Get the number of rows read before writing anything.
+	 *
+	 * @return	The sample size,
+	 *        	or a negative value if all rows are buffered.
+	 *
+	 * @since 2.4
+	 */
+	public final int getSampleSize(){
+		return sampleSize;
 	}
 
 	@Override
@@ -117,6 +183,12 @@ public class TextFormat implements OutputFormat {
 
 	@Override
 	public void writeResult(TableIterator result, OutputStream output, TAPExecutionReport execReport, Thread thread) throws TAPException, IOException, InterruptedException{
+		// Write the rows as they come, if asked:
+		if (sampleSize >= 0 && execReport.resultingColumns != null){
+			writeStreamed(result, output, execReport, thread);
+			return;
+		}
+
 		// Prepare the formatting of the whole output:
 		try(LargeAsciiTable asciiTable = new LargeAsciiTable(COL_SEP)){
 
@@ -285,6 +357,268 @@ public class TextFormat implements OutputFormat {
 		return overflow;
 	}
 
+	/**
+	 * Write all the rows in the given output as soon as they are read.
+	 *
+	 * <p>
+	 * 	Only the first rows (see {@link #getSampleSize()}) are kept in memory
+	 * 	in order to compute the width of all columns. If there is no sample,
+	 * 	these widths are computed with {@link #getColumnWidth(DBColumn)}.
+	 * </p>
+	 *
+	 * @param result		Result to write.
+	 * @param output		Stream in which the result must be written.
+	 * @param execReport	Execution report (which contains the metadata
+	 *                  	extracted/guessed from the ADQL query and the
+	 *                  	maximum allowed number of records to output).
+	 * @param thread		Thread which has asked for this formatting (it must
+	 *              		be used in order to test the
+	 *              		{@link Thread#isInterrupted()} flag and so interrupt
+	 *              		everything if need).
+	 *
+	 * @throws IOException				If the output can not be written.
+	 * @throws InterruptedException		If the thread has been interrupted.
+	 * @throws TAPException				If any other error occurs.
+	 *
+	 * @since 2.4
+	 */
+	protected void writeStreamed(final TableIterator result, final OutputStream output, final TAPExecutionReport execReport, final Thread thread) throws IOException, TAPException, InterruptedException{
+		execReport.nbRows = 0;
+		boolean overflow = false, end = false;
+
+		// Get the list of columns:
+		DBColumn[] selectedColumns = execReport.resultingColumns;
+		int nbColumns = selectedColumns.length;
+
+		// Initialize the columns' width with the columns' name:
+		String[] header = new String[nbColumns];
+		int[] widths = new int[nbColumns];
+		for(int i = 0; i < nbColumns; i++){
+			header[i] = selectedColumns[i].getADQLName();
+			widths[i] = header[i].length();
+			// if no sample, rely on the column metadata:
+			if (sampleSize == 0)
+				widths[i] = Math.max(widths[i], getColumnWidth(selectedColumns[i]));
+		}
+
+		// Read the sample rows, if any:
+		ArrayList<String[]> sample = new ArrayList<String[]>(Math.min(sampleSize, 1000));
+		while(sample.size() < sampleSize){
+			if (!result.nextRow()){
+				end = true;
+				break;
+			}
+
+			// Stop right now the formatting if the job has been aborted/cancelled/interrupted:
+			if (thread.isInterrupted())
+				throw new InterruptedException();
+
+			// Deal with OVERFLOW, if needed:
+			if (execReport.parameters.getMaxRec() > 0 && execReport.nbRows >= execReport.parameters.getMaxRec()){
+				overflow = end = true;
+				break;
+			}
+
+			String[] fields = readFields(result, selectedColumns);
+			for(int i = 0; i < nbColumns; i++)
+				widths[i] = Math.max(widths[i], fields[i].length());
+			sample.add(fields);
+
+			execReport.nbRows++;
+		}
+
+		BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output));
+		StringBuffer line = new StringBuffer();
+
+		// Write the header, centred, and the separator line:
+		writeAlignedLine(header, widths, true, line, writer);
+		line.delete(0, line.length());
+		for(int i = 0; i < nbColumns; i++){
+			if (i > 0)
+				line.append('|');
+			for(int k = 0; k < widths[i]; k++)
+				line.append('-');
+		}
+		writer.write(line.toString());
+		writer.newLine();
+
+		// Write the sample rows:
+		for(String[] fields : sample)
+			writeAlignedLine(fields, widths, false, line, writer);
+		sample = null;
+		writer.flush();
+
+		// Write all the remaining rows as they come:
+		while(!end && result.nextRow()){
+			// Stop right now the formatting if the job has been aborted/cancelled/interrupted:
+			if (thread.isInterrupted())
+				throw new InterruptedException();
+
+			// Deal with OVERFLOW, if needed:
+			if (execReport.parameters.getMaxRec() > 0 && execReport.nbRows >= execReport.parameters.getMaxRec()){
+				overflow = true;
+				break;
+			}
+
+			writeAlignedLine(readFields(result, selectedColumns), widths, false, line, writer);
+
+			execReport.nbRows++;
+		}
+
+		// Add a line in case of an OVERFLOW:
+		if (overflow){
+			writer.write("\nOVERFLOW (more rows were available but have been truncated by the TAP service)");
+			writer.newLine();
+		}
+
+		writer.flush();
+	}
+
+	/**
+	 * Read and format all the values of the current row.
+	 *
+	 * @param queryResult	Result positioned on the row to read.
+	 * @param columns		Metadata of all columns.
+	 *
+	 * @return	The formatted value of each column (an empty string for
+	 *        	NULL or missing values).
+	 *
+	 * @throws TAPException	If a value can not be read.
+	 *
+	 * @since 2.4
+	 */
+	protected String[] readFields(final TableIterator queryResult, final DBColumn[] columns) throws TAPException{
+		String[] fields = new String[columns.length];
+		StringBuffer field = new StringBuffer();
+		for(int i = 0; i < columns.length; i++){
+			field.delete(0, field.length());
+			if (queryResult.hasNextCol())
+				writeFieldValue(queryResult.nextCol(), columns[i], field);
+			fields[i] = field.toString();
+		}
+		return fields;
+	}
+
+	/**
+	 * Align the given fields and write them as one line.
+	 *
+	 * <p><i>Note:
+	 * 	If a field is larger than its column, the column is widened (i.e. the
+	 * 	given array of widths is updated) so that the following lines are
+	 * 	aligned with it.
+	 * </i></p>
+	 *
+	 * @param fields	Values to write.
+	 * @param widths	Width of all columns.
+	 * @param header	<i>true</i> if the given fields are the columns' name
+	 *              	(they are then centred),
+	 *              	<i>false</i> if they are values.
+	 * @param line		Buffer to use to build the line.
+	 * @param writer	Writer in which the line must be written.
+	 *
+	 * @throws IOException	If the line can not be written.
+	 *
+	 * @since 2.4
+	 */
+	protected void writeAlignedLine(final String[] fields, final int[] widths, final boolean header, final StringBuffer line, final BufferedWriter writer) throws IOException{
+		line.delete(0, line.length());
+		for(int col = 0; col < fields.length; col++){
+			// write the column separator between each column:
+			if (col > 0)
+				line.append('|');
+
+			// widen the column if needed:
+			if (fields[col].length() > widths[col])
+				widths[col] = fields[col].length();
+			int inserted = widths[col] - fields[col].length();
+
+			// choose the most appropriate alignment (same rules as LargeAsciiTable):
+			int justif;
+			if (header)
+				justif = LargeAsciiTable.CENTER;
+			else if (alignment == null || alignment.length == 0)
+				justif = LargeAsciiTable.LEFT;
+			else if (col >= alignment.length)
+				justif = alignment[alignment.length - 1];
+			else
+				justif = alignment[col];
+
+			// finally, align and append this column value:
+			switch(justif){
+				case LargeAsciiTable.LEFT:
+				default:
+					line.append(fields[col]);
+					appendSpaces(line, inserted);
+					break;
+				case LargeAsciiTable.CENTER:
+					appendSpaces(line, inserted / 2);
+					line.append(fields[col]);
+					appendSpaces(line, inserted - inserted / 2);
+					break;
+				case LargeAsciiTable.RIGHT:
+					appendSpaces(line, inserted);
+					line.append(fields[col]);
+					break;
+			}
+		}
+		writer.write(line.toString());
+		writer.newLine();
+	}
+
+	/**
+	 * Append the given number of spaces to the given buffer.
+	 *
+	 * @param buf	Buffer to update.
+	 * @param nb	Number of spaces to append.
+	 *
+	 * @since 2.4
+	 */
+	private static void appendSpaces(final StringBuffer buf, final int nb){
+		for(int i = 0; i < nb; i++)
+			buf.append(' ');
+	}
+
+	/**
+	 * Get the maximum width of the values of the given column, according to
+	 * its datatype.
+	 *
+	 * <p>
+	 * 	This function is used when columns' width must be known without
+	 * 	reading any row (i.e. a sample size of 0).
+	 * </p>
+	 *
+	 * @param column	The column whose the width is asked.
+	 *
+	 * @return	The width (in characters) of the column values,
+	 *        	or -1 if unknown.
+	 *
+	 * @since 2.4
+	 */
+	protected int getColumnWidth(final DBColumn column){
+		DBType type = column.getDatatype();
+		if (type == null)
+			return -1;
+		switch(type.type){
+			case SMALLINT:
+				return 6;		// -32768
+			case INTEGER:
+				return 11;		// -2147483648
+			case BIGINT:
+				return 20;		// -9223372036854775808
+			case REAL:
+				return 15;		// -1.17549435E-38
+			case DOUBLE:
+				return 24;		// -2.2250738585072014E-308
+			case CHAR:
+			case VARCHAR:
+			case UNICODECHAR:
+				// +2 for the surrounding double quotes:
+				return (type.length > 0) ? type.length + 2 : -1;
+			default:
+				return -1;
+		}
+	}
+
 	/**
 	 * Writes the given field value in the given buffer.
 	 *
@@ -35,6 +35,8 @@ import adql.db.DBType.DBDatatype;
 import tap.ServiceConnection;
 import tap.TAPException;
 import tap.TAPExecutionReport;
+import tap.data.BatchTableIterator;
+import tap.data.ColumnBatch;
 import tap.data.DataReadException;
 import tap.data.TableIterator;
 import tap.error.DefaultTAPErrorWriter;
@@ -397,7 +399,9 @@ public class VOTableFormat implements OutputFormat {
 		VOSerializer voser = null;
 		/* if FITS, copy the table on disk (or in memory if the table is short):
 		 * (note: this is needed because STIL needs at least 2 passes on this
-		 *        table to format it correctly in FITS format) */
+		 *        table to format it correctly in FITS format ; unlike in
+		 *        FITSFormat, the number of rows can not be set afterwards
+		 *        because the FITS bytes are here encoded in base64) */
 		if (votFormat == DataFormat.FITS) {
 			try {
 				voser = VOSerializer.makeSerializer(votFormat, votVersion, StoragePolicy.PREFER_DISK.copyTable(table));
@@ -742,8 +746,14 @@ public class VOTableFormat implements OutputFormat {
 	 * {@link TableIterator}. However, if no limit is provided, all rows are
 	 * read.
 	 *
+	 * <p><i>Note:
+	 * 	If the given {@link TableIterator} is a {@link BatchTableIterator}, rows
+	 * 	are read by block. Since STIL expects an <code>Object[]</code> per
+	 * 	row, cells are still boxed, but only once per row sequence step.
+	 * </i></p>
+	 *
 	 * @author Gr&eacute;gory Mantelet (CDS;ARI)
-	 * @version 2.1 (11/2015)
+	 * @version 2.4 (10/2026)
 	 * @since 2.0
 	 */
 	public static class LimitedStarTable extends AbstractStarTable {
@@ -836,24 +846,40 @@ public class VOTableFormat implements OutputFormat {
 			overflow = false;
 			row = new Object[nbCol];
 
+			// Read the rows by block, if possible:
+			final ColumnBatch batch;
+			try {
+				batch = (tableIt instanceof BatchTableIterator && tableIt.getMetadata() != null) ? new ColumnBatch(tableIt.getMetadata(), ColumnBatch.DEFAULT_CAPACITY) : null;
+			} catch(DataReadException dre) {
+				throw new IOException(dre);
+			}
+
 			return new RowSequence() {
 				long irow = -1;
 
+				/** Index of the current row inside the batch (if any). */
+				int indBatchRow = -1;
+
 				@Override
 				public boolean next() throws IOException {
 					irow++;
 					try {
 						if (!threadToWatch.isInterrupted() && (maxrec < 0 || irow < maxrec)) {
-							boolean hasNext = tableIt.nextRow();
+							boolean hasNext = (batch == null) ? tableIt.nextRow() : nextBatchRow();
 							if (hasNext) {
-								for(int i = 0; i < nbCol && tableIt.hasNextCol(); i++)
-									row[i] = tableIt.nextCol();
+								if (batch == null) {
+									for(int i = 0; i < nbCol && tableIt.hasNextCol(); i++)
+										row[i] = tableIt.nextCol();
+								} else {
+									for(int i = 0; i < nbCol && i < batch.getColumnCount(); i++)
+										row[i] = batch.getValue(i, indBatchRow);
+								}
 								nbRows++;
 							} else
 								row = null;
 							return hasNext;
 						} else {
-							overflow = tableIt.nextRow();
+							overflow = (batch == null) ? tableIt.nextRow() : nextBatchRow();
 							row = null;
 							return false;
 						}
@@ -865,6 +891,27 @@ public class VOTableFormat implements OutputFormat {
 					}
 				}
 
+				/**
+				 * Go to the next row of the batch, reading the next block of
+				 * rows if the end of the batch has been reached.
+				 *
+				 * @return	<i>true</i> if a next row is available,
+				 *        	<i>false</i> otherwise.
+				 *
+				 * @throws DataReadException	If the next rows can not be read.
+				 *
+				 * @since 2.4
+				 */
+				private boolean nextBatchRow() throws DataReadException {
+					indBatchRow++;
+					if (indBatchRow >= batch.getRowCount()) {
+						if (((BatchTableIterator)tableIt).nextBatch(batch) <= 0)
+							return false;
+						indBatchRow = 0;
+					}
+					return true;
+				}
+
 				@Override
 				public Object[] getRow() throws IOException {
 					return row;
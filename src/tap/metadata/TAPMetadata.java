@@ -16,7 +16,7 @@ package tap.metadata;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -30,6 +30,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -39,7 +40,9 @@ import javax.servlet.http.HttpServletResponse;
 import adql.db.DBTable;
 import adql.db.DBType;
 import adql.db.DBType.DBDatatype;
+import tap.TAPException;
 import tap.metadata.TAPTable.TableType;
+import tap.resource.CachedDocument;
 import tap.resource.Capabilities;
 import tap.resource.TAPResource;
 import tap.resource.VOSIResource;
@@ -75,8 +78,22 @@ import uws.UWSToolBox;
  * 	IVOA specification.
  * </p>
  *
+ * <p>
+ * 	The XML document of the resource "/tables" is generated only once and
+ * 	then kept in memory (see {@link CachedDocument}), as well as the document
+ * 	of each table (i.e. "/tables/{table_name}"). These documents are
+ * 	discarded when a schema is added or removed, or when the XSLT
+ * 	style-sheet changes.
+ * </p>
+ *
+ * <p><b>Important:</b>
+ * 	A modification of a schema, table or column already added in this
+ * 	metadata set is not detected. In such case, {@link #invalidateCache()}
+ * 	must be called.
+ * </p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.1 (11/2017)
+ * @version 2.4 (10/2026)
  */
 public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResource {
 
@@ -99,6 +116,18 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 	 * @since 2.1 */
 	protected String xsltPath = null;
 
+	/** The XML document of this whole metadata set. NULL if not yet generated.
+	 * @since 2.4 */
+	private volatile CachedDocument cachedDocument = null;
+
+	/** The XML documents of the tables already asked, indexed by table name.
+	 * @since 2.4 */
+	private final Map<String,CachedDocument> cachedTableDocuments = new ConcurrentHashMap<String,CachedDocument>();
+
+	/** Version of this metadata set, incremented by {@link #invalidateCache()}.
+	 * @since 2.4 */
+	private volatile long version = 0;
+
 	/**
 	 * <p>Build an empty list of metadata.</p>
 	 *
@@ -152,6 +181,45 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 			if (xsltPath.isEmpty())
 				xsltPath = null;
 		}
+		invalidateCache();
+	}
+
+	/**
+	 * <p>Discard the XML documents generated for the resource "/tables".
+	 * They will be generated again at the next request.</p>
+	 *
+	 * <p>
+	 * 	This function is called automatically when a schema is added or removed.
+	 * 	It must be called explicitly after any modification of a schema, table
+	 * 	or column already added in this metadata set.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	The version of this metadata set is also incremented (see
+	 * 	{@link #getVersion()}), so that other caches (e.g.
+	 * 	{@link tap.ADQLQueryCache}) can detect the modification.
+	 * </i></p>
+	 *
+	 * @since 2.4
+	 */
+	public void invalidateCache(){
+		synchronized(cachedTableDocuments){
+			cachedDocument = null;
+			cachedTableDocuments.clear();
+			version++;
+		}
+	}
+
+	/**
+	 * Get the version of this metadata set. It changes each time
+	 * {@link #invalidateCache()} is called.
+	 *
+	 * @return	The current version.
+	 *
+	 * @since 2.4
+	 */
+	public final long getVersion(){
+		return version;
 	}
 
 	/**
@@ -164,8 +232,10 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 	 * @param s	The schema to add.
 	 */
 	public final void addSchema(TAPSchema s){
-		if (s != null && s.getADQLName() != null)
+		if (s != null && s.getADQLName() != null){
 			schemas.put(s.getADQLName(), s);
+			invalidateCache();
+		}
 	}
 
 	/**
@@ -298,8 +368,12 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 	public final TAPSchema removeSchema(String schemaName){
 		if (schemaName == null)
 			return null;
-		else
-			return schemas.remove(schemaName);
+		else{
+			TAPSchema removed = schemas.remove(schemaName);
+			if (removed != null)
+				invalidateCache();
+			return removed;
+		}
 	}
 
 	/**
@@ -307,6 +381,7 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 	 */
 	public final void removeAllSchemas(){
 		schemas.clear();
+		invalidateCache();
 	}
 
 	@Override
@@ -621,17 +696,124 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 	@Override
 	public void destroy(){}
 
+	/**
+	 * <p>Write the XML document of the whole metadata set, or of only one table
+	 * if its name is given after the resource name (i.e. "/tables/{table_name}").</p>
+	 *
+	 * <p><i>Note:
+	 * 	The XML documents are generated once and then kept in memory
+	 * 	(see {@link #getCachedDocument()} and {@link #getCachedDocument(TAPTable)}).
+	 * 	Thanks to them, conditional requests (<code>If-None-Match</code>) and gzip
+	 * 	compression are supported.
+	 * </i></p>
+	 */
 	@Override
-	public boolean executeResource(HttpServletRequest request, HttpServletResponse response) throws IOException{
-		response.setContentType("application/xml");
-		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
+	public boolean executeResource(HttpServletRequest request, HttpServletResponse response) throws IOException, TAPException{
+		// Get the name of the table, if any:
+		String tableName = null;
+		if (request.getPathInfo() != null){
+			String[] path = request.getPathInfo().split("/", 3);
+			if (path.length > 2 && path[2].trim().length() > 0)
+				tableName = path[2].trim();
+		}
 
-		PrintWriter writer = response.getWriter();
-		write(writer);
+		// Write the document of the whole metadata set:
+		if (tableName == null)
+			getCachedDocument().write(request, response);
+
+		// ...or the document of the given table:
+		else{
+			TAPTable table = findTable(tableName);
+			if (table == null)
+				throw new TAPException("Unknown table: \"" + tableName + "\"!", HttpServletResponse.SC_NOT_FOUND);
+			getCachedDocument(table).write(request, response);
+		}
 
 		return false;
 	}
 
+	/**
+	 * Search for the table having the given name.
+	 *
+	 * @param tableName	ADQL name of the table, either as written in "/tables"
+	 *                 	or prefixed by its schema name. <i>Case insensitive.</i>
+	 *
+	 * @return	The corresponding table,
+	 *        	or NULL if none matches.
+	 *
+	 * @since 2.4
+	 */
+	protected TAPTable findTable(final String tableName){
+		Iterator<TAPTable> it = getTables();
+		while(it.hasNext()){
+			TAPTable t = it.next();
+			if (tableName.equalsIgnoreCase(t.getRawName()) || tableName.equalsIgnoreCase(t.getFullName()))
+				return t;
+		}
+		return null;
+	}
+
+	/**
+	 * Get the XML document of this whole metadata set.
+	 * It is generated with {@link #write(PrintWriter)} if not already in memory.
+	 *
+	 * @return	The XML document.
+	 *
+	 * @throws IOException	If the document can not be generated.
+	 *
+	 * @since 2.4
+	 */
+	public CachedDocument getCachedDocument() throws IOException{
+		CachedDocument doc = cachedDocument;
+		if (doc == null){
+			synchronized(cachedTableDocuments){
+				doc = cachedDocument;
+				if (doc == null){
+					doc = CachedDocument.create(new CachedDocument.DocumentWriter(){
+						@Override
+						public void write(final PrintWriter writer) throws IOException{
+							TAPMetadata.this.write(writer);
+						}
+					}, "application/xml");
+					cachedDocument = doc;
+				}
+			}
+		}
+		return doc;
+	}
+
+	/**
+	 * Get the XML document of the given table.
+	 * It is generated with {@link #write(TAPTable, PrintWriter)} if not already in memory.
+	 *
+	 * @param table	The table whose the XML document is asked.
+	 *
+	 * @return	The XML document.
+	 *
+	 * @throws IOException	If the document can not be generated.
+	 *
+	 * @since 2.4
+	 */
+	public CachedDocument getCachedDocument(final TAPTable table) throws IOException{
+		final String key = table.getFullName();
+		CachedDocument doc = cachedTableDocuments.get(key);
+		if (doc == null){
+			synchronized(cachedTableDocuments){
+				doc = cachedTableDocuments.get(key);
+				if (doc == null){
+					doc = CachedDocument.create(new CachedDocument.DocumentWriter(){
+						@Override
+						public void write(final PrintWriter writer) throws IOException{
+							TAPMetadata.this.write(table, writer);
+						}
+					}, "application/xml");
+					cachedTableDocuments.put(key, doc);
+				}
+			}
+		}
+		return doc;
+	}
+
 	/**
 	 * Format in XML this whole metadata set and write it in the given writer.
 	 *
@@ -663,6 +845,39 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 		UWSToolBox.flush(writer);
 	}
 
+	/**
+	 * Format in XML the given table and write it, as a whole document, in the given writer.
+	 *
+	 * <p>This is the document of the resource "/tables/{table_name}" (VOSI-Tables 1.1).</p>
+	 *
+	 * @param table		The table to format in XML.
+	 * @param writer	Stream in which the XML representation of this table must be written.
+	 *
+	 * @throws IOException	If there is any error while writing the XML in the given writer.
+	 *
+	 * @since 2.4
+	 */
+	public void write(final TAPTable table, final PrintWriter writer) throws IOException{
+		writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+
+		if (xsltPath != null){
+			writer.print("<?xml-stylesheet type=\"text/xsl\" ");
+			writer.print(VOSerializer.formatAttribute("href", xsltPath));
+			writer.println("?>");
+		}
+
+		writer.print("<vosi:table xmlns:vosi=\"http://www.ivoa.net/xml/VOSITables/v1.0\" xmlns:vod=\"http://www.ivoa.net/xml/VODataService/v1.1\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.ivoa.net/xml/VODataService/v1.1 http://www.ivoa.net/xml/VODataService/v1.1 http://www.ivoa.net/xml/VOSITables/v1.0 http://www.ivoa.net/xml/VOSITables/v1.1\"");
+		if (table.getType() != null && table.getType() != TableType.table)
+			writer.print(VOSerializer.formatAttribute("type", table.getType().toString()));
+		writer.println(">");
+
+		writeTableContent(table, "\t", writer);
+
+		writer.println("</vosi:table>");
+
+		UWSToolBox.flush(writer);
+	}
+
 	/**
 	 * <p>Format in XML the given schema and then write it in the given writer.</p>
 	 *
@@ -761,6 +976,29 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 		}
 		writer.println(">");
 
+		int nbCol = writeTableContent(t, prefix, writer);
+
+		writer.println("\t\t</table>");
+
+		return nbCol;
+	}
+
+	/**
+	 * Format in XML the content of the given table (i.e. everything inside the node <code>table</code>)
+	 * and then write it in the given writer.
+	 *
+	 * @param t			The table to format and to write in XML.
+	 * @param prefix	Prefix of the written XML nodes (generally, tabulations).
+	 * @param writer	Output in which the XML serialization of the given table must be written.
+	 *
+	 * @return	The total number of written columns.
+	 *
+	 * @see #writeColumn(TAPColumn, PrintWriter)
+	 * @see #writeForeignKey(TAPForeignKey, PrintWriter)
+	 *
+	 * @since 2.4
+	 */
+	protected int writeTableContent(TAPTable t, final String prefix, PrintWriter writer){
 		writeAtt(prefix, "name", t.getRawName(), false, writer);
 		writeAtt(prefix, "title", t.getTitle(), true, writer);
 		writeAtt(prefix, "description", t.getDescription(), true, writer);
@@ -777,8 +1015,6 @@ public class TAPMetadata implements Iterable<TAPSchema>, VOSIResource, TAPResour
 		while(itFK.hasNext())
 			writeForeignKey(itFK.next(), writer);
 
-		writer.println("\t\t</table>");
-
 		return nbCol;
 	}
 
@@ -16,7 +16,7 @@ package tap.metadata;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2016 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -30,6 +30,7 @@ import java.util.Map;
 import adql.db.DBColumn;
 import adql.db.DBTable;
 import adql.db.DBType;
+import adql.db.SearchColumnList;
 import tap.TAPException;
 
 /**
@@ -52,7 +53,7 @@ import tap.TAPException;
  * </i></p>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.1 (07/2016)
+ * @version 2.4 (10/2026)
  */
 public class TAPTable implements DBTable {
 
@@ -120,6 +121,21 @@ public class TAPTable implements DBTable {
 	 * <i>Note: all columns of this list are linked to this table from the moment they are added inside it.</i> */
 	protected final Map<String,TAPColumn> columns;
 
+	/** Frozen list of all columns, indexed by ADQL name.
+	 * NULL if not yet built or if the columns have changed since.
+	 * @since 2.4 */
+	private volatile SearchColumnList columnIndex = null;
+
+	/** Number of modifications of the columns. It lets {@link #getColumnIndex()}
+	 * know whether the columns changed while the index was being built.
+	 * <i>Any access MUST be synchronized on {@link #columnIndexLock}.</i>
+	 * @since 2.4 */
+	private int columnsVersion = 0;
+
+	/** Lock guarding {@link #columnsVersion} and the publication of {@link #columnIndex}.
+	 * @since 2.4 */
+	private final Object columnIndexLock = new Object();
+
 	/** List of all foreign keys linking this table to others. */
 	protected final ArrayList<TAPForeignKey> foreignKeys;
 
@@ -579,6 +595,7 @@ public class TAPTable implements DBTable {
 		if (newColumn != null && newColumn.getADQLName() != null){
 			newColumn.setTable(this);
 			columns.put(newColumn.getADQLName(), newColumn);
+			invalidateColumnIndex();
 		}
 	}
 
@@ -801,8 +818,10 @@ public class TAPTable implements DBTable {
 			return null;
 
 		TAPColumn removedColumn = columns.remove(columnName);
-		if (removedColumn != null)
+		if (removedColumn != null){
+			invalidateColumnIndex();
 			deleteColumnRelations(removedColumn);
+		}
 
 		return removedColumn;
 	}
@@ -839,6 +858,7 @@ public class TAPTable implements DBTable {
 			it.remove();
 			deleteColumnRelations(entry.getValue());
 		}
+		invalidateColumnIndex();
 	}
 
 	/**
@@ -1048,10 +1068,50 @@ public class TAPTable implements DBTable {
 			@Override
 			public void remove(){
 				it.remove();
+				invalidateColumnIndex();
 			}
 		};
 	}
 
+	/**
+	 * <p>The list of columns is built at the first call, and then kept until
+	 * a column is added or removed.</p>
+	 * 
+	 * @see adql.db.DBTable#getColumnIndex()
+	 * 
+	 * @since 2.4
+	 */
+	@Override
+	public SearchColumnList getColumnIndex(){
+		SearchColumnList index = columnIndex;
+		if (index == null){
+			int version;
+			synchronized(columnIndexLock){
+				version = columnsVersion;
+			}
+			index = DBTable.super.getColumnIndex();
+			// Keep the index only if the columns did not change while it was being built:
+			synchronized(columnIndexLock){
+				if (version == columnsVersion)
+					columnIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Forget the list of columns returned by {@link #getColumnIndex()}, so
+	 * that it is built again at the next call.
+	 * 
+	 * @since 2.4
+	 */
+	protected final void invalidateColumnIndex(){
+		synchronized(columnIndexLock){
+			columnsVersion++;
+			columnIndex = null;
+		}
+	}
+
 	@Override
 	public String toString(){
 		return ((schema != null) ? (schema.getADQLName() + ".") : "") + getADQLName();
@@ -16,7 +16,7 @@ package tap.resource;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2015 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -31,13 +31,17 @@ import javax.servlet.http.HttpServletResponse;
 import tap.ServiceConnection;
 import tap.TAPException;
 import uk.ac.starlink.votable.VOSerializer;
-import uws.UWSToolBox;
 
 /**
  * <p>TAP resource describing the availability of a TAP service.</p>
  * 
+ * <p><i>Note:
+ * 	As long as the availability of the service does not change, the same {@link CachedDocument} is returned:
+ * 	its compressed version and its <code>ETag</code> (for conditional requests) are then not computed again.
+ * </i></p>
+ * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.0 (04/2015)
+ * @version 2.4 (10/2026)
  */
 public class Availability implements TAPResource, VOSIResource {
 
@@ -54,6 +58,10 @@ public class Availability implements TAPResource, VOSIResource {
 	 * when the TAP service base URL is communicated to its resources. Then, it is: baseTAPURL + "/" + RESOURCE_NAME.</i></p> */
 	protected String accessURL = getName();
 
+	/** The last generated document.
+	 * @since 2.4 */
+	private volatile CachedDocument document = null;
+
 	/**
 	 * Build a "availability" resource.
 	 * 
@@ -107,16 +115,31 @@ public class Availability implements TAPResource, VOSIResource {
 		if (!request.getMethod().equalsIgnoreCase("GET"))
 			throw new TAPException("The AVAILABILITY resource is only accessible in HTTP-GET! No special action can be perfomed with another HTTP method.", HttpServletResponse.SC_METHOD_NOT_ALLOWED);
 
-		// Set the response MIME type (XML):
-		response.setContentType("text/xml");
+		// Generate the document, or get the cached one if unchanged:
+		CachedDocument doc = CachedDocument.update(document, new CachedDocument.DocumentWriter(){
+			@Override
+			public void write(final PrintWriter writer) throws IOException{
+				Availability.this.write(writer);
+			}
+		}, "text/xml");
+		document = doc;
 
-		// Set the character encoding:
-		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
+		// Write it:
+		doc.write(request, response);
 
-		// Get the output stream:
-		PrintWriter pw = response.getWriter();
+		return true;
+	}
 
-		// ...And write the XML document describing the availability of the TAP service:
+	/**
+	 * Write the XML document describing the availability of the TAP service.
+	 * 
+	 * @param pw	Where the document must be written.
+	 * 
+	 * @throws IOException	If an error occurs while writing the document.
+	 * 
+	 * @since 2.4
+	 */
+	protected void write(final PrintWriter pw) throws IOException{
 		pw.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
 		pw.println("<availability xmlns=\"http://www.ivoa.net/xml/VOSIAvailability/v1.0\" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" xsi:schemaLocation=\"http://www.ivoa.net/xml/VOSIAvailability/v1.0 http://www.ivoa.net/xml/VOSIAvailability/v1.0\">");
 
@@ -134,8 +157,6 @@ public class Availability implements TAPResource, VOSIResource {
 		pw.println("</availability>");
 
 		pw.flush();
-
-		return true;
 	}
 
 }
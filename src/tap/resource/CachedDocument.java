@@ -0,0 +1,350 @@
+package tap.resource;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import uws.UWSToolBox;
+
+/**
+ * <p>Rendered document of a TAP resource (e.g. <code>/tables</code>,
+ * <code>/capabilities</code>), kept in memory in order to be sent again
+ * without being generated again.</p>
+ *
+ * <p>
+ * 	The document is stored as bytes (encoded in
+ * 	{@link UWSToolBox#DEFAULT_CHAR_ENCODING}). Its gzip-compressed version is
+ * 	computed at the first request accepting this encoding and is then kept as
+ * 	well. An <code>ETag</code>, computed from the content, lets the clients
+ * 	ask whether the document has changed
+ * 	(<code>If-None-Match</code>): if not, a <code>304 Not Modified</code>
+ * 	response is returned without any content.
+ * </p>
+ *
+ * <p>
+ * 	The gzip-compressed version is another representation of the document:
+ * 	it has its own <code>ETag</code> (the one of the document, suffixed by
+ * 	<code>-gz</code>), and all responses vary on <code>Accept-Encoding</code>.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	A {@link CachedDocument} is immutable (except the lazily computed gzip
+ * 	version). When the document changes, a new {@link CachedDocument} must
+ * 	be created.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class CachedDocument {
+
+	/**
+	 * Generator of the document to cache.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 2.4 (10/2026)
+	 * @since 2.4
+	 */
+	public static interface DocumentWriter {
+		/**
+		 * Write the whole document in the given writer.
+		 *
+		 * @param writer	Where the document must be written.
+		 *
+		 * @throws IOException	If an error occurs while writing the document.
+		 */
+		public void write(final PrintWriter writer) throws IOException;
+	}
+
+	/** MIME type of the document. */
+	protected final String contentType;
+
+	/** The document, encoded in {@link UWSToolBox#DEFAULT_CHAR_ENCODING}. */
+	protected final byte[] content;
+
+	/** The gzip-compressed document. NULL until it is asked for the first time. */
+	private volatile byte[] gzipContent = null;
+
+	/** Entity tag of this document (with its double quotes). */
+	protected final String etag;
+
+	/** Entity tag of the gzip-compressed document (with its double quotes). */
+	protected final String gzipEtag;
+
+	/**
+	 * Build a cached document.
+	 *
+	 * @param content		The document, encoded in {@link UWSToolBox#DEFAULT_CHAR_ENCODING}.
+	 * @param contentType	MIME type of the document.
+	 */
+	public CachedDocument(final byte[] content, final String contentType){
+		this.content = content;
+		this.contentType = contentType;
+		String hash = computeHash(content);
+		this.etag = "\"" + hash + "\"";
+		this.gzipEtag = "\"" + hash + "-gz\"";
+	}
+
+	/**
+	 * Generate the document with the given writer and cache it.
+	 *
+	 * @param writer		Generator of the document.
+	 * @param contentType	MIME type of the document.
+	 *
+	 * @return	The cached document.
+	 *
+	 * @throws IOException	If the document can not be generated.
+	 */
+	public static CachedDocument create(final DocumentWriter writer, final String contentType) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+		PrintWriter out = new PrintWriter(new OutputStreamWriter(bytes, UWSToolBox.DEFAULT_CHAR_ENCODING));
+		writer.write(out);
+		out.flush();
+		return new CachedDocument(bytes.toByteArray(), contentType);
+	}
+
+	/**
+	 * <p>Generate the document with the given writer and return the given
+	 * previous cached document if its content is the same.</p>
+	 *
+	 * <p>
+	 * 	This function is meant for the small documents whose the source may
+	 * 	change without any notification (e.g. <code>/availability</code>).
+	 * 	Generating them is cheap, but their compressed version and
+	 * 	<code>ETag</code> are kept as long as they do not change.
+	 * </p>
+	 *
+	 * @param previous		The previous cached document. <i>May be NULL.</i>
+	 * @param writer		Generator of the document.
+	 * @param contentType	MIME type of the document.
+	 *
+	 * @return	The previous cached document if unchanged,
+	 *        	a new one otherwise.
+	 *
+	 * @throws IOException	If the document can not be generated.
+	 */
+	public static CachedDocument update(final CachedDocument previous, final DocumentWriter writer, final String contentType) throws IOException{
+		CachedDocument doc = create(writer, contentType);
+		if (previous != null && previous.contentType.equals(contentType) && Arrays.equals(previous.content, doc.content))
+			return previous;
+		else
+			return doc;
+	}
+
+	/**
+	 * Compute the hash of the given content (used as <code>ETag</code>).
+	 *
+	 * @param content	The content to hash.
+	 *
+	 * @return	Hexadecimal representation of the hash.
+	 */
+	protected static String computeHash(final byte[] content){
+		try{
+			byte[] hash = MessageDigest.getInstance("MD5").digest(content);
+			StringBuilder buf = new StringBuilder(hash.length * 2);
+			for(byte b : hash){
+				buf.append(Character.forDigit((b >> 4) & 0xF, 16));
+				buf.append(Character.forDigit(b & 0xF, 16));
+			}
+			return buf.toString();
+		}catch(NoSuchAlgorithmException nsae){
+			// MD5 is always available in Java ; but just in case:
+			return Integer.toHexString(Arrays.hashCode(content)) + "-" + Integer.toHexString(content.length);
+		}
+	}
+
+	/**
+	 * Get the MIME type of this document.
+	 *
+	 * @return	The MIME type.
+	 */
+	public final String getContentType(){
+		return contentType;
+	}
+
+	/**
+	 * Get the <code>ETag</code> of this document (with its double quotes).
+	 *
+	 * @return	The entity tag.
+	 */
+	public final String getETag(){
+		return etag;
+	}
+
+	/**
+	 * Get the <code>ETag</code> of the gzip-compressed document (with its
+	 * double quotes).
+	 *
+	 * @return	The entity tag of the compressed representation.
+	 */
+	public final String getGzipETag(){
+		return gzipEtag;
+	}
+
+	/**
+	 * Get the document, encoded in {@link UWSToolBox#DEFAULT_CHAR_ENCODING}.
+	 *
+	 * <p><b>Warning:</b> the returned array must not be modified.</p>
+	 *
+	 * @return	The document.
+	 */
+	public final byte[] getContent(){
+		return content;
+	}
+
+	/**
+	 * Get the gzip-compressed document. It is computed at the first call.
+	 *
+	 * <p><b>Warning:</b> the returned array must not be modified.</p>
+	 *
+	 * @return	The compressed document.
+	 *
+	 * @throws IOException	If the compression fails.
+	 */
+	public byte[] getGzipContent() throws IOException{
+		byte[] gzip = gzipContent;
+		if (gzip == null){
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(512, content.length / 4));
+			GZIPOutputStream out = new GZIPOutputStream(bytes);
+			out.write(content);
+			out.close();
+			gzipContent = gzip = bytes.toByteArray();
+		}
+		return gzip;
+	}
+
+	/**
+	 * Tell whether the client already has this document, according to the
+	 * HTTP header <code>If-None-Match</code> of its request.
+	 *
+	 * <p><i>Note:
+	 * 	The entity tags are compared with the one of the representation that
+	 * 	would be returned: the gzip-compressed one if the client accepts gzip
+	 * 	(see {@link #acceptsGzip(HttpServletRequest)}), the plain one otherwise.
+	 * </i></p>
+	 *
+	 * @param request	The HTTP request.
+	 *
+	 * @return	<code>true</code> if one of the given entity tags matches this document,
+	 *        	<code>false</code> otherwise.
+	 */
+	public boolean isNotModified(final HttpServletRequest request){
+		final String etag = acceptsGzip(request) ? gzipEtag : this.etag;
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if (ifNoneMatch == null)
+			return false;
+		for(String tag : ifNoneMatch.split(",")){
+			tag = tag.trim();
+			// weak comparison:
+			if (tag.startsWith("W/"))
+				tag = tag.substring(2);
+			if (tag.equals("*") || tag.equals(etag))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tell whether the client accepts a gzip-compressed response, according
+	 * to the HTTP header <code>Accept-Encoding</code> of its request.
+	 *
+	 * @param request	The HTTP request.
+	 *
+	 * @return	<code>true</code> if gzip is accepted,
+	 *        	<code>false</code> otherwise.
+	 */
+	public static boolean acceptsGzip(final HttpServletRequest request){
+		String acceptEncoding = request.getHeader("Accept-Encoding");
+		if (acceptEncoding == null)
+			return false;
+		for(String encoding : acceptEncoding.split(",")){
+			String[] parts = encoding.trim().split(";");
+			if (parts[0].trim().equalsIgnoreCase("gzip")){
+				// gzip is refused only if its quality is 0:
+				for(int i = 1; i < parts.length; i++){
+					String param = parts[i].trim();
+					if (param.startsWith("q=")){
+						try{
+							return Double.parseDouble(param.substring(2).trim()) > 0;
+						}catch(NumberFormatException nfe){
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * <p>Write this document in the given HTTP response.</p>
+	 *
+	 * <p>
+	 * 	The headers <code>ETag</code> (of the plain or gzip-compressed representation)
+	 * 	and <code>Vary</code> are always set.
+	 * 	If the client already has this document (see {@link #isNotModified(HttpServletRequest)}),
+	 * 	only the status <code>304 Not Modified</code> is returned. Otherwise, the document is
+	 * 	written, compressed if the client accepts gzip (see {@link #acceptsGzip(HttpServletRequest)}).
+	 * </p>
+	 *
+	 * @param request	The HTTP request.
+	 * @param response	The HTTP response in which this document must be written.
+	 *
+	 * @throws IOException	If the document can not be written.
+	 */
+	public void write(final HttpServletRequest request, final HttpServletResponse response) throws IOException{
+		final boolean gzip = acceptsGzip(request);
+		response.setHeader("ETag", gzip ? gzipEtag : etag);
+		response.setHeader("Vary", "Accept-Encoding");
+
+		if (isNotModified(request)){
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		response.setContentType(contentType);
+		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
+
+		byte[] body = content;
+		if (gzip){
+			body = getGzipContent();
+			response.setHeader("Content-Encoding", "gzip");
+		}
+		response.setContentLength(body.length);
+
+		if (!"HEAD".equalsIgnoreCase(request.getMethod())){
+			response.getOutputStream().write(body);
+			response.getOutputStream().flush();
+		}
+	}
+
+}
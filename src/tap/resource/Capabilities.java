@@ -16,7 +16,7 @@ package tap.resource;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2016 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -31,15 +31,20 @@ import javax.servlet.http.HttpServletResponse;
 
 import tap.TAPException;
 import uk.ac.starlink.votable.VOSerializer;
-import uws.UWSToolBox;
 
 /**
  * <p>TAP resource describing the capabilities of a TAP service.</p>
  *
  * <p>This resource just return an XML document giving a description of the TAP service and list all its VOSI resources.</p>
  *
+ * <p><i>Note:
+ * 	The document is generated at each request because the capabilities of the service may change without notification.
+ * 	However, as long as it does not change, the same {@link CachedDocument} is returned: its compressed version and
+ * 	its <code>ETag</code> (for conditional requests) are then not computed again.
+ * </i></p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.1 (07/2016)
+ * @version 2.4 (10/2026)
  */
 public class Capabilities implements TAPResource, VOSIResource {
 
@@ -61,6 +66,10 @@ public class Capabilities implements TAPResource, VOSIResource {
 	 * @since 2.1 */
 	protected String xsltPath = null;
 
+	/** The last generated document.
+	 * @since 2.4 */
+	private volatile CachedDocument document = null;
+
 	/**
 	 * Build a "/capabilities" resource.
 	 *
@@ -142,15 +151,31 @@ public class Capabilities implements TAPResource, VOSIResource {
 		if (!request.getMethod().equalsIgnoreCase("GET"))
 			throw new TAPException("The CAPABILITIES resource is only accessible in HTTP-GET! No special action can be perfomed with another HTTP method.", HttpServletResponse.SC_METHOD_NOT_ALLOWED);
 
-		// Set the response MIME type (XML):
-		response.setContentType("application/xml");
+		// Generate the document, or get the cached one if unchanged:
+		CachedDocument doc = CachedDocument.update(document, new CachedDocument.DocumentWriter(){
+			@Override
+			public void write(final PrintWriter writer) throws IOException{
+				Capabilities.this.write(writer);
+			}
+		}, "application/xml");
+		document = doc;
 
-		// Set the character encoding:
-		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
+		// Write it:
+		doc.write(request, response);
 
-		// Get the response stream:
-		PrintWriter out = response.getWriter();
+		return true;
+	}
 
+	/**
+	 * Write the whole XML document listing the capabilities of the TAP service.
+	 *
+	 * @param out	Where the document must be written.
+	 *
+	 * @throws IOException	If an error occurs while writing the document.
+	 *
+	 * @since 2.4
+	 */
+	protected void write(final PrintWriter out) throws IOException{
 		// Write the XML document header:
 		out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
 		if (xsltPath != null){
@@ -185,8 +210,6 @@ public class Capabilities implements TAPResource, VOSIResource {
 		out.println("\n</vosi:capabilities>");
 
 		out.flush();
-
-		return true;
 	}
 
 	/**
@@ -0,0 +1,194 @@
+package tap.resource;
+
+/*
+ * This file is part of TAPLibrary.
+ *
+ * TAPLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * TAPLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import tap.TAPException;
+import tap.TAPMetrics;
+import uws.UWSToolBox;
+import uws.job.JobList;
+import uws.service.UWSService;
+import uws.service.actions.JobSummary;
+import uws.service.actions.UWSAction;
+
+/**
+ * <p>TAP resource writing the metrics of a TAP service: <code>/metrics</code>.</p>
+ *
+ * <p>
+ * 	It writes the content of the {@link TAPMetrics} of the TAP factory
+ * 	(see {@link tap.TAPFactory#getMetrics()}), either in JSON (default) or in
+ * 	the text format of Prometheus. The latter is returned if the parameter
+ * 	<code>FORMAT=prometheus</code> (or <code>text</code>) is given, or if the
+ * 	HTTP header <code>Accept</code> asks for <code>text/plain</code>.
+ * </p>
+ *
+ * <p>
+ * 	At its creation, this resource also registers the following gauges:
+ * 	the number of running and queued asynchronous jobs, the number of
+ * 	threads blocked by a WAIT request and the number of WAIT requests
+ * 	suspended without blocking any thread.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	Like VOSI resources, this resource is only accessible in HTTP-GET.
+ * 	Since it is not a standard resource, it is not declared in
+ * 	<code>/capabilities</code>.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ * @since 2.4
+ */
+public class Metrics implements TAPResource {
+
+	/** Name of this TAP resource. */
+	public static final String RESOURCE_NAME = "metrics";
+
+	/** MIME type of the Prometheus text format. */
+	public static final String PROMETHEUS_MIME_TYPE = "text/plain; version=0.0.4";
+
+	/** The metrics to write. */
+	protected final TAPMetrics metrics;
+
+	/**
+	 * Build a "metrics" resource.
+	 *
+	 * @param tap	The TAP service owning this resource.
+	 *
+	 * @throws TAPException	If the TAP factory does not provide any
+	 *                     	{@link TAPMetrics}.
+	 */
+	public Metrics(final TAP tap) throws TAPException{
+		metrics = tap.getServiceConnection().getFactory().getMetrics();
+		if (metrics == null)
+			throw new TAPException("Impossible to create the TAP resource \"" + RESOURCE_NAME + "\": no metrics are recorded by this TAP service!");
+
+		// Register the gauges about the asynchronous jobs:
+		final UWSService uws = tap.getUWS();
+		if (uws != null){
+			metrics.registerGauge("uws_running_jobs", "Number of running asynchronous jobs.", new TAPMetrics.Gauge(){
+				@Override
+				public long getValue(){
+					long nbJobs = 0;
+					for(JobList jobList : uws)
+						nbJobs += jobList.getExecutionManager().getNbRunningJobs();
+					return nbJobs;
+				}
+			});
+			metrics.registerGauge("uws_queued_jobs", "Number of queued asynchronous jobs.", new TAPMetrics.Gauge(){
+				@Override
+				public long getValue(){
+					long nbJobs = 0;
+					for(JobList jobList : uws)
+						nbJobs += jobList.getExecutionManager().getNbQueuedJobs();
+					return nbJobs;
+				}
+			});
+
+			// Register the gauges about the WAIT requests of this service:
+			UWSAction action = uws.getUWSAction(UWSAction.JOB_SUMMARY);
+			if (action instanceof JobSummary){
+				final JobSummary jobSummary = (JobSummary)action;
+				metrics.registerGauge("uws_blocked_threads", "Number of threads blocked by a WAIT request.", new TAPMetrics.Gauge(){
+					@Override
+					public long getValue(){
+						return jobSummary.getNbBlockedThreads();
+					}
+				});
+				metrics.registerGauge("uws_suspended_requests", "Number of WAIT requests suspended without blocking any thread.", new TAPMetrics.Gauge(){
+					@Override
+					public long getValue(){
+						return jobSummary.getNbSuspendedRequests();
+					}
+				});
+			}
+		}
+	}
+
+	@Override
+	public void init(final ServletConfig config) throws ServletException{
+		;
+	}
+
+	@Override
+	public void destroy(){
+		;
+	}
+
+	@Override
+	public void setTAPBaseURL(final String baseURL){
+		;
+	}
+
+	@Override
+	public final String getName(){
+		return RESOURCE_NAME;
+	}
+
+	/**
+	 * Tell whether the metrics must be written in the text format of
+	 * Prometheus.
+	 *
+	 * @param request	The HTTP request.
+	 *
+	 * @return	<code>true</code> for the Prometheus text format,
+	 *        	<code>false</code> for JSON.
+	 */
+	protected boolean isPrometheusAsked(final HttpServletRequest request){
+		String format = request.getParameter("FORMAT");
+		if (format == null)
+			format = request.getParameter("format");
+		if (format != null)
+			return format.trim().equalsIgnoreCase("prometheus") || format.trim().equalsIgnoreCase("text") || format.trim().toLowerCase().startsWith("text/plain");
+
+		String accept = request.getHeader("Accept");
+		return accept != null && accept.toLowerCase().contains("text/plain");
+	}
+
+	@Override
+	public boolean executeResource(final HttpServletRequest request, final HttpServletResponse response) throws IOException, TAPException{
+		if (!request.getMethod().equalsIgnoreCase("GET"))
+			throw new TAPException("The METRICS resource is only accessible in HTTP-GET! No special action can be perfomed with another HTTP method.", HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+
+		boolean prometheus = isPrometheusAsked(request);
+
+		// Set the response MIME type and character encoding:
+		response.setContentType(prometheus ? PROMETHEUS_MIME_TYPE : "application/json");
+		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
+
+		// Write the metrics:
+		PrintWriter pw = response.getWriter();
+		if (prometheus)
+			metrics.writePrometheus(pw);
+		else
+			metrics.writeJSON(pw);
+		pw.flush();
+
+		return true;
+	}
+
+}
@@ -16,15 +16,17 @@ package tap.resource;
  * You should have received a copy of the GNU Lesser General Public License
  * along with TAPLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2022 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -34,7 +36,9 @@ import adql.db.DBColumn;
 import adql.db.FunctionDef;
 import tap.ServiceConnection;
 import tap.ServiceConnection.LimitUnit;
+import tap.SyncExecutor;
 import tap.TAPException;
+import tap.TAPSyncJob;
 import tap.error.DefaultTAPErrorWriter;
 import tap.formatter.OutputFormat;
 import tap.log.TAPLog;
@@ -49,6 +53,7 @@ import uws.service.UWS;
 import uws.service.UWSService;
 import uws.service.error.ServiceErrorWriter;
 import uws.service.log.UWSLog.LogLevel;
+import uws.service.wait.AsyncWaitObserver;
 
 /**
  * Root/Home of the TAP service. It is also the resource (HOME) which gathers
@@ -60,7 +65,7 @@ import uws.service.log.UWSLog.LogLevel;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 2.3 (04/2022)
+ * @version 2.4 (10/2026)
  */
 public class TAP implements VOSIResource {
 
@@ -148,6 +153,10 @@ public class TAP implements VOSIResource {
 	/** List of all the other TAP resources of the service. */
 	protected final Map<String, TAPResource> resources;
 
+	/** Name of the request attribute set when the request has been given to the {@link SyncExecutor}.
+	 * @since 2.4 */
+	protected static final String REQ_ATTRIBUTE_SYNC_DISPATCHED = "TAP_SYNC_DISPATCHED";
+
 	/** Base URL of the TAP service. It is also the URL of this resource (HOME). */
 	protected String tapBaseURL = null;
 
@@ -264,6 +273,15 @@ public class TAP implements VOSIResource {
 		// Destroy also all resources allocated in the factory:
 		service.getFactory().destroy();
 
+		// Free the resources of the file manager (e.g. the threads of a result store):
+		if (service.getFileManager() instanceof Closeable){
+			try{
+				((Closeable)service.getFileManager()).close();
+			}catch(IOException ioe){
+				getLogger().logTAP(LogLevel.WARNING, this, "STOP", "Can not close the file manager!", ioe);
+			}
+		}
+
 		// Log the end:
 		getLogger().logTAP(LogLevel.INFO, this, "STOP", "TAP Service stopped!", null);
 	}
@@ -965,6 +983,14 @@ public class TAP implements VOSIResource {
 	 * 	Besides, every requests and their response are logged as INFO with this ID.
 	 * </p>
 	 *
+	 * <h3>Synchronous queries</h3>
+	 * <p>
+	 * 	If the factory provides a {@link SyncExecutor} (see {@link tap.TAPFactory#getSyncExecutor()}) and if the servlet
+	 * 	supports the asynchronous mode of Servlet 3.0 (i.e. <code>asyncSupported</code> is <code>true</code>), requests to
+	 * 	the resource {@link Sync} are entirely processed in a thread of this {@link SyncExecutor}. The thread of the
+	 * 	servlet container is then released while the query is running.
+	 * </p>
+	 *
 	 * @param request	Request of the user to execute in this TAP service.
 	 * @param response	Object in which the result of the request must be written.
 	 *
@@ -975,6 +1001,10 @@ public class TAP implements VOSIResource {
 		if (request == null || response == null)
 			return;
 
+		// Release the thread of the servlet container while executing a synchronous query, if possible:
+		if (dispatchToSyncExecutor(request, response))
+			return;
+
 		// Generate a unique ID for this request execution (for log purpose only):
 		final String reqID = generateRequestID(request);
 		if (request.getAttribute(UWS.REQ_ATTRIBUTE_ID) == null)
@@ -1035,7 +1065,9 @@ public class TAP implements VOSIResource {
 					throw new TAPException("Unknown TAP resource: \"" + resourceName + "\"!", UWSException.NOT_IMPLEMENTED);
 			}
 
-			response.flushBuffer();
+			// Note: the response of a suspended WAIT request is written later:
+			if (!AsyncWaitObserver.isSuspended(request))
+				response.flushBuffer();
 
 			// Log the successful execution of the action, only if the asked resource is not UWS (because UWS is already logging the received request):
 			if (!resourceName.equalsIgnoreCase(ASync.RESOURCE_NAME))
@@ -1096,4 +1128,60 @@ public class TAP implements VOSIResource {
 		}
 	}
 
+	/**
+	 * <p>Process the given request in a thread of the {@link SyncExecutor}, if it targets the resource {@link Sync}.</p>
+	 *
+	 * <p>
+	 * 	This is done only if the factory provides a {@link SyncExecutor} and if the servlet supports the asynchronous mode
+	 * 	of Servlet 3.0. In such case, an {@link AsyncContext} is started, and {@link #executeRequest(HttpServletRequest, HttpServletResponse)}
+	 * 	is called again in a thread of the {@link SyncExecutor}. The {@link AsyncContext} is completed once the request is
+	 * 	entirely processed.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	No timeout is set on the {@link AsyncContext}: the execution duration of the query is already controlled by
+	 * 	{@link TAPSyncJob}.
+	 * </i></p>
+	 *
+	 * @param request	Request of the user.
+	 * @param response	Object in which the result of the request must be written.
+	 *
+	 * @return	<code>true</code> if the request is (or will be) processed in another thread,
+	 *        	<code>false</code> if it must be processed in the current thread.
+	 *
+	 * @since 2.4
+	 */
+	protected boolean dispatchToSyncExecutor(final HttpServletRequest request, final HttpServletResponse response){
+		final SyncExecutor syncExecutor = service.getFactory().getSyncExecutor();
+		if (syncExecutor == null || !request.isAsyncSupported() || request.isAsyncStarted() || syncExecutor.isWorkerThread() || request.getAttribute(REQ_ATTRIBUTE_SYNC_DISPATCHED) != null)
+			return false;
+
+		// Only synchronous queries are concerned:
+		String[] resourcePath = (request.getPathInfo() == null) ? null : request.getPathInfo().split("/");
+		if (resourcePath == null || resourcePath.length < 2 || !resourcePath[1].trim().equalsIgnoreCase(Sync.RESOURCE_NAME))
+			return false;
+
+		// Start the asynchronous processing of this request:
+		request.setAttribute(REQ_ATTRIBUTE_SYNC_DISPATCHED, Boolean.TRUE);
+		final AsyncContext asyncContext = request.startAsync(request, response);
+		asyncContext.setTimeout(0);
+
+		/* Note: if all threads of the SyncExecutor are busy, this task is
+		 *       executed in the current thread. */
+		syncExecutor.execute(new Runnable(){
+			@Override
+			public void run(){
+				try{
+					executeRequest(request, response);
+				}catch(Throwable t){
+					getLogger().logHttp(LogLevel.FATAL, response, (String)request.getAttribute(UWS.REQ_ATTRIBUTE_ID), null, "Unexpected error while processing asynchronously a synchronous TAP query!", t);
+				}finally{
+					asyncContext.complete();
+				}
+			}
+		});
+
+		return true;
+	}
+
 }
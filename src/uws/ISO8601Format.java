@@ -16,15 +16,18 @@ package uws;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2014-2017 - Astronomisches Rechen Institut (ARI)
+ * Copyright 2014-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.text.DecimalFormat;
 import java.text.ParseException;
+import java.time.LocalDate;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -94,8 +97,15 @@ import java.util.regex.Pattern;
  * 	Separators (like '-', ':' and '.') are optional. The date and time separator ('T') may be replaced by a space.
  * </p>
  * 
+ * <h3>Thread safety</h3>
+ * 
+ * <p>
+ * 	All functions of this class are thread-safe and do not use any lock. The time zones are resolved once
+ * 	and kept in a cache ; for time zones with a fixed offset (e.g. UTC), the offset itself is cached.
+ * </p>
+ * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.2 (03/2017)
+ * @version 4.6 (10/2026)
  * @since 4.1
  */
 public class ISO8601Format {
@@ -109,13 +119,87 @@ public class ISO8601Format {
 	public static String targetTimeZone = "UTC"; // for the local time zone: TimeZone.getDefault().getID();
 
 	/** Object to use to format numbers with one digit (ie. 1, 2, 0).
-	 * @since 4.2 */
+	 * @since 4.2
+	 * @deprecated Not used any more by this class, because a {@link DecimalFormat} can not be used by several threads at the same time. */
+	@Deprecated
 	protected final static DecimalFormat oneDigitFmt = new DecimalFormat("0");
-	/** Object to use to format numbers with two digits (ie. 12, 02, 00). */
+	/** Object to use to format numbers with two digits (ie. 12, 02, 00).
+	 * @deprecated Not used any more by this class, because a {@link DecimalFormat} can not be used by several threads at the same time. */
+	@Deprecated
 	protected final static DecimalFormat twoDigitsFmt = new DecimalFormat("00");
-	/** Object to use to format numbers with three digits (ie. 001, 000, 123). */
+	/** Object to use to format numbers with three digits (ie. 001, 000, 123).
+	 * @deprecated Not used any more by this class, because a {@link DecimalFormat} can not be used by several threads at the same time. */
+	@Deprecated
 	protected final static DecimalFormat threeDigitsFmt = new DecimalFormat("000");
 
+	/** Number of milliseconds in a day.
+	 * @since 4.6 */
+	private final static long DAY_IN_MS = 24 * 60 * 60 * 1000L;
+
+	/** Date (in milliseconds since 1970-01-01T00:00:00Z) from which all dates can be formatted with the Gregorian calendar,
+	 * whatever is the target time zone (i.e. one day after the Gregorian cutover of {@link GregorianCalendar}: 1582-10-15).
+	 * <i>Before this date, a {@link GregorianCalendar} is used to apply the Julian calendar.</i>
+	 * @since 4.6 */
+	private final static long GREGORIAN_DATES_START = -12219292800000L + DAY_IN_MS;
+
+	/** All time zones already used for formatting dates, by ID.
+	 * @since 4.6 */
+	private final static ConcurrentHashMap<String, Zone> zones = new ConcurrentHashMap<String, Zone>();
+
+	/**
+	 * A time zone and, if fixed, its offset.
+	 * 
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	private final static class Zone {
+		/** The time zone. <i>It MUST NOT be modified.</i> */
+		final TimeZone timeZone;
+		/** Whether the offset of this time zone never changes. */
+		final boolean fixed;
+		/** The offset (in milliseconds) of this time zone, if fixed. */
+		final int offset;
+
+		Zone(final TimeZone timeZone){
+			this.timeZone = timeZone;
+			this.fixed = timeZone.toZoneId().getRules().isFixedOffset();
+			this.offset = fixed ? timeZone.getRawOffset() : 0;
+		}
+
+		/**
+		 * Get the offset of this time zone at the given date.
+		 * 
+		 * @param date	Date-time in milliseconds (from the 1st January 1970).
+		 * 
+		 * @return	Offset from UTC (in milliseconds).
+		 */
+		int getOffset(final long date){
+			return fixed ? offset : timeZone.getOffset(date);
+		}
+	}
+
+	/**
+	 * Get the time zone (and its offset if fixed) corresponding to the given ID.
+	 * 
+	 * @param timeZoneID	ID of the time zone.
+	 *                  	<i>If unknown, the GMT time zone is returned (see {@link TimeZone#getTimeZone(String)}).</i>
+	 * 
+	 * @return	The corresponding time zone.
+	 * 
+	 * @since 4.6
+	 */
+	private static Zone getZone(final String timeZoneID){
+		Zone zone = zones.get(timeZoneID);
+		if (zone == null){
+			zone = new Zone(TimeZone.getTimeZone(timeZoneID));
+			Zone existingZone = zones.putIfAbsent(timeZoneID, zone);
+			if (existingZone != null)
+				zone = existingZone;
+		}
+		return zone;
+	}
+
 	/**
 	 * <p>Format the given date-time in ISO8601 format.</p>
 	 * 
@@ -202,11 +286,8 @@ public class ISO8601Format {
 	 * Convert the given date in the given time zone and format it in ISO8601 format, with or without displaying the time zone
 	 * and/or the milliseconds field.
 	 * 
-	 * <p><i><b>Important Note:</b>
-	 * 	This function is synchronized because it is using (directly or in other static functions) static {@link DecimalFormat} instances.
-	 * 	A {@link DecimalFormat} is a Java class which can be used only by one thread at a time. So {@link #format(long, String, boolean, boolean)}
-	 * 	and {@link #parse(String)} (main public functions of {@link ISO8601Format}) must be synchronized in order to avoid concurrent access
-	 * 	to the {@link DecimalFormat} instances and so to avoid unpredictable errors/results.
+	 * <p><i>Note:
+	 * 	This function is thread-safe and does not use any lock.
 	 * </i></p>
 	 * 
 	 * @param date				Date-time in milliseconds (from the 1st January 1970 ; this value is returned by java.util.Date#getTime()).
@@ -216,50 +297,94 @@ public class ISO8601Format {
 	 * 
 	 * @return	Date formatted in ISO8601.
 	 */
-	protected static synchronized String format(final long date, final String targetTimeZone, final boolean withTimeZone, final boolean withMillisec){
-		GregorianCalendar cal = new GregorianCalendar();
-		cal.setTimeInMillis(date);
-
-		// Convert the given date in the target Time Zone:
-		if (targetTimeZone != null && targetTimeZone.length() > 0)
-			cal.setTimeZone(TimeZone.getTimeZone(targetTimeZone));
-		else
-			cal.setTimeZone(TimeZone.getTimeZone(ISO8601Format.targetTimeZone));
+	protected static String format(final long date, final String targetTimeZone, final boolean withTimeZone, final boolean withMillisec){
+		// Get the target Time Zone:
+		Zone zone = getZone((targetTimeZone != null && targetTimeZone.length() > 0) ? targetTimeZone : ISO8601Format.targetTimeZone);
+
+		int year, month, day, hours, minutes, seconds, millisec, tzOffset;
+
+		// Convert the given date in the target Time Zone...
+		if (date >= GREGORIAN_DATES_START){
+			// ...using directly the proleptic Gregorian calendar:
+			tzOffset = zone.getOffset(date);
+			long localDate = date + tzOffset;
+			long days = Math.floorDiv(localDate, DAY_IN_MS);
+			int time = (int)(localDate - days * DAY_IN_MS);
+			LocalDate localDay = LocalDate.ofEpochDay(days);
+			year = localDay.getYear();
+			month = localDay.getMonthValue();
+			day = localDay.getDayOfMonth();
+			hours = time / 3600000;
+			minutes = (time / 60000) % 60;
+			seconds = (time / 1000) % 60;
+			millisec = time % 1000;
+		}else{
+			// ...or using a calendar (for the Julian calendar):
+			GregorianCalendar cal = new GregorianCalendar((TimeZone)zone.timeZone.clone());
+			cal.setTimeInMillis(date);
+			tzOffset = cal.get(Calendar.ZONE_OFFSET) + cal.get(Calendar.DST_OFFSET);
+			year = cal.get(Calendar.YEAR);
+			month = cal.get(Calendar.MONTH) + 1;
+			day = cal.get(Calendar.DAY_OF_MONTH);
+			hours = cal.get(Calendar.HOUR_OF_DAY);
+			minutes = cal.get(Calendar.MINUTE);
+			seconds = cal.get(Calendar.SECOND);
+			millisec = cal.get(Calendar.MILLISECOND);
+		}
 
-		StringBuffer buf = new StringBuffer();
+		StringBuilder buf = new StringBuilder(withMillisec ? 29 : 25);
 
 		// Date with format yyyy-MM-dd :
-		buf.append(cal.get(Calendar.YEAR)).append('-');
-		buf.append(twoDigitsFmt.format(cal.get(Calendar.MONTH) + 1)).append('-');
-		buf.append(twoDigitsFmt.format(cal.get(Calendar.DAY_OF_MONTH)));
+		buf.append(year).append('-');
+		appendTwoDigits(buf, month).append('-');
+		appendTwoDigits(buf, day);
 
 		// Time with format 'T'HH:mm:ss :
-		buf.append('T').append(twoDigitsFmt.format(cal.get(Calendar.HOUR_OF_DAY))).append(':');
-		buf.append(twoDigitsFmt.format(cal.get(Calendar.MINUTE))).append(':');
-		buf.append(twoDigitsFmt.format(cal.get(Calendar.SECOND)));
+		appendTwoDigits(buf.append('T'), hours).append(':');
+		appendTwoDigits(buf, minutes).append(':');
+		appendTwoDigits(buf, seconds);
 		if (withMillisec){
-			buf.append('.').append(threeDigitsFmt.format(cal.get(Calendar.MILLISECOND)));
+			buf.append('.');
+			if (millisec < 100)
+				buf.append('0');
+			appendTwoDigits(buf, millisec);
 		}
 
 		// Time zone with format (+|-)HH:mm :
 		if (withTimeZone){
-			int tzOffset = (cal.get(Calendar.ZONE_OFFSET) + cal.get(Calendar.DST_OFFSET)) / (60 * 1000); // offset in minutes
+			tzOffset /= (60 * 1000); // offset in minutes
 			boolean negative = (tzOffset < 0);
 			if (negative)
 				tzOffset *= -1;
-			int hours = tzOffset / 60, minutes = tzOffset - (hours * 60);
-			if (hours == 0 && minutes == 0)
+			int tzHours = tzOffset / 60, tzMinutes = tzOffset - (tzHours * 60);
+			if (tzHours == 0 && tzMinutes == 0)
 				buf.append('Z');
 			else{
 				buf.append(negative ? '-' : '+');
-				buf.append(twoDigitsFmt.format(hours)).append(':');
-				buf.append(twoDigitsFmt.format(minutes));
+				appendTwoDigits(buf, tzHours).append(':');
+				appendTwoDigits(buf, tzMinutes);
 			}
 		}
 
 		return buf.toString();
 	}
 
+	/**
+	 * Append the given positive number with at least two digits (ie. 12, 02, 00).
+	 * 
+	 * @param buf		Buffer in which the number must be appended.
+	 * @param number	Positive number to append.
+	 * 
+	 * @return	The given buffer.
+	 * 
+	 * @since 4.6
+	 */
+	private static StringBuilder appendTwoDigits(final StringBuilder buf, final int number){
+		if (number < 10)
+			buf.append('0');
+		return buf.append(number);
+	}
+
 	/**
 	 * <p>Parse the given date expressed using the ISO8601 format ("yyyy-MM-dd'T'hh:mm:ss.sssZ"
 	 * or "yyyy-MM-dd'T'hh:mm:ss.sssZ[+|-]hh:mm:ss").</p>
@@ -400,11 +525,8 @@ public class ISO8601Format {
 	 * 	Separators (like '-', ':' and '.') are optional. The date and time separator ('T') may be replaced by a space.
 	 * </p>
 	 * 
-	 * <p><i><b>Important Note:</b>
-	 * 	This function is synchronized because it is using (directly or in other static functions) static {@link DecimalFormat} instances.
-	 * 	A {@link DecimalFormat} is a Java class which can be used only by one thread at a time. So {@link #format(long, String, boolean, boolean)}
-	 * 	and {@link #parse(String)} (main public functions of {@link ISO8601Format}) must be synchronized in order to avoid concurrent access
-	 * 	to the {@link DecimalFormat} instances and so to avoid unpredictable errors/results.
+	 * <p><i>Note:
+	 * 	This function is thread-safe and does not use any lock.
 	 * </i></p>
 	 * 
 	 * @param strDate	Date expressed as a string in ISO8601 format.
@@ -414,7 +536,7 @@ public class ISO8601Format {
 	 * 
 	 * @throws ParseException	If the given date is not expressed in ISO8601 format or is not merely parseable with this implementation.
 	 */
-	public static synchronized long parse(final String strDate) throws ParseException{
+	public static long parse(final String strDate) throws ParseException{
 		Matcher m = ISO8601_PATTERN.matcher(strDate);
 		if (m.matches()){
 			GregorianCalendar cal = new GregorianCalendar();
@@ -433,7 +555,7 @@ public class ISO8601Format {
 			 * ...and 2.5 (page 20):
 			 *  "TIMESTAMP values are specified using ISO8601 format without a timezone (as in 2.3.4 ) and are assumed to be in UTC."
 			 */
-			cal.setTimeZone(TimeZone.getTimeZone("UTC"));
+			cal.setTimeZone(getZone("UTC").timeZone);
 
 			// SET THE DATE:
 			cal.set(Calendar.YEAR, Integer.parseInt(m.group(1)));
@@ -473,7 +595,7 @@ public class ISO8601Format {
 					if (m.group(timeGroupInd + 5) != null){
 						cal.set(Calendar.SECOND, getSeconds(m.group(timeGroupInd + 6)));
 						if (m.group(timeGroupInd + 7) != null)
-							cal.set(Calendar.MILLISECOND, twoDigitsFmt.parse(m.group(timeGroupInd + 8)).intValue());
+							cal.set(Calendar.MILLISECOND, parseInt(m.group(timeGroupInd + 8)));
 						else
 							cal.set(Calendar.MILLISECOND, 0);
 					}else{
@@ -505,6 +627,28 @@ public class ISO8601Format {
 			throw new ParseException("Invalid date format: \"" + strDate + "\"! An ISO8601 date was expected.", 0);
 	}
 
+	/**
+	 * Parse the given digits as an integer.
+	 * 
+	 * <p><i>Note:
+	 * 	Like {@link DecimalFormat#parse(String)}, a value too big for an <code>int</code> is truncated.
+	 * </i></p>
+	 * 
+	 * @param digits	Digits to parse. <i>MUST contain only ASCII digits, as ensured by {@link #ISO8601_PATTERN}.</i>
+	 * 
+	 * @return	The corresponding integer.
+	 * 
+	 * @throws ParseException	If the given string is not a number.
+	 * 
+	 * @since 4.6
+	 */
+	private static int parseInt(final String digits) throws ParseException{
+		if (digits.length() <= 18)
+			return (int)Long.parseLong(digits);
+		else
+			return (new DecimalFormat("0")).parse(digits).intValue();
+	}
+
 	/**
 	 * <p>Convert the given ISO-8601 day of year value into a Java day of year value.</p>
 	 * 
@@ -523,7 +667,7 @@ public class ISO8601Format {
 	 */
 	private static final int getDayOfYear(final String str, final GregorianCalendar cal) throws ParseException{
 		/* A day of year can only be between 1 and 365 (or 366 in leap year). */
-		int dayOfYear = threeDigitsFmt.parse(str).intValue();
+		int dayOfYear = parseInt(str);
 		if (dayOfYear < 1 || dayOfYear > cal.getActualMaximum(Calendar.DAY_OF_YEAR))
 			throw new ParseException("Incorrect day of year: " + dayOfYear + "! An integer between 1 and " + cal.getActualMaximum(Calendar.DAY_OF_YEAR) + " was expected.", -1);
 		return dayOfYear;
@@ -546,7 +690,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getDayOfMonth(final String str, final GregorianCalendar cal) throws ParseException{
-		int dayOfMonth = twoDigitsFmt.parse(str).intValue();
+		int dayOfMonth = parseInt(str);
 		if (dayOfMonth < 1 || dayOfMonth > cal.getActualMaximum(Calendar.DAY_OF_MONTH))
 			throw new ParseException("Incorrect day of month: " + dayOfMonth + "! An integer between 1 and " + cal.getActualMaximum(Calendar.DAY_OF_MONTH) + " was expected.", -1);
 		return dayOfMonth;
@@ -569,7 +713,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getDayOfWeek(final String str) throws ParseException{
-		int dayOfWeek = oneDigitFmt.parse(str).intValue();
+		int dayOfWeek = parseInt(str);
 		if (dayOfWeek < 1 || dayOfWeek > 7)
 			throw new ParseException("Incorrect day of week: " + dayOfWeek + "! An integer between 1 (for Monday) and 7 (for Sunday) was expected.", -1);
 		else if (dayOfWeek == 7)
@@ -596,7 +740,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getWeekOfYear(final String str, final GregorianCalendar cal) throws ParseException{
-		int weekOfYear = twoDigitsFmt.parse(str).intValue();
+		int weekOfYear = parseInt(str);
 		if (weekOfYear < 1 || weekOfYear > cal.getActualMaximum(Calendar.WEEK_OF_YEAR))
 			throw new ParseException("Incorrect week of year value: " + weekOfYear + "! An integer between 1 and " + cal.getActualMaximum(Calendar.WEEK_OF_YEAR) + " was expected.", -1);
 		return weekOfYear;
@@ -619,7 +763,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getMonth(final String str) throws ParseException{
-		int month = twoDigitsFmt.parse(str).intValue();
+		int month = parseInt(str);
 		if (month < 1 || month > 12)
 			throw new ParseException("Incorrect month value: " + month + "! An integer between 1 and 12 was expected.", -1);
 		return month - 1;
@@ -642,7 +786,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getHours(final String str) throws ParseException{
-		int hours = twoDigitsFmt.parse(str).intValue();
+		int hours = parseInt(str);
 		if (hours < 0 || hours > 24)
 			throw new ParseException("Incorrect hour value: " + hours + "! An integer between 0 and 24 was expected.", -1);
 		return hours;
@@ -665,7 +809,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getMinutes(final String str) throws ParseException{
-		int minutes = twoDigitsFmt.parse(str).intValue();
+		int minutes = parseInt(str);
 		if (minutes < 0 || minutes > 60)
 			throw new ParseException("Incorrect minute value: " + minutes + "! An integer between 0 and 60 was expected.", -1);
 		return minutes;
@@ -688,7 +832,7 @@ public class ISO8601Format {
 	 * @since 4.2
 	 */
 	private static final int getSeconds(final String str) throws ParseException{
-		int seconds = twoDigitsFmt.parse(str).intValue();
+		int seconds = parseInt(str);
 		if (seconds < 0 || seconds > 60)
 			throw new ParseException("Incorrect second value: " + seconds + "! An integer between 0 and 60 was expected.", -1);
 		return seconds;
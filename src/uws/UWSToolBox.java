@@ -11,6 +11,9 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -36,7 +39,7 @@ import javax.servlet.http.HttpServletResponse;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2019 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -55,7 +58,7 @@ import uws.service.request.UploadFile;
  * Some useful functions for the managing of a UWS service.
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.4 (03/2019)
+ * @version 4.6 (10/2026)
  */
 public class UWSToolBox {
 
@@ -535,7 +538,7 @@ public class UWSToolBox {
 
 			// Write the file into the HTTP response:
 			output = response.getOutputStream();
-			byte[] buffer = new byte[1024];
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
 			int length;
 			while((length = input.read(buffer)) > 0)
 				output.write(buffer, 0, length);
@@ -545,6 +548,213 @@ public class UWSToolBox {
 		}
 	}
 
+	/** Size (in bytes) of the buffer used to copy a file or a stream in an HTTP response.
+	 * @since 4.6 */
+	public static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	/** Name of the request attribute set by Tomcat when it can send a file itself
+	 * (with the system call <code>sendfile</code>, so without any copy in the JVM).
+	 * @since 4.6 */
+	protected static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+	/**
+	 * <p>Copies the content of the given file in the given HTTP response,
+	 * honouring the HTTP headers <code>Range</code> and <code>If-Range</code>.</p>
+	 *
+	 * <p>
+	 * 	The headers <code>Accept-Ranges</code>, <code>ETag</code> (made of the
+	 * 	file size and last modification date) and <code>Last-Modified</code> are
+	 * 	always set. So, a client can resume an interrupted download, or download
+	 * 	a large file in several parts in parallel. Only single ranges are
+	 * 	supported ; if several ranges are asked, the whole file is returned.
+	 * 	An unsatisfiable range leads to the HTTP status
+	 * 	<code>416 Requested Range Not Satisfiable</code>.
+	 * </p>
+	 *
+	 * <p>
+	 * 	If the servlet container is able to send the file itself without any
+	 * 	copy (i.e. Tomcat with <code>sendfile</code> enabled), it is asked to do
+	 * 	it. Otherwise, the file is read through a {@link FileChannel} with a
+	 * 	buffer of {@link #COPY_BUFFER_SIZE} bytes.
+	 * </p>
+	 *
+	 * @param file		File to copy.
+	 * @param mimeType	Type of data to copy (may be null).
+	 * @param request	The HTTP request (to read the <code>Range</code> headers).
+	 * @param response	Response in which the data must be copied.
+	 *
+	 * @throws IOException	If there is an error while opening the output stream or while copying.
+	 *
+	 * @since 4.6
+	 */
+	public static final void write(final File file, final String mimeType, final HttpServletRequest request, final HttpServletResponse response) throws IOException{
+		final long fileLength = file.length();
+		final long lastModified = file.lastModified();
+		final String etag = "\"" + Long.toHexString(fileLength) + "-" + Long.toHexString(lastModified) + "\"";
+
+		// Set the HTTP content type:
+		if (mimeType != null)
+			response.setContentType(mimeType);
+
+		// Set the character encoding:
+		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
+
+		// Set the headers letting the client ask for a part of the file:
+		response.setHeader("Accept-Ranges", "bytes");
+		response.setHeader("ETag", etag);
+		if (lastModified > 0)
+			response.setDateHeader("Last-Modified", lastModified);
+
+		// Get the range to send:
+		long[] range = null;
+		if (request != null && isIfRangeMatching(request, etag, lastModified))
+			range = parseRange(request.getHeader("Range"), fileLength);
+
+		long start = 0, end = fileLength - 1;
+		if (range != null){
+			// unsatisfiable range:
+			if (range.length == 0){
+				response.setHeader("Content-Range", "bytes */" + fileLength);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			start = range[0];
+			end = range[1];
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + fileLength);
+		}
+		final long length = end - start + 1;
+
+		// Set the HTTP content length:
+		setContentLength(response, length);
+		if (length <= 0)
+			return;
+
+		// Let the servlet container send the file itself, if it can:
+		if (request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))){
+			request.setAttribute("org.apache.tomcat.sendfile.filename", file.getAbsolutePath());
+			request.setAttribute("org.apache.tomcat.sendfile.start", start);
+			request.setAttribute("org.apache.tomcat.sendfile.end", end + 1);
+			return;
+		}
+
+		// Otherwise, copy the file into the HTTP response:
+		ServletOutputStream output = response.getOutputStream();
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try{
+			ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(COPY_BUFFER_SIZE, length));
+			long position = start, remaining = length;
+			while(remaining > 0){
+				buffer.clear();
+				if (remaining < buffer.capacity())
+					buffer.limit((int)remaining);
+				int nbRead = channel.read(buffer, position);
+				if (nbRead < 0)
+					break;
+				output.write(buffer.array(), 0, nbRead);
+				position += nbRead;
+				remaining -= nbRead;
+			}
+		}finally{
+			channel.close();
+			output.flush();
+		}
+	}
+
+	/**
+	 * <p>Tell whether the HTTP header <code>Range</code> must be honoured,
+	 * according to the HTTP header <code>If-Range</code>.</p>
+	 *
+	 * <p>
+	 * 	It is the case if there is no <code>If-Range</code>, or if it matches
+	 * 	either the given entity tag (strong comparison) or the given last
+	 * 	modification date.
+	 * </p>
+	 *
+	 * @param request		The HTTP request.
+	 * @param etag			Entity tag of the file to send (with its double quotes).
+	 * @param lastModified	Last modification date of the file to send (in milliseconds).
+	 *
+	 * @return	<code>true</code> if the <code>Range</code> must be honoured,
+	 *        	<code>false</code> if the whole file must be sent.
+	 *
+	 * @since 4.6
+	 */
+	protected static final boolean isIfRangeMatching(final HttpServletRequest request, final String etag, final long lastModified){
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange == null)
+			return true;
+		ifRange = ifRange.trim();
+		// entity tag (a weak one never matches):
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+			return ifRange.equals(etag);
+		// HTTP date (with a precision of one second):
+		try{
+			long date = request.getDateHeader("If-Range");
+			return date >= 0 && (lastModified / 1000) == (date / 1000);
+		}catch(IllegalArgumentException iae){
+			return false;
+		}
+	}
+
+	/**
+	 * <p>Parse the value of the HTTP header <code>Range</code>.</p>
+	 *
+	 * <p>
+	 * 	Only a single range of bytes is supported: <code>bytes=start-end</code>,
+	 * 	<code>bytes=start-</code> or <code>bytes=-suffixLength</code>.
+	 * </p>
+	 *
+	 * @param rangeHeader	Value of the header <code>Range</code>. <i>May be NULL.</i>
+	 * @param fileLength	Size (in bytes) of the file to send.
+	 *
+	 * @return	<code>{start, end}</code> (both inclusive) of the range to send,
+	 *        	an empty array if the range can not be satisfied,
+	 *        	or NULL if the whole file must be sent (no, several or an invalid range).
+	 *
+	 * @since 4.6
+	 */
+	public static final long[] parseRange(final String rangeHeader, final long fileLength){
+		if (rangeHeader == null || !rangeHeader.trim().toLowerCase().startsWith("bytes="))
+			return null;
+
+		String spec = rangeHeader.trim().substring(6).trim();
+		// several ranges => the whole file:
+		if (spec.indexOf(',') >= 0)
+			return null;
+
+		int sep = spec.indexOf('-');
+		if (sep < 0)
+			return null;
+
+		try{
+			String startStr = spec.substring(0, sep).trim(), endStr = spec.substring(sep + 1).trim();
+			long start, end;
+			// CASE: suffix range (i.e. the last N bytes):
+			if (startStr.isEmpty()){
+				if (endStr.isEmpty())
+					return null;
+				long suffixLength = Long.parseLong(endStr);
+				if (suffixLength <= 0)
+					return new long[0];
+				start = Math.max(0, fileLength - suffixLength);
+				end = fileLength - 1;
+			}
+			// CASE: start and optional end:
+			else{
+				start = Long.parseLong(startStr);
+				end = endStr.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(endStr), fileLength - 1);
+				if (end < start && start < fileLength)
+					return null;
+			}
+			if (start < 0 || start >= fileLength)
+				return new long[0];
+			return new long[]{ start, end };
+		}catch(NumberFormatException nfe){
+			return null;
+		}
+	}
+
 	/**
 	 * Writes the stack trace of the given exception in the file whose the name and the parent directory are given in parameters.
 	 * If the specified file already exists, it will be overwritten if the parameter <i>overwrite</i> is equal to <i>true</i>, otherwise
@@ -69,7 +69,7 @@ import uws.service.request.UWSRequestParser;
  * Concrete implementation of a {@link UWSFactory} which is parameterized by a UWS configuration file.
  *
  * @author Gr&eacute;gory Mantelet (ARI)
- * @version 4.3 (09/2017)
+ * @version 4.6 (10/2026)
  * @since 4.2
  */
 public class ConfigurableUWSFactory implements UWSFactory {
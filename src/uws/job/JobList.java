@@ -16,12 +16,15 @@ package uws.job;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2020 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -175,7 +178,7 @@ import uws.service.log.UWSLog.LogLevel;
  * </i></p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.5 (07/2020)
+ * @version 4.6 (10/2026)
  *
  * @see UWSJob
  */
@@ -195,6 +198,11 @@ public class JobList extends SerializableUWSObject implements Iterable<UWSJob> {
 	/** <b>[Required]</b> List of jobs per owner. */
 	protected final Map<JobOwner, Map<String, UWSJob>> ownerJobs;
 
+	/** <b>[Required]</b> Jobs sorted by creation time, globally and per
+	 * execution phase.
+	 * @since 4.6 */
+	protected final JobListIndex index;
+
 	/** The destruction manager to use to take into account the destructionTime
 	 * field of contained jobs. */
 	private DestructionManager destructionManager = null;
@@ -288,6 +296,7 @@ public class JobList extends SerializableUWSObject implements Iterable<UWSJob> {
 		name = jobListName;
 		jobsList = new ConcurrentHashMap<String, UWSJob>();
 		ownerJobs = new ConcurrentHashMap<JobOwner, Map<String, UWSJob>>();
+		index = new JobListIndex();
 
 		this.executionManager = executionManager;
 
@@ -584,6 +593,65 @@ public class JobList extends SerializableUWSObject implements Iterable<UWSJob> {
 		}
 	}
 
+	/**
+	 * Gets all jobs being in one of the given execution phases and created
+	 * after the given date, sorted by descending creation time.
+	 *
+	 * <p>
+	 * 	Contrary to the other <code>getJobs(...)</code> functions, the whole
+	 * 	jobs list is not scanned: jobs are read lazily from indexes maintained
+	 * 	at each phase change (see {@link JobListIndex}). So, getting the N most
+	 * 	recent jobs of a given phase is cheap, even in a very large jobs list.
+	 * </p>
+	 *
+	 * @param phases	Phases of the jobs to return.
+	 *              	<i>If NULL, jobs of all phases are returned.</i>
+	 * @param after		Date after which (excluded) the returned jobs must have
+	 *             		been created.
+	 *             		<i>If NULL, jobs of any creation time are returned.</i>
+	 *
+	 * @return	An iterator on the selected jobs, sorted by descending creation
+	 *        	time.
+	 *
+	 * @see JobListIndex#getJobs(Collection, Date)
+	 *
+	 * @since 4.6
+	 */
+	public Iterator<UWSJob> getJobs(final Collection<ExecutionPhase> phases, final Date after) {
+		return index.getJobs(phases, after);
+	}
+
+	/**
+	 * Gets all jobs of the given owner being in one of the given execution
+	 * phases and created after the given date, sorted by creation time.
+	 *
+	 * <p>
+	 * 	Like {@link #getJobs(Collection, Date)}, the whole jobs list is not
+	 * 	scanned: jobs are read lazily from the indexes of the given owner (see
+	 * 	{@link JobListIndex}).
+	 * </p>
+	 *
+	 * @param owner		Owner of the jobs to return.
+	 *             		<i>If NULL, jobs of all users are returned.</i>
+	 * @param phases	Phases of the jobs to return.
+	 *              	<i>If NULL, jobs of all phases are returned.</i>
+	 * @param after		Date after which (excluded) the returned jobs must have
+	 *             		been created.
+	 *             		<i>If NULL, jobs of any creation time are returned.</i>
+	 * @param ascending	<code>true</code> to sort the jobs by ascending
+	 *                 	creation time,
+	 *                 	<code>false</code> by descending creation time.
+	 *
+	 * @return	An iterator on the selected jobs.
+	 *
+	 * @see JobListIndex#getJobs(JobOwner, Collection, Date, boolean)
+	 *
+	 * @since 4.6
+	 */
+	public Iterator<UWSJob> getJobs(final JobOwner owner, final Collection<ExecutionPhase> phases, final Date after, final boolean ascending) {
+		return index.getJobs(owner, phases, after, ascending);
+	}
+
 	/**
 	 * Gets an iterator on the jobs list.
 	 *
@@ -707,6 +775,13 @@ public class JobList extends SerializableUWSObject implements Iterable<UWSJob> {
 				ownerJobs.get(owner).put(j.getJobId(), j);
 			}
 
+			// Index it in function of its creation time and phase:
+			index.add(j);
+
+			// Let the backup manager know about the phase changes of this job:
+			if (uws.getBackupManager() instanceof JobObserver)
+				j.addObserver((JobObserver)uws.getBackupManager());
+
 			// Save the owner jobs list:
 			if (owner != null && uws.getBackupManager() != null && j.getRestorationDate() == null)
 				uws.getBackupManager().saveOwner(j.getOwner());
@@ -834,6 +909,9 @@ public class JobList extends SerializableUWSObject implements Iterable<UWSJob> {
 					ownerJobs.remove(owner);
 			}
 
+			// Clear its creation time and phase indexes:
+			index.remove(removedJob);
+
 			// Remove it from the destruction manager:
 			if (destructionManager != null)
 				destructionManager.remove(removedJob);
@@ -1032,15 +1110,53 @@ public class JobList extends SerializableUWSObject implements Iterable<UWSJob> {
 		if (output == null)
 			throw new NullPointerException("Missing serialization output stream!");
 
+		serialize(new OutputStreamWriter(output, UWSToolBox.DEFAULT_CHAR_ENCODING), serializer, owner, listRefiner);
+	}
+
+	/**
+	 * Serializes the while object in the given writer, considering the given
+	 * owner, the given job filters and thanks to the given serializer.
+	 *
+	 * <p>
+	 * 	The jobs are written one after the other (see
+	 * 	{@link UWSSerializer#writeJobList(JobList, JobOwner, JobListRefiner, boolean, Writer)}).
+	 * 	So, contrary to {@link #serialize(UWSSerializer, JobOwner)}, the whole
+	 * 	serialization is never kept in memory.
+	 * </p>
+	 *
+	 * @param output		The writer in which this object must be serialized.
+	 *              		<i>It is flushed but not closed.</i>
+	 * @param serializer	The serializer to use.
+	 * @param owner			The current user.
+	 * @param listRefiner	Special filter able to refine the list of jobs with
+	 *                   	job filters specified by the user
+	 *                   	(i.e. filter, sort and limit).
+	 *
+	 * @throws UWSException		If the owner is not allowed to see the content
+	 *                     		of the serializable object.
+	 * @throws IOException		If there is an error while writing in the given
+	 *                    		writer.
+	 * @throws Exception		If there is any other error during the
+	 *                  		serialization.
+	 *
+	 * @see UWSSerializer#writeJobList(JobList, JobOwner, JobListRefiner, boolean, Writer)
+	 *
+	 * @since 4.6
+	 */
+	public void serialize(Writer output, UWSSerializer serializer, JobOwner owner, JobListRefiner listRefiner) throws UWSException, IOException, Exception {
+		if (output == null)
+			throw new NullPointerException("Missing serialization output!");
+
 		if (owner != null && !owner.hasReadPermission(this))
 			throw new UWSException(UWSException.FORBIDDEN, UWSExceptionFactory.writePermissionDenied(owner, true, getName()));
 
-		String serialization = serializer.getJobList(this, owner, listRefiner, true);
-		if (serialization != null) {
-			output.print(serialization);
-			output.flush();
-		} else
-			throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, "Incorrect serialization value (=NULL) ! => impossible to serialize " + toString() + ".");
+		serializer.writeJobList(this, owner, listRefiner, true, output);
+		output.flush();
+	}
+
+	@Override
+	public void serialize(Writer output, UWSSerializer serializer, JobOwner owner) throws UWSException, IOException, Exception {
+		serialize(output, serializer, owner, null);
 	}
 
 	/* ***************** */
@@ -0,0 +1,448 @@
+package uws.job;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import uws.job.user.JobOwner;
+
+/**
+ * Secondary indexes of the jobs of a {@link JobList}.
+ *
+ * <p>
+ * 	All jobs are sorted by descending creation time, both in a global index
+ * 	and in one index per execution phase. The same indexes are also kept for
+ * 	the jobs of each owner. Thus, the N most recent (or oldest) jobs of a
+ * 	given user and/or of a given phase (or created after a given date) can be
+ * 	listed without scanning and sorting the whole jobs list (see
+ * 	{@link #getJobs(JobOwner, Collection, Date, boolean)}).
+ * </p>
+ *
+ * <p>
+ * 	The phase indexes are kept up-to-date thanks to the phase notifications
+ * 	of the indexed jobs: this index is a {@link JobObserver} of all of them.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	Adding, removing and moving a job in the index is done while holding the
+ * 	lock on its {@link UWSJob#getPhaseManager() phase manager}, as
+ * 	{@link UWSJob#setPhase(ExecutionPhase, boolean)} does. So, a phase change
+ * 	can not be lost while the job is being indexed.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ *
+ * @see JobList
+ */
+public class JobListIndex implements JobObserver {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Sort jobs by descending creation time. Jobs created at the same time are
+	 * sorted by ID, so that two different jobs are never considered as equal.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	public final static class CreationTimeComparator implements Comparator<UWSJob>, Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public int compare(final UWSJob job1, final UWSJob job2){
+			int comp = job2.getCreationTime().compareTo(job1.getCreationTime());
+			return (comp != 0) ? comp : job1.getJobId().compareTo(job2.getJobId());
+		}
+	}
+
+	/** Order of all indexes. */
+	protected final static Comparator<UWSJob> ORDER = new CreationTimeComparator();
+
+	/**
+	 * Jobs sorted by descending creation time, both globally and per
+	 * execution phase.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	protected final static class JobSets implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		/** All jobs, sorted by descending creation time. */
+		protected final ConcurrentSkipListSet<UWSJob> allJobs = new ConcurrentSkipListSet<UWSJob>(ORDER);
+
+		/** Jobs per execution phase, sorted by descending creation time.
+		 * <i>This map contains a set for each phase and is never modified
+		 * after its initialization.</i> */
+		protected final Map<ExecutionPhase, ConcurrentSkipListSet<UWSJob>> phaseJobs;
+
+		/**
+		 * Build empty sets.
+		 */
+		public JobSets(){
+			phaseJobs = new EnumMap<ExecutionPhase, ConcurrentSkipListSet<UWSJob>>(ExecutionPhase.class);
+			for(ExecutionPhase phase : ExecutionPhase.values())
+				phaseJobs.put(phase, new ConcurrentSkipListSet<UWSJob>(ORDER));
+		}
+
+		/**
+		 * Add the given job in the set of all jobs and in the set of its
+		 * current phase.
+		 *
+		 * @param job	The job to add.
+		 */
+		public void add(final UWSJob job){
+			allJobs.add(job);
+			phaseJobs.get(job.getPhase()).add(job);
+		}
+
+		/**
+		 * Remove the given job from all sets.
+		 *
+		 * @param job	The job to remove.
+		 */
+		public void remove(final UWSJob job){
+			allJobs.remove(job);
+			for(ConcurrentSkipListSet<UWSJob> jobs : phaseJobs.values())
+				jobs.remove(job);
+		}
+
+		/**
+		 * Move the given job into the set of the given phase.
+		 *
+		 * @param job		The job to move.
+		 * @param newPhase	Its new phase.
+		 */
+		public void move(final UWSJob job, final ExecutionPhase newPhase){
+			/* Note: the job is removed from all the other phases (and not only
+			 *       from its old phase) in case its phase has been changed
+			 *       without notification (e.g. if its phase manager has been
+			 *       replaced). */
+			for(Map.Entry<ExecutionPhase, ConcurrentSkipListSet<UWSJob>> entry : phaseJobs.entrySet()){
+				if (entry.getKey() != newPhase)
+					entry.getValue().remove(job);
+			}
+			phaseJobs.get(newPhase).add(job);
+		}
+
+		/**
+		 * Get iterators over the jobs of the given phases.
+		 *
+		 * @param selection	Phases of the jobs to return.
+		 * @param ascending	<code>true</code> to iterate by ascending creation
+		 *                 	time, <code>false</code> by descending creation
+		 *                 	time.
+		 *
+		 * @return	One iterator per set to read.
+		 */
+		public List<Iterator<UWSJob>> iterators(final EnumSet<ExecutionPhase> selection, final boolean ascending){
+			List<Iterator<UWSJob>> iterators = new ArrayList<Iterator<UWSJob>>(selection.size());
+			if (selection.size() == phaseJobs.size())
+				iterators.add(ascending ? allJobs.descendingIterator() : allJobs.iterator());
+			else{
+				for(ExecutionPhase phase : selection)
+					iterators.add(ascending ? phaseJobs.get(phase).descendingIterator() : phaseJobs.get(phase).iterator());
+			}
+			return iterators;
+		}
+	}
+
+	/** All indexed jobs. */
+	protected final JobSets jobs = new JobSets();
+
+	/** Indexed jobs per owner.
+	 * <i>Jobs without owner are not indexed here. An owner is removed from
+	 * this map when it has no more indexed job. Any modification MUST be
+	 * synchronized on this map.</i> */
+	protected final Map<JobOwner, JobSets> ownerJobs = new ConcurrentHashMap<JobOwner, JobSets>();
+
+	/**
+	 * Index the given job and start observing its phase.
+	 *
+	 * @param job	The job to index. <i>If NULL, nothing is done.</i>
+	 */
+	public void add(final UWSJob job){
+		if (job == null)
+			return;
+		synchronized(job.getPhaseManager()){
+			job.addObserver(this);
+			jobs.add(job);
+			if (job.getOwner() != null){
+				synchronized(ownerJobs){
+					JobSets sets = ownerJobs.get(job.getOwner());
+					if (sets == null){
+						sets = new JobSets();
+						ownerJobs.put(job.getOwner(), sets);
+					}
+					sets.add(job);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove the given job from the index and stop observing it.
+	 *
+	 * @param job	The job to remove. <i>If NULL, nothing is done.</i>
+	 */
+	public void remove(final UWSJob job){
+		if (job == null)
+			return;
+		synchronized(job.getPhaseManager()){
+			job.removeObserver(this);
+			jobs.remove(job);
+			if (job.getOwner() != null){
+				synchronized(ownerJobs){
+					JobSets sets = ownerJobs.get(job.getOwner());
+					if (sets != null){
+						sets.remove(job);
+						if (sets.allJobs.isEmpty())
+							ownerJobs.remove(job.getOwner());
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Move the given job into the index of its new phase.
+	 *
+	 * <p><i>Note:
+	 * 	Nothing is done if the job is not (or no longer) indexed.
+	 * </i></p>
+	 */
+	@Override
+	public void update(final UWSJob job, final ExecutionPhase oldPhase, final ExecutionPhase newPhase){
+		if (job == null || newPhase == null || !jobs.allJobs.contains(job))
+			return;
+
+		jobs.move(job, newPhase);
+		JobSets sets = (job.getOwner() == null) ? null : ownerJobs.get(job.getOwner());
+		if (sets != null)
+			sets.move(job, newPhase);
+	}
+
+	/**
+	 * Get all indexed jobs being in one of the given phases and created after
+	 * the given date, by descending creation time.
+	 *
+	 * <p>
+	 * 	This function is equivalent to
+	 * 	<code>{@link #getJobs(JobOwner, Collection, Date, boolean) getJobs}(null, phases, after, false)</code>.
+	 * </p>
+	 *
+	 * @param phases	Phases of the jobs to return.
+	 *              	<i>If NULL, jobs of all phases are returned.</i>
+	 * @param after		Date after which (excluded) the returned jobs must have
+	 *             		been created.
+	 *             		<i>If NULL, jobs of any creation time are returned.</i>
+	 *
+	 * @return	An iterator over the selected jobs.
+	 */
+	public Iterator<UWSJob> getJobs(final Collection<ExecutionPhase> phases, final Date after){
+		return getJobs(null, phases, after, false);
+	}
+
+	/**
+	 * Get all indexed jobs of the given owner, being in one of the given
+	 * phases and created after the given date.
+	 *
+	 * <p>
+	 * 	Jobs are returned by descending (or ascending) creation time. They are
+	 * 	read lazily from the indexes: getting the N first jobs by descending
+	 * 	creation time costs only O(N log(n)), with n the number of indexed
+	 * 	jobs. By ascending creation time, the jobs created before the given
+	 * 	date must be skipped first.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	The returned iterator is weakly consistent: it never fails because of a
+	 * 	concurrent modification, but a job whose phase changes during the
+	 * 	iteration may be returned with its new phase (or not returned at all).
+	 * </i></p>
+	 *
+	 * @param owner		Owner of the jobs to return.
+	 *             		<i>If NULL, jobs of all users are returned.</i>
+	 * @param phases	Phases of the jobs to return.
+	 *              	<i>If NULL, jobs of all phases are returned.</i>
+	 * @param after		Date after which (excluded) the returned jobs must have
+	 *             		been created.
+	 *             		<i>If NULL, jobs of any creation time are returned.</i>
+	 * @param ascending	<code>true</code> to return the jobs by ascending
+	 *                 	creation time,
+	 *                 	<code>false</code> by descending creation time.
+	 *
+	 * @return	An iterator over the selected jobs.
+	 */
+	public Iterator<UWSJob> getJobs(final JobOwner owner, final Collection<ExecutionPhase> phases, final Date after, final boolean ascending){
+		EnumSet<ExecutionPhase> selection = EnumSet.noneOf(ExecutionPhase.class);
+		if (phases == null)
+			selection = EnumSet.allOf(ExecutionPhase.class);
+		else{
+			for(ExecutionPhase phase : phases){
+				if (phase != null)
+					selection.add(phase);
+			}
+		}
+
+		JobSets sets = (owner == null) ? jobs : ownerJobs.get(owner);
+		List<Iterator<UWSJob>> iterators = (sets == null) ? new ArrayList<Iterator<UWSJob>>(0) : sets.iterators(selection, ascending);
+		return new MergeIterator(iterators, after, ascending);
+	}
+
+	/**
+	 * Get the number of indexed jobs.
+	 *
+	 * <p><i><b>Warning:</b>
+	 * 	This function is not a constant-time operation.
+	 * </i></p>
+	 *
+	 * @return	Number of indexed jobs.
+	 */
+	public int size(){
+		return jobs.allJobs.size();
+	}
+
+	/**
+	 * Merge several iterators over jobs sorted by descending (or ascending)
+	 * creation time, while keeping this order. Jobs created before (or at)
+	 * the given limit date are not returned: by descending creation time, the
+	 * iteration stops at the first of them ; by ascending creation time, they
+	 * are skipped.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	protected final static class MergeIterator implements Iterator<UWSJob> {
+		/** Iterators to merge. */
+		private final List<Iterator<UWSJob>> iterators;
+		/** Next job of each iterator (NULL if the iterator is exhausted). */
+		private final UWSJob[] heads;
+		/** Date after which (excluded) jobs must have been created.
+		 * <i>May be NULL.</i> */
+		private final Date after;
+		/** Indicates whether the iterators are sorted by ascending creation
+		 * time. */
+		private final boolean ascending;
+		/** Order of the merged iterators. */
+		private final Comparator<UWSJob> order;
+
+		/**
+		 * Merge the given iterators sorted by descending creation time.
+		 *
+		 * @param iterators	Iterators to merge. They MUST all be sorted with
+		 *                 	{@link JobListIndex#ORDER}.
+		 * @param after		Limit creation date (excluded). <i>May be NULL.</i>
+		 */
+		public MergeIterator(final List<Iterator<UWSJob>> iterators, final Date after){
+			this(iterators, after, false);
+		}
+
+		/**
+		 * Merge the given iterators.
+		 *
+		 * @param iterators	Iterators to merge. They MUST all be sorted with
+		 *                 	{@link JobListIndex#ORDER}, or in the reverse
+		 *                 	order if <code>ascending</code> is
+		 *                 	<code>true</code>.
+		 * @param after		Limit creation date (excluded). <i>May be NULL.</i>
+		 * @param ascending	<code>true</code> if the iterators are sorted by
+		 *                 	ascending creation time,
+		 *                 	<code>false</code> otherwise.
+		 */
+		public MergeIterator(final List<Iterator<UWSJob>> iterators, final Date after, final boolean ascending){
+			this.iterators = iterators;
+			this.after = after;
+			this.ascending = ascending;
+			this.order = ascending ? Collections.reverseOrder(ORDER) : ORDER;
+			this.heads = new UWSJob[iterators.size()];
+			for(int i = 0; i < heads.length; i++)
+				heads[i] = fetch(i);
+		}
+
+		/**
+		 * Get the next job of the specified iterator, if created after the
+		 * limit date.
+		 *
+		 * @param index	Index of the iterator.
+		 *
+		 * @return	The next job, or NULL if there is no more job to return.
+		 */
+		private UWSJob fetch(final int index){
+			Iterator<UWSJob> it = iterators.get(index);
+			while(it.hasNext()){
+				UWSJob job = it.next();
+				if (after == null || job.getCreationTime().after(after))
+					return job;
+				// all the next jobs are older:
+				else if (!ascending)
+					return null;
+			}
+			return null;
+		}
+
+		@Override
+		public boolean hasNext(){
+			for(UWSJob job : heads){
+				if (job != null)
+					return true;
+			}
+			return false;
+		}
+
+		@Override
+		public UWSJob next(){
+			int best = -1;
+			for(int i = 0; i < heads.length; i++){
+				if (heads[i] != null && (best < 0 || order.compare(heads[i], heads[best]) < 0))
+					best = i;
+			}
+			if (best < 0)
+				throw new NoSuchElementException("No more indexed job!");
+
+			UWSJob job = heads[best];
+			heads[best] = fetch(best);
+			return job;
+		}
+
+		@Override
+		public void remove(){
+			throw new UnsupportedOperationException("No remove operation possible on this iterator of indexed jobs!");
+		}
+	}
+
+}
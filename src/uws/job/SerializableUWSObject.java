@@ -16,16 +16,19 @@ package uws.job;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012,2014 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 
 import javax.servlet.ServletOutputStream;
 
 import uws.UWSException;
+import uws.UWSToolBox;
 import uws.job.serializer.UWSSerializer;
 import uws.job.serializer.XMLSerializer;
 import uws.job.user.JobOwner;
@@ -37,7 +40,7 @@ import uws.job.user.JobOwner;
  * because it returns a serialized representation of this UWS object.</P>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.1 (08/2014)
+ * @version 4.6 (10/2026)
  */
 public abstract class SerializableUWSObject implements Serializable {
 	private static final long serialVersionUID = 1L;
@@ -103,9 +106,37 @@ public abstract class SerializableUWSObject implements Serializable {
 		if (output == null)
 			throw new NullPointerException("Missing serialization output stream!");
 
+		serialize(new OutputStreamWriter(output, UWSToolBox.DEFAULT_CHAR_ENCODING), serializer, owner);
+	}
+
+	/**
+	 * Serializes the whole object in the given writer,
+	 * considering the given owner ID and thanks to the given serializer.
+	 * 
+	 * <p><i>Note:
+	 * 	By default, the string returned by {@link #serialize(UWSSerializer, JobOwner)}
+	 * 	is written. Objects whose the serialization may be large should
+	 * 	rather write it incrementally.
+	 * </i></p>
+	 * 
+	 * @param output		The writer in which this object must be serialized.
+	 *              		<i>It is flushed but not closed.</i>
+	 * @param serializer	The serializer to use.
+	 * @param owner			The user who asks for the serialization.
+	 * 
+	 * @throws UWSException		If the owner is not allowed to see the content of the serializable object.
+	 * @throws IOException		If there is an error while writing in the given writer. 
+	 * @throws Exception		If there is any other error during the serialization.
+	 * 
+	 * @since 4.6
+	 */
+	public void serialize(Writer output, UWSSerializer serializer, JobOwner owner) throws UWSException, IOException, Exception{
+		if (output == null)
+			throw new NullPointerException("Missing serialization output!");
+
 		String serialization = serialize(serializer, owner);
 		if (serialization != null){
-			output.print(serialization);
+			output.write(serialization);
 			output.flush();
 		}else
 			throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, "Incorrect serialization value (=NULL) ! => impossible to serialize " + toString() + ".");
@@ -16,7 +16,7 @@ package uws.job;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2025 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -32,6 +32,7 @@ import uws.job.serializer.UWSSerializer;
 import uws.job.user.JobOwner;
 import uws.service.UWS;
 import uws.service.UWSFactory;
+import uws.service.UWSScheduler;
 import uws.service.UWSUrl;
 import uws.service.file.UWSFileManager;
 import uws.service.log.UWSLog;
@@ -40,9 +41,11 @@ import uws.service.request.UploadFile;
 
 import javax.servlet.ServletOutputStream;
 import java.io.IOException;
+import java.io.Writer;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
 
 /**
  * <h3>Brief description</h3>
@@ -123,7 +126,7 @@ import java.util.*;
  * </ul>
  *
  * @author	Gr&eacute;gory Mantelet (CDS;ARI)
- * @version	4.5 (02/2025)
+ * @version	4.6 (10/2026)
  */
 public class UWSJob extends SerializableUWSObject {
 	private static final long serialVersionUID = 1L;
@@ -307,6 +310,12 @@ public class UWSJob extends SerializableUWSObject {
 	/** The thread to start for executing the job. */
 	protected transient JobThread thread = null;
 
+	/** Task aborting this job when its execution duration is exceeded.
+	 * <i>NULL if the execution duration is unlimited or if this job is not
+	 * executing.</i>
+	 * @since 4.6 */
+	protected transient ScheduledFuture<?> timeOut = null;
+
 	/** The time (in ms) to wait the end of the thread after an interruption. */
 	protected long waitForStop = 1000;
 
@@ -776,6 +785,12 @@ public class UWSJob extends SerializableUWSObject {
 			if (phase.isFinished() && getJobList() != null)
 				getJobList().getExecutionManager().remove(this);
 
+			// Cancel the execution timeout, if any:
+			if (phase.isFinished() && timeOut != null) {
+				timeOut.cancel(false);
+				timeOut = null;
+			}
+
 			// Notify all the observers:
 			notifyObservers(oldPhase);
 		}
@@ -1258,6 +1273,10 @@ public class UWSJob extends SerializableUWSObject {
 			}
 		}
 
+		// Save the owner jobs list:
+		if (updated.length > 0 && owner != null && getJobList() != null && getJobList().getUWS() != null && getJobList().getUWS().getBackupManager() != null)
+			getJobList().getUWS().getBackupManager().saveOwner(owner);
+
 		// Apply the retrieved phase:
 		applyPhaseParam(user);
 
@@ -1578,37 +1597,77 @@ public class UWSJob extends SerializableUWSObject {
 
 			// Run the job:
 			thread.start();
-			(new JobTimeOut()).start();
+			scheduleTimeOut();
 
 			// Log the start of this job:
 			getLogger().logJob(LogLevel.INFO, this, "START", "Job \"" + jobId + "\" started.", null);
 		}
 	}
 
+	/**
+	 * Schedule the abortion of this job once its maximum execution duration
+	 * is reached.
+	 *
+	 * <p>
+	 * 	The abortion is a task of the {@link UWSScheduler} of the UWS (see
+	 * 	{@link UWSFactory#getScheduler()}). So, no thread is waiting for the
+	 * 	end of each executing job.
+	 * </p>
+	 *
+	 * <p><i>Note:
+	 * 	Nothing is done if the execution duration is unlimited.
+	 * </i></p>
+	 *
+	 * @since 4.6
+	 */
+	protected void scheduleTimeOut() {
+		long maxDuration = getExecutionDuration();
+		if (thread != null && maxDuration != UNLIMITED_DURATION && maxDuration > 0) {
+			UWSScheduler scheduler = getFactory().getScheduler();
+			if (scheduler == null)
+				scheduler = UWSScheduler.getShared();
+			timeOut = scheduler.schedule(new JobTimeOut(thread), maxDuration * 1000);
+		}
+	}
+
 	/**
 	 * Stop/Cancel this job when its maximum execution duration has been reached.
 	 *
+	 * <p><i>Note:
+	 * 	Since v4.6, it is no longer a thread waiting for the end of the job,
+	 * 	but a task run by the {@link UWSScheduler} of the UWS once the
+	 * 	execution duration is elapsed (see {@link #scheduleTimeOut()}).
+	 * </i></p>
+	 *
 	 * @author Gr&eacute;gory Mantelet (CDS;ARI)
-	 * @version 4.1 (09/2014)
-	 */
-	protected final class JobTimeOut extends Thread {
-		public JobTimeOut() {
-			super(JobThread.tg, "TimeOut_" + jobId);
+	 * @version 4.6 (10/2026)
+	 */
+	protected final class JobTimeOut implements Runnable {
+		/** The thread executing the job when this timeout has been scheduled.
+		 * @since 4.6 */
+		private final JobThread jobThread;
+
+		/**
+		 * Build the timeout of the given execution of this job.
+		 *
+		 * @param jobThread	The thread executing this job.
+		 *
+		 * @since 4.6
+		 */
+		public JobTimeOut(final JobThread jobThread) {
+			this.jobThread = jobThread;
 		}
 
 		@Override
 		public void run() {
-			long maxDuration = getExecutionDuration();
-			if (thread != null && thread.isAlive() && maxDuration != UNLIMITED_DURATION && maxDuration > 0) {
-				try {
-					thread.join(maxDuration * 1000);
-					if (!isFinished())
-						UWSJob.this.abort();
-				} catch(InterruptedException ie) {
-					/* Not needed to report any interruption while waiting. */
-				} catch(UWSException ue) {
-					getLogger().logJob(LogLevel.WARNING, UWSJob.this, "EXECUTING", "Unexpected error while waiting the end of the execution of the job \"" + jobId + "\" (thread ID: " + thread.getId() + ")!", ue);
-				}
+			// Nothing to do if this job is not executed by the same thread any more:
+			if (thread != jobThread || !jobThread.isAlive())
+				return;
+			try {
+				if (!isFinished())
+					UWSJob.this.abort();
+			} catch(UWSException ue) {
+				getLogger().logJob(LogLevel.WARNING, UWSJob.this, "EXECUTING", "Unexpected error while waiting the end of the execution of the job \"" + jobId + "\" (thread ID: " + jobThread.getId() + ")!", ue);
 			}
 		}
 	}
@@ -2008,7 +2067,10 @@ public class UWSJob extends SerializableUWSObject {
 	public final void notifyObservers(ExecutionPhase oldPhase) {
 		String errors = null;
 
-		for(JobObserver observer : observers) {
+		/* Note: a copy of the list is iterated, because an observer may stop
+		 *       observing this job while being updated (e.g. the observers of
+		 *       WAIT requests). */
+		for(JobObserver observer : observers.toArray(new JobObserver[0])) {
 			// Update this observer:
 			try {
 				observer.update(this, oldPhase, getPhase());
@@ -2058,6 +2120,25 @@ public class UWSJob extends SerializableUWSObject {
 		return serializer.getJob(this, true);
 	}
 
+	/**
+	 * Serializes the whole job directly in the given writer.
+	 *
+	 * @see UWSSerializer#writeJob(UWSJob, boolean, Writer)
+	 *
+	 * @since 4.6
+	 */
+	@Override
+	public void serialize(Writer output, UWSSerializer serializer, JobOwner user) throws UWSException, IOException, Exception {
+		if (output == null)
+			throw new NullPointerException("Missing serialization output when serializing the job \"" + getJobId() + "\"!");
+
+		if (user != null && !user.equals(getOwner()) && !user.hasReadPermission(this))
+			throw new UWSException(UWSException.FORBIDDEN, UWSExceptionFactory.readPermissionDenied(user, false, getJobId()));
+
+		serializer.writeJob(this, true, output);
+		output.flush();
+	}
+
 	/**
 	 * Serializes the specified attribute of this job by using the given
 	 * serializer.
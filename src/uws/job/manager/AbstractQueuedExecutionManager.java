@@ -16,19 +16,25 @@ package uws.job.manager;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import uws.UWSException;
 import uws.UWSToolBox;
 import uws.job.ExecutionPhase;
 import uws.job.UWSJob;
+import uws.job.user.JobOwner;
 import uws.service.log.UWSLog;
 import uws.service.log.UWSLog.LogLevel;
 
@@ -48,6 +54,39 @@ import uws.service.log.UWSLog.LogLevel;
  * 	The order of queued jobs is preserved: it is implemented by a FIFO queue.
  * </i></p>
  *
+ * <h3>Priority classes</h3>
+ *
+ * <p>
+ * 	Jobs may be queued with different priorities (see
+ * 	{@link #getPriority(UWSJob)}). There is one FIFO queue per priority class:
+ * 	the jobs of a class are started only when no job of a more prioritary
+ * 	class (i.e. with a smaller priority value) is waiting. By default, all
+ * 	jobs have the priority {@link #DEFAULT_PRIORITY}, but a priority class can
+ * 	be set for each job owner with {@link #setPriority(String, int)}.
+ * </p>
+ *
+ * <h3>Concurrency</h3>
+ *
+ * <p>
+ * 	This manager does not use any lock. Queued and running jobs are stored in
+ * 	concurrent collections and the queue is processed by only one thread at a
+ * 	time: when {@link #refresh()} is called while another thread is already
+ * 	processing the queue, the call returns immediately and the other thread
+ * 	processes the queue once again before returning. Thus, the decision of
+ * 	{@link #isReadyForExecution(UWSJob)} and the start of the job are never
+ * 	interleaved with another start, and the number of running jobs (i.e. of
+ * 	used execution slots) is never exceeded.
+ * </p>
+ *
+ * <h3>Statistics</h3>
+ *
+ * <p>
+ * 	The queue depth ({@link #getNbQueuedJobs()}), the number of running jobs
+ * 	({@link #getNbRunningJobs()}) and the time spent by the started jobs in the
+ * 	queue ({@link #getNbStartedJobs()}, {@link #getTotalWaitTime()},
+ * 	{@link #getMaxWaitTime()}) can be read at any time.
+ * </p>
+ *
  * <p><i>Note:
  *	After a call to {@link #stopAll()}, this manager is still able to execute
  *	new jobs. Except if it was not possible to stop them properly, stopped jobs
@@ -56,15 +95,53 @@ import uws.service.log.UWSLog.LogLevel;
  * </i></p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (09/2017)
+ * @version 4.6 (10/2026)
  */
 public abstract class AbstractQueuedExecutionManager implements ExecutionManager {
 
+	/** Priority class of all jobs whose owner has no specific priority.
+	 * @since 4.6 */
+	public final static int DEFAULT_PRIORITY = 0;
+
 	/** List of running jobs. */
-	protected Map<String,UWSJob> runningJobs;
+	protected final Map<String,UWSJob> runningJobs;
 
-	/** List of queued jobs. */
-	protected Vector<UWSJob> queuedJobs;
+	/** Queued jobs, per priority class (sorted by ascending priority value,
+	 * so that the most prioritary jobs come first).
+	 * <p><i>Note:
+	 * 	An empty queue of a priority class is never removed.
+	 * </i></p>
+	 * @since 4.6 */
+	protected final ConcurrentSkipListMap<Integer,ConcurrentLinkedQueue<UWSJob>> queuedJobs;
+
+	/** All queued jobs, with the time (in nanoseconds ; see
+	 * {@link System#nanoTime()}) at which they have been queued.
+	 * <p><i>Note:
+	 * 	A job is in the queue only if it is in this map.
+	 * </i></p>
+	 * @since 4.6 */
+	protected final ConcurrentHashMap<UWSJob,Long> queueTimes;
+
+	/** Priority class of some job owners (by owner ID).
+	 * @since 4.6 */
+	protected final Map<String,Integer> ownerPriorities;
+
+	/** Number of pending requests for a processing of the queue.
+	 * <i>If different from 0, a thread is processing the queue.</i>
+	 * @since 4.6 */
+	private final AtomicInteger refreshRequests = new AtomicInteger(0);
+
+	/** Number of jobs started after having been queued.
+	 * @since 4.6 */
+	protected final AtomicLong nbStartedJobs = new AtomicLong(0);
+
+	/** Total time (in nanoseconds) spent in the queue by all the started jobs.
+	 * @since 4.6 */
+	protected final AtomicLong totalWaitTime = new AtomicLong(0);
+
+	/** Longest time (in nanoseconds) spent in the queue by a started job.
+	 * @since 4.6 */
+	protected final AtomicLong maxWaitTime = new AtomicLong(0);
 
 	protected final UWSLog logger;
 
@@ -75,8 +152,10 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 * Builds an execution manager without queue.
 	 */
 	protected AbstractQueuedExecutionManager(final UWSLog logger){
-		runningJobs = new LinkedHashMap<String,UWSJob>();
-		queuedJobs = new Vector<UWSJob>(0, 10);
+		runningJobs = new ConcurrentHashMap<String,UWSJob>();
+		queuedJobs = new ConcurrentSkipListMap<Integer,ConcurrentLinkedQueue<UWSJob>>();
+		queueTimes = new ConcurrentHashMap<UWSJob,Long>();
+		ownerPriorities = new ConcurrentHashMap<String,Integer>();
 		this.logger = (logger == null) ? UWSToolBox.getDefaultLogger() : logger;
 	}
 
@@ -93,14 +172,31 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 		return runningJobs.size();
 	}
 
+	/**
+	 * Gets the list of queued jobs, in the order they would be started.
+	 *
+	 * <p><i>Note:
+	 * 	The returned iterator is a snapshot of the queue: it is not affected by
+	 * 	further modifications of the queue.
+	 * </i></p>
+	 *
+	 * @see uws.job.manager.ExecutionManager#getQueuedJobs()
+	 */
 	@Override
 	public final Iterator<UWSJob> getQueuedJobs(){
-		return queuedJobs.iterator();
+		List<UWSJob> jobs = new ArrayList<UWSJob>(queueTimes.size());
+		for(ConcurrentLinkedQueue<UWSJob> queue : queuedJobs.values()){
+			for(UWSJob job : queue){
+				if (queueTimes.containsKey(job))
+					jobs.add(job);
+			}
+		}
+		return jobs.iterator();
 	}
 
 	@Override
 	public final int getNbQueuedJobs(){
-		return queuedJobs.size();
+		return queueTimes.size();
 	}
 
 	/**
@@ -110,7 +206,103 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 *        	<i>false</i> otherwise.
 	 */
 	public boolean hasQueue(){
-		return !queuedJobs.isEmpty();
+		return !queueTimes.isEmpty();
+	}
+
+	/**
+	 * Gets the number of jobs started by this manager after having been
+	 * queued.
+	 *
+	 * @return	Number of started jobs.
+	 *
+	 * @since 4.6
+	 */
+	public final long getNbStartedJobs(){
+		return nbStartedJobs.get();
+	}
+
+	/**
+	 * Gets the total time spent in the queue by all the jobs started by this
+	 * manager.
+	 *
+	 * @return	Total waiting time (in milliseconds).
+	 *
+	 * @since 4.6
+	 */
+	public final long getTotalWaitTime(){
+		return totalWaitTime.get() / 1000000;
+	}
+
+	/**
+	 * Gets the longest time spent in the queue by a job started by this
+	 * manager.
+	 *
+	 * @return	Longest waiting time (in milliseconds).
+	 *
+	 * @since 4.6
+	 */
+	public final long getMaxWaitTime(){
+		return maxWaitTime.get() / 1000000;
+	}
+
+	/**
+	 * Gets the average time spent in the queue by the jobs started by this
+	 * manager.
+	 *
+	 * @return	Average waiting time (in milliseconds),
+	 *        	or 0 if no job has been started yet.
+	 *
+	 * @since 4.6
+	 */
+	public final double getAverageWaitTime(){
+		long nbJobs = nbStartedJobs.get();
+		return (nbJobs == 0) ? 0 : totalWaitTime.get() / 1000000.0 / nbJobs;
+	}
+
+	/**
+	 * Sets the priority class of all the jobs of the specified owner.
+	 *
+	 * <p><i>Note:
+	 * 	The new priority applies only to the jobs queued after this call.
+	 * </i></p>
+	 *
+	 * @param ownerID	ID of the job owner.
+	 * @param priority	Its priority class. <i>The smaller it is, the sooner the
+	 *                	jobs of this owner are started.</i>
+	 *
+	 * @see #getPriority(UWSJob)
+	 *
+	 * @since 4.6
+	 */
+	public final void setPriority(final String ownerID, final int priority){
+		if (ownerID != null){
+			if (priority == DEFAULT_PRIORITY)
+				ownerPriorities.remove(ownerID);
+			else
+				ownerPriorities.put(ownerID, priority);
+		}
+	}
+
+	/**
+	 * Gets the priority class in which the given job must be queued.
+	 *
+	 * <p>
+	 * 	By default, it is the priority set for the owner of the job (see
+	 * 	{@link #setPriority(String, int)}), or {@link #DEFAULT_PRIORITY}
+	 * 	if the job has no owner or if no priority has been set for it.
+	 * </p>
+	 *
+	 * @param job	The job to queue.
+	 *
+	 * @return	Its priority class. <i>The smaller it is, the sooner the job
+	 *        	is started.</i>
+	 *
+	 * @since 4.6
+	 */
+	protected int getPriority(final UWSJob job){
+		JobOwner owner = job.getOwner();
+		Integer priority = (owner == null || owner.getID() == null) ? null : ownerPriorities.get(owner.getID());
+		return (priority == null) ? DEFAULT_PRIORITY : priority;
 	}
 
 	/**
@@ -118,6 +310,10 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 * function of the result of this function, the given job will be put in the
 	 * queue or it will be executed.
 	 *
+	 * <p><i>Note:
+	 * 	This function is never called by several threads at the same time.
+	 * </i></p>
+	 *
 	 * @param 	jobToExecute
 	 *
 	 * @return	<i>true</i> if the given job can be executed NOW (=&gt; it will
@@ -139,6 +335,12 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 * </i></p>
 	 *
 	 * <p><i>Note:
+	 * 	If another thread is already processing the queue, this function
+	 * 	returns immediately ; the other thread will process the queue again
+	 * 	before returning.
+	 * </i></p>
+	 *
+	 * <p><i>Note:
 	 * 	If any error occurs while refreshing this manager, it SHOULD be logged
 	 * 	using the service logger.
 	 * </i></p>
@@ -150,23 +352,99 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 * @see uws.job.manager.ExecutionManager#refresh()
 	 */
 	@Override
-	public synchronized final void refresh(){
-		// Return immediately if no queue:
-		if (!hasQueue())
+	public final void refresh(){
+		// Return immediately if no queue or if another thread is processing it:
+		if (!hasQueue() || refreshRequests.getAndIncrement() != 0)
 			return;
 
-		// Start the first job of the queue while it can be executed:
-		UWSJob jobToStart;
-		while(!queuedJobs.isEmpty() && isReadyForExecution(queuedJobs.firstElement())){
-			jobToStart = queuedJobs.remove(0);
-			try{
-				startJob(jobToStart);
-			}catch(UWSException ue){
-				logger.logJob(LogLevel.ERROR, jobToStart, "START", "Can not start the job \"" + jobToStart.getJobId() + "\"! This job is not any more part of its execution manager.", ue);
+		// Process the queue until no more refresh is requested:
+		int nbRequests = 1;
+		try{
+			do{
+				startReadyJobs();
+				nbRequests = refreshRequests.addAndGet(-nbRequests);
+			}while(nbRequests != 0);
+		}finally{
+			// in case of unexpected error, let the next refresh process the queue:
+			if (nbRequests != 0)
+				refreshRequests.set(0);
+		}
+	}
+
+	/**
+	 * Start the first job of the queue while it can be executed.
+	 *
+	 * <p><i>Note:
+	 * 	This function is called only by {@link #refresh()}, by only one thread
+	 * 	at a time.
+	 * </i></p>
+	 *
+	 * @since 4.6
+	 */
+	private void startReadyJobs(){
+		for(ConcurrentLinkedQueue<UWSJob> queue : queuedJobs.values()){
+			UWSJob jobToStart;
+			while((jobToStart = queue.peek()) != null){
+				// Skip jobs removed from the queue in the meantime:
+				if (!queueTimes.containsKey(jobToStart)){
+					queue.remove(jobToStart);
+					continue;
+				}
+
+				// Stop as soon as the first queued job can not be executed:
+				if (!isReadyForExecution(jobToStart))
+					return;
+
+				/* Note: the job is dequeued and started under the lock of its
+				 *       phase, so that execute(UWSJob) never sees a job which
+				 *       is dequeued but not yet started (see getLock(UWSJob)). */
+				synchronized(getLock(jobToStart)){
+					// Dequeue the job (unless it has been removed in the meantime):
+					queue.remove(jobToStart);
+					Long queueTime = queueTimes.remove(jobToStart);
+					if (queueTime == null)
+						continue;
+
+					// Update the statistics:
+					long waitTime = System.nanoTime() - queueTime;
+					nbStartedJobs.incrementAndGet();
+					totalWaitTime.addAndGet(waitTime);
+					long max;
+					while((max = maxWaitTime.get()) < waitTime && !maxWaitTime.compareAndSet(max, waitTime))
+						;
+
+					// Start the job:
+					try{
+						startJob(jobToStart);
+					}catch(UWSException ue){
+						logger.logJob(LogLevel.ERROR, jobToStart, "START", "Can not start the job \"" + jobToStart.getJobId() + "\"! This job is not any more part of its execution manager.", ue);
+					}
+				}
 			}
 		}
 	}
 
+	/**
+	 * Get the lock guarding the phase of the given job.
+	 *
+	 * <p>
+	 * 	It is the lock used by {@link UWSJob#setPhase(ExecutionPhase, boolean)}.
+	 * 	This manager holds it while deciding what to do with a job in
+	 * 	{@link #execute(UWSJob)} and while dequeuing and starting it in
+	 * 	{@link #refresh()}. Thus, the phase returned by {@link #execute(UWSJob)}
+	 * 	is never QUEUED while the job is being started by a concurrent refresh.
+	 * </p>
+	 *
+	 * @param job	A job.
+	 *
+	 * @return	The lock of its phase.
+	 *
+	 * @since 4.6
+	 */
+	protected static Object getLock(final UWSJob job){
+		return job.getPhaseManager();
+	}
+
 	/**
 	 * Starts immediately the given job. This job is removed from the list of
 	 * queued jobs and added into the list of running jobs.
@@ -179,10 +457,76 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 */
 	protected void startJob(final UWSJob jobToStartNow) throws UWSException{
 		if (jobToStartNow != null){
-			jobToStartNow.start(false);
-			queuedJobs.remove(jobToStartNow);
+			/* Note: the job is declared as running BEFORE being started,
+			 *       because it may end (and so be removed from this manager)
+			 *       before start(...) returns. Otherwise, it would stay for
+			 *       ever in the list of running jobs and use an execution
+			 *       slot. */
+			dequeue(jobToStartNow);
 			runningJobs.put(jobToStartNow.getJobId(), jobToStartNow);
+			try{
+				jobToStartNow.start(false);
+			}catch(UWSException ue){
+				runningJobs.remove(jobToStartNow.getJobId());
+				throw ue;
+			}catch(RuntimeException re){
+				runningJobs.remove(jobToStartNow.getJobId());
+				throw re;
+			}
+
+			// If the job has already ended, free its execution slot:
+			if (jobToStartNow.isFinished())
+				runningJobs.remove(jobToStartNow.getJobId());
+		}
+	}
+
+	/**
+	 * Put the given job at the end of the queue of its priority class,
+	 * if not already queued.
+	 *
+	 * @param job	The job to queue.
+	 *
+	 * @return	<i>true</i> if the job has been queued,
+	 *        	<i>false</i> if it was already in the queue.
+	 *
+	 * @since 4.6
+	 */
+	protected final boolean enqueue(final UWSJob job){
+		// Get the queue of the job priority class (create it if needed):
+		Integer priority = getPriority(job);
+		ConcurrentLinkedQueue<UWSJob> queue = queuedJobs.get(priority);
+		if (queue == null){
+			queue = new ConcurrentLinkedQueue<UWSJob>();
+			ConcurrentLinkedQueue<UWSJob> existingQueue = queuedJobs.putIfAbsent(priority, queue);
+			if (existingQueue != null)
+				queue = existingQueue;
 		}
+
+		/* Note: the job is declared as queued before being put in the queue,
+		 *       so that it is never considered as removed from the queue
+		 *       while being processed (see startReadyJobs()). */
+		if (queueTimes.putIfAbsent(job, System.nanoTime()) != null)
+			return false;	// already queued by another thread in the meantime
+		queue.add(job);
+		return true;
+	}
+
+	/**
+	 * Remove the given job from the queue.
+	 *
+	 * @param job	The job to remove.
+	 *
+	 * @return	<i>true</i> if the job was in the queue,
+	 *        	<i>false</i> otherwise.
+	 *
+	 * @since 4.6
+	 */
+	protected final boolean dequeue(final UWSJob job){
+		if (queueTimes.remove(job) == null)
+			return false;
+		for(ConcurrentLinkedQueue<UWSJob> queue : queuedJobs.values())
+			queue.remove(job);
+		return true;
 	}
 
 	/**
@@ -209,43 +553,51 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 * @see uws.job.manager.ExecutionManager#execute(UWSJob)
 	 */
 	@Override
-	public synchronized final ExecutionPhase execute(final UWSJob jobToExecute){
+	public final ExecutionPhase execute(final UWSJob jobToExecute){
 		if (jobToExecute == null)
 			return null;
 
 		// Refresh the list of running jobs before all:
 		refresh();
 
-		// If the job is already running, ensure it is in the list of running jobs:
-		if (jobToExecute.isRunning())
-			runningJobs.put(jobToExecute.getJobId(), jobToExecute);
+		boolean queued = false;
+		synchronized(getLock(jobToExecute)){
+			// If the job is already running, ensure it is in the list of running jobs:
+			if (jobToExecute.isRunning())
+				runningJobs.put(jobToExecute.getJobId(), jobToExecute);
 
-		// If the job is already finished, ensure it is not any more in both list of jobs:
-		else if (jobToExecute.isFinished()){
-			runningJobs.remove(jobToExecute);
-			queuedJobs.remove(jobToExecute);
+			// If the job is already finished, ensure it is not any more in both list of jobs:
+			else if (jobToExecute.isFinished()){
+				runningJobs.remove(jobToExecute.getJobId());
+				dequeue(jobToExecute);
 
-		}// Otherwise, change the phase to QUEUED, put it into the queue and then refresh the queue:
-		else{
-			try{
-				if (jobToExecute.getPhase() != ExecutionPhase.QUEUED)
-					jobToExecute.setPhase(ExecutionPhase.QUEUED);
+			}// Otherwise, change the phase to QUEUED and put it into the queue:
+			else{
+				try{
+					if (jobToExecute.getPhase() != ExecutionPhase.QUEUED)
+						jobToExecute.setPhase(ExecutionPhase.QUEUED);
 
-				if (!queuedJobs.contains(jobToExecute)){
-					queuedJobs.add(jobToExecute);
-					refresh();
+					queued = enqueue(jobToExecute);
+				}catch(UWSException ue){
+					// log the error:
+					logger.logJob(LogLevel.ERROR, jobToExecute, "QUEUE", "Can not set the job \"" + jobToExecute.getJobId() + "\" in the QUEUED phase!", ue);
+					// set the phase HELD (meaning it is impossible to set the job into a QUEUED phase):
+					try{
+						jobToExecute.setPhase(ExecutionPhase.HELD);
+					}catch(UWSException e){}
 				}
-			}catch(UWSException ue){
-				// log the error:
-				logger.logJob(LogLevel.ERROR, jobToExecute, "QUEUE", "Can not set the job \"" + jobToExecute.getJobId() + "\" in the QUEUED phase!", ue);
-				// set the phase HELD (meaning it is impossible to set the job into a QUEUED phase):
-				try{
-					jobToExecute.setPhase(ExecutionPhase.HELD);
-				}catch(UWSException e){}
 			}
 		}
 
-		return jobToExecute.getPhase();
+		// Refresh the queue (outside the lock, since it may start other jobs):
+		if (queued)
+			refresh();
+
+		/* Note: the phase is read under the lock, so that it is not read while
+		 *       a concurrent refresh is starting the job: */
+		synchronized(getLock(jobToExecute)){
+			return jobToExecute.getPhase();
+		}
 	}
 
 	/**
@@ -260,31 +612,36 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 	 * @see uws.job.manager.ExecutionManager#remove(uws.job.UWSJob)
 	 */
 	@Override
-	public final synchronized void remove(final UWSJob jobToRemove){
+	public final void remove(final UWSJob jobToRemove){
 		if (jobToRemove != null){
 			runningJobs.remove(jobToRemove.getJobId());
-			queuedJobs.remove(jobToRemove);
+			dequeue(jobToRemove);
 			refresh();
 		}
 	}
 
 	@Override
-	public final synchronized void stopAll(){
-		// Set back all queued jobs to the PENDING phase:
-		for(UWSJob qj : queuedJobs){
-			try{
-				qj.setPhase(ExecutionPhase.PENDING, true);
-			}catch(UWSException ue){
-				if (logger != null)
-					logger.logJob(LogLevel.WARNING, qj, "ABORT", "Can not set back the job to the PENDING phase.", ue);
+	public final void stopAll(){
+		// Empty the queue and set back all queued jobs to the PENDING phase:
+		Iterator<UWSJob> it = getQueuedJobs();
+		while(it.hasNext()){
+			UWSJob qj = it.next();
+			if (dequeue(qj)){
+				try{
+					qj.setPhase(ExecutionPhase.PENDING, true);
+				}catch(UWSException ue){
+					if (logger != null)
+						logger.logJob(LogLevel.WARNING, qj, "ABORT", "Can not set back the job to the PENDING phase.", ue);
+				}
 			}
 		}
 
-		// Empty the queue:
-		queuedJobs.clear();
-
 		// Stop all running jobs and set them back to the PENDING phase:
-		for(UWSJob rj : runningJobs.values()){
+		Iterator<UWSJob> itRunning = runningJobs.values().iterator();
+		while(itRunning.hasNext()){
+			UWSJob rj = itRunning.next();
+			// Remove it from the list of running jobs:
+			itRunning.remove();
 			try{
 				// Stop the job:
 				rj.abort();
@@ -295,8 +652,5 @@ public abstract class AbstractQueuedExecutionManager implements ExecutionManager
 					logger.logJob(LogLevel.WARNING, rj, "ABORT", "Can not stop the job nicely. The thread may continue to run until its end.", ue);
 			}
 		}
-
-		// Empty the list of running jobs:
-		runningJobs.clear();
 	}
 }
@@ -23,12 +23,13 @@ package uws.job.manager;
 import java.io.Serializable;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.TreeSet;
+import java.util.concurrent.ScheduledFuture;
 
 import uws.job.ExecutionPhase;
 import uws.job.UWSJob;
+import uws.service.UWSFactory;
+import uws.service.UWSScheduler;
 
 /**
  * The default implementation of the {@link DestructionManager} interface. Its
@@ -43,6 +44,12 @@ import uws.job.UWSJob;
  * </p>
  *
  * <p>
+ * 	Since v4.6, this timer is a task of the {@link UWSScheduler} of the UWS
+ * 	(see {@link UWSFactory#getScheduler()}) ; no thread is dedicated to a
+ * 	destruction manager any more.
+ * </p>
+ *
+ * <p>
  * 	The list of jobs to destroy is supposed to be updated each time the
  * 	destruction time of a job is changed. This update works only if the job
  * 	knows its jobs list ({@link UWSJob#getJobList()} != null) and its jobs list
@@ -53,11 +60,11 @@ import uws.job.UWSJob;
  * 	The {@link #stop()} function lets stop this manager to watch for
  * 	destructions of job until {@link #refresh()} or {@link #update(UWSJob)} or
  * 	{@link #remove(UWSJob)} is called. When stopped, the inner timer is canceled
- * 	and set to NULL ; no more thread resources is used.
+ * 	and set to NULL.
  * </i></p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (09/2017)
+ * @version 4.6 (10/2026)
  */
 public class DefaultDestructionManager implements DestructionManager {
 	private static final long serialVersionUID = 1L;
@@ -71,7 +78,7 @@ public class DefaultDestructionManager implements DestructionManager {
 	 * 	Once the date-time indicated by this timer is reached the job is
 	 * 	destroyed and removed from the jobs list.
 	 * </p> */
-	protected transient Timer timDestruction = null;
+	protected transient ScheduledFuture<?> timDestruction = null;
 
 	/** The job currently planned for destruction. This job will be destroyed by
 	 * the timer timDestruction. */
@@ -108,12 +115,31 @@ public class DefaultDestructionManager implements DestructionManager {
 	@Override
 	public synchronized final void stop(){
 		if (timDestruction != null)
-			timDestruction.cancel();
+			timDestruction.cancel(false);
 		timDestruction = null;
 		currentDate = null;
 		currentJob = null;
 	}
 
+	/**
+	 * Get the scheduler to use to destroy the given job.
+	 *
+	 * @param job	The job to destroy.
+	 *
+	 * @return	The scheduler of the UWS of the given job,
+	 *        	or the shared one if none can be found.
+	 *
+	 * @see UWSFactory#getScheduler()
+	 * @see UWSScheduler#getShared()
+	 *
+	 * @since 4.6
+	 */
+	protected UWSScheduler getScheduler(final UWSJob job){
+		UWSFactory factory = job.getFactory();
+		UWSScheduler scheduler = (factory == null) ? null : factory.getScheduler();
+		return (scheduler == null) ? UWSScheduler.getShared() : scheduler;
+	}
+
 	/**
 	 * Merely destroys the given job
 	 * (if not NULL and not {@link ExecutionPhase#ARCHIVED ARCHIVED}).
@@ -212,12 +238,12 @@ public class DefaultDestructionManager implements DestructionManager {
 			}
 			// restart the timer:
 			if (currentJob != null){
-				timDestruction = new Timer();
+				final UWSJob jobToDestroy = currentJob;
 				currentDate = currentJob.getDestructionTime();
-				timDestruction.schedule(new TimerTask(){
+				timDestruction = getScheduler(currentJob).schedule(new Runnable(){
 					@Override
 					public void run(){
-						destroyJob(currentJob);
+						destroyJob(jobToDestroy);
 					}
 				}, currentDate);
 			}
@@ -16,7 +16,7 @@ package uws.job.manager;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012,2014 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -29,13 +29,18 @@ import uws.service.log.UWSLog;
  * if there are more running jobs than a given number, the jobs to execute are put in the queue until a running job stops.
  * The order of queued jobs are preserved: it is implemented by a FIFO queue.</p>
  * 
+ * <p>
+ * 	The number of running jobs is also the number of used execution slots.
+ * 	The proportion of used slots can be got with {@link #getSlotUtilisation()}.
+ * </p>
+ * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.1 (08/2014)
+ * @version 4.6 (10/2026)
  */
 public class QueuedExecutionManager extends AbstractQueuedExecutionManager {
 
 	/** The maximum number of running jobs. */
-	protected int nbMaxRunningJobs = NO_QUEUE;
+	protected volatile int nbMaxRunningJobs = NO_QUEUE;
 
 	/** The value of {@link #nbMaxRunningJobs} which indicates that there is no queue. */
 	public final static int NO_QUEUE = Integer.MAX_VALUE;
@@ -100,6 +105,20 @@ public class QueuedExecutionManager extends AbstractQueuedExecutionManager {
 		refresh();
 	}
 
+	/**
+	 * Gets the proportion of execution slots currently used by running jobs.
+	 * 
+	 * @return	The number of running jobs divided by the maximum number of
+	 *        	running jobs (may be greater than 1 if this maximum has been
+	 *        	decreased), or 0 if there is no queue.
+	 * 
+	 * @since 4.6
+	 */
+	public final double getSlotUtilisation(){
+		int max = nbMaxRunningJobs;
+		return (max == NO_QUEUE) ? 0 : getNbRunningJobs() / (double)max;
+	}
+
 	@Override
 	public final boolean isReadyForExecution(final UWSJob jobToExecute){
 		if (!hasQueue())
@@ -16,10 +16,12 @@ package uws.job.serializer;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2018 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.Writer;
+
 import org.json.JSONException;
 import org.json.Json4Uws;
 
@@ -37,7 +39,7 @@ import uws.service.UWSUrl;
  * Lets serializing any UWS resource in JSON.
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (03/2018)
+ * @version 4.6 (10/2026)
  *
  * @see Json4Uws
  */
@@ -59,6 +61,11 @@ public class JSONSerializer extends UWSSerializer {
 		return Json4Uws.getJson(jobsList, owner, listRefiner).toString();
 	}
 
+	@Override
+	public void writeJobList(final JobList jobsList, final JobOwner owner, final JobListRefiner listRefiner, final boolean root, final Writer output) throws JSONException{
+		Json4Uws.writeJson(jobsList, owner, listRefiner, output);
+	}
+
 	@Override
 	public String getJob(final UWSJob job, final boolean root) throws JSONException{
 		return Json4Uws.getJson(job, null, false).toString();
@@ -16,11 +16,12 @@ package uws.job.serializer;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2018 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.io.Serializable;
+import java.io.Writer;
 
 import uws.ISO8601Format;
 import uws.UWSException;
@@ -41,8 +42,20 @@ import uws.service.UWSUrl;
  * 	<li>JSON by the class {@link JSONSerializer}</li>
  * </ul>
  *
+ * <p>
+ * 	The UWS, a jobs list and a job can also be written directly in a
+ * 	{@link Writer} (see {@link #writeUWS(UWS, JobOwner, Writer)},
+ * 	{@link #writeJobList(JobList, JobOwner, JobListRefiner, boolean, Writer)}
+ * 	and {@link #writeJob(UWSJob, boolean, Writer)}). By default, these
+ * 	functions just write the string returned by the corresponding
+ * 	<code>get...(...)</code> function, but a serializer should rather
+ * 	override them so that the serialization is written incrementally
+ * 	(e.g. one job after the other). Thus, the memory needed to serialize a
+ * 	jobs list does not depend any more on its size.
+ * </p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (10/2017)
+ * @version 4.6 (10/2026)
  *
  * @see XMLSerializer
  * @see JSONSerializer
@@ -198,6 +211,27 @@ public abstract class UWSSerializer implements Serializable {
 	 */
 	public abstract String getUWS(final UWS uws, final JobOwner user) throws Exception;
 
+	/**
+	 * Serializes the given UWS for the specified user directly in the given
+	 * output.
+	 *
+	 * <p><i>Note:
+	 * 	By default, the result of {@link #getUWS(UWS, JobOwner)} is written.
+	 * </i></p>
+	 *
+	 * @param uws		The UWS to serialize.
+	 * @param user		The user which has asked the serialization of the given UWS.
+	 * @param output	The output in which the serialization must be written.
+	 *
+	 * @throws Exception	If there is an error during the serialization
+	 *                  	or while writing in the given output.
+	 *
+	 * @since 4.6
+	 */
+	public void writeUWS(final UWS uws, final JobOwner user, final Writer output) throws Exception{
+		output.write(getUWS(uws, user));
+	}
+
 	/**
 	 * Serializes the given jobs list.
 	 *
@@ -261,6 +295,40 @@ public abstract class UWSSerializer implements Serializable {
 	 */
 	public abstract String getJobList(final JobList jobsList, JobOwner owner, final JobListRefiner listRefiner, final boolean root) throws Exception;
 
+	/**
+	 * Serializes the given jobs list directly in the given output, by
+	 * filtering using user-specified filters.
+	 *
+	 * <p><i>Note:
+	 * 	By default, the result of
+	 * 	{@link #getJobList(JobList, JobOwner, JobListRefiner, boolean)} is
+	 * 	written. Serializers should override this function so that jobs are
+	 * 	written one after the other, as soon as they are serialized.
+	 * </i></p>
+	 *
+	 * @param jobsList		The jobs list to serialize.
+	 * @param owner			The user which has asked the serialization of the
+	 *             			given jobs list. If NULL, all anonymous jobs are
+	 *             			displayed.
+	 * @param listRefiner	Represent all the specified job filters to apply ;
+	 *                    	only the job that pass through this filter should be
+	 *                    	displayed. If NULL, all jobs are displayed.
+	 * @param root			<code>false</code> if the jobs list to serialize
+	 *            			will be included in a top level serialization (for a
+	 *            			jobs list: uws),
+	 *            			<code>true</code> otherwise.
+	 * @param output		The output in which the serialization must be
+	 *              		written.
+	 *
+	 * @throws Exception	If there is an error during the serialization
+	 *                  	or while writing in the given output.
+	 *
+	 * @since 4.6
+	 */
+	public void writeJobList(final JobList jobsList, final JobOwner owner, final JobListRefiner listRefiner, final boolean root, final Writer output) throws Exception{
+		output.write(getJobList(jobsList, owner, listRefiner, root));
+	}
+
 	/**
 	 * Serializes the whole given job.
 	 *
@@ -274,6 +342,27 @@ public abstract class UWSSerializer implements Serializable {
 	 */
 	public abstract String getJob(final UWSJob job, final boolean root) throws Exception;
 
+	/**
+	 * Serializes the whole given job directly in the given output.
+	 *
+	 * <p><i>Note:
+	 * 	By default, the result of {@link #getJob(UWSJob, boolean)} is written.
+	 * </i></p>
+	 *
+	 * @param job			The job to serialize.
+	 * @param root			<i>false</i> if the job to serialize will be included
+	 * 						in a top level serialization (for a job: jobList), <i>true</i> otherwise.
+	 * @param output		The output in which the serialization must be written.
+	 *
+	 * @throws Exception	If there is an error during the serialization
+	 *                  	or while writing in the given output.
+	 *
+	 * @since 4.6
+	 */
+	public void writeJob(final UWSJob job, final boolean root, final Writer output) throws Exception{
+		output.write(getJob(job, root));
+	}
+
 	/**
 	 * Serializes just a reference on the given job.
 	 *
@@ -16,11 +16,14 @@ package uws.job.serializer;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2018 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLEncoder;
 import java.util.Iterator;
 
@@ -40,8 +43,16 @@ import uws.service.request.UploadFile;
 /**
  * Lets serializing any UWS resource in XML.
  *
+ * <p><i>Note:
+ * 	The UWS, jobs lists and jobs are serialized directly in a {@link Writer}
+ * 	(see {@link #writeUWS(UWS, JobOwner, Writer)},
+ * 	{@link #writeJobList(JobList, JobOwner, JobListRefiner, boolean, Writer)}
+ * 	and {@link #writeJob(UWSJob, boolean, Writer)}) ; the corresponding
+ * 	<code>get...(...)</code> functions just collect what they write.
+ * </i></p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (04/2018)
+ * @version 4.6 (10/2026)
  */
 public class XMLSerializer extends UWSSerializer {
 	private static final long serialVersionUID = 1L;
@@ -148,105 +159,131 @@ public class XMLSerializer extends UWSSerializer {
 
 	@Override
 	public String getUWS(final UWS uws, final JobOwner user){
+		StringWriter output = new StringWriter();
+		try{
+			writeUWS(uws, user, output);
+		}catch(IOException ioe){
+			// never happens with a StringWriter!
+		}
+		return output.toString();
+	}
+
+	@Override
+	public void writeUWS(final UWS uws, final JobOwner user, final Writer output) throws IOException{
 		String name = uws.getName(), description = uws.getDescription();
-		StringBuffer xml = new StringBuffer(getHeader());
+		output.write(getHeader());
 
-		xml.append("<uws version=\"").append(UWS.VERSION).append('"').append(getUWSNamespace(true));
+		output.append("<uws version=\"").append(UWS.VERSION).append('"').append(getUWSNamespace(true));
 		if (name != null)
-			xml.append(" name=\"").append(escapeXMLAttribute(name)).append('"');
-		xml.append(">\n");
+			output.append(" name=\"").append(escapeXMLAttribute(name)).append('"');
+		output.write(">\n");
 
 		if (description != null)
-			xml.append("\t<description>\n").append(escapeXMLData(description)).append("\n\t</description>\n");
+			output.append("\t<description>\n").append(escapeXMLData(description)).append("\n\t</description>\n");
 
-		xml.append("\t<jobLists>\n");
+		output.write("\t<jobLists>\n");
 		for(JobList jobList : uws){
 			UWSUrl jlUrl = jobList.getUrl();
-			xml.append("\t\t<jobListRef name=\"").append(escapeXMLAttribute(jobList.getName())).append('"');
+			output.append("\t\t<jobListRef name=\"").append(escapeXMLAttribute(jobList.getName())).append('"');
 
 			/* The XLink attributes are optional. So if no URL is available for
 			 * this Job List reference, none is written here: */
 			if (jlUrl != null && jlUrl.getRequestURL() != null)
-				xml.append(" xlink:type=\"simple\" xlink:href=\"").append(escapeXMLAttribute(jlUrl.getRequestURL())).append('"');
+				output.append(" xlink:type=\"simple\" xlink:href=\"").append(escapeXMLAttribute(jlUrl.getRequestURL())).append('"');
 
-			xml.append(" />\n");
+			output.write(" />\n");
 		}
-		xml.append("\t</jobLists>\n");
+		output.write("\t</jobLists>\n");
 
-		xml.append("</uws>\n");
-
-		return xml.toString();
+		output.write("</uws>\n");
 	}
 
 	@Override
 	public String getJobList(final JobList jobsList, final JobOwner owner, final JobListRefiner listRefiner, final boolean root) throws Exception{
-		StringBuffer xml = new StringBuffer(getHeader());
+		StringWriter output = new StringWriter();
+		writeJobList(jobsList, owner, listRefiner, root, output);
+		return output.toString();
+	}
 
-		xml.append("<jobs version=\"").append(UWS.VERSION).append('"').append(getUWSNamespace(true));
+	@Override
+	public void writeJobList(final JobList jobsList, final JobOwner owner, final JobListRefiner listRefiner, final boolean root, final Writer output) throws Exception{
+		output.write(getHeader());
+
+		output.append("<jobs version=\"").append(UWS.VERSION).append('"').append(getUWSNamespace(true));
 		/* NOTE: NO ATTRIBUTE "name" IN THE XML SCHEMA!
 		 * String name = jobsList.getName();
 		 * if (name != null)
 		 * 	xml.append(" name=\"").append(escapeXMLAttribute(name)).append("\"");
 		 */
-		xml.append('>');
+		output.write('>');
 
 		UWSUrl jobsListUrl = jobsList.getUrl();
 
-		// Security filter: retrieve only the jobs of the specified owner:
-		Iterator<UWSJob> it = jobsList.getJobs(owner);
+		/* Security filter: retrieve only the jobs of the specified owner
+		 * + User filter: filter the jobs in function of filters specified by
+		 *   the user: */
+		Iterator<UWSJob> it = (listRefiner == null) ? jobsList.getJobs(owner) : listRefiner.refine(jobsList, owner);
 
-		/* User filter: filter the jobs in function of filters specified by the
-		 * user: */
-		if (listRefiner != null)
-			it = listRefiner.refine(it);
-
-		// Append the jobs' description:
+		// Write the jobs' description, one after the other:
 		while(it.hasNext())
-			xml.append("\n\t").append(getJobRef(it.next(), jobsListUrl));
-
-		xml.append("\n</jobs>");
+			output.append("\n\t").append(getJobRef(it.next(), jobsListUrl));
 
-		return xml.toString();
+		output.write("\n</jobs>");
 	}
 
 	@Override
 	public String getJob(final UWSJob job, final boolean root) throws UWSException{
-		StringBuffer xml = new StringBuffer(root ? getHeader() : "");
+		StringWriter output = new StringWriter();
+		try{
+			writeJob(job, root, output);
+		}catch(IOException ioe){
+			// never happens with a StringWriter!
+		}
+		return output.toString();
+	}
+
+	@Override
+	public void writeJob(final UWSJob job, final boolean root, final Writer output) throws UWSException, IOException{
+		if (root)
+			output.write(getHeader());
 		String newLine = "\n\t";
 
 		// general information:
-		xml.append("<job version=\"").append(UWS.VERSION).append('"').append(getUWSNamespace(root)).append('>');
-		xml.append(newLine).append(getJobID(job, false));
+		output.append("<job version=\"").append(UWS.VERSION).append('"').append(getUWSNamespace(root)).append('>');
+		output.append(newLine).append(getJobID(job, false));
 		if (job.getRunId() != null)
-			xml.append(newLine).append(getRunID(job, false));
-		xml.append(newLine).append(getOwnerID(job, false));
-		xml.append(newLine).append(getPhase(job, false));
-		xml.append(newLine).append(getQuote(job, false));
-		xml.append(newLine).append(getCreationTime(job, false));
-		xml.append(newLine).append(getStartTime(job, false));
-		xml.append(newLine).append(getEndTime(job, false));
-		xml.append(newLine).append(getExecutionDuration(job, false));
-		xml.append(newLine).append(getDestructionTime(job, false));
+			output.append(newLine).append(getRunID(job, false));
+		output.append(newLine).append(getOwnerID(job, false));
+		output.append(newLine).append(getPhase(job, false));
+		output.append(newLine).append(getQuote(job, false));
+		output.append(newLine).append(getCreationTime(job, false));
+		output.append(newLine).append(getStartTime(job, false));
+		output.append(newLine).append(getEndTime(job, false));
+		output.append(newLine).append(getExecutionDuration(job, false));
+		output.append(newLine).append(getDestructionTime(job, false));
 
 		tabPrefix = "\t";
 		newLine = "\n";
 
-		// parameters:
-		xml.append(newLine).append(getAdditionalParameters(job, false));
+		try{
+			// parameters:
+			output.append(newLine).append(getAdditionalParameters(job, false));
 
-		// results:
-		xml.append(newLine).append(getResults(job, false));
+			// results:
+			output.append(newLine).append(getResults(job, false));
 
-		// errorSummary:
-		if (job.getErrorSummary() != null)
-			xml.append(newLine).append(getErrorSummary(job.getErrorSummary(), false));
+			// errorSummary:
+			if (job.getErrorSummary() != null)
+				output.append(newLine).append(getErrorSummary(job.getErrorSummary(), false));
 
-		// jobInfo:
-		if (job.getJobInfo() != null)
-			xml.append(newLine).append(getJobInfo(job));
+			// jobInfo:
+			if (job.getJobInfo() != null)
+				output.append(newLine).append(getJobInfo(job));
+		}finally{
+			tabPrefix = "";
+		}
 
-		tabPrefix = "";
-		return xml.append("\n</job>").toString();
+		output.write("\n</job>");
 	}
 
 	@Override
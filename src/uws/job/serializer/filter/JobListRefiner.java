@@ -16,7 +16,8 @@ package uws.job.serializer.filter;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2017-2018 - Astronomisches Rechen Institut (ARI)
+ * Copyright 2017-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.text.ParseException;
@@ -25,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
@@ -35,7 +37,9 @@ import javax.servlet.http.HttpServletRequest;
 import uws.ISO8601Format;
 import uws.UWSException;
 import uws.job.ExecutionPhase;
+import uws.job.JobList;
 import uws.job.UWSJob;
+import uws.job.user.JobOwner;
 
 /**
  * Let filter (and optionally order) a list of jobs according to the filter
@@ -77,8 +81,15 @@ import uws.job.UWSJob;
  * 	existed.
  * </i></p>
  *
- * @author Gr&eacute;gory Mantelet (ARI)
- * @version 4.3 (10/2017)
+ * <p><i>Note:
+ * 	When possible, {@link #refine(JobList, JobOwner)} reads the jobs directly
+ * 	from the phase and creation time indexes of the jobs list (see
+ * 	{@link JobList#getJobs(java.util.Collection, Date)}) instead of scanning
+ * 	and sorting the whole list.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (ARI;CDS)
+ * @version 4.6 (10/2026)
  * @since 4.3
  */
 public class JobListRefiner {
@@ -306,15 +317,9 @@ public class JobListRefiner {
 	 *
 	 * @return	The filtered (and eventually sorted/limited) job list.
 	 */
-	@SuppressWarnings("rawtypes")
 	public Iterator<UWSJob> refine(final Iterator<UWSJob> jobList){
 		// Remove all items of the last filtering result:
-		if (this.jobList instanceof AbstractList)
-			((AbstractList)this.jobList).clear();
-		else{
-			while(!this.jobList.isEmpty())
-				this.jobList.remove(0);
-		}
+		clearJobList();
 
 		// Filters the given jobs with the simple job filters:
 		UWSJob job;
@@ -335,6 +340,95 @@ public class JobListRefiner {
 			return new TopIterator(this.jobList, topSize, reverseOrder);
 	}
 
+	/**
+	 * Filter (and eventually sort and/or limit in size) the jobs of the given
+	 * jobs list which are visible by the given user.
+	 *
+	 * <p>
+	 * 	If the only filters are the default ones (i.e. {@link PhasesFilter},
+	 * 	{@link NoArchivedFilter} and {@link AfterFilter}, with an optional
+	 * 	LAST), the jobs are read from the indexes of the jobs list (see
+	 * 	{@link JobList#getJobs(JobOwner, java.util.Collection, Date, boolean)}),
+	 * 	by descending creation time with LAST and by ascending creation time
+	 * 	otherwise ; the reading stops as soon as enough jobs have been found.
+	 * 	Thus, the cost of a request like <code>?PHASE=EXECUTING&LAST=20</code>
+	 * 	does not depend any more on the total number of jobs, whether all
+	 * 	users' jobs or only the jobs of the given user are requested.
+	 * </p>
+	 *
+	 * <p>
+	 * 	Otherwise, this function behaves exactly like
+	 * 	<code>{@link #refine(Iterator) refine}(jobList.getJobs(owner))</code>.
+	 * </p>
+	 *
+	 * @param jobList	Job list whose the jobs must be filtered.
+	 * @param owner		The user who asks for the jobs.
+	 *             		<i>If NULL, all jobs are taken into account.</i>
+	 *
+	 * @return	The filtered (and eventually sorted/limited) job list.
+	 *
+	 * @since 4.6
+	 */
+	public Iterator<UWSJob> refine(final JobList jobList, final JobOwner owner){
+		/* The indexes can be used only if the jobs would be sorted by
+		 * creation time: */
+		if (sortComp != null && !(sortComp instanceof JobComparator))
+			return refine(jobList.getJobs(owner));
+
+		// Translate the filters into index criteria:
+		EnumSet<ExecutionPhase> phases = null;
+		Date after = null;
+		for(JobFilter filter : filters){
+			if (filter instanceof PhasesFilter && phases == null)
+				phases = EnumSet.copyOf(((PhasesFilter)filter).getPhases());
+			else if (filter != null && filter.getClass() == NoArchivedFilter.class && phases == null)
+				phases = EnumSet.complementOf(EnumSet.of(ExecutionPhase.ARCHIVED));
+			else if (filter instanceof AfterFilter){
+				if (after == null || ((AfterFilter)filter).getDate().after(after))
+					after = ((AfterFilter)filter).getDate();
+			}
+			// unknown filter => the whole list must be scanned:
+			else
+				return refine(jobList.getJobs(owner));
+		}
+
+		// Remove all items of the last filtering result:
+		clearJobList();
+
+		/* Keep the matching jobs (the filters are still applied in case a job
+		 * phase changed in the meantime) until there are enough of them.
+		 * Without LAST, jobs are listed by ascending creation time as they
+		 * would be in the jobs list: */
+		Iterator<UWSJob> it = jobList.getJobs(owner, phases, after, (sortComp == null));
+		UWSJob job;
+		while(it.hasNext() && (topSize < 0 || this.jobList.size() < topSize)){
+			job = it.next();
+			if (match(job))
+				this.jobList.add(job);
+		}
+
+		// The topSize first jobs may have to be returned in the reverse order (as TopIterator does):
+		if (reverseOrder && topSize >= 0)
+			Collections.reverse(this.jobList);
+
+		return this.jobList.iterator();
+	}
+
+	/**
+	 * Remove all items of the last filtering result.
+	 *
+	 * @since 4.6
+	 */
+	@SuppressWarnings("rawtypes")
+	protected final void clearJobList(){
+		if (this.jobList instanceof AbstractList)
+			((AbstractList)this.jobList).clear();
+		else{
+			while(!this.jobList.isEmpty())
+				this.jobList.remove(0);
+		}
+	}
+
 	/**
 	 * Tell whether the given job matches all the job filters.
 	 *
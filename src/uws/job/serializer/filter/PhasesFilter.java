@@ -16,10 +16,12 @@ package uws.job.serializer.filter;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2017 - Astronomisches Rechen Institut (ARI)
+ * Copyright 2017-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import uws.job.ExecutionPhase;
@@ -39,8 +41,8 @@ import uws.job.UWSJob;
  * 	phases by using the function {@link #add(ExecutionPhase)}.
  * </p>
  *
- * @author Gr&eacute;gory Mantelet (ARI)
- * @version 4.3 (10/2017)
+ * @author Gr&eacute;gory Mantelet (ARI;CDS)
+ * @version 4.6 (10/2026)
  * @since 4.3
  */
 public final class PhasesFilter implements JobFilter {
@@ -83,6 +85,17 @@ public final class PhasesFilter implements JobFilter {
 			phases.add(phase);
 	}
 
+	/**
+	 * Get the list of accepted phases.
+	 *
+	 * @return	An unmodifiable list of the accepted phases.
+	 *
+	 * @since 4.6
+	 */
+	public List<ExecutionPhase> getPhases(){
+		return Collections.unmodifiableList(phases);
+	}
+
 	@Override
 	public boolean match(final UWSJob job){
 		if (job == null)
@@ -50,7 +50,7 @@ import uws.service.request.UWSRequestParser;
  * needs to be implemented.
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (09/2017)
+ * @version 4.6 (10/2026)
  */
 public abstract class AbstractUWSFactory implements UWSFactory {
 
@@ -39,7 +39,7 @@ import uws.service.request.RequestParser;
  * Let's creating UWS jobs, their threads and extracting their parameters from {@link HttpServletRequest}.
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (09/2017)
+ * @version 4.6 (10/2026)
  *
  * @see UWS#getFactory()
  */
@@ -137,4 +137,21 @@ public interface UWSFactory {
 	 */
 	public RequestParser createRequestParser(final UWSFileManager manager) throws UWSException;
 
+	/**
+	 * Get the scheduler to use for all the delayed and periodic tasks of the
+	 * UWS (e.g. destruction of jobs, automatic backup, execution timeout).
+	 *
+	 * <p><i>Note:
+	 * 	By default, the scheduler shared by all UWS services of the JVM is
+	 * 	returned (see {@link UWSScheduler#getShared()}).
+	 * </i></p>
+	 *
+	 * @return	The scheduler to use.
+	 *
+	 * @since 4.6
+	 */
+	public default UWSScheduler getScheduler(){
+		return UWSScheduler.getShared();
+	}
+
 }
@@ -0,0 +1,288 @@
+package uws.service;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.util.Date;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uws.job.JobThread;
+
+/**
+ * <p>Scheduler of all the delayed and periodic tasks of a UWS.</p>
+ *
+ * <p>
+ * 	It replaces the {@link java.util.Timer}s (and so, their thread) that
+ * 	were created by each destruction manager, each backup manager and each
+ * 	executing job. All these tasks are now sorted by execution time in the
+ * 	single queue of this scheduler and run by a small and fixed number of
+ * 	threads (see {@link #getNbThreads()}).
+ * </p>
+ *
+ * <p>
+ * 	By default, all UWS services and jobs lists of a JVM share the same
+ * 	scheduler (see {@link #getShared()} and {@link UWSFactory#getScheduler()}).
+ * 	Its threads are daemon threads and they stop when they have nothing to do
+ * 	for a while: an idle scheduler does not use any thread.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	Tasks are run by a few threads. So, they should be short ; a long task
+ * 	(e.g. a backup) delays the other tasks which should be run at the same
+ * 	time. Such task should rather be given to {@link #execute(Runnable)}: it
+ * 	is then run by another small and fixed set of threads (see
+ * 	{@link #getNbWorkers()}), which also stop when idle.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ */
+public class UWSScheduler {
+
+	/** Default number of threads of a scheduler. */
+	public final static int DEFAULT_NB_THREADS = 2;
+
+	/** Default number of threads running the long tasks of a scheduler
+	 * (see {@link #execute(Runnable)}). */
+	public final static int DEFAULT_NB_WORKERS = 1;
+
+	/** Duration (in seconds) after which an idle thread stops. */
+	protected final static long KEEP_ALIVE_TIME = 60;
+
+	/** Scheduler shared by all UWS services of this JVM. */
+	private static UWSScheduler shared = null;
+
+	/** Executor running the scheduled tasks. */
+	protected final ScheduledThreadPoolExecutor executor;
+
+	/** Executor running the long tasks (see {@link #execute(Runnable)}). */
+	protected final ThreadPoolExecutor workers;
+
+	/**
+	 * Build a scheduler with {@link #DEFAULT_NB_THREADS} threads.
+	 */
+	public UWSScheduler() {
+		this(DEFAULT_NB_THREADS);
+	}
+
+	/**
+	 * Build a scheduler with the given number of threads, and
+	 * {@link #DEFAULT_NB_WORKERS} threads for the long tasks.
+	 *
+	 * @param nbThreads	Maximum number of threads running the scheduled tasks.
+	 *                 	<i>If negative or null, 1 is used.</i>
+	 */
+	public UWSScheduler(final int nbThreads) {
+		this(nbThreads, DEFAULT_NB_WORKERS);
+	}
+
+	/**
+	 * Build a scheduler with the given numbers of threads.
+	 *
+	 * @param nbThreads	Maximum number of threads running the scheduled tasks.
+	 *                 	<i>If negative or null, 1 is used.</i>
+	 * @param nbWorkers	Maximum number of threads running the long tasks
+	 *                 	(see {@link #execute(Runnable)}).
+	 *                 	<i>If negative or null, 1 is used.</i>
+	 */
+	public UWSScheduler(final int nbThreads, final int nbWorkers) {
+		executor = new ScheduledThreadPoolExecutor(Math.max(1, nbThreads), createThreadFactory("UWS_SCHEDULER_"));
+		executor.setRemoveOnCancelPolicy(true);
+		executor.setKeepAliveTime(KEEP_ALIVE_TIME, TimeUnit.SECONDS);
+		executor.allowCoreThreadTimeOut(true);
+
+		workers = new ThreadPoolExecutor(Math.max(1, nbWorkers), Math.max(1, nbWorkers), KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), createThreadFactory("UWS_WORKER_"));
+		workers.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Create a factory of daemon threads whose name starts with the given
+	 * prefix.
+	 *
+	 * @param prefix	Prefix of the threads name.
+	 *
+	 * @return	The thread factory.
+	 */
+	private static ThreadFactory createThreadFactory(final String prefix) {
+		return new ThreadFactory() {
+			private final AtomicInteger nbCreatedThreads = new AtomicInteger(0);
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				Thread t = new Thread(JobThread.tg, r, prefix + nbCreatedThreads.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		};
+	}
+
+	/**
+	 * Get the scheduler shared by all UWS services of this JVM.
+	 *
+	 * <p><i>Note:
+	 * 	This scheduler should never be shut down.
+	 * </i></p>
+	 *
+	 * @return	The shared scheduler.
+	 */
+	public static synchronized UWSScheduler getShared() {
+		if (shared == null)
+			shared = new UWSScheduler();
+		return shared;
+	}
+
+	/**
+	 * Get the maximum number of threads running the scheduled tasks.
+	 *
+	 * @return	Maximum number of threads.
+	 */
+	public final int getNbThreads() {
+		return executor.getCorePoolSize();
+	}
+
+	/**
+	 * Get the maximum number of threads running the long tasks
+	 * (see {@link #execute(Runnable)}).
+	 *
+	 * @return	Maximum number of threads.
+	 */
+	public final int getNbWorkers() {
+		return workers.getCorePoolSize();
+	}
+
+	/**
+	 * Get the number of tasks waiting for their execution.
+	 *
+	 * @return	Number of scheduled tasks.
+	 */
+	public int getNbScheduledTasks() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * Run the given task after the given delay.
+	 *
+	 * @param task	The task to run.
+	 * @param delay	Delay (in milliseconds) before running the task.
+	 *
+	 * @return	The scheduled task (it can be cancelled),
+	 *        	or NULL if this scheduler has been shut down.
+	 */
+	public ScheduledFuture<?> schedule(final Runnable task, final long delay) {
+		if (executor.isShutdown())
+			return null;
+		return executor.schedule(task, Math.max(0, delay), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Run the given task at the given date.
+	 *
+	 * @param task	The task to run.
+	 * @param date	Date at which the task must be run.
+	 *            	<i>If past, the task is run immediately.</i>
+	 *
+	 * @return	The scheduled task (it can be cancelled),
+	 *        	or NULL if this scheduler has been shut down.
+	 */
+	public ScheduledFuture<?> schedule(final Runnable task, final Date date) {
+		return schedule(task, date.getTime() - System.currentTimeMillis());
+	}
+
+	/**
+	 * Run periodically the given task.
+	 *
+	 * <p><i>Note:
+	 * 	If an execution of the task throws an exception, the next executions
+	 * 	are cancelled. So, the task should catch all its errors.
+	 * </i></p>
+	 *
+	 * @param task			The task to run.
+	 * @param initialDelay	Delay (in milliseconds) before the first run.
+	 * @param period		Time (in milliseconds) between two successive runs.
+	 *
+	 * @return	The scheduled task (it can be cancelled),
+	 *        	or NULL if this scheduler has been shut down.
+	 */
+	public ScheduledFuture<?> scheduleAtFixedRate(final Runnable task, final long initialDelay, final long period) {
+		if (executor.isShutdown())
+			return null;
+		return executor.scheduleAtFixedRate(task, Math.max(0, initialDelay), period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Run the given long task (e.g. a backup) as soon as possible.
+	 *
+	 * <p>
+	 * 	Contrary to the scheduled tasks, the long tasks are run by their own
+	 * 	threads (see {@link #getNbWorkers()}), so that they do not delay the
+	 * 	scheduled tasks. If all these threads are busy, the task waits for
+	 * 	one of them.
+	 * </p>
+	 *
+	 * @param task	The task to run.
+	 *
+	 * @return	<code>true</code> if the task will be run,
+	 *        	<code>false</code> if this scheduler has been shut down.
+	 */
+	public boolean execute(final Runnable task) {
+		try {
+			workers.execute(task);
+			return true;
+		} catch(RejectedExecutionException ree) {
+			return false;
+		}
+	}
+
+	/**
+	 * Tell whether this scheduler has been shut down.
+	 *
+	 * @return	<code>true</code> if shut down,
+	 *        	<code>false</code> otherwise.
+	 */
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+
+	/**
+	 * Stop this scheduler. All the scheduled tasks and the waiting long tasks
+	 * are cancelled.
+	 *
+	 * <p><i>Note:
+	 * 	Nothing is done for the shared scheduler (see {@link #getShared()}),
+	 * 	because other UWS services may still use it.
+	 * </i></p>
+	 */
+	public void shutdown() {
+		synchronized (UWSScheduler.class) {
+			if (this == shared)
+				return;
+		}
+		executor.shutdownNow();
+		workers.shutdownNow();
+	}
+
+}
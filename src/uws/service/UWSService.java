@@ -16,10 +16,11 @@ package uws.service;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2022 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -38,7 +39,9 @@ import uws.AcceptHeader;
 import uws.UWSException;
 import uws.UWSToolBox;
 import uws.job.JobList;
+import uws.job.JobObserver;
 import uws.job.JobThread;
+import uws.job.UWSJob;
 import uws.job.serializer.JSONSerializer;
 import uws.job.serializer.UWSSerializer;
 import uws.job.serializer.XMLSerializer;
@@ -60,6 +63,7 @@ import uws.service.log.DefaultUWSLog;
 import uws.service.log.UWSLog;
 import uws.service.log.UWSLog.LogLevel;
 import uws.service.request.RequestParser;
+import uws.service.wait.AsyncWaitObserver;
 import uws.service.wait.BlockingPolicy;
 
 /**
@@ -139,7 +143,7 @@ import uws.service.wait.BlockingPolicy;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.4 (04/2022)
+ * @version 4.6 (10/2026)
  */
 public class UWSService implements UWS {
 
@@ -415,6 +419,16 @@ public class UWSService implements UWS {
 		/* note: timers are not part of this ThreadGroup and so, they won't be affected by this function call. */
 		JobThread.tg.interrupt();
 
+		// Free the resources of the file manager (e.g. the threads of a result store):
+		if (fileManager instanceof Closeable){
+			try{
+				((Closeable)fileManager).close();
+			}catch(IOException ioe){
+				if (logger != null)
+					logger.logUWS(LogLevel.WARNING, this, "STOP", "Can not close the file manager!", ioe);
+			}
+		}
+
 		// Log the service is stopped:
 		if (logger != null)
 			logger.logUWS(LogLevel.INFO, this, "STOP", "UWS Service \"" + getName() + "\" stopped!", null);
@@ -553,10 +567,29 @@ public class UWSService implements UWS {
 	 * 	This manager will be called at each user action to save only its own jobs list by calling {@link UWSBackupManager#saveOwner(JobOwner)}.
 	 * </p>
 	 *
+	 * <p><i>Note:
+	 * 	If the given backup manager is also a {@link JobObserver}, it is
+	 * 	registered as observer of all the jobs already in this UWS (and the
+	 * 	former backup manager is unregistered).
+	 * </i></p>
+	 *
 	 * @param backupManager Its new backup manager.
 	 */
 	public final void setBackupManager(final UWSBackupManager backupManager){
+		final UWSBackupManager oldBackupManager = this.backupManager;
 		this.backupManager = backupManager;
+
+		// Let the new backup manager know about the phase changes of the existing jobs:
+		if (oldBackupManager != backupManager && (oldBackupManager instanceof JobObserver || backupManager instanceof JobObserver)){
+			for(JobList jl : mapJobLists.values()){
+				for(UWSJob job : jl){
+					if (oldBackupManager instanceof JobObserver)
+						job.removeObserver((JobObserver)oldBackupManager);
+					if (backupManager instanceof JobObserver)
+						job.addObserver((JobObserver)backupManager);
+				}
+			}
+		}
 	}
 
 	@Override
@@ -1196,7 +1229,9 @@ public class UWSService implements UWS {
 			if (action == null)
 				throw new UWSException(UWSException.NOT_IMPLEMENTED, "Unknown UWS action!");
 
-			response.flushBuffer();
+			// Note: the response of a suspended WAIT request is written later:
+			if (!AsyncWaitObserver.isSuspended(request))
+				response.flushBuffer();
 
 			// Log the successful execution of the action:
 			logger.logHttp(LogLevel.INFO, response, reqID, user, "UWS action \"" + ((action != null) ? action.getName() : null) + "\" successfully executed.", null);
@@ -16,10 +16,11 @@ package uws.service;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2020 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -72,6 +73,7 @@ import uws.service.log.UWSLog.LogLevel;
 import uws.service.request.RequestParser;
 import uws.service.request.UWSRequestParser;
 import uws.service.request.UploadFile;
+import uws.service.wait.AsyncWaitObserver;
 import uws.service.wait.BlockingPolicy;
 
 /**
@@ -153,7 +155,7 @@ import uws.service.wait.BlockingPolicy;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.5 (07/2020)
+ * @version 4.6 (10/2026)
  */
 public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory {
 	private static final long serialVersionUID = 1L;
@@ -293,6 +295,16 @@ public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory
 		/* note: timers are not part of this ThreadGroup and so, they won't be affected by this function call. */
 		JobThread.tg.interrupt();
 
+		// Free the resources of the file manager (e.g. the threads of a result store):
+		if (fileManager instanceof Closeable) {
+			try {
+				((Closeable)fileManager).close();
+			} catch(IOException ioe) {
+				if (logger != null)
+					logger.logUWS(LogLevel.WARNING, this, "STOP", "Can not close the file manager!", ioe);
+			}
+		}
+
 		// Log the service is stopped:
 		if (logger != null)
 			logger.logUWS(LogLevel.INFO, this, "STOP", "UWS Service \"" + getName() + "\" stopped!", null);
@@ -457,7 +469,9 @@ public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory
 			else
 				throw new UWSException(UWSException.NOT_IMPLEMENTED, "Unknown UWS action!");
 
-			resp.flushBuffer();
+			// Note: the response of a suspended WAIT request is written later:
+			if (!AsyncWaitObserver.isSuspended(req))
+				resp.flushBuffer();
 
 			// Log the successful execution of the action:
 			logger.logHttp(LogLevel.INFO, resp, reqID, user, "UWS action \"" + uwsAction + "\" successfully executed.", null);
@@ -592,7 +606,7 @@ public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory
 		resp.setContentType(serializer.getMimeType());
 		resp.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
 		try {
-			jobsList.serialize(resp.getOutputStream(), serializer, user, new JobListRefiner(req));
+			jobsList.serialize(resp.getWriter(), serializer, user, new JobListRefiner(req));
 		} catch(Exception e) {
 			if (!(e instanceof UWSException)) {
 				getLogger().logUWS(LogLevel.ERROR, requestUrl, "SERIALIZE", "Can not serialize the jobs list \"" + jobsList.getName() + "\"!", e);
@@ -655,19 +669,48 @@ public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory
 		redirect(requestUrl.listJobs(jobsList.getName()).getRequestURL(), req, user, UWSAction.DESTROY_JOB, resp);
 	}
 
-	protected void doJobSummary(UWSUrl requestUrl, HttpServletRequest req, HttpServletResponse resp, JobOwner user) throws UWSException, ServletException, IOException {
+	protected void doJobSummary(final UWSUrl requestUrl, final HttpServletRequest req, final HttpServletResponse resp, final JobOwner user) throws UWSException, ServletException, IOException {
 		// Get the job:
 		UWSJob job = getJob(requestUrl);
 
-		// Block if necessary:
+		// Choose the serializer:
+		final UWSSerializer serializer = getSerializer(req.getHeader("Accept"));
+
+		// Wait without blocking the current thread, if possible:
+		if (JobSummary.suspend(waitPolicy, req, resp, job, user, new AsyncWaitObserver.ResponseWriter() {
+			@Override
+			public void write(final UWSJob job, final HttpServletResponse response) throws IOException, UWSException {
+				writeJobSummary(requestUrl, job, user, serializer, response);
+			}
+		}))
+			return;
+
+		// Otherwise, block if necessary:
 		JobSummary.block(waitPolicy, req, job, user);
 
 		// Write the job summary:
-		UWSSerializer serializer = getSerializer(req.getHeader("Accept"));
+		writeJobSummary(requestUrl, job, user, serializer, resp);
+	}
+
+	/**
+	 * Write the serialization of the given job in the given response.
+	 *
+	 * @param requestUrl	The UWS URL of the request.
+	 * @param job			The job to serialize.
+	 * @param user			The user who asked for the job summary.
+	 * @param serializer	The serializer to use.
+	 * @param resp			The HTTP response to write.
+	 *
+	 * @throws UWSException	If the job can not be serialized.
+	 * @throws IOException	If the response can not be written.
+	 *
+	 * @since 4.6
+	 */
+	protected void writeJobSummary(final UWSUrl requestUrl, final UWSJob job, final JobOwner user, final UWSSerializer serializer, final HttpServletResponse resp) throws UWSException, IOException {
 		resp.setContentType(serializer.getMimeType());
 		resp.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
 		try {
-			job.serialize(resp.getOutputStream(), serializer, user);
+			job.serialize(resp.getWriter(), serializer, user);
 		} catch(Exception e) {
 			if (!(e instanceof UWSException)) {
 				getLogger().logUWS(LogLevel.ERROR, requestUrl, "SERIALIZE", "Can not serialize the job \"" + job.getJobId() + "\"!", e);
@@ -693,8 +736,14 @@ public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory
 			else {
 				InputStream input = null;
 				try {
-					input = getFileManager().getResultInput(result, job);
-					UWSToolBox.write(input, result.getMimeType(), result.getSize(), resp);
+					// Send directly the result file, if stored locally:
+					File file = (getFileManager() instanceof LocalUWSFileManager) ? ((LocalUWSFileManager)getFileManager()).getLocalResultFile(result, job) : null;
+					if (file != null)
+						UWSToolBox.write(file, result.getMimeType(), req, resp);
+					else{
+						input = getFileManager().getResultInput(result, job);
+						UWSToolBox.write(input, result.getMimeType(), result.getSize(), resp);
+					}
 				} catch(IOException ioe) {
 					getLogger().logUWS(LogLevel.ERROR, result, "GET_RESULT", "Can not read the content of the result \"" + result.getId() + "\" of the job \"" + job.getJobId() + "\"!", ioe);
 					throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, ioe, "Can not read the content of the result " + result.getId() + " (job ID: " + job.getJobId() + ").");
@@ -712,8 +761,14 @@ public abstract class UWSServlet extends HttpServlet implements UWS, UWSFactory
 			else {
 				InputStream input = null;
 				try {
-					input = getFileManager().getErrorInput(error, job);
-					UWSToolBox.write(input, errorWriter.getErrorDetailsMIMEType(), getFileManager().getErrorSize(error, job), resp);
+					// Send directly the error file, if stored locally:
+					File file = (getFileManager() instanceof LocalUWSFileManager) ? ((LocalUWSFileManager)getFileManager()).getLocalErrorFile(error, job) : null;
+					if (file != null)
+						UWSToolBox.write(file, errorWriter.getErrorDetailsMIMEType(), req, resp);
+					else{
+						input = getFileManager().getErrorInput(error, job);
+						UWSToolBox.write(input, errorWriter.getErrorDetailsMIMEType(), getFileManager().getErrorSize(error, job), resp);
+					}
 				} catch(IOException ioe) {
 					getLogger().logUWS(LogLevel.ERROR, error, "GET_ERROR", "Can not read the details of the error summary of the job \"" + job.getJobId() + "\"!", ioe);
 					throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, ioe, "Can not read the error details (job ID: " + job.getJobId() + ").");
@@ -16,10 +16,11 @@ package uws.service.actions;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  * 
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -37,6 +38,7 @@ import uws.job.serializer.UWSSerializer;
 import uws.job.user.JobOwner;
 import uws.service.UWSService;
 import uws.service.UWSUrl;
+import uws.service.file.LocalUWSFileManager;
 import uws.service.log.UWSLog.LogLevel;
 import uws.service.request.UploadFile;
 
@@ -51,7 +53,7 @@ import uws.service.request.UploadFile;
  * The serializer is choosen in function of the HTTP Accept header.</p>
  * 
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.2 (06/2017)
+ * @version 4.6 (10/2026)
  */
 public class GetJobParam extends UWSAction {
 	private static final long serialVersionUID = 1L;
@@ -121,8 +123,14 @@ public class GetJobParam extends UWSAction {
 			else{
 				InputStream input = null;
 				try{
-					input = uws.getFileManager().getResultInput(result, job);
-					UWSToolBox.write(input, result.getMimeType(), result.getSize(), response);
+					// Send directly the result file, if stored locally:
+					File file = (uws.getFileManager() instanceof LocalUWSFileManager) ? ((LocalUWSFileManager)uws.getFileManager()).getLocalResultFile(result, job) : null;
+					if (file != null)
+						UWSToolBox.write(file, result.getMimeType(), request, response);
+					else{
+						input = uws.getFileManager().getResultInput(result, job);
+						UWSToolBox.write(input, result.getMimeType(), result.getSize(), response);
+					}
 				}catch(IOException ioe){
 					getLogger().logUWS(LogLevel.ERROR, result, "GET_RESULT", "Can not read the content of the result \"" + result.getId() + "\" of the job \"" + job.getJobId() + "\"!", ioe);
 					throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, ioe, "Can not read the content of the result " + result.getId() + " (job ID: " + job.getJobId() + ").");
@@ -140,8 +148,14 @@ public class GetJobParam extends UWSAction {
 			else{
 				InputStream input = null;
 				try{
-					input = uws.getFileManager().getErrorInput(error, job);
-					UWSToolBox.write(input, getUWS().getErrorWriter().getErrorDetailsMIMEType(), uws.getFileManager().getErrorSize(error, job), response);
+					// Send directly the error file, if stored locally:
+					File file = (uws.getFileManager() instanceof LocalUWSFileManager) ? ((LocalUWSFileManager)uws.getFileManager()).getLocalErrorFile(error, job) : null;
+					if (file != null)
+						UWSToolBox.write(file, getUWS().getErrorWriter().getErrorDetailsMIMEType(), request, response);
+					else{
+						input = uws.getFileManager().getErrorInput(error, job);
+						UWSToolBox.write(input, getUWS().getErrorWriter().getErrorDetailsMIMEType(), uws.getFileManager().getErrorSize(error, job), response);
+					}
 				}catch(IOException ioe){
 					getLogger().logUWS(LogLevel.ERROR, error, "GET_ERROR", "Can not read the details of the error summary of the job \"" + job.getJobId() + "\"!", ioe);
 					throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, ioe, "Can not read the error details (job ID: " + job.getJobId() + ").");
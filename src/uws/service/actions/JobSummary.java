@@ -16,14 +16,15 @@ package uws.service.actions;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2017 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -36,6 +37,7 @@ import uws.job.user.JobOwner;
 import uws.service.UWSService;
 import uws.service.UWSUrl;
 import uws.service.log.UWSLog.LogLevel;
+import uws.service.wait.AsyncWaitObserver;
 import uws.service.wait.BlockingPolicy;
 import uws.service.wait.WaitObserver;
 
@@ -53,7 +55,7 @@ import uws.service.wait.WaitObserver;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.3 (11/2017)
+ * @version 4.6 (10/2026)
  */
 public class JobSummary extends UWSAction {
 	private static final long serialVersionUID = 1L;
@@ -63,6 +65,16 @@ public class JobSummary extends UWSAction {
 	 * @since 4.3 */
 	public final static String WAIT_PARAMETER = "WAIT";
 
+	/** Number of threads currently blocked by a WAIT request on a job of
+	 * this UWS service.
+	 * @since 4.6 */
+	protected final AtomicInteger nbBlockedThreads = new AtomicInteger(0);
+
+	/** Number of WAIT requests on a job of this UWS service currently
+	 * suspended without blocking any thread.
+	 * @since 4.6 */
+	protected final AtomicInteger nbSuspendedRequests = new AtomicInteger(0);
+
 	public JobSummary(UWSService u){
 		super(u);
 	}
@@ -105,26 +117,64 @@ public class JobSummary extends UWSAction {
 	 * chooses the serializer and write the serialization of the job in the
 	 * given response.
 	 *
+	 * <p><i>Note:
+	 * 	If a WAIT is asked and if the asynchronous mode of Servlet 3.0 is
+	 * 	supported, the request is suspended without blocking the current
+	 * 	thread (see {@link #suspend(BlockingPolicy, HttpServletRequest, HttpServletResponse, UWSJob, JobOwner, AsyncWaitObserver.ResponseWriter)}).
+	 * 	The job summary is then written once the wait is over.
+	 * </i></p>
+	 *
 	 * @see #getJob(UWSUrl)
 	 * @see UWSService#getSerializer(String)
-	 * @see UWSJob#serialize(ServletOutputStream, UWSSerializer)
+	 * @see UWSJob#serialize(Writer, UWSSerializer, JobOwner)
 	 *
 	 * @see uws.service.actions.UWSAction#apply(UWSUrl, JobOwner, HttpServletRequest, HttpServletResponse)
 	 */
 	@Override
-	public boolean apply(UWSUrl urlInterpreter, JobOwner user, HttpServletRequest request, HttpServletResponse response) throws UWSException, IOException{
+	public boolean apply(final UWSUrl urlInterpreter, final JobOwner user, final HttpServletRequest request, final HttpServletResponse response) throws UWSException, IOException{
 		// Get the job:
 		UWSJob job = getJob(urlInterpreter);
 
-		// Block if necessary:
-		JobSummary.block(uws.getWaitPolicy(), request, job, user);
+		// Choose the serializer:
+		final UWSSerializer serializer = uws.getSerializer(request.getHeader("Accept"));
+
+		// Wait without blocking the current thread, if possible:
+		if (JobSummary.suspend(uws.getWaitPolicy(), request, response, job, user, new AsyncWaitObserver.ResponseWriter(){
+			@Override
+			public void write(final UWSJob job, final HttpServletResponse response) throws IOException, UWSException{
+				writeJobSummary(urlInterpreter, job, user, serializer, response);
+			}
+		}, nbSuspendedRequests))
+			return true;
+
+		// Otherwise, block if necessary:
+		JobSummary.block(uws.getWaitPolicy(), request, job, user, nbBlockedThreads);
 
 		// Write the job summary:
-		UWSSerializer serializer = uws.getSerializer(request.getHeader("Accept"));
+		writeJobSummary(urlInterpreter, job, user, serializer, response);
+
+		return true;
+	}
+
+	/**
+	 * Write the serialization of the given job in the given response.
+	 *
+	 * @param urlInterpreter	The UWS URL of the request.
+	 * @param job				The job to serialize.
+	 * @param user				The user who asked for the job summary.
+	 * @param serializer		The serializer to use.
+	 * @param response			The HTTP response to write.
+	 *
+	 * @throws UWSException	If the job can not be serialized.
+	 * @throws IOException	If the response can not be written.
+	 *
+	 * @since 4.6
+	 */
+	protected void writeJobSummary(final UWSUrl urlInterpreter, final UWSJob job, final JobOwner user, final UWSSerializer serializer, final HttpServletResponse response) throws UWSException, IOException{
 		response.setContentType(serializer.getMimeType());
 		response.setCharacterEncoding(UWSToolBox.DEFAULT_CHAR_ENCODING);
 		try{
-			job.serialize(response.getOutputStream(), serializer, user);
+			job.serialize(response.getWriter(), serializer, user);
 		}catch(Exception e){
 			if (!(e instanceof UWSException)){
 				getLogger().logUWS(LogLevel.ERROR, urlInterpreter, "SERIALIZE", "Can not serialize the job \"" + job.getJobId() + "\"!", e);
@@ -132,8 +182,30 @@ public class JobSummary extends UWSAction {
 			}else
 				throw (UWSException)e;
 		}
+	}
 
-		return true;
+	/**
+	 * Get the number of threads currently blocked by a WAIT request on a
+	 * job of this UWS service (see {@link #apply(UWSUrl, JobOwner, HttpServletRequest, HttpServletResponse)}).
+	 *
+	 * @return	Number of blocked threads.
+	 *
+	 * @since 4.6
+	 */
+	public final int getNbBlockedThreads(){
+		return nbBlockedThreads.get();
+	}
+
+	/**
+	 * Get the number of WAIT requests on a job of this UWS service currently
+	 * suspended without blocking any thread (see {@link AsyncWaitObserver}).
+	 *
+	 * @return	Number of suspended requests.
+	 *
+	 * @since 4.6
+	 */
+	public final int getNbSuspendedRequests(){
+		return nbSuspendedRequests.get();
 	}
 
 	/**
@@ -202,58 +274,36 @@ public class JobSummary extends UWSAction {
 	 * @since 4.3
 	 */
 	public static void block(final BlockingPolicy policy, final HttpServletRequest req, final UWSJob job, final JobOwner user){
-		if (req == null || job == null)
-			return;
+		block(policy, req, job, user, null);
+	}
 
-		/* No blocking if the job is not in an "active" phase: */
-		if (job.getPhase() != ExecutionPhase.PENDING && job.getPhase() != ExecutionPhase.QUEUED && job.getPhase() != ExecutionPhase.EXECUTING)
+	/**
+	 * Block the current thread until the specified duration (in seconds) is
+	 * elapsed or if the execution phase of the target job changes, exactly
+	 * as {@link #block(BlockingPolicy, HttpServletRequest, UWSJob, JobOwner)}
+	 * does, and count this thread as blocked during the wait.
+	 *
+	 * @param policy			Strategy to adopt for the blocking behavior.
+	 *              			<i>May be NULL.</i>
+	 * @param req				The HTTP request which asked for the blocking.
+	 * @param job				The job associate with the HTTP request.
+	 * @param user				The user who asked for the blocking behavior.
+	 *            				<i>NULL if no user is logged in.</i>
+	 * @param nbBlockedThreads	Counter of the blocked threads of the service.
+	 *                        	<i>If NULL, the blocked thread is not counted.</i>
+	 *
+	 * @since 4.6
+	 */
+	protected static void block(final BlockingPolicy policy, final HttpServletRequest req, final UWSJob job, final JobOwner user, final AtomicInteger nbBlockedThreads){
+		if (req == null || job == null)
 			return;
 
-		/* Extract the parameters WAIT (only the smallest waiting time is taken
-		 * into account) and PHASE (only the last legal occurrence is taken into
-		 * account): */
-		ExecutionPhase phase = null;
-		boolean waitGiven = false;
-		long waitingTime = 0;
-		String param;
-		String[] values;
-		Enumeration<String> parameters = req.getParameterNames();
-		while(parameters.hasMoreElements()){
-			param = parameters.nextElement();
-			values = req.getParameterValues(param);
-			// CASE: WAIT parameter
-			if (param.toUpperCase().equals("WAIT")){
-				/* note: a value MUST be given for a WAIT parameter ; if it is
-				 *       missing the parameter is ignored */
-				if (values != null){
-					for(int i = 0; i < values.length; i++){
-						try{
-							if (values[i] != null && values[i].trim().length() > 0){
-								long tmp = Long.parseLong(values[i]);
-								if (tmp < 0 && !waitGiven)
-									waitingTime = tmp;
-								else if (tmp >= 0)
-									waitingTime = (waitGiven && waitingTime >= 0) ? Math.min(waitingTime, tmp) : tmp;
-								waitGiven = true;
-							}
-						}catch(NumberFormatException nfe){}
-					}
-				}
-			}
-			// CASE: PHASE parameter
-			else if (param.toUpperCase().equals("PHASE") && values != null){
-				for(int i = values.length - 1; phase == null && i >= 0; i--){
-					try{
-						if (values[i].trim().length() > 0)
-							phase = ExecutionPhase.valueOf(values[i].toUpperCase());
-					}catch(IllegalArgumentException iae){}
-				}
-			}
-		}
+		/* Get the waiting time asked by the user: */
+		long waitingTime = getWaitingTime(req, job);
 
 		/* The HTTP-GET request should block until either the specified time
 		 * (or the timeout) is reached or if the job phase changed: */
-		if (waitingTime != 0 && (phase == null || job.getPhase() == phase)){
+		if (waitingTime != 0){
 			Thread threadToBlock = Thread.currentThread();
 			WaitObserver observer = null;
 
@@ -265,6 +315,8 @@ public class JobSummary extends UWSAction {
 			/* Blocking ONLY IF the duration is NOT NULL (i.e. wait during 0
 			 * seconds): */
 			if (waitingTime != 0){
+				if (nbBlockedThreads != null)
+					nbBlockedThreads.incrementAndGet();
 				try{
 					/* Watch the job in order to detect an execution phase
 					 * modification: */
@@ -291,6 +343,9 @@ public class JobSummary extends UWSAction {
 				}
 				/* Clear all retained resources. */
 				finally{
+					if (nbBlockedThreads != null)
+						nbBlockedThreads.decrementAndGet();
+
 					// Do not observe any more the job:
 					if (observer != null)
 						job.removeObserver(observer);
@@ -304,4 +359,160 @@ public class JobSummary extends UWSAction {
 		}
 	}
 
+	/**
+	 * Get the waiting time asked by the user with the parameters WAIT and
+	 * PHASE (see {@link #block(BlockingPolicy, HttpServletRequest, UWSJob, JobOwner)}).
+	 *
+	 * @param req	The HTTP request which asked for the blocking.
+	 * @param job	The job associated with the HTTP request.
+	 *
+	 * @return	The waiting time (in seconds): &lt; 0 for an unlimited
+	 *        	duration, and 0 if no blocking is required (e.g. no WAIT
+	 *        	parameter, job not in an active phase or not in the asked
+	 *        	PHASE).
+	 *
+	 * @since 4.6
+	 */
+	protected static long getWaitingTime(final HttpServletRequest req, final UWSJob job){
+		/* No blocking if the job is not in an "active" phase: */
+		if (job.getPhase() != ExecutionPhase.PENDING && job.getPhase() != ExecutionPhase.QUEUED && job.getPhase() != ExecutionPhase.EXECUTING)
+			return 0;
+
+		/* Extract the parameters WAIT (only the smallest waiting time is taken
+		 * into account) and PHASE (only the last legal occurrence is taken into
+		 * account): */
+		ExecutionPhase phase = null;
+		boolean waitGiven = false;
+		long waitingTime = 0;
+		String param;
+		String[] values;
+		Enumeration<String> parameters = req.getParameterNames();
+		while(parameters.hasMoreElements()){
+			param = parameters.nextElement();
+			values = req.getParameterValues(param);
+			// CASE: WAIT parameter
+			if (param.toUpperCase().equals("WAIT")){
+				/* note: a value MUST be given for a WAIT parameter ; if it is
+				 *       missing the parameter is ignored */
+				if (values != null){
+					for(int i = 0; i < values.length; i++){
+						try{
+							if (values[i] != null && values[i].trim().length() > 0){
+								long tmp = Long.parseLong(values[i]);
+								if (tmp < 0 && !waitGiven)
+									waitingTime = tmp;
+								else if (tmp >= 0)
+									waitingTime = (waitGiven && waitingTime >= 0) ? Math.min(waitingTime, tmp) : tmp;
+								waitGiven = true;
+							}
+						}catch(NumberFormatException nfe){}
+					}
+				}
+			}
+			// CASE: PHASE parameter
+			else if (param.toUpperCase().equals("PHASE") && values != null){
+				for(int i = values.length - 1; phase == null && i >= 0; i--){
+					try{
+						if (values[i].trim().length() > 0)
+							phase = ExecutionPhase.valueOf(values[i].toUpperCase());
+					}catch(IllegalArgumentException iae){}
+				}
+			}
+		}
+
+		/* No blocking if the job is not in the asked phase: */
+		return (phase == null || job.getPhase() == phase) ? waitingTime : 0;
+	}
+
+	/**
+	 * Suspend the given request, without blocking the current thread, until
+	 * the specified duration (in seconds) is elapsed or if the execution
+	 * phase of the target job changes. The response is then written by the
+	 * given {@link AsyncWaitObserver.ResponseWriter}.
+	 *
+	 * <p>
+	 * 	The parameters WAIT and PHASE are interpreted exactly as in
+	 * 	{@link #block(BlockingPolicy, HttpServletRequest, UWSJob, JobOwner)},
+	 * 	and the given {@link BlockingPolicy} is applied the same way (see
+	 * 	{@link AsyncWaitObserver}).
+	 * </p>
+	 *
+	 * <p>
+	 * 	This is possible only if the asynchronous mode of Servlet 3.0 is
+	 * 	supported by the request (see {@link HttpServletRequest#isAsyncSupported()}).
+	 * 	If not, or if no wait is required, nothing is done and <code>false</code>
+	 * 	is returned: the response must then be written by the current thread,
+	 * 	after a call to {@link #block(BlockingPolicy, HttpServletRequest, UWSJob, JobOwner)}.
+	 * </p>
+	 *
+	 * @param policy		Strategy to adopt for the blocking behavior.
+	 *              		<i>If NULL, the standard blocking behavior will be
+	 *              		performed: wait the duration (eventually unlimited)
+	 *              		specified by the user.</i>
+	 * @param req			The HTTP request which asked for the blocking.
+	 * @param resp			Its HTTP response.
+	 * @param job			The job associate with the HTTP request.
+	 * @param user			The user who asked for the blocking behavior.
+	 *            			<i>NULL if no user is logged in.</i>
+	 * @param writer		Writer of the response once the wait is over.
+	 *
+	 * @return	<code>true</code> if the request has been suspended (the
+	 *        	response will be written later),
+	 *        	<code>false</code> if the response must be written now.
+	 *
+	 * @since 4.6
+	 */
+	public static boolean suspend(final BlockingPolicy policy, final HttpServletRequest req, final HttpServletResponse resp, final UWSJob job, final JobOwner user, final AsyncWaitObserver.ResponseWriter writer){
+		return suspend(policy, req, resp, job, user, writer, null);
+	}
+
+	/**
+	 * Suspend the given request exactly as
+	 * {@link #suspend(BlockingPolicy, HttpServletRequest, HttpServletResponse, UWSJob, JobOwner, AsyncWaitObserver.ResponseWriter)}
+	 * does, and count it as suspended during the wait.
+	 *
+	 * @param policy				Strategy to adopt for the blocking behavior.
+	 *              				<i>May be NULL.</i>
+	 * @param req					The HTTP request which asked for the blocking.
+	 * @param resp					Its HTTP response.
+	 * @param job					The job associate with the HTTP request.
+	 * @param user					The user who asked for the blocking behavior.
+	 *            					<i>NULL if no user is logged in.</i>
+	 * @param writer				Writer of the response once the wait is over.
+	 * @param nbSuspendedRequests	Counter of the suspended requests of the
+	 *                           	service. <i>If NULL, the suspended request
+	 *                           	is not counted.</i>
+	 *
+	 * @return	<code>true</code> if the request has been suspended (the
+	 *        	response will be written later),
+	 *        	<code>false</code> if the response must be written now.
+	 *
+	 * @since 4.6
+	 */
+	protected static boolean suspend(final BlockingPolicy policy, final HttpServletRequest req, final HttpServletResponse resp, final UWSJob job, final JobOwner user, final AsyncWaitObserver.ResponseWriter writer, final AtomicInteger nbSuspendedRequests){
+		if (req == null || resp == null || job == null || writer == null || !req.isAsyncSupported() || req.isAsyncStarted())
+			return false;
+
+		/* Get the waiting time asked by the user: */
+		long waitingTime = getWaitingTime(req, job);
+		if (waitingTime == 0)
+			return false;
+
+		/* Eventually limit the waiting time in function of the chosen
+		 * policy: */
+		AsyncWaitObserver observer = new AsyncWaitObserver(policy, job, user, req, resp, writer, nbSuspendedRequests);
+		if (policy != null)
+			waitingTime = policy.block(observer.getWaitingThread(), waitingTime, job, user, req);
+
+		/* Suspend the request ONLY IF the duration is NOT NULL: */
+		if (waitingTime == 0){
+			if (policy != null)
+				policy.unblocked(observer.getWaitingThread(), job, user, req);
+			return false;
+		}
+
+		observer.start(waitingTime);
+		return true;
+	}
+
 }
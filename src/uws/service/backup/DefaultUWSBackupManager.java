@@ -16,7 +16,7 @@ package uws.service.backup;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2012-2020 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ * Copyright 2012-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
  *                       Astronomisches Rechen Institut (ARI)
  */
 
@@ -37,8 +37,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.xml.bind.DatatypeConverter;
 
@@ -54,6 +59,8 @@ import uws.UWSException;
 import uws.UWSToolBox;
 import uws.job.ErrorSummary;
 import uws.job.ErrorType;
+import uws.job.ExecutionPhase;
+import uws.job.JobObserver;
 import uws.job.JobList;
 import uws.job.Result;
 import uws.job.UWSJob;
@@ -61,6 +68,7 @@ import uws.job.jobInfo.JobInfo;
 import uws.job.parameters.UWSParameters;
 import uws.job.user.JobOwner;
 import uws.service.UWS;
+import uws.service.UWSScheduler;
 import uws.service.file.UWSFileManager;
 import uws.service.log.UWSLog;
 import uws.service.log.UWSLog.LogLevel;
@@ -85,10 +93,32 @@ import uws.service.request.UploadFile;
  * </ul>
  * <p>Another positive value will be considered as the frequency (in milliseconds) of the automatic backup (= {@link #saveAll()}).</p>
  *
+ * <h3>Incremental backup</h3>
+ *
+ * <p>
+ * 	This manager keeps track of the jobs owners whose jobs changed since the last backup: their jobs have been created, updated,
+ * 	executed, stopped, archived or destroyed (see {@link #saveOwner(JobOwner)}), or their execution phase has changed (this manager
+ * 	is a {@link JobObserver} of all jobs). Then, {@link #saveAll()} rewrites only the files of these users in the mode <u>by user</u>,
+ * 	and it rewrites the single backup file only if something changed in the other mode.
+ * </p>
+ * <p>
+ * 	However, a full backup is still done every {@link #getFullBackupInterval()} backups, in case a change has not been notified
+ * 	(e.g. the modification of a job without owner in a custom extension of the library).
+ * </p>
+ *
+ * <h3>Restoration</h3>
+ *
+ * <p>
+ * 	In the mode <u>by user</u>, the backup files can be read in parallel by {@link #getRestoreParallelism()} threads
+ * 	(by default, only one: the files are read one after the other). The progression and the duration of the restoration
+ * 	are logged.
+ * </p>
+ *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.5 (01/2020)
+ * @version 4.6 (10/2026)
  */
-public class DefaultUWSBackupManager implements UWSBackupManager {
+public class DefaultUWSBackupManager implements UWSBackupManager, JobObserver {
+	private static final long serialVersionUID = 1L;
 
 	/** Special frequency to mean that this manager wait a user action (create, update, start, abort, destruction) to save the jobs of this user. */
 	public static final long AT_USER_ACTION = 0;
@@ -96,6 +126,12 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 	public static final long MANUAL = -1;
 	/** Default backup frequency. 60000ms = 60s = 1min */
 	public static final long DEFAULT_FREQUENCY = 60000;
+	/** Default number of backups between two full backups.
+	 * @since 4.6 */
+	public static final int DEFAULT_FULL_BACKUP_INTERVAL = 10;
+	/** Number of backup files to read before reporting the progression of a restoration.
+	 * @since 4.6 */
+	protected static final int RESTORATION_PROGRESS_STEP = 100;
 
 	/** Date of the last restoration. */
 	protected Date lastRestoration = null;
@@ -113,8 +149,55 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 	/** Backup frequency (in milliseconds). */
 	protected long backupFreq = AT_USER_ACTION;
 
-	/** Timer which saves the backup each <i>backupFreq</i> milliseconds. */
-	protected Timer timAutoBackup = null;
+	/** Task which saves the backup each <i>backupFreq</i> milliseconds.
+	 * <i>Since v4.6, it is scheduled in the {@link UWSScheduler} of the UWS
+	 * instead of a dedicated {@link java.util.Timer}. This task only submits
+	 * the backup to the threads of the scheduler running the long tasks (see
+	 * {@link UWSScheduler#execute(Runnable)}), so that a slow backup does not
+	 * delay the other scheduled tasks (e.g. execution timeouts and job
+	 * destructions).</i> */
+	protected ScheduledFuture<?> timAutoBackup = null;
+
+	/** Indicates whether an automatic backup is being executed or waiting
+	 * for being executed. If yes, the next automatic backups are skipped
+	 * until its end.
+	 * @since 4.6 */
+	private final AtomicBoolean autoBackupPending = new AtomicBoolean(false);
+
+	/** Number of backups between two full backups (i.e. backups of all jobs, whether they changed or not).
+	 * <i>If 1 or less, all backups are full.</i>
+	 * @since 4.6 */
+	protected int fullBackupInterval = DEFAULT_FULL_BACKUP_INTERVAL;
+
+	/** Lock of the backups: {@link #saveAll()} and the end of {@link #restoreAll()}
+	 * are executed by only one thread at a time.
+	 * @since 4.6 */
+	protected final Object backupLock = new Object();
+
+	/** Number of incremental backups done since the last full backup.
+	 * <i>If negative, no full backup has been done yet.</i>
+	 * <i>Any access MUST be synchronized on {@link #backupLock}.</i>
+	 * @since 4.6 */
+	protected int nbIncrementalBackups = -1;
+
+	/** Maximum number of backup files read in parallel during a restoration (in the mode "by user").
+	 * <i>If 1 or less (default), backup files are read one after the other.</i>
+	 * @since 4.6 */
+	protected int restoreParallelism = 1;
+
+	/** Owners (by ID) whose jobs changed since the last backup.
+	 * @since 4.6 */
+	protected final Map<String, JobOwner> dirtyOwners = new ConcurrentHashMap<String, JobOwner>();
+
+	/** Tells whether any job changed since the last backup.
+	 * @since 4.6 */
+	protected volatile boolean dirty = true;
+
+	/** Total number of jobs at the last backup (in the mode "one file for all users and all jobs").
+	 * <i>A different number of jobs means that the backup is not up-to-date.</i>
+	 * <i>Any access MUST be synchronized on {@link #backupLock}.</i>
+	 * @since 4.6 */
+	protected int nbJobsAtLastBackup = -1;
 
 	/**
 	 * Builds a backup manager in the mode "auto": one file for all users and all jobs, and the backup
@@ -146,13 +229,7 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 		this.backupFreq = (frequency <= 0) ? MANUAL : frequency;
 
 		if (backupFreq > 0) {
-			timAutoBackup = new Timer();
-			timAutoBackup.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run() {
-					saveAll();
-				}
-			}, backupFreq, backupFreq);
+			startAutoBackup(backupFreq);
 		}
 	}
 
@@ -191,13 +268,7 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 		if (backupFreq == AT_USER_ACTION && !byUser)
 			backupFreq = MANUAL;
 		else if (backupFreq > 0) {
-			timAutoBackup = new Timer();
-			timAutoBackup.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run() {
-					saveAll();
-				}
-			}, backupFreq, backupFreq);
+			startAutoBackup(backupFreq);
 		} else if (backupFreq < 0)
 			backupFreq = MANUAL;
 	}
@@ -216,21 +287,10 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 		this.enabled = enabled;
 		if (backupFreq > 0) {
 			if (this.enabled) {
-				if (timAutoBackup == null) {
-					timAutoBackup = new Timer();
-					timAutoBackup.scheduleAtFixedRate(new TimerTask() {
-						@Override
-						public void run() {
-							saveAll();
-						}
-					}, backupFreq, backupFreq);
-				}
-			} else {
-				if (timAutoBackup != null) {
-					timAutoBackup.cancel();
-					timAutoBackup = null;
-				}
-			}
+				if (timAutoBackup == null)
+					startAutoBackup(backupFreq);
+			} else
+				stopAutoBackup();
 		}
 	}
 
@@ -263,22 +323,132 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 			return;
 
 		this.backupFreq = freq;
-		if (timAutoBackup != null) {
-			timAutoBackup.cancel();
-			timAutoBackup = null;
-		}
+		stopAutoBackup();
+
+		if (enabled && backupFreq > 0)
+			startAutoBackup(0);
+	}
+
+	/**
+	 * Gets the scheduler in which the automatic backup must be scheduled.
+	 *
+	 * @return	The scheduler of the UWS (see {@link uws.service.UWSFactory#getScheduler()}),
+	 *        	or the shared one if none can be found (see {@link UWSScheduler#getShared()}).
+	 *
+	 * @since 4.6
+	 */
+	protected UWSScheduler getScheduler() {
+		UWSScheduler scheduler = (uws == null || uws.getFactory() == null) ? null : uws.getFactory().getScheduler();
+		return (scheduler == null) ? UWSScheduler.getShared() : scheduler;
+	}
 
-		if (enabled && backupFreq > 0) {
-			timAutoBackup = new Timer();
-			timAutoBackup.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run() {
+	/**
+	 * Schedules the automatic backup: {@link #saveAll()} is called every <i>backupFreq</i> milliseconds.
+	 *
+	 * @param initialDelay	Delay (in milliseconds) before the first backup.
+	 *
+	 * @since 4.6
+	 */
+	protected void startAutoBackup(final long initialDelay) {
+		// The backup itself:
+		final Runnable backup = new Runnable() {
+			@Override
+			public void run() {
+				try {
 					saveAll();
+				} catch(RuntimeException re) {
+					getLogger().logUWS(LogLevel.ERROR, null, "BACKUP", "Unexpected error while saving the UWS!", re);
+				} finally {
+					autoBackupPending.set(false);
 				}
-			}, 0, backupFreq);
+			}
+		};
+
+		/* Periodically submit the backup to the threads running the long tasks
+		 * (unless the previous one is not finished ; so, the backups of this
+		 * manager are never run at the same time): */
+		final UWSScheduler scheduler = getScheduler();
+		timAutoBackup = scheduler.scheduleAtFixedRate(new Runnable() {
+			@Override
+			public void run() {
+				if (autoBackupPending.compareAndSet(false, true) && !scheduler.execute(backup))
+					autoBackupPending.set(false);
+			}
+		}, initialDelay, backupFreq);
+	}
+
+	/**
+	 * Cancels the automatic backup, if any.
+	 *
+	 * @since 4.6
+	 */
+	protected void stopAutoBackup() {
+		if (timAutoBackup != null) {
+			timAutoBackup.cancel(false);
+			timAutoBackup = null;
 		}
 	}
 
+	/**
+	 * Gets the number of backups between two full backups.
+	 *
+	 * @return	The full backup interval. <i>1 means that all backups are full.</i>
+	 *
+	 * @since 4.6
+	 */
+	public final int getFullBackupInterval() {
+		return fullBackupInterval;
+	}
+
+	/**
+	 * Sets the number of backups between two full backups.
+	 *
+	 * <p>
+	 * 	Between two full backups, {@link #saveAll()} saves only the jobs of the users whose jobs changed
+	 * 	since the last backup (or nothing at all if nothing changed).
+	 * </p>
+	 *
+	 * @param interval	The new full backup interval. <i>1 or less means that all backups are full (i.e. no incremental backup).</i>
+	 *
+	 * @since 4.6
+	 */
+	public final void setFullBackupInterval(final int interval) {
+		fullBackupInterval = (interval < 1) ? 1 : interval;
+	}
+
+	/**
+	 * Gets the maximum number of backup files read in parallel during a restoration.
+	 *
+	 * @return	The restoration parallelism. <i>1 (default) means that backup files are read one after the other.</i>
+	 *
+	 * @since 4.6
+	 */
+	public final int getRestoreParallelism() {
+		return restoreParallelism;
+	}
+
+	/**
+	 * Sets the maximum number of backup files read in parallel during a restoration.
+	 *
+	 * <p><i>Note:
+	 * 	There is only one backup file in the mode "one file for all users and all jobs",
+	 * 	so this parameter is used only in the mode "by user".
+	 * </i></p>
+	 *
+	 * <p><b>Warning:</b>
+	 * 	With a parallelism greater than 1, the restoration functions (e.g. {@link #getUser(JSONObject)} and
+	 * 	{@link #restoreJob(JSONObject, Map)}) are called by several threads at the same time. So, their overrides (if any),
+	 * 	the {@link uws.service.UserIdentifier} and the {@link UWSFileManager} of the UWS must then be thread-safe.
+	 * </p>
+	 *
+	 * @param parallelism	The new restoration parallelism. <i>1 or less means that backup files are read one after the other.</i>
+	 *
+	 * @since 4.6
+	 */
+	public final void setRestoreParallelism(final int parallelism) {
+		restoreParallelism = (parallelism < 1) ? 1 : parallelism;
+	}
+
 	/**
 	 * Gets the date of the last restoration
 	 *
@@ -321,99 +491,203 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 		if (!enabled)
 			return null;
 
-		int nbSavedJobs = 0, nbSavedOwners = 0;
-		int nbJobs = 0, nbOwners = 0;
+		/* Note: backups are done one after the other, so that they do not
+		 *       write the same files at the same time and that the counters
+		 *       of the incremental backups stay consistent. */
+		synchronized (backupLock) {
+			int nbSavedJobs = 0, nbSavedOwners = 0;
+			int nbJobs = 0, nbOwners = 0;
 
-		// List all users of this UWS:
-		HashMap<String, JobOwner> users = new HashMap<String, JobOwner>();
-		for(JobList jl : uws) {
-			Iterator<JobOwner> it = jl.getUsers();
-			while(it.hasNext()) {
-				JobOwner owner = it.next();
-				users.put(owner.getID(), owner);
-			}
-		}
+			// Save all jobs, or only the ones which changed since the last backup:
+			boolean fullBackup = (nbIncrementalBackups < 0 || nbIncrementalBackups + 1 >= fullBackupInterval);
 
-		// "byUser" => 1 file par user => call saveOwner(user, true) for each user:
-		if (byUser) {
-			int[] saveReport;
-			for(JobOwner user : users.values()) {
-				nbOwners++;
-				saveReport = saveOwner(user, true);
-				if (saveReport != null && saveReport.length == 2) {
-					nbSavedJobs += saveReport[0];
-					nbJobs += saveReport[1];
-					nbSavedOwners++;
-				}
-			}
-		}// Otherwise: 1 file for all users and all jobs:
-		else {
-			UWSFileManager fileManager = uws.getFileManager();
-			PrintWriter writer = null;
-			try {
-				// Create a writer toward the backup file:
-				writer = new PrintWriter(fileManager.getBackupOutput());
-				JSONWriter out = new JSONWriter(writer);
+			/* Note: the changes are forgotten BEFORE the backup, so that a change
+			 *       occurring during the backup is saved at the next one. */
 
-				// JSON structure: { date: ..., users: [...], jobs: [...] }
-				out.object();
+			// "byUser" => 1 file par user => call saveOwner(user, true) for each user:
+			if (byUser) {
+				// List the users whose jobs changed (even if they do not have any job any more):
+				Map<String, JobOwner> users = takeDirtyOwners();
 
-				// Write the backup date:
-				out.key("date").value((new Date()).toString());
+				// ...or all users of this UWS:
+				if (fullBackup)
+					listUsers(users);
 
-				// Write all users:
-				out.key("users").array();
+				int[] saveReport;
 				for(JobOwner user : users.values()) {
 					nbOwners++;
-					try {
-						out.value(getJSONUser(user));
+					saveReport = saveOwner(user, true);
+					if (saveReport != null && saveReport.length == 2) {
+						nbSavedJobs += saveReport[0];
+						nbJobs += saveReport[1];
 						nbSavedOwners++;
-					} catch(JSONException je) {
-						getLogger().logUWS(LogLevel.ERROR, user, "BACKUP", "Unexpected JSON error while saving the user '" + user.getID() + "'!", je);
 					}
 				}
-				out.endArray();
-				writer.flush();
+			}// Otherwise: 1 file for all users and all jobs:
+			else {
+				// Count all jobs:
+				int nbCurrentJobs = 0;
+				for(JobList jl : uws)
+					nbCurrentJobs += jl.getNbJobs();
+
+				// Nothing to do if no job changed:
+				if (!fullBackup && !dirty && nbCurrentJobs == nbJobsAtLastBackup) {
+					nbIncrementalBackups++;
+					lastBackup = new Date();
+					return new int[]{ 0, 0, 0, 0 };
+				}
+				takeDirtyOwners();
+				nbJobsAtLastBackup = nbCurrentJobs;
 
-				// Write all jobs:
-				out.key("jobs").array();
-				for(JobList jl : uws) {
-					for(UWSJob job : jl) {
-						nbJobs++;
+				// List all users of this UWS:
+				HashMap<String, JobOwner> users = new HashMap<String, JobOwner>();
+				listUsers(users);
+
+				UWSFileManager fileManager = uws.getFileManager();
+				PrintWriter writer = null;
+				try {
+					// Create a writer toward the backup file:
+					writer = new PrintWriter(fileManager.getBackupOutput());
+					JSONWriter out = new JSONWriter(writer);
+
+					// JSON structure: { date: ..., users: [...], jobs: [...] }
+					out.object();
+
+					// Write the backup date:
+					out.key("date").value((new Date()).toString());
+
+					// Write all users:
+					out.key("users").array();
+					for(JobOwner user : users.values()) {
+						nbOwners++;
 						try {
-							out.value(getJSONJob(job, jl.getName()));
-							nbSavedJobs++;
-							writer.flush();
-						} catch(UWSException ue) {
-							getLogger().logUWS(LogLevel.ERROR, job, "BACKUP", "Unexpected UWS error while saving the job '" + job.getJobId() + "'!", ue);
+							out.value(getJSONUser(user));
+							nbSavedOwners++;
 						} catch(JSONException je) {
-							getLogger().logUWS(LogLevel.ERROR, job, "BACKUP", "Unexpected JSON error while saving the job '" + job.getJobId() + "'!", je);
+							getLogger().logUWS(LogLevel.ERROR, user, "BACKUP", "Unexpected JSON error while saving the user '" + user.getID() + "'!", je);
 						}
 					}
-				}
-				out.endArray();
+					out.endArray();
+					writer.flush();
+
+					// Write all jobs:
+					out.key("jobs").array();
+					for(JobList jl : uws) {
+						for(UWSJob job : jl) {
+							nbJobs++;
+							try {
+								out.value(getJSONJob(job, jl.getName()));
+								nbSavedJobs++;
+								writer.flush();
+							} catch(UWSException ue) {
+								getLogger().logUWS(LogLevel.ERROR, job, "BACKUP", "Unexpected UWS error while saving the job '" + job.getJobId() + "'!", ue);
+							} catch(JSONException je) {
+								getLogger().logUWS(LogLevel.ERROR, job, "BACKUP", "Unexpected JSON error while saving the job '" + job.getJobId() + "'!", je);
+							}
+						}
+					}
+					out.endArray();
 
-				// End the general structure:
-				out.endObject();
+					// End the general structure:
+					out.endObject();
 
-			} catch(JSONException je) {
-				getLogger().logUWS(LogLevel.ERROR, null, "BACKUP", "Unexpected JSON error while saving the whole UWS !", je);
-			} catch(IOException ie) {
-				getLogger().logUWS(LogLevel.ERROR, null, "BACKUP", "Unexpected IO error while saving the whole UWS !", ie);
-			} finally {
-				// Close the writer:
-				if (writer != null)
+					// Check that the whole file has been written (a PrintWriter does not throw any IOException):
 					writer.close();
+					if (writer.checkError())
+						throw new IOException("Error while writing the backup file!");
+
+				} catch(JSONException je) {
+					getLogger().logUWS(LogLevel.ERROR, null, "BACKUP", "Unexpected JSON error while saving the whole UWS !", je);
+					// the whole UWS must be saved again at the next backup:
+					dirty = true;
+				} catch(IOException ie) {
+					getLogger().logUWS(LogLevel.ERROR, null, "BACKUP", "Unexpected IO error while saving the whole UWS !", ie);
+					// the whole UWS must be saved again at the next backup:
+					dirty = true;
+				} finally {
+					// Close the writer:
+					if (writer != null)
+						writer.close();
+				}
+			}
+
+			// Count the incremental backups:
+			if (fullBackup)
+				nbIncrementalBackups = 0;
+			else
+				nbIncrementalBackups++;
+
+			// Build the report and log it:
+			int[] report = new int[]{ nbSavedJobs, nbJobs, nbSavedOwners, nbOwners };
+			getLogger().logUWS(LogLevel.INFO, report, "BACKUPED", "UWS Service \"" + uws.getName() + "\" " + (fullBackup ? "" : "incrementally ") + "backuped!", null);
+
+			lastBackup = new Date();
+
+			return report;
+		}
+	}
+
+	/**
+	 * List all users owning at least one job in this UWS.
+	 *
+	 * @param users	Map in which all users must be put (by ID).
+	 *
+	 * @since 4.6
+	 */
+	protected void listUsers(final Map<String, JobOwner> users) {
+		for(JobList jl : uws) {
+			Iterator<JobOwner> it = jl.getUsers();
+			while(it.hasNext()) {
+				JobOwner owner = it.next();
+				users.put(owner.getID(), owner);
 			}
 		}
+	}
 
-		// Build the report and log it:
-		int[] report = new int[]{ nbSavedJobs, nbJobs, nbSavedOwners, nbOwners };
-		getLogger().logUWS(LogLevel.INFO, report, "BACKUPED", "UWS Service \"" + uws.getName() + "\" backuped!", null);
+	/**
+	 * Forget all changes notified since the last backup.
+	 *
+	 * @return	The users whose jobs changed since the last backup (by ID).
+	 *        	<i>Only filled in the mode "by user".</i>
+	 *
+	 * @since 4.6
+	 */
+	protected final Map<String, JobOwner> takeDirtyOwners() {
+		dirty = false;
+		HashMap<String, JobOwner> owners = new HashMap<String, JobOwner>(dirtyOwners.size());
+		Iterator<Map.Entry<String, JobOwner>> it = dirtyOwners.entrySet().iterator();
+		while(it.hasNext()) {
+			Map.Entry<String, JobOwner> entry = it.next();
+			owners.put(entry.getKey(), entry.getValue());
+			it.remove();
+		}
+		return owners;
+	}
 
-		lastBackup = new Date();
+	/**
+	 * Remember that the jobs of the given user changed since the last backup.
+	 *
+	 * @param owner	Owner of the modified job. <i>May be NULL.</i>
+	 *
+	 * @since 4.6
+	 */
+	protected final void setDirty(final JobOwner owner) {
+		dirty = true;
+		if (byUser && owner != null && owner.getID() != null)
+			dirtyOwners.put(owner.getID(), owner);
+	}
 
-		return report;
+	/**
+	 * Remember that the jobs of the owner of the given job changed since the last backup.
+	 *
+	 * @see #setDirty(JobOwner)
+	 *
+	 * @since 4.6
+	 */
+	@Override
+	public void update(final UWSJob job, final ExecutionPhase oldPhase, final ExecutionPhase newPhase) {
+		if (job != null)
+			setDirty(job.getOwner());
 	}
 
 	@Override
@@ -428,9 +702,12 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 		if (!enabled)
 			return null;
 
-		// DO NOTHING if the "save" order does not come from saveAll():
-		if (!fromSaveAll && backupFreq != AT_USER_ACTION)
+		// DO NOTHING if the "save" order does not come from saveAll()...
+		if (!fromSaveAll && backupFreq != AT_USER_ACTION) {
+			// ...except remembering that the jobs of this user must be saved:
+			setDirty(user);
 			return new int[]{ -1, -1 };
+		}
 
 		UWSFileManager fileManager = uws.getFileManager();
 		int[] saveReport = new int[]{ 0, 0 };
@@ -472,6 +749,11 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 			// End the general structure:
 			out.endObject();
 
+			// Check that the whole file has been written (a PrintWriter does not throw any IOException):
+			writer.close();
+			if (writer.checkError())
+				throw new IOException("Error while writing the backup file!");
+
 			// Log the "save" report:
 			getLogger().logUWS(LogLevel.INFO, saveReport, "BACKUPED", "UWS backuped!", null);
 
@@ -489,6 +771,9 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 				writer.close();
 		}
 
+		// The backup failed => the jobs of this user must be saved again at the next backup:
+		setDirty(user);
+
 		return null;
 	}
 
@@ -735,9 +1020,6 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 		for(JobList jl : uws)
 			jl.clear();
 
-		int nbRestoredJobs = 0, nbRestoredUsers = 0;
-		int nbJobs = 0, nbUsers = 0;
-
 		boolean userIdentificationEnabled = (uws.getUserIdentifier() != null);
 
 		UWSFileManager fileManager = uws.getFileManager();
@@ -759,39 +1041,202 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 			}
 		}
 
-		// For each backup file...
-		while(itInput.hasNext()) {
-			InputStream inputStream = itInput.next();
+		// Read all backup files (in parallel if there is one file per user):
+		final RestorationProgress progress = new RestorationProgress();
+		final int nbThreads = byUser ? restoreParallelism : 1;
+		final long start = System.currentTimeMillis();
+		if (nbThreads <= 1) {
+			restoreInputs(itInput, userIdentificationEnabled, progress);
+		} else {
+			final Iterator<InputStream> inputs = itInput;
+			final boolean userIdentification = userIdentificationEnabled;
+			List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>(nbThreads);
+			for(int i = 0; i < nbThreads; i++) {
+				tasks.add(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						restoreInputs(inputs, userIdentification, progress);
+						return true;
+					}
+				});
+			}
+			ForkJoinPool pool = new ForkJoinPool(nbThreads);
+			try {
+				for(Future<Boolean> result : pool.invokeAll(tasks))
+					result.get();
+			} catch(InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Restoration of the UWS " + uws.getName() + " interrupted!", ie);
+				return null;
+			} catch(ExecutionException ee) {
+				getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Unexpected error while restoring the UWS!", ee.getCause());
+				return null;
+			} finally {
+				pool.shutdown();
+			}
+		}
+		if (progress.failed)
+			return null;
+		int nbRestoredJobs = progress.report[0], nbJobs = progress.report[1], nbRestoredUsers = progress.report[2], nbUsers = progress.report[3];
+
+		if (!userIdentificationEnabled && nbUsers > 0)
+			getLogger().logUWS(LogLevel.WARNING, null, "RESTORATION", nbUsers + " job owners have not been restored because the user identification is disabled in this UWS! => Jobs of these users have not been restored.", null);
+
+		/* The backup is now up-to-date:
+		 * (the changes implied by the restoration do not have to be saved) */
+		synchronized (backupLock) {
+			takeDirtyOwners();
+			nbJobsAtLastBackup = 0;
+			for(JobList jl : uws)
+				nbJobsAtLastBackup += jl.getNbJobs();
+			nbIncrementalBackups = 0;
+		}
+
+		// Build the restoration report and log it:
+		int[] report = new int[]{ nbRestoredJobs, nbJobs, nbRestoredUsers, nbUsers };
+		getLogger().logUWS(LogLevel.INFO, report, "RESTORED", "UWS restored in " + (System.currentTimeMillis() - start) + "ms (" + progress.nbFiles + " backup files read)!", null);
+
+		return report;
+	}
+
+	/**
+	 * Restore the backup files given by the specified iterator, until there is no more file to read
+	 * or until a file can not be read.
+	 *
+	 * <p><i>Note:
+	 * 	This function may be called by several threads at the same time, with the same iterator and
+	 * 	progress object. Each file is read by only one thread.
+	 * </i></p>
+	 *
+	 * @param itInput					Iterator over all the backup files to read.
+	 * @param userIdentificationEnabled	Whether users can be restored.
+	 * @param progress					Restoration report to update.
+	 *                					<i>If a file can not be read, it is marked as failed, and all threads stop reading files.</i>
+	 *
+	 * @since 4.6
+	 */
+	private void restoreInputs(final Iterator<InputStream> itInput, final boolean userIdentificationEnabled, final RestorationProgress progress) {
+		while(!progress.failed) {
+			// Get the next backup file to read (if any):
+			InputStream inputStream;
+			synchronized (itInput) {
+				if (!itInput.hasNext())
+					return;
+				inputStream = itInput.next();
+			}
 			if (inputStream == null)
 				continue;
 
-			// Create the JSON reader:
-			JSONTokener in = new JSONTokener(new InputStreamReader(inputStream));
+			// Restore all its users and jobs:
+			int[] fileReport = restoreInput(inputStream, userIdentificationEnabled);
 
-			HashMap<String, JobOwner> users = new HashMap<String, JobOwner>();
-			String key;
-			JSONObject object = null;
+			// Update the restoration report:
+			int nbFiles, nbRestoredJobs;
+			synchronized (progress) {
+				if (fileReport == null) {
+					progress.failed = true;
+					return;
+				}
+				for(int i = 0; i < progress.report.length; i++)
+					progress.report[i] += fileReport[i];
+				nbFiles = ++progress.nbFiles;
+				nbRestoredJobs = progress.report[0];
+			}
 
-			try {
-				// Reads progressively the general structure (which is theoretically a JSON object):
-				JSONObjectReader itKeys = new JSONObjectReader(in, getLogger());
-				while(itKeys.hasNext()) {
+			// Report the progression:
+			if (nbFiles % RESTORATION_PROGRESS_STEP == 0)
+				getLogger().logUWS(LogLevel.INFO, null, "RESTORATION", nbFiles + " backup files read (" + nbRestoredJobs + " jobs restored so far)...", null);
+		}
+	}
 
-					// name of the current attribute:
-					key = itKeys.next();
-					if (key == null)
-						break;
+	/**
+	 * Progression of a restoration.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	private final static class RestorationProgress {
+		/** Number of restored jobs, number of all jobs, number of restored users and number of all users. */
+		final int[] report = new int[]{ 0, 0, 0, 0 };
+		/** Number of read backup files. */
+		int nbFiles = 0;
+		/** Whether a backup file can not be read. */
+		volatile boolean failed = false;
+	}
 
-					// key=DATE:
-					if (key.equalsIgnoreCase("date"))
-						itKeys.getValue();
+	/**
+	 * Restore all users and jobs saved in the given backup file.
+	 *
+	 * <p><i>Note:
+	 * 	This function may be called by several threads at the same time (on different files).
+	 * </i></p>
+	 *
+	 * @param inputStream				Stream toward the backup file to read. <i>It is closed by this function.</i>
+	 * @param userIdentificationEnabled	Whether users can be restored.
+	 *
+	 * @return	An array with the following information: number of restored jobs, number of all jobs, number of restored users and number of all users,
+	 *        	or <i>null</i> if the backup file can not be read.
+	 *
+	 * @since 4.6
+	 */
+	protected int[] restoreInput(final InputStream inputStream, final boolean userIdentificationEnabled) {
+		int nbRestoredJobs = 0, nbRestoredUsers = 0;
+		int nbJobs = 0, nbUsers = 0;
+
+		// Create the JSON reader:
+		JSONTokener in = new JSONTokener(new InputStreamReader(inputStream));
+
+		HashMap<String, JobOwner> users = new HashMap<String, JobOwner>();
+		String key;
+		JSONObject object = null;
+
+		try {
+			// Reads progressively the general structure (which is theoretically a JSON object):
+			JSONObjectReader itKeys = new JSONObjectReader(in, getLogger());
+			while(itKeys.hasNext()) {
+
+				// name of the current attribute:
+				key = itKeys.next();
+				if (key == null)
+					break;
+
+				// key=DATE:
+				if (key.equalsIgnoreCase("date"))
+					itKeys.getValue();
 
-					// key=USER (note: this key exists only in the backup file of a specified user):
-					else if (key.equalsIgnoreCase("user")) {
+				// key=USER (note: this key exists only in the backup file of a specified user):
+				else if (key.equalsIgnoreCase("user")) {
+					nbUsers++;
+					try {
+						// the value is supposed to be a JSON object:
+						object = itKeys.getJSONObject();
+						if (object == null) {
+							nbUsers--;
+							continue;
+						}
+						if (userIdentificationEnabled) {
+							// build the corresponding instance of DefaultJobOwner:
+							JobOwner user = getUser(object);
+							if (user != null) {
+								users.put(user.getID(), user);
+								nbRestoredUsers++;
+							}
+						}
+					} catch(UWSException ue) {
+						getLogger().logUWS(LogLevel.ERROR, object, "RESTORATION", "A job owner can not be restored!", ue);
+						//break;	// Because, the key "user" is found ONLY in the backup file of a user. If the user can not be restored, its jobs won't be !
+					}
+
+				}// key=USERS (note: this key exists only in the backup file of the whole UWS):
+				else if (key.equalsIgnoreCase("users")) {
+					// the value is supposed to be an array of JSON objects:
+					Iterator<JSONObject> it = itKeys.getArrayReader();
+					while(it.hasNext()) {
 						nbUsers++;
 						try {
-							// the value is supposed to be a JSON object:
-							object = itKeys.getJSONObject();
+							// get the JSON object corresponding to the current user:
+							object = it.next();
 							if (object == null) {
 								nbUsers--;
 								continue;
@@ -805,87 +1250,53 @@ public class DefaultUWSBackupManager implements UWSBackupManager {
 								}
 							}
 						} catch(UWSException ue) {
-							getLogger().logUWS(LogLevel.ERROR, object, "RESTORATION", "A job owner can not be restored!", ue);
-							//break;	// Because, the key "user" is found ONLY in the backup file of a user. If the user can not be restored, its jobs won't be !
-						}
-
-					}// key=USERS (note: this key exists only in the backup file of the whole UWS):
-					else if (key.equalsIgnoreCase("users")) {
-						// the value is supposed to be an array of JSON objects:
-						Iterator<JSONObject> it = itKeys.getArrayReader();
-						while(it.hasNext()) {
-							nbUsers++;
-							try {
-								// get the JSON object corresponding to the current user:
-								object = it.next();
-								if (object == null) {
-									nbUsers--;
-									continue;
-								}
-								if (userIdentificationEnabled) {
-									// build the corresponding instance of DefaultJobOwner:
-									JobOwner user = getUser(object);
-									if (user != null) {
-										users.put(user.getID(), user);
-										nbRestoredUsers++;
-									}
-								}
-							} catch(UWSException ue) {
-								getLogger().logUWS(LogLevel.ERROR, object, "RESTORATION", "The " + nbUsers + "-th user can not be restored!", ue);
-							}
+							getLogger().logUWS(LogLevel.ERROR, object, "RESTORATION", "The " + nbUsers + "-th user can not be restored!", ue);
 						}
+					}
 
-					}// JOBS:
-					else if (key.equalsIgnoreCase("jobs")) {
-						// the value is supposed to be an array of JSON objects:
-						Iterator<JSONObject> it = itKeys.getArrayReader();
-						while(it.hasNext()) {
-							nbJobs++;
-							try {
-								// get the JSON object corresponding to the current job:
-								object = it.next();
-								if (object == null) {
-									nbJobs--;
-									continue;
-								}
-								// build the corresponding instance of UWSJob:
-								if (restoreJob(object, users))
-									nbRestoredJobs++;
-							} catch(UWSException ue) {
-								getLogger().logUWS(LogLevel.ERROR, object, "RESTORATION", "The " + nbJobs + "-th job can not be restored!", ue);
+				}// JOBS:
+				else if (key.equalsIgnoreCase("jobs")) {
+					// the value is supposed to be an array of JSON objects:
+					Iterator<JSONObject> it = itKeys.getArrayReader();
+					while(it.hasNext()) {
+						nbJobs++;
+						try {
+							// get the JSON object corresponding to the current job:
+							object = it.next();
+							if (object == null) {
+								nbJobs--;
+								continue;
 							}
+							// build the corresponding instance of UWSJob:
+							if (restoreJob(object, users))
+								nbRestoredJobs++;
+						} catch(UWSException ue) {
+							getLogger().logUWS(LogLevel.ERROR, object, "RESTORATION", "The " + nbJobs + "-th job can not be restored!", ue);
 						}
+					}
 
-					}// any other key is ignore but with a warning message:
-					else
-						getLogger().logUWS(LogLevel.WARNING, null, "RESTORATION", "Key '" + key + "' ignored because unknown! The UWS may be not completely restored.", null);
-				}
-			} catch(JSONException je) {
-				getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Incorrect JSON format for a UWS backup file!", je);
-				return null;
-			} catch(Exception e) {
-				getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Unexpected error while restoring the UWS!", e);
-				return null;
-			} finally {
-				// Close the reader:
-				try {
-					inputStream.close();
-				} catch(IOException ioe) {
-					getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Can not close the input stream opened on a user backup file!", ioe);
-				}
-				// Set the last restoration date:
-				lastRestoration = new Date();
+				}// any other key is ignore but with a warning message:
+				else
+					getLogger().logUWS(LogLevel.WARNING, null, "RESTORATION", "Key '" + key + "' ignored because unknown! The UWS may be not completely restored.", null);
+			}
+		} catch(JSONException je) {
+			getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Incorrect JSON format for a UWS backup file!", je);
+			return null;
+		} catch(Exception e) {
+			getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Unexpected error while restoring the UWS!", e);
+			return null;
+		} finally {
+			// Close the reader:
+			try {
+				inputStream.close();
+			} catch(IOException ioe) {
+				getLogger().logUWS(LogLevel.ERROR, null, "RESTORATION", "Can not close the input stream opened on a user backup file!", ioe);
 			}
+			// Set the last restoration date:
+			lastRestoration = new Date();
 		}
 
-		if (!userIdentificationEnabled && nbUsers > 0)
-			getLogger().logUWS(LogLevel.WARNING, null, "RESTORATION", nbUsers + " job owners have not been restored because the user identification is disabled in this UWS! => Jobs of these users have not been restored.", null);
-
-		// Build the restoration report and log it:
-		int[] report = new int[]{ nbRestoredJobs, nbJobs, nbRestoredUsers, nbUsers };
-		getLogger().logUWS(LogLevel.INFO, report, "RESTORED", "UWS restored!", null);
-
-		return report;
+		return new int[]{ nbRestoredJobs, nbJobs, nbRestoredUsers, nbUsers };
 	}
 
 	/**
@@ -0,0 +1,190 @@
+package uws.service.file;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import uws.UWSException;
+import uws.job.Result;
+import uws.job.UWSJob;
+import uws.service.file.blob.BlobStore;
+import uws.service.file.blob.ContentAddressedStore;
+
+/**
+ * <p>{@link UWSFileManager} storing the job results in a
+ * {@link ContentAddressedStore}, and all other files (logs, errors, uploads
+ * and backups) on the local machine like {@link LocalUWSFileManager}.</p>
+ *
+ * <p>
+ * 	Since the results are not stored on the local file system any more (or
+ * 	in a directory shared between several machines, with a
+ * 	{@link uws.service.file.blob.LocalBlobStore}), they can be read by all the
+ * 	instances of a same service running on different machines.
+ * </p>
+ *
+ * <p>
+ * 	Results are cut into chunks ; identical chunks (and so identical results)
+ * 	are stored only once. The space really used by all results is given by
+ * 	{@link ContentAddressedStore#getStoredSize()}.
+ * </p>
+ *
+ * <p>
+ * 	The key of a result in the store is, by default, its file name (see
+ * 	{@link #getResultFileName(Result, UWSJob)}). It may be customised by
+ * 	overriding {@link #getResultKey(Result, UWSJob)}.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	The threads of the result store are stopped by {@link #close()}, which
+ * 	is called by the UWS and TAP services when they are destroyed.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ */
+public class BlobUWSFileManager extends LocalUWSFileManager implements Closeable {
+
+	/** Store of all job results. */
+	protected final ContentAddressedStore resultStore;
+
+	/**
+	 * <p>Builds a {@link UWSFileManager} which stores the job results in the
+	 * given store and all other files in the given directory.</p>
+	 * <p>
+	 * 	There will be one directory for each owner ID and owner directories
+	 * 	will be grouped thanks to {@link DefaultOwnerGroupIdentifier}.
+	 * </p>
+	 *
+	 * @param root			UWS root directory.
+	 * @param resultStore	Store of the job results.
+	 *
+	 * @throws NullPointerException	If the given root directory or store is <i>null</i>.
+	 * @throws UWSException			If the given file is not a directory or has not the READ and WRITE permissions.
+	 *
+	 * @see LocalUWSFileManager#LocalUWSFileManager(File)
+	 */
+	public BlobUWSFileManager(final File root, final ContentAddressedStore resultStore) throws UWSException{
+		this(root, true, true, null, resultStore);
+	}
+
+	/**
+	 * Builds a {@link UWSFileManager} which stores the job results in the
+	 * given store and all other files in the given directory.
+	 *
+	 * @param root						UWS root directory.
+	 * @param oneDirectoryForEachUser	<i>true</i> to create one directory for each owner ID, <i>false</i> otherwise.
+	 * @param groupUserDirectories		<i>true</i> to group user directories, <i>false</i> otherwise.
+	 * 									<i><u>note:</u> this value is ignored if the previous parameter is false.</i>
+	 * @param ownerGroupIdentifier		The "function" to use to identify the group of a job owner.
+	 * 									<i>See {@link LocalUWSFileManager#LocalUWSFileManager(File, boolean, boolean, OwnerGroupIdentifier)}.</i>
+	 * @param resultStore				Store of the job results.
+	 *
+	 * @throws NullPointerException	If the given root directory or store is <i>null</i>.
+	 * @throws UWSException			If the given file is not a directory or has not the READ and WRITE permissions.
+	 */
+	public BlobUWSFileManager(final File root, final boolean oneDirectoryForEachUser, final boolean groupUserDirectories, final OwnerGroupIdentifier ownerGroupIdentifier, final ContentAddressedStore resultStore) throws UWSException{
+		super(root, oneDirectoryForEachUser, groupUserDirectories, ownerGroupIdentifier);
+		if (resultStore == null)
+			throw new NullPointerException("Missing result store! Impossible to create a BlobUWSFileManager.");
+		this.resultStore = resultStore;
+	}
+
+	/**
+	 * Gets the store of all job results.
+	 *
+	 * @return	The result store.
+	 */
+	public final ContentAddressedStore getResultStore(){
+		return resultStore;
+	}
+
+	/**
+	 * Stop the threads (transfers and garbage collection) of the result store.
+	 *
+	 * <p><i>Note:
+	 * 	This function must be called when this file manager is not used any
+	 * 	more (e.g. when the service is destroyed).
+	 * </i></p>
+	 *
+	 * @see ContentAddressedStore#close()
+	 */
+	@Override
+	public void close(){
+		resultStore.close();
+	}
+
+	/* *********************** */
+	/* RESULT FILES MANAGEMENT */
+	/* *********************** */
+	/**
+	 * <p>Gets the key of the given result in the result store.</p>
+	 * <p>By default: {@link #getResultFileName(Result, UWSJob)}</p>
+	 *
+	 * <p><i>Note:
+	 * 	The key must be unique for all the services sharing the same
+	 * 	{@link BlobStore}.
+	 * </i></p>
+	 *
+	 * @param result	The result whose the key is asked.
+	 * @param job		The job which owns the given result.
+	 *
+	 * @return	Key of the given result.
+	 */
+	protected String getResultKey(final Result result, final UWSJob job){
+		return getResultFileName(result, job);
+	}
+
+	/**
+	 * Results are not stored in local files: this function always returns
+	 * NULL.
+	 *
+	 * @see LocalUWSFileManager#getLocalResultFile(Result, UWSJob)
+	 */
+	@Override
+	public File getLocalResultFile(final Result result, final UWSJob job){
+		return null;
+	}
+
+	@Override
+	public InputStream getResultInput(final Result result, final UWSJob job) throws IOException{
+		return resultStore.openInput(getResultKey(result, job));
+	}
+
+	@Override
+	public OutputStream getResultOutput(final Result result, final UWSJob job) throws IOException{
+		return resultStore.openOutput(getResultKey(result, job));
+	}
+
+	@Override
+	public long getResultSize(final Result result, final UWSJob job) throws IOException{
+		return resultStore.getSize(getResultKey(result, job));
+	}
+
+	@Override
+	public boolean deleteResult(final Result result, final UWSJob job) throws IOException{
+		return resultStore.delete(getResultKey(result, job));
+	}
+
+}
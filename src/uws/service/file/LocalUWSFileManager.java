@@ -78,7 +78,7 @@ import uws.service.request.UploadFile;
  * </p>
  *
  * @author Gr&eacute;gory Mantelet (CDS;ARI)
- * @version 4.5 (02/2025)
+ * @version 4.6 (10/2026)
  */
 public class LocalUWSFileManager implements UWSFileManager {
 
@@ -604,6 +604,30 @@ public class LocalUWSFileManager implements UWSFileManager {
 		return new File(ownerDir, getResultFileName(result, job));
 	}
 
+	/**
+	 * <p>Gets the local file in which the given result is stored.</p>
+	 *
+	 * <p>
+	 * 	This lets send the result directly from the file (see
+	 * 	{@link uws.UWSToolBox#write(File, String, javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)}),
+	 * 	without any intermediate stream and with the support of HTTP ranges.
+	 * </p>
+	 *
+	 * @param result	The result whose the file is asked.
+	 * @param job		The job which owns the given result.
+	 *
+	 * @return	The file of the given result,
+	 *        	or NULL if it does not exist.
+	 *
+	 * @see #getResultFile(Result, UWSJob)
+	 *
+	 * @since 4.6
+	 */
+	public File getLocalResultFile(final Result result, final UWSJob job){
+		File resultFile = getResultFile(result, job);
+		return (resultFile != null && resultFile.isFile()) ? resultFile : null;
+	}
+
 	@Override
 	public InputStream getResultInput(Result result, UWSJob job) throws IOException{
 		File resultFile = getResultFile(result, job);
@@ -668,6 +692,25 @@ public class LocalUWSFileManager implements UWSFileManager {
 		return new File(ownerDir, getErrorFileName(error, job));
 	}
 
+	/**
+	 * Gets the local file in which the details of the given error are stored.
+	 *
+	 * @param error		The error whose the file is asked.
+	 * @param job		The job which owns the given error.
+	 *
+	 * @return	The file of the given error,
+	 *        	or NULL if it does not exist.
+	 *
+	 * @see #getErrorFile(ErrorSummary, UWSJob)
+	 * @see #getLocalResultFile(Result, UWSJob)
+	 *
+	 * @since 4.6
+	 */
+	public File getLocalErrorFile(final ErrorSummary error, final UWSJob job){
+		File errorFile = getErrorFile(error, job);
+		return (errorFile != null && errorFile.isFile()) ? errorFile : null;
+	}
+
 	@Override
 	public InputStream getErrorInput(ErrorSummary error, UWSJob job) throws IOException{
 		File errorFile = getErrorFile(error, job);
@@ -0,0 +1,136 @@
+package uws.service.file.blob;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * <p>Minimal object store, following the model of the S3 API: objects are
+ * identified by a key, written at once, read entirely and listed by key
+ * prefix.</p>
+ *
+ * <p>
+ * 	Keys are made of segments separated by a <code>/</code>. A segment can
+ * 	not be empty, <code>.</code> or <code>..</code>.
+ * </p>
+ *
+ * <p>
+ * 	Writing an object ({@link #put(String, byte[], int)}) must be atomic:
+ * 	a reader must see either the previous object or the new one, but never
+ * 	a partially written one. No other guarantee (e.g. locking) is expected.
+ * </p>
+ *
+ * <p>
+ * 	{@link LocalBlobStore} implements this interface on a local (or mounted)
+ * 	directory. An implementation for an S3-compatible service only has to
+ * 	map these functions on the corresponding HTTP requests (PUT, GET, HEAD,
+ * 	DELETE and ListObjects).
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ *
+ * @see ContentAddressedStore
+ */
+public interface BlobStore {
+
+	/**
+	 * Tell whether an object is stored with the given key.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	<code>true</code> if the object exists,
+	 *        	<code>false</code> otherwise.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public boolean exists(final String key) throws IOException;
+
+	/**
+	 * Get the size (in bytes) of the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	Size of the object, or -1 if it does not exist.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public long getSize(final String key) throws IOException;
+
+	/**
+	 * Open the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	The content of the object, or NULL if it does not exist.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public InputStream get(final String key) throws IOException;
+
+	/**
+	 * Store an object. If an object already exists with the same key, it is
+	 * replaced.
+	 *
+	 * @param key		Key of the object.
+	 * @param content	Buffer containing the content of the object.
+	 * @param length	Number of bytes of the buffer to store.
+	 *
+	 * @throws IOException	If the object can not be stored.
+	 */
+	public void put(final String key, final byte[] content, final int length) throws IOException;
+
+	/**
+	 * Delete the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	<code>true</code> if the object has been deleted,
+	 *        	<code>false</code> if it does not exist.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public boolean delete(final String key) throws IOException;
+
+	/**
+	 * List the keys of all objects starting with the given prefix.
+	 *
+	 * @param prefix	Prefix of the keys to list.
+	 *              	<i>If NULL or empty, all the keys are listed.</i>
+	 *
+	 * @return	The matching keys (in no particular order).
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public List<String> list(final String prefix) throws IOException;
+
+	/**
+	 * Get the total size (in bytes) of all the objects of this store.
+	 *
+	 * @return	The size used by this store.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public long getTotalSize() throws IOException;
+
+}
@@ -0,0 +1,1092 @@
+package uws.service.file.blob;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uws.UWSToolBox;
+
+/**
+ * <p>Content-addressed storage of large objects (e.g. job results) in a
+ * {@link BlobStore}.</p>
+ *
+ * <p>
+ * 	An object is cut into chunks of {@link #getChunkSize()} bytes. Each chunk
+ * 	is stored only once, with the SHA-256 hash of its content as key. Thus,
+ * 	identical objects (or identical parts of objects) share the same chunks.
+ * 	The object itself is only a small manifest listing its chunks.
+ * </p>
+ *
+ * <p>The following keys are used in the {@link BlobStore}:</p>
+ * <ul>
+ * 	<li><code>objects/{key}</code>: manifest of an object,</li>
+ * 	<li><code>chunks/{hash[0..1]}/{hash}</code>: content of a chunk,</li>
+ * 	<li><code>refs/{hash}/{version}</code>: empty object meaning that the
+ * 		given version of an object uses this chunk,</li>
+ * 	<li><code>gc/{hash}</code>: time (in milliseconds since 1970) at which
+ * 		the chunk has been found without any reference.</li>
+ * </ul>
+ *
+ * <p>
+ * 	Each version of an object has a unique identifier, so that writing again
+ * 	an object does not interfere with the references of its previous
+ * 	version. Deleting an object only removes its references ; its chunks are
+ * 	deleted later by the garbage collection (see below).
+ * </p>
+ *
+ * <h3>Parallel reads and writes</h3>
+ *
+ * <p>
+ * 	An object is written in a streaming way ({@link #openOutput(String)}):
+ * 	each chunk is uploaded as soon as it is full, while the next one is
+ * 	filled. At most {@link #getParallelism()} chunks of a stream are uploaded
+ * 	at the same time. The manifest is stored only when the stream is closed ;
+ * 	before that, the object does not exist (or still has its previous
+ * 	content).
+ * </p>
+ *
+ * <p>
+ * 	Similarly, when an object is read ({@link #openInput(String)}), the
+ * 	{@link #getParallelism()} next chunks are downloaded in parallel while
+ * 	the current one is read.
+ * </p>
+ *
+ * <p><i>Note:
+ * 	The transfers of all streams are done by a single pool of
+ * 	{@link #getParallelism()} threads. This pool must be stopped with
+ * 	{@link #close()} when the store is not used any more.
+ * </i></p>
+ *
+ * <h3>Garbage collection</h3>
+ *
+ * <p>
+ * 	The chunks which are not referenced any more are deleted by
+ * 	{@link #collectGarbage()}, run automatically every
+ * 	{@link #getGracePeriod()} milliseconds. It works in two steps:
+ * </p>
+ * <ol>
+ * 	<li><i>mark:</i> a chunk without any reference is marked with the current
+ * 		time,</li>
+ * 	<li><i>sweep:</i> a marked chunk is deleted only if it is still not
+ * 		referenced after the grace period. If a reference appeared in the
+ * 		meantime, the mark is removed.</li>
+ * </ol>
+ *
+ * <p>
+ * 	Thus, a chunk is never deleted while it is being read (e.g. by a reader
+ * 	of the previous version of an object), unless this reading lasts longer
+ * 	than the grace period.
+ * </p>
+ *
+ * <h3>Concurrency</h3>
+ *
+ * <p>
+ * 	No lock is used: the same {@link BlobStore} can be shared by several
+ * 	instances of this class, even in different JVMs (e.g. several machines
+ * 	using the same network directory). The following order of the
+ * 	operations guarantees that no referenced chunk is lost:
+ * </p>
+ * <ul>
+ * 	<li>a writer always stores the reference of a chunk <i>before</i>
+ * 		checking whether the chunk already exists,</li>
+ * 	<li>the garbage collection reads the content of a chunk before deleting
+ * 		it, and stores it again if a reference appeared while it was being
+ * 		deleted.</li>
+ * </ul>
+ * <p>
+ * 	If a chunk is deleted by the garbage collection after a writer has seen
+ * 	it, the garbage collection necessarily sees the new reference and
+ * 	restores the chunk ; otherwise, the writer does not see the chunk and
+ * 	stores it itself.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ */
+public class ContentAddressedStore {
+
+	/** Default size (in bytes) of a chunk: 1 MB. */
+	public final static int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+	/** Default number of chunks uploaded or downloaded in parallel. */
+	public final static int DEFAULT_PARALLELISM = 4;
+
+	/** Default time (in milliseconds) during which a chunk must stay
+	 * unreferenced before being deleted: 1 hour. */
+	public final static long DEFAULT_GRACE_PERIOD = 3600000;
+
+	/** Prefix of the keys of the object manifests. */
+	protected final static String OBJECTS_PREFIX = "objects/";
+	/** Prefix of the keys of the chunks. */
+	protected final static String CHUNKS_PREFIX = "chunks/";
+	/** Prefix of the keys of the chunk references. */
+	protected final static String REFS_PREFIX = "refs/";
+	/** Prefix of the keys of the garbage collection marks. */
+	protected final static String MARKS_PREFIX = "gc/";
+
+	/** First word of a manifest. */
+	protected final static String MANIFEST_HEADER = "CAS1";
+
+	/** Number of times the download of a missing chunk is tried again. */
+	private final static int NB_DOWNLOAD_RETRIES = 3;
+
+	/** Time (in milliseconds) to wait before trying again the download of a
+	 * missing chunk. */
+	private final static long DOWNLOAD_RETRY_DELAY = 50;
+
+	/** Content of a chunk reference. */
+	private final static byte[] EMPTY = new byte[0];
+
+	/** Store of all manifests, chunks and references. */
+	protected final BlobStore store;
+
+	/** Size (in bytes) of a chunk. */
+	protected final int chunkSize;
+
+	/** Maximum number of chunks uploaded or downloaded in parallel for one
+	 * stream. */
+	protected final int parallelism;
+
+	/** Time (in milliseconds) during which a chunk must stay unreferenced
+	 * before being deleted. */
+	protected final long gracePeriod;
+
+	/** Threads uploading and downloading the chunks. */
+	protected final ExecutorService executor;
+
+	/** Thread running periodically the garbage collection.
+	 * <i>NULL if the garbage collection is not automatic.</i> */
+	protected final ScheduledExecutorService gcExecutor;
+
+	/** Number of chunks which were already stored when written. */
+	private final AtomicLong nbDeduplicatedChunks = new AtomicLong(0);
+
+	/**
+	 * Build a content-addressed store with the default chunk size
+	 * ({@value #DEFAULT_CHUNK_SIZE}), parallelism
+	 * ({@value #DEFAULT_PARALLELISM}) and grace period
+	 * ({@value #DEFAULT_GRACE_PERIOD} ms).
+	 *
+	 * @param store	The store in which objects must be stored.
+	 *
+	 * @throws NullPointerException	If the given store is NULL.
+	 */
+	public ContentAddressedStore(final BlobStore store) throws NullPointerException{
+		this(store, DEFAULT_CHUNK_SIZE, DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * Build a content-addressed store with the default grace period
+	 * ({@value #DEFAULT_GRACE_PERIOD} ms).
+	 *
+	 * @param store			The store in which objects must be stored.
+	 * @param chunkSize		Size (in bytes) of a chunk.
+	 *                 		<i>If &le; 0, {@value #DEFAULT_CHUNK_SIZE} is used.</i>
+	 * @param parallelism	Number of chunks uploaded or downloaded in parallel.
+	 *                   	<i>If &le; 0, {@value #DEFAULT_PARALLELISM} is used.</i>
+	 *
+	 * @throws NullPointerException	If the given store is NULL.
+	 */
+	public ContentAddressedStore(final BlobStore store, final int chunkSize, final int parallelism) throws NullPointerException{
+		this(store, chunkSize, parallelism, DEFAULT_GRACE_PERIOD);
+	}
+
+	/**
+	 * Build a content-addressed store.
+	 *
+	 * @param store			The store in which objects must be stored.
+	 * @param chunkSize		Size (in bytes) of a chunk.
+	 *                 		<i>If &le; 0, {@value #DEFAULT_CHUNK_SIZE} is used.</i>
+	 * @param parallelism	Number of chunks uploaded or downloaded in parallel.
+	 *                   	<i>If &le; 0, {@value #DEFAULT_PARALLELISM} is used.</i>
+	 * @param gracePeriod	Time (in milliseconds) during which a chunk must
+	 *                   	stay unreferenced before being deleted. The garbage
+	 *                   	collection is run automatically with this period.
+	 *                   	<i>If 0, the garbage collection is not automatic
+	 *                   	and unreferenced chunks are deleted by the second
+	 *                   	call to {@link #collectGarbage()}.
+	 *                   	If &lt; 0, {@value #DEFAULT_GRACE_PERIOD} is used.</i>
+	 *
+	 * @throws NullPointerException	If the given store is NULL.
+	 */
+	public ContentAddressedStore(final BlobStore store, final int chunkSize, final int parallelism, final long gracePeriod) throws NullPointerException{
+		if (store == null)
+			throw new NullPointerException("Missing BlobStore! Impossible to create a ContentAddressedStore.");
+
+		this.store = store;
+		this.chunkSize = (chunkSize <= 0) ? DEFAULT_CHUNK_SIZE : chunkSize;
+		this.parallelism = (parallelism <= 0) ? DEFAULT_PARALLELISM : parallelism;
+
+		final AtomicInteger nbThreads = new AtomicInteger(0);
+		executor = Executors.newFixedThreadPool(this.parallelism, new ThreadFactory(){
+			@Override
+			public Thread newThread(final Runnable r){
+				Thread t = new Thread(r, "UWS_CAS_" + nbThreads.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		this.gracePeriod = (gracePeriod < 0) ? DEFAULT_GRACE_PERIOD : gracePeriod;
+		if (this.gracePeriod > 0){
+			gcExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory(){
+				@Override
+				public Thread newThread(final Runnable r){
+					Thread t = new Thread(r, "UWS_CAS_GC");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			gcExecutor.scheduleWithFixedDelay(new Runnable(){
+				@Override
+				public void run(){
+					try{
+						collectGarbage();
+					}catch(IOException ioe){
+						/* Nothing more can be done ; the next garbage
+						 * collection will try again. */
+					}
+				}
+			}, this.gracePeriod, this.gracePeriod, TimeUnit.MILLISECONDS);
+		}else
+			gcExecutor = null;
+	}
+
+	/**
+	 * Get the store in which objects are stored.
+	 *
+	 * @return	The blob store.
+	 */
+	public final BlobStore getBlobStore(){
+		return store;
+	}
+
+	/**
+	 * Get the size of a chunk.
+	 *
+	 * @return	Size of a chunk (in bytes).
+	 */
+	public final int getChunkSize(){
+		return chunkSize;
+	}
+
+	/**
+	 * Get the number of chunks uploaded or downloaded in parallel for one
+	 * stream.
+	 *
+	 * @return	Maximum number of parallel transfers per stream.
+	 */
+	public final int getParallelism(){
+		return parallelism;
+	}
+
+	/**
+	 * Get the time during which a chunk must stay unreferenced before being
+	 * deleted.
+	 *
+	 * @return	The grace period (in milliseconds).
+	 *        	<i>0 if the garbage collection is not automatic.</i>
+	 */
+	public final long getGracePeriod(){
+		return gracePeriod;
+	}
+
+	/**
+	 * Get the number of written chunks which did not have to be stored
+	 * because an identical chunk was already stored.
+	 *
+	 * @return	Number of deduplicated chunks since the creation of this
+	 *        	object.
+	 */
+	public final long getNbDeduplicatedChunks(){
+		return nbDeduplicatedChunks.get();
+	}
+
+	/**
+	 * Get the space (in bytes) really used in the {@link BlobStore}.
+	 *
+	 * <p><i>Note:
+	 * 	Thanks to the deduplication of the chunks, this size may be smaller
+	 * 	than the sum of the sizes of all stored objects.
+	 * </i></p>
+	 *
+	 * @return	The size of the blob store.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public long getStoredSize() throws IOException{
+		return store.getTotalSize();
+	}
+
+	/**
+	 * Stop the threads of this store.
+	 *
+	 * <p><i>Note:
+	 * 	The pending transfers are finished, but no stream can be opened any
+	 * 	more.
+	 * </i></p>
+	 */
+	public void close(){
+		executor.shutdown();
+		if (gcExecutor != null)
+			gcExecutor.shutdownNow();
+	}
+
+	/**
+	 * Tell whether the specified object exists.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	<code>true</code> if the object exists,
+	 *        	<code>false</code> otherwise.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public boolean exists(final String key) throws IOException{
+		return store.exists(OBJECTS_PREFIX + key);
+	}
+
+	/**
+	 * Get the size of the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	Size (in bytes) of the object, or -1 if it does not exist.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public long getSize(final String key) throws IOException{
+		Manifest manifest = readManifest(key);
+		return (manifest == null) ? -1 : manifest.size;
+	}
+
+	/**
+	 * Open the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	The content of the object, or NULL if it does not exist.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public InputStream openInput(final String key) throws IOException{
+		Manifest manifest = readManifest(key);
+		return (manifest == null) ? null : new ChunkedInputStream(manifest);
+	}
+
+	/**
+	 * Open a stream writing the specified object.
+	 *
+	 * <p><i>Note:
+	 * 	The object is created (or replaced) only when the returned stream is
+	 * 	closed.
+	 * </i></p>
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	A stream toward the object.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public OutputStream openOutput(final String key) throws IOException{
+		if (key == null || key.trim().isEmpty())
+			throw new IOException("Missing object key!");
+		return new ChunkedOutputStream(key);
+	}
+
+	/**
+	 * Delete the specified object.
+	 *
+	 * <p><i>Note:
+	 * 	Its chunks not used by any other object are deleted later, by the
+	 * 	garbage collection.
+	 * </i></p>
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	<code>true</code> if the object has been deleted,
+	 *        	<code>false</code> if it does not exist.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public boolean delete(final String key) throws IOException{
+		Manifest manifest = readManifest(key);
+		if (manifest == null)
+			return false;
+		boolean deleted = store.delete(OBJECTS_PREFIX + key);
+		release(manifest.hashes, manifest.version);
+		return deleted;
+	}
+
+	/**
+	 * Run one step of the garbage collection:
+	 * <ol>
+	 * 	<li>delete the marked chunks still unreferenced after the grace period
+	 * 		(and unmark the ones which are referenced again),</li>
+	 * 	<li>mark the chunks without any reference.</li>
+	 * </ol>
+	 *
+	 * <p><i>Note:
+	 * 	This function is called automatically every {@link #getGracePeriod()}
+	 * 	milliseconds. It may be called at the same time by several instances
+	 * 	of this class sharing the same {@link BlobStore}.
+	 * </i></p>
+	 *
+	 * @return	The number of deleted chunks.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	public int collectGarbage() throws IOException{
+		final long now = System.currentTimeMillis();
+
+		// List all referenced chunks:
+		Set<String> referenced = new HashSet<String>();
+		for(String ref : store.list(REFS_PREFIX)){
+			int sep = ref.indexOf('/', REFS_PREFIX.length());
+			if (sep > 0)
+				referenced.add(ref.substring(REFS_PREFIX.length(), sep));
+		}
+
+		// Sweep:
+		int nbDeleted = 0;
+		Set<String> marked = new HashSet<String>();
+		for(String mark : store.list(MARKS_PREFIX)){
+			String hash = mark.substring(MARKS_PREFIX.length());
+			if (referenced.contains(hash))
+				store.delete(mark);
+			else if (now - readMark(mark, now) < gracePeriod)
+				marked.add(hash);
+			else{
+				if (deleteChunk(hash))
+					nbDeleted++;
+				store.delete(mark);
+			}
+		}
+
+		// Mark:
+		byte[] time = Long.toString(now).getBytes(UWSToolBox.DEFAULT_CHAR_ENCODING);
+		for(String chunk : store.list(CHUNKS_PREFIX)){
+			String hash = chunk.substring(chunk.lastIndexOf('/') + 1);
+			if (!referenced.contains(hash) && !marked.contains(hash))
+				store.put(getMarkKey(hash), time, time.length);
+		}
+
+		return nbDeleted;
+	}
+
+	/* ************** */
+	/* INTERNAL TOOLS */
+	/* ************** */
+
+	/**
+	 * Get the key of the specified chunk.
+	 *
+	 * @param hash	Hash of the chunk.
+	 *
+	 * @return	Its key in the {@link BlobStore}.
+	 */
+	protected static String getChunkKey(final String hash){
+		return CHUNKS_PREFIX + hash.substring(0, 2) + "/" + hash;
+	}
+
+	/**
+	 * Get the key of the reference of the given object version toward the
+	 * specified chunk.
+	 *
+	 * @param hash		Hash of the chunk.
+	 * @param version	Identifier of the object version.
+	 *
+	 * @return	Key of the reference in the {@link BlobStore}.
+	 */
+	protected static String getRefKey(final String hash, final String version){
+		return REFS_PREFIX + hash + "/" + version;
+	}
+
+	/**
+	 * Get the key of the garbage collection mark of the specified chunk.
+	 *
+	 * @param hash	Hash of the chunk.
+	 *
+	 * @return	Key of the mark in the {@link BlobStore}.
+	 */
+	protected static String getMarkKey(final String hash){
+		return MARKS_PREFIX + hash;
+	}
+
+	/**
+	 * Compute the SHA-256 hash of the given content.
+	 *
+	 * @param content	Buffer containing the content.
+	 * @param length	Number of bytes of the buffer to hash.
+	 *
+	 * @return	Hexadecimal representation of the hash.
+	 */
+	protected static String hash(final byte[] content, final int length){
+		try{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(content, 0, length);
+			byte[] hash = digest.digest();
+			StringBuilder buf = new StringBuilder(hash.length * 2);
+			for(byte b : hash){
+				buf.append(Character.forDigit((b >> 4) & 0xF, 16));
+				buf.append(Character.forDigit(b & 0xF, 16));
+			}
+			return buf.toString();
+		}catch(NoSuchAlgorithmException nsae){
+			// SHA-256 is always available in Java:
+			throw new IllegalStateException("SHA-256 is not supported by this JVM!", nsae);
+		}
+	}
+
+	/**
+	 * Store the reference of the given object version toward the given chunk,
+	 * and then the chunk itself (if not already stored).
+	 *
+	 * <p><i>Note:
+	 * 	The reference must be stored first: thus, a garbage collection
+	 * 	deleting the chunk after the check of its existence will see this
+	 * 	reference and restore the chunk (see {@link #deleteChunk(String)}).
+	 * </i></p>
+	 *
+	 * @param hash		Hash of the chunk.
+	 * @param content	Buffer containing the chunk.
+	 * @param length	Size of the chunk.
+	 * @param version	Identifier of the object version using this chunk.
+	 *
+	 * @throws IOException	If the chunk can not be stored.
+	 */
+	protected void storeChunk(final String hash, final byte[] content, final int length, final String version) throws IOException{
+		store.put(getRefKey(hash, version), EMPTY, 0);
+		if (store.exists(getChunkKey(hash)))
+			nbDeduplicatedChunks.incrementAndGet();
+		else
+			store.put(getChunkKey(hash), content, length);
+	}
+
+	/**
+	 * Remove the references of the given object version toward the given
+	 * chunks.
+	 *
+	 * <p><i>Note:
+	 * 	The chunks which are not referenced any more are deleted later by
+	 * 	{@link #collectGarbage()}.
+	 * </i></p>
+	 *
+	 * @param hashes	Hashes of the chunks.
+	 * @param version	Identifier of the object version.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	protected void release(final List<String> hashes, final String version) throws IOException{
+		for(String hash : new HashSet<String>(hashes))
+			store.delete(getRefKey(hash, version));
+	}
+
+	/**
+	 * Delete the specified chunk if it is not referenced.
+	 *
+	 * <p>
+	 * 	The content of the chunk is read before its deletion. If a reference
+	 * 	toward this chunk has been stored while it was being deleted, the
+	 * 	chunk is stored again.
+	 * </p>
+	 *
+	 * @param hash	Hash of the chunk.
+	 *
+	 * @return	<code>true</code> if the chunk has been deleted,
+	 *        	<code>false</code> if it is still referenced (or already
+	 *        	deleted).
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	protected boolean deleteChunk(final String hash) throws IOException{
+		final String refsPrefix = REFS_PREFIX + hash + "/";
+		if (!store.list(refsPrefix).isEmpty())
+			return false;
+
+		// Keep the content of the chunk, in case it is referenced again:
+		final String chunkKey = getChunkKey(hash);
+		InputStream input = store.get(chunkKey);
+		if (input == null)
+			return false;
+		byte[] content;
+		try{
+			content = readAll(input);
+		}finally{
+			input.close();
+		}
+
+		if (!store.delete(chunkKey))
+			return false;
+
+		// Restore the chunk if a reference appeared in the meantime:
+		if (!store.list(refsPrefix).isEmpty()){
+			store.put(chunkKey, content, content.length);
+			return false;
+		}else
+			return true;
+	}
+
+	/**
+	 * Read the time stored in the specified garbage collection mark.
+	 *
+	 * @param markKey		Key of the mark.
+	 * @param defaultTime	Time to return if the mark can not be read.
+	 *
+	 * @return	Time (in milliseconds since 1970) at which the chunk has been
+	 *        	marked.
+	 *
+	 * @throws IOException	If the store can not be accessed.
+	 */
+	private long readMark(final String markKey, final long defaultTime) throws IOException{
+		InputStream input = store.get(markKey);
+		if (input == null)
+			return defaultTime;
+		try{
+			return Long.parseLong(new String(readAll(input), UWSToolBox.DEFAULT_CHAR_ENCODING).trim());
+		}catch(NumberFormatException nfe){
+			return defaultTime;
+		}finally{
+			input.close();
+		}
+	}
+
+	/**
+	 * Read the whole content of the given stream.
+	 *
+	 * @param input	The stream to read.
+	 *
+	 * @return	Its content.
+	 *
+	 * @throws IOException	If the stream can not be read.
+	 */
+	private static byte[] readAll(final InputStream input) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while((n = input.read(buffer)) != -1)
+			bytes.write(buffer, 0, n);
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Read the manifest of the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	Its manifest, or NULL if the object does not exist.
+	 *
+	 * @throws IOException	If the manifest can not be read.
+	 */
+	protected Manifest readManifest(final String key) throws IOException{
+		if (key == null || key.trim().isEmpty())
+			return null;
+
+		InputStream input = store.get(OBJECTS_PREFIX + key);
+		if (input == null)
+			return null;
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, UWSToolBox.DEFAULT_CHAR_ENCODING));
+		try{
+			String[] header = (reader.readLine() + "").split(" ");
+			if (header.length != 3 || !header[0].equals(MANIFEST_HEADER))
+				throw new IOException("Incorrect manifest for the object \"" + key + "\"!");
+			Manifest manifest = new Manifest(header[2]);
+			manifest.size = Long.parseLong(header[1]);
+			String line;
+			while((line = reader.readLine()) != null){
+				if (line.isEmpty())
+					continue;
+				String[] parts = line.split(" ");
+				if (parts.length != 2)
+					throw new IOException("Incorrect manifest for the object \"" + key + "\"!");
+				manifest.hashes.add(parts[0]);
+				manifest.lengths.add(Integer.parseInt(parts[1]));
+			}
+			return manifest;
+		}catch(NumberFormatException nfe){
+			throw new IOException("Incorrect manifest for the object \"" + key + "\"!", nfe);
+		}finally{
+			reader.close();
+		}
+	}
+
+	/**
+	 * Get the {@link IOException} at the origin of the given error.
+	 *
+	 * @param ee	Error of a chunk transfer.
+	 *
+	 * @return	The corresponding {@link IOException}.
+	 */
+	private static IOException toIOException(final ExecutionException ee){
+		return (ee.getCause() instanceof IOException) ? (IOException)ee.getCause() : new IOException(ee.getCause());
+	}
+
+	/**
+	 * List of the chunks of one version of an object.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	protected static class Manifest {
+		/** Unique identifier of this version of the object. */
+		protected final String version;
+		/** Total size (in bytes) of the object. */
+		protected long size = 0;
+		/** Hashes of all chunks (in order). */
+		protected final List<String> hashes = new ArrayList<String>();
+		/** Sizes of all chunks (in order). */
+		protected final List<Integer> lengths = new ArrayList<Integer>();
+
+		/**
+		 * Build an empty manifest.
+		 *
+		 * @param version	Unique identifier of this version of the object.
+		 */
+		protected Manifest(final String version){
+			this.version = version;
+		}
+
+		/**
+		 * Serialize this manifest.
+		 *
+		 * @return	The manifest, encoded in {@link UWSToolBox#DEFAULT_CHAR_ENCODING}.
+		 *
+		 * @throws IOException	If the encoding is not supported.
+		 */
+		protected byte[] toBytes() throws IOException{
+			StringBuilder buf = new StringBuilder(80 + hashes.size() * 76);
+			buf.append(MANIFEST_HEADER).append(' ').append(size).append(' ').append(version).append('\n');
+			for(int i = 0; i < hashes.size(); i++)
+				buf.append(hashes.get(i)).append(' ').append(lengths.get(i)).append('\n');
+			return buf.toString().getBytes(UWSToolBox.DEFAULT_CHAR_ENCODING);
+		}
+	}
+
+	/**
+	 * Stream writing an object chunk by chunk. The manifest of the object is
+	 * stored only when this stream is closed.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	protected class ChunkedOutputStream extends OutputStream {
+		/** Key of the written object. */
+		private final String key;
+		/** Manifest of the new version of the object. */
+		private final Manifest manifest = new Manifest(UUID.randomUUID().toString());
+		/** Chunks being uploaded. */
+		private final LinkedList<Future<?>> uploads = new LinkedList<Future<?>>();
+		/** Chunk being filled. */
+		private byte[] buffer;
+		/** Number of bytes of the current chunk. */
+		private int nbBytes = 0;
+		/** Indicates whether this stream is closed. */
+		private boolean closed = false;
+
+		/**
+		 * Open a stream toward the given object.
+		 *
+		 * @param key	Key of the object.
+		 */
+		protected ChunkedOutputStream(final String key){
+			this.key = key;
+			this.buffer = new byte[chunkSize];
+		}
+
+		@Override
+		public void write(final int b) throws IOException{
+			if (closed)
+				throw new IOException("Stream closed!");
+			buffer[nbBytes++] = (byte)b;
+			if (nbBytes == chunkSize)
+				flushChunk();
+		}
+
+		@Override
+		public void write(final byte[] b, int off, int len) throws IOException{
+			if (closed)
+				throw new IOException("Stream closed!");
+			while(len > 0){
+				int n = Math.min(len, chunkSize - nbBytes);
+				System.arraycopy(b, off, buffer, nbBytes, n);
+				nbBytes += n;
+				off += n;
+				len -= n;
+				if (nbBytes == chunkSize)
+					flushChunk();
+			}
+		}
+
+		/**
+		 * Upload the current chunk (in another thread) and start a new one.
+		 *
+		 * @throws IOException	If the upload of a previous chunk failed.
+		 */
+		private void flushChunk() throws IOException{
+			final byte[] content = buffer;
+			final int length = nbBytes;
+			final String hash = hash(content, length);
+			manifest.hashes.add(hash);
+			manifest.lengths.add(length);
+			manifest.size += length;
+
+			// Wait for a free upload slot:
+			while(uploads.size() >= parallelism)
+				waitUpload();
+
+			uploads.add(executor.submit(new Callable<Void>(){
+				@Override
+				public Void call() throws IOException{
+					storeChunk(hash, content, length, manifest.version);
+					return null;
+				}
+			}));
+
+			buffer = new byte[chunkSize];
+			nbBytes = 0;
+		}
+
+		/**
+		 * Wait the end of the oldest upload.
+		 *
+		 * @throws IOException	If this upload failed.
+		 */
+		private void waitUpload() throws IOException{
+			try{
+				uploads.removeFirst().get();
+			}catch(InterruptedException ie){
+				throw new IOException("Interrupted upload of the object \"" + key + "\"!", ie);
+			}catch(ExecutionException ee){
+				throw toIOException(ee);
+			}
+		}
+
+		@Override
+		public void close() throws IOException{
+			if (closed)
+				return;
+			closed = true;
+
+			try{
+				// Upload the last chunk:
+				if (nbBytes > 0)
+					flushChunk();
+				buffer = null;
+
+				// Wait for the end of all uploads:
+				while(!uploads.isEmpty())
+					waitUpload();
+
+				// Store the manifest ; the object now exists:
+				Manifest previous = readManifest(key);
+				byte[] content = manifest.toBytes();
+				store.put(OBJECTS_PREFIX + key, content, content.length);
+
+				// Release the chunks of the previous version (if any):
+				if (previous != null)
+					release(previous.hashes, previous.version);
+
+			}catch(IOException ioe){
+				abort();
+				throw ioe;
+			}catch(RuntimeException re){
+				abort();
+				throw re;
+			}
+		}
+
+		/**
+		 * Cancel the writing of the object and release all its chunks.
+		 */
+		private void abort(){
+			for(Future<?> upload : uploads)
+				upload.cancel(false);
+			for(Future<?> upload : uploads){
+				try{
+					upload.get();
+				}catch(Exception e){}
+			}
+			uploads.clear();
+			try{
+				release(manifest.hashes, manifest.version);
+			}catch(IOException ioe){
+				/* Nothing more can be done ; some chunks will remain in the
+				 * store. */
+			}
+		}
+	}
+
+	/**
+	 * Stream reading an object chunk by chunk, while the next chunks are
+	 * downloaded in parallel.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	protected class ChunkedInputStream extends InputStream {
+		/** Manifest of the read object. */
+		private final Manifest manifest;
+		/** Chunks being downloaded (in order). */
+		private final LinkedList<Future<byte[]>> downloads = new LinkedList<Future<byte[]>>();
+		/** Index of the next chunk to download. */
+		private int nextChunk = 0;
+		/** Chunk being read. */
+		private byte[] current = EMPTY;
+		/** Position in the current chunk. */
+		private int pos = 0;
+		/** Indicates whether this stream is closed. */
+		private boolean closed = false;
+
+		/**
+		 * Open a stream reading the given object.
+		 *
+		 * @param manifest	Manifest of the object.
+		 */
+		protected ChunkedInputStream(final Manifest manifest){
+			this.manifest = manifest;
+			prefetch();
+		}
+
+		/**
+		 * Start the download of the next chunks (up to {@link ContentAddressedStore#getParallelism()}).
+		 */
+		private void prefetch(){
+			while(downloads.size() < parallelism && nextChunk < manifest.hashes.size()){
+				final String hash = manifest.hashes.get(nextChunk);
+				final int length = manifest.lengths.get(nextChunk);
+				downloads.add(executor.submit(new Callable<byte[]>(){
+					@Override
+					public byte[] call() throws IOException, InterruptedException{
+						InputStream input = store.get(getChunkKey(hash));
+						/* Note: a chunk may be missing for a short while, when a
+						 *       garbage collection restores it (see deleteChunk(String)). */
+						for(int i = 0; input == null && i < NB_DOWNLOAD_RETRIES; i++){
+							Thread.sleep(DOWNLOAD_RETRY_DELAY);
+							input = store.get(getChunkKey(hash));
+						}
+						if (input == null)
+							throw new IOException("Missing chunk: " + hash + "!");
+						try{
+							byte[] content = new byte[length];
+							int n = 0, nbRead;
+							while(n < length && (nbRead = input.read(content, n, length - n)) != -1)
+								n += nbRead;
+							if (n != length)
+								throw new IOException("Incomplete chunk: " + hash + "!");
+							return content;
+						}finally{
+							input.close();
+						}
+					}
+				}));
+				nextChunk++;
+			}
+		}
+
+		/**
+		 * Make sure the current chunk has still some bytes to read.
+		 *
+		 * @return	<code>true</code> if there are bytes to read,
+		 *        	<code>false</code> if the end of the object is reached.
+		 *
+		 * @throws IOException	If the next chunk can not be downloaded.
+		 */
+		private boolean nextChunk() throws IOException{
+			if (closed)
+				throw new IOException("Stream closed!");
+			while(pos >= current.length){
+				if (downloads.isEmpty())
+					return false;
+				try{
+					current = downloads.removeFirst().get();
+					pos = 0;
+				}catch(InterruptedException ie){
+					throw new IOException("Interrupted download!", ie);
+				}catch(ExecutionException ee){
+					throw toIOException(ee);
+				}
+				prefetch();
+			}
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException{
+			return nextChunk() ? (current[pos++] & 0xFF) : -1;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException{
+			if (len == 0)
+				return 0;
+			else if (!nextChunk())
+				return -1;
+			int n = Math.min(len, current.length - pos);
+			System.arraycopy(current, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException{
+			return closed ? 0 : current.length - pos;
+		}
+
+		@Override
+		public void close() throws IOException{
+			if (closed)
+				return;
+			closed = true;
+			for(Future<byte[]> download : downloads)
+				download.cancel(true);
+			downloads.clear();
+			current = EMPTY;
+		}
+	}
+
+}
@@ -0,0 +1,279 @@
+package uws.service.file.blob;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uws.UWSException;
+
+/**
+ * <p>{@link BlobStore} storing each object in a file of a local directory.</p>
+ *
+ * <p>
+ * 	The key of an object is used as relative path of its file. Each object
+ * 	is first written in a temporary file which is then renamed, so that a
+ * 	reader never sees a partially written object.
+ * </p>
+ *
+ * <p>
+ * 	The given directory may be a directory shared between several machines
+ * 	(e.g. a network file system). This store can also be used as local
+ * 	stand-in of an S3-compatible service (e.g. in tests).
+ * </p>
+ *
+ * <p><i>Note:
+ * 	The total size of the store ({@link #getTotalSize()}) is computed once at
+ * 	creation and then maintained by this object. Thus, it does not take into
+ * 	account the modifications done by other machines.
+ * </i></p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ */
+public class LocalBlobStore implements BlobStore {
+
+	/** Extension of the temporary files (i.e. objects being written). */
+	protected final static String TMP_EXTENSION = ".tmp";
+
+	/** Directory containing all the objects. */
+	protected final File rootDirectory;
+
+	/** Total size (in bytes) of all the stored objects. */
+	private final AtomicLong totalSize = new AtomicLong(0);
+
+	/**
+	 * Build a store in the given directory.
+	 *
+	 * @param root	Directory in which objects must be stored.
+	 *            	<i>It is created if it does not exist.</i>
+	 *
+	 * @throws NullPointerException	If the given directory is NULL.
+	 * @throws UWSException			If the given file is not a directory or has not the READ and WRITE permissions.
+	 */
+	public LocalBlobStore(final File root) throws UWSException{
+		if (root == null)
+			throw new NullPointerException("Missing root directory ! Impossible to create a LocalBlobStore.");
+		else if (!root.exists()){
+			if (!root.mkdirs())
+				throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, "The given root directory does not exist and can not be created automatically !");
+		}else if (!root.isDirectory())
+			throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, "The root directory of a LocalBlobStore must be a DIRECTORY !");
+		else if (!root.canRead())
+			throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, "Missing READ permission for the root directory of a LocalBlobStore !");
+		else if (!root.canWrite())
+			throw new UWSException(UWSException.INTERNAL_SERVER_ERROR, "Missing WRITE permission for the root directory of a LocalBlobStore !");
+
+		rootDirectory = root;
+		totalSize.set(computeSize(root));
+	}
+
+	/**
+	 * Get the directory containing all the objects.
+	 *
+	 * @return	The root directory.
+	 */
+	public final File getRootDirectory(){
+		return rootDirectory;
+	}
+
+	/**
+	 * Compute the size of all the objects stored in the given directory.
+	 *
+	 * @param dir	The directory to scan.
+	 *
+	 * @return	Its size (in bytes).
+	 */
+	private static long computeSize(final File dir){
+		long size = 0;
+		File[] files = dir.listFiles();
+		if (files != null){
+			for(File f : files){
+				if (f.isDirectory())
+					size += computeSize(f);
+				else if (!f.getName().endsWith(TMP_EXTENSION))
+					size += f.length();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Get the file of the specified object.
+	 *
+	 * @param key	Key of the object.
+	 *
+	 * @return	Its file.
+	 *
+	 * @throws IOException	If the key is not valid.
+	 */
+	protected File getFile(final String key) throws IOException{
+		if (key == null || key.isEmpty())
+			throw new IOException("Missing object key!");
+		File f = rootDirectory;
+		for(String segment : key.split("/", -1)){
+			if (segment.isEmpty() || segment.equals(".") || segment.equals("..") || segment.endsWith(TMP_EXTENSION))
+				throw new IOException("Incorrect object key: \"" + key + "\"!");
+			f = new File(f, segment);
+		}
+		return f;
+	}
+
+	@Override
+	public boolean exists(final String key) throws IOException{
+		return getFile(key).isFile();
+	}
+
+	@Override
+	public long getSize(final String key) throws IOException{
+		File f = getFile(key);
+		return f.isFile() ? f.length() : -1;
+	}
+
+	@Override
+	public InputStream get(final String key) throws IOException{
+		File f = getFile(key);
+		return f.isFile() ? new BufferedInputStream(new FileInputStream(f)) : null;
+	}
+
+	@Override
+	public void put(final String key, final byte[] content, final int length) throws IOException{
+		File f = getFile(key);
+
+		// Write the object in a temporary file:
+		File tmp = createTempFile(f);
+		try{
+			FileOutputStream out = new FileOutputStream(tmp);
+			try{
+				out.write(content, 0, length);
+			}finally{
+				out.close();
+			}
+
+			// ...and replace atomically the previous object (if any):
+			long previousSize = f.isFile() ? f.length() : 0;
+			try{
+				Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}catch(AtomicMoveNotSupportedException amnse){
+				Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			totalSize.addAndGet(length - previousSize);
+		}finally{
+			if (tmp.exists())
+				tmp.delete();
+		}
+	}
+
+	/**
+	 * Create a temporary file in the directory of the given object file.
+	 *
+	 * @param f	The file of an object.
+	 *
+	 * @return	The created temporary file.
+	 *
+	 * @throws IOException	If the file can not be created.
+	 */
+	private File createTempFile(final File f) throws IOException{
+		File dir = f.getParentFile();
+		/* Note: the directory may be deleted at the same time by the deletion
+		 *       of its last object ; so, it is tried twice. */
+		for(int i = 0;; i++){
+			if (!dir.exists() && !dir.mkdirs() && !dir.isDirectory())
+				throw new IOException("Can not create the directory \"" + dir.getAbsolutePath() + "\"!");
+			try{
+				return File.createTempFile("." + f.getName() + "_", TMP_EXTENSION, dir);
+			}catch(IOException ioe){
+				if (i > 0)
+					throw ioe;
+			}
+		}
+	}
+
+	@Override
+	public boolean delete(final String key) throws IOException{
+		File f = getFile(key);
+		long size = f.isFile() ? f.length() : 0;
+		if (f.isFile() && f.delete()){
+			totalSize.addAndGet(-size);
+			// Remove the empty parent directories:
+			File dir = f.getParentFile();
+			while(!dir.equals(rootDirectory) && dir.delete())
+				dir = dir.getParentFile();
+			return true;
+		}else
+			return false;
+	}
+
+	@Override
+	public List<String> list(final String prefix) throws IOException{
+		ArrayList<String> keys = new ArrayList<String>();
+
+		// Start from the deepest directory matching the prefix:
+		String dirPath = "";
+		File dir = rootDirectory;
+		if (prefix != null && prefix.lastIndexOf('/') > 0){
+			dirPath = prefix.substring(0, prefix.lastIndexOf('/') + 1);
+			dir = getFile(dirPath.substring(0, dirPath.length() - 1));
+		}
+
+		listKeys(dir, dirPath, (prefix == null) ? "" : prefix, keys);
+		return keys;
+	}
+
+	/**
+	 * Append the keys of all the objects stored in the given directory (and
+	 * its sub-directories) and starting with the given prefix.
+	 *
+	 * @param dir		The directory to scan.
+	 * @param path		Key prefix corresponding to this directory.
+	 * @param prefix	Prefix of the keys to list.
+	 * @param keys		List in which matching keys must be appended.
+	 */
+	private void listKeys(final File dir, final String path, final String prefix, final List<String> keys){
+		File[] files = dir.listFiles();
+		if (files == null)
+			return;
+		for(File f : files){
+			String key = path + f.getName();
+			if (f.isDirectory()){
+				if (key.startsWith(prefix) || prefix.startsWith(key + "/"))
+					listKeys(f, key + "/", prefix, keys);
+			}else if (!f.getName().endsWith(TMP_EXTENSION) && key.startsWith(prefix))
+				keys.add(key);
+		}
+	}
+
+	@Override
+	public long getTotalSize(){
+		return totalSize.get();
+	}
+
+}
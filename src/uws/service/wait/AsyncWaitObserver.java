@@ -0,0 +1,355 @@
+package uws.service.wait;
+
+/*
+ * This file is part of UWSLibrary.
+ *
+ * UWSLibrary is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * UWSLibrary is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS)
+ */
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import uws.UWSException;
+import uws.job.ExecutionPhase;
+import uws.job.JobObserver;
+import uws.job.UWSJob;
+import uws.job.user.JobOwner;
+import uws.service.log.UWSLog.LogLevel;
+
+/**
+ * <p>Job observer suspending an HTTP request (with the asynchronous mode of
+ * Servlet 3.0) until the execution phase of the job changes or the waiting
+ * time is elapsed.</p>
+ *
+ * <p>
+ * 	Contrary to {@link WaitObserver}, no thread is blocked during the wait:
+ * 	an {@link AsyncContext} is started and the servlet thread is given back
+ * 	to the container. The response is written (thanks to the given
+ * 	{@link ResponseWriter}) and completed only when one of the following
+ * 	events occurs:
+ * </p>
+ * <ul>
+ * 	<li>the execution phase of the job changes,</li>
+ * 	<li>the waiting time is elapsed (timeout of the {@link AsyncContext}),</li>
+ * 	<li>the {@link BlockingPolicy} unblocks this wait (see {@link WaitingThread#wakeUp()}).</li>
+ * </ul>
+ *
+ * <p>
+ * 	Since the {@link BlockingPolicy} identifies the waiting requests by a
+ * 	{@link Thread}, a {@link WaitingThread} (never started) represents this
+ * 	suspended request in the policy.
+ * </p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 4.6 (10/2026)
+ * @since 4.6
+ */
+public class AsyncWaitObserver implements JobObserver, AsyncListener {
+	private static final long serialVersionUID = 1L;
+
+	/** Name of the request attribute set when a request is suspended by an
+	 * {@link AsyncWaitObserver}. In such case, the response must not be
+	 * flushed by the servlet thread. */
+	public final static String REQ_ATTRIBUTE_SUSPENDED = "UWS_WAIT_SUSPENDED";
+
+	/**
+	 * Writer of the response of a suspended request, called once the wait is
+	 * over.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	public static interface ResponseWriter {
+		/**
+		 * Write the response (e.g. the job summary) once the wait is over.
+		 *
+		 * @param job		The watched job.
+		 * @param response	The HTTP response to write.
+		 *
+		 * @throws IOException	If the response can not be written.
+		 * @throws UWSException	If any other error occurs.
+		 */
+		public void write(final UWSJob job, final HttpServletResponse response) throws IOException, UWSException;
+	}
+
+	/**
+	 * Thread representing a suspended request in a {@link BlockingPolicy}.
+	 * It is never started.
+	 *
+	 * @author Gr&eacute;gory Mantelet (CDS)
+	 * @version 4.6 (10/2026)
+	 * @since 4.6
+	 */
+	public final static class WaitingThread extends Thread {
+		/** The observer of the suspended request. */
+		private final AsyncWaitObserver observer;
+
+		private WaitingThread(final AsyncWaitObserver observer, final String jobId){
+			super("UWS_WAIT_" + jobId);
+			this.observer = observer;
+		}
+
+		/**
+		 * Stop the wait and send the response of the suspended request.
+		 *
+		 * <p><i>Note:
+		 * 	This is the equivalent of a notification of a blocked thread.
+		 * </i></p>
+		 */
+		public void wakeUp(){
+			observer.resume(false);
+		}
+	}
+
+	/** Strategy of the blocking behavior. <i>May be NULL.</i> */
+	protected final transient BlockingPolicy policy;
+	/** The watched job. */
+	protected final transient UWSJob job;
+	/** The user who asked for the wait. <i>May be NULL.</i> */
+	protected final transient JobOwner user;
+	/** The suspended HTTP request. */
+	protected final transient HttpServletRequest request;
+	/** The response of the suspended HTTP request. */
+	protected final transient HttpServletResponse response;
+	/** Writer of the response once the wait is over. */
+	protected final transient ResponseWriter writer;
+
+	/** Counter of the suspended requests of the service. <i>May be NULL.</i> */
+	private final transient AtomicInteger nbSuspendedRequests;
+
+	/** Thread representing the suspended request in the {@link BlockingPolicy}. */
+	private final transient WaitingThread waitingThread;
+
+	/** Indicates whether the wait is over. */
+	private final AtomicBoolean resumed = new AtomicBoolean(false);
+
+	/** The asynchronous context of the suspended request.
+	 * <i>NULL until {@link #start(long)} is called.</i> */
+	private transient volatile AsyncContext asyncContext = null;
+
+	/** Indicates whether the {@link BlockingPolicy} asked to stop the wait
+	 * before {@link #start(long)} was called. */
+	private volatile boolean wokenUp = false;
+
+	/**
+	 * Build an observer for the given request.
+	 *
+	 * @param policy	Strategy of the blocking behavior. <i>May be NULL.</i>
+	 * @param job		The job to watch. <b>MUST NOT be NULL.</b>
+	 * @param user		The user who asked for the wait. <i>May be NULL.</i>
+	 * @param request	The HTTP request to suspend. <b>MUST NOT be NULL.</b>
+	 * @param response	Its response. <b>MUST NOT be NULL.</b>
+	 * @param writer	Writer of the response once the wait is over.
+	 *              	<b>MUST NOT be NULL.</b>
+	 */
+	public AsyncWaitObserver(final BlockingPolicy policy, final UWSJob job, final JobOwner user, final HttpServletRequest request, final HttpServletResponse response, final ResponseWriter writer){
+		this(policy, job, user, request, response, writer, null);
+	}
+
+	/**
+	 * Build an observer for the given request, counted as suspended in the
+	 * given counter during the wait.
+	 *
+	 * @param policy				Strategy of the blocking behavior. <i>May be NULL.</i>
+	 * @param job					The job to watch. <b>MUST NOT be NULL.</b>
+	 * @param user					The user who asked for the wait. <i>May be NULL.</i>
+	 * @param request				The HTTP request to suspend. <b>MUST NOT be NULL.</b>
+	 * @param response				Its response. <b>MUST NOT be NULL.</b>
+	 * @param writer				Writer of the response once the wait is over.
+	 *              				<b>MUST NOT be NULL.</b>
+	 * @param nbSuspendedRequests	Counter of the suspended requests of the
+	 *                           	service. <i>May be NULL.</i>
+	 */
+	public AsyncWaitObserver(final BlockingPolicy policy, final UWSJob job, final JobOwner user, final HttpServletRequest request, final HttpServletResponse response, final ResponseWriter writer, final AtomicInteger nbSuspendedRequests){
+		this.policy = policy;
+		this.job = job;
+		this.user = user;
+		this.request = request;
+		this.response = response;
+		this.writer = writer;
+		this.nbSuspendedRequests = nbSuspendedRequests;
+		this.waitingThread = new WaitingThread(this, job.getJobId());
+	}
+
+	/**
+	 * Tell whether the given request has been suspended by an
+	 * {@link AsyncWaitObserver}. If so, its response will be written later
+	 * and must not be flushed by the current thread.
+	 *
+	 * @param request	The HTTP request to test.
+	 *
+	 * @return	<code>true</code> if the request is suspended,
+	 *        	<code>false</code> otherwise.
+	 */
+	public static boolean isSuspended(final HttpServletRequest request){
+		return request != null && request.getAttribute(REQ_ATTRIBUTE_SUSPENDED) != null;
+	}
+
+	/**
+	 * Get the thread representing the suspended request in the
+	 * {@link BlockingPolicy}.
+	 *
+	 * @return	The waiting thread. <i>Never started.</i>
+	 */
+	public final Thread getWaitingThread(){
+		return waitingThread;
+	}
+
+	/**
+	 * Suspend the request and start watching the job.
+	 *
+	 * <p><i>Note:
+	 * 	If the job is no longer in an active phase (i.e. PENDING, QUEUED or
+	 * 	EXECUTING), the response is immediately written.
+	 * </i></p>
+	 *
+	 * @param waitingTime	Duration (in seconds) of the wait.
+	 *                   	<i>&lt; 0 means "unlimited".</i>
+	 */
+	public void start(final long waitingTime){
+		request.setAttribute(REQ_ATTRIBUTE_SUSPENDED, Boolean.TRUE);
+		final AsyncContext ctx = request.startAsync(request, response);
+		ctx.setTimeout((waitingTime > 0) ? waitingTime * 1000 : 0);
+
+		/* Note: the request is counted and the job watched BEFORE publishing
+		 *       the asynchronous context, so that a resume(...) can not
+		 *       stop waiting before that (and so leave this observer
+		 *       attached to the job). Until then, a resume(...) only sets
+		 *       the flag wokenUp. */
+		if (nbSuspendedRequests != null)
+			nbSuspendedRequests.incrementAndGet();
+		job.addObserver(this);
+		ctx.addListener(this);
+		asyncContext = ctx;
+
+		// The phase may have changed before the job was watched:
+		if (wokenUp || !isActive(job.getPhase()))
+			resume(false);
+	}
+
+	private static boolean isActive(final ExecutionPhase phase){
+		return phase == ExecutionPhase.PENDING || phase == ExecutionPhase.QUEUED || phase == ExecutionPhase.EXECUTING;
+	}
+
+	@Override
+	public void update(final UWSJob job, final ExecutionPhase oldPhase, final ExecutionPhase newPhase) throws UWSException{
+		if (oldPhase != null && newPhase != null && oldPhase != newPhase)
+			resume(false);
+	}
+
+	/**
+	 * Stop the wait (only the first call has an effect) and send the
+	 * response.
+	 *
+	 * @param inContainerThread	<code>true</code> if the current thread is
+	 *                         	a thread of the servlet container in which
+	 *                         	the response can be written,
+	 *                         	<code>false</code> if the response must be
+	 *                         	written in another thread (e.g. when called
+	 *                         	by the thread of the job).
+	 */
+	protected void resume(final boolean inContainerThread){
+		if (asyncContext == null){
+			wokenUp = true;
+			/* The context may have been published in the meantime, without
+			 * seeing the flag wokenUp: */
+			if (asyncContext == null)
+				return;
+		}
+		if (!stopWaiting())
+			return;
+		final AsyncContext ctx = asyncContext;
+
+		// Write the response:
+		if (inContainerThread)
+			writeResponse(ctx);
+		else{
+			ctx.start(new Runnable(){
+				@Override
+				public void run(){
+					writeResponse(ctx);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stop watching the job and notify the {@link BlockingPolicy} that this
+	 * request is no longer waiting.
+	 *
+	 * @return	<code>true</code> if the wait has been stopped by this call,
+	 *        	<code>false</code> if it was already stopped.
+	 */
+	private boolean stopWaiting(){
+		if (!resumed.compareAndSet(false, true))
+			return false;
+
+		if (nbSuspendedRequests != null)
+			nbSuspendedRequests.decrementAndGet();
+		job.removeObserver(this);
+		if (policy != null)
+			policy.unblocked(waitingThread, job, user, request);
+		return true;
+	}
+
+	/**
+	 * Write the response with the {@link ResponseWriter} and complete the
+	 * asynchronous context.
+	 *
+	 * @param ctx	The asynchronous context to complete.
+	 */
+	protected void writeResponse(final AsyncContext ctx){
+		try{
+			writer.write(job, response);
+			response.flushBuffer();
+		}catch(IOException ioe){
+			/* The client has probably closed the connection ; nothing more
+			 * can be done. */
+		}catch(Throwable t){
+			job.getLogger().logJob(LogLevel.ERROR, job, "WAIT", "Can not write the response of a WAIT request on the job \"" + job.getJobId() + "\"!", t);
+			if (!response.isCommitted())
+				response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+		}finally{
+			ctx.complete();
+		}
+	}
+
+	@Override
+	public void onTimeout(final AsyncEvent event) throws IOException{
+		resume(true);
+	}
+
+	@Override
+	public void onError(final AsyncEvent event) throws IOException{
+		// The response can not be written any more ; just free the resources:
+		stopWaiting();
+	}
+
+	@Override
+	public void onComplete(final AsyncEvent event) throws IOException{}
+
+	@Override
+	public void onStartAsync(final AsyncEvent event) throws IOException{}
+
+}
@@ -16,7 +16,8 @@ package uws.service.wait;
  * You should have received a copy of the GNU Lesser General Public License
  * along with UWSLibrary.  If not, see <http://www.gnu.org/licenses/>.
  *
- * Copyright 2017 - Astronomisches Rechen Institut (ARI)
+ * Copyright 2017-2026 - UDS/Centre de Données astronomiques de Strasbourg (CDS),
+ *                       Astronomisches Rechen Institut (ARI)
  */
 
 import java.util.Collections;
@@ -70,8 +71,8 @@ import uws.job.user.JobOwner;
  * 	or <code>false</code> to prevent blocking if the limit is reached.
  * </p>
  *
- * @author Gr&eacute;gory Mantelet (ARI)
- * @version 4.3 (11/2017)
+ * @author Gr&eacute;gory Mantelet (CDS;ARI)
+ * @version 4.6 (10/2026)
  * @since 4.3
  */
 public class UserLimitedBlockingPolicy extends LimitedBlockingPolicy {
@@ -257,7 +258,9 @@ public class UserLimitedBlockingPolicy extends LimitedBlockingPolicy {
 				// Get the oldest blocked thread:
 				Thread old = queue.poll();
 				// Wake it up // Unblock it:
-				if (old != null){
+				if (old instanceof AsyncWaitObserver.WaitingThread)
+					((AsyncWaitObserver.WaitingThread)old).wakeUp();
+				else if (old != null){
 					synchronized(old){
 						old.notifyAll();
 					}
@@ -0,0 +1,132 @@
+package adql.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import adql.query.from.ADQLTable;
+
+public class TestSearchColumnList {
+
+	private DefaultDBTable table1, table2;
+
+	@Before
+	public void setUp() throws Exception{
+		table1 = new DefaultDBTable("table1");
+		table1.addColumn(new DefaultDBColumn("id", table1));
+		table1.addColumn(new DefaultDBColumn("RA", table1));
+		table1.addColumn(new DefaultDBColumn("dec", table1));
+
+		table2 = new DefaultDBTable("table2");
+		table2.addColumn(new DefaultDBColumn("id", table2));
+		table2.addColumn(new DefaultDBColumn("mag", table2));
+	}
+
+	@Test
+	public void testColumnIndex(){
+		// The index is built only once:
+		SearchColumnList index = table1.getColumnIndex();
+		assertTrue(index.isFrozen());
+		assertEquals(3, index.size());
+		assertSame(index, table1.getColumnIndex());
+
+		// ...and it is shared by all FROM clauses using this table:
+		ADQLTable adqlTable = new ADQLTable("table1");
+		adqlTable.setDBLink(table1);
+		assertSame(index, adqlTable.getDBColumns());
+
+		// It can not be modified:
+		try{
+			index.add(new DefaultDBColumn("foo", table1));
+			fail("A frozen list can not be modified!");
+		}catch(UnsupportedOperationException uoe){}
+		try{
+			index.clear();
+			fail("A frozen list can not be modified!");
+		}catch(UnsupportedOperationException uoe){}
+		assertEquals(3, index.size());
+
+		// ...but it is built again when the table changes:
+		table1.addColumn(new DefaultDBColumn("foo", table1));
+		SearchColumnList newIndex = table1.getColumnIndex();
+		assertNotSame(index, newIndex);
+		assertEquals(4, newIndex.size());
+	}
+
+	@Test
+	public void testColumnAddedWhileIndexing(){
+		// A column is added while the index is being built (as by another thread):
+		final DefaultDBTable table = new DefaultDBTable("table3"){
+			private boolean first = true;
+
+			@Override
+			public Iterator<DBColumn> iterator(){
+				List<DBColumn> snapshot = new ArrayList<DBColumn>(columns.values());
+				if (first){
+					first = false;
+					addColumn(new DefaultDBColumn("late", this));
+				}
+				return snapshot.iterator();
+			}
+		};
+		table.addColumn(new DefaultDBColumn("id", table));
+
+		// ...so this index is not kept:
+		assertEquals(1, table.getColumnIndex().size());
+		assertEquals(2, table.getColumnIndex().size());
+		assertEquals(1, table.getColumnIndex().search("late").size());
+	}
+
+	@Test
+	public void testReadOnlyMatches(){
+		SearchColumnList index = table1.getColumnIndex();
+
+		List<DBColumn> matches = index.search("ra");
+		assertEquals(1, matches.size());
+		assertSame(matches, index.search("RA"));
+		try{
+			matches.clear();
+			fail("The matches can not be modified!");
+		}catch(UnsupportedOperationException uoe){}
+
+		// Case sensitive search:
+		assertEquals(0, index.get("ra", true).size());
+		assertEquals(1, index.get("RA", true).size());
+
+		// No match:
+		assertEquals(0, index.search("foo").size());
+	}
+
+	@Test
+	public void testAddAllAtOnce(){
+		SearchColumnList list = new SearchColumnList();
+		list.addAll(table1.getColumnIndex());
+		list.addAll(table2.getColumnIndex());
+		assertEquals(5, list.size());
+		assertEquals(2, list.search("ID").size());
+		assertEquals(1, list.search(null, null, "table2", "id").size());
+		assertSame(table2, list.search(null, null, "table2", "id").get(0).getTable());
+		assertEquals(1, list.search("mag").size());
+
+		// The added lists must not be modified:
+		assertEquals(3, table1.getColumnIndex().size());
+		assertEquals(1, table1.getColumnIndex().search("id").size());
+
+		// A distinct list must still check every column:
+		SearchColumnList distinctList = new SearchColumnList();
+		distinctList.setDistinct(true);
+		distinctList.addAll(table1.getColumnIndex());
+		distinctList.addAll(table2.getColumnIndex());
+		assertEquals(4, distinctList.size());
+	}
+
+}
@@ -0,0 +1,99 @@
+package adql.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import adql.parser.ADQLParser;
+import adql.query.ADQLObject;
+import adql.query.ADQLQuery;
+import adql.query.from.ADQLTable;
+import adql.query.operand.function.ADQLFunction;
+
+public class TestMultiSearchHandler {
+
+	@Test
+	public void testSameResultsAsSeparateSearches() throws Exception{
+		ADQLQuery query = (new ADQLParser()).parseQuery("SELECT a, ABS(b) FROM t1 JOIN (SELECT c FROM t2 WHERE d > SQRT(2)) AS sub ON t1.a = sub.c WHERE a IN (SELECT e FROM t3 WHERE f = ABS(g)) GROUP BY a, b HAVING COUNT(*) > 1 ORDER BY 1");
+
+		// Non-recursive searches:
+		checkSameResults(query, false);
+
+		// Recursive searches (i.e. also inside sub-queries):
+		checkSameResults(query, true);
+	}
+
+	@Test
+	public void testScope() throws Exception{
+		ADQLQuery query = (new ADQLParser()).parseQuery("SELECT a, b FROM t1 WHERE c > 0 GROUP BY a, b");
+
+		SimpleSearchHandler groupByColumns = new SearchColumnHandler();
+		SimpleSearchHandler allColumns = new SearchColumnHandler();
+		new MultiSearchHandler().add(groupByColumns, query.getGroupBy()).add(allColumns).search(query);
+		assertEquals(2, groupByColumns.getNbMatch());
+		assertEquals(5, allColumns.getNbMatch());
+
+		// The scope must also be the only searched part of the tree:
+		SimpleSearchHandler expected = new SearchColumnHandler();
+		expected.search(query.getGroupBy());
+		assertEquals(toList(expected), toList(groupByColumns));
+	}
+
+	@Test
+	public void testOnlyFirstMatch() throws Exception{
+		ADQLQuery query = (new ADQLParser()).parseQuery("SELECT a, b FROM t1 WHERE c > 0");
+
+		SimpleSearchHandler firstColumn = new SearchColumnHandler(false, true);
+		SimpleSearchHandler allColumns = new SearchColumnHandler();
+		new MultiSearchHandler().add(firstColumn).add(allColumns).search(query);
+		assertEquals(1, firstColumn.getNbMatch());
+		assertEquals("a", firstColumn.iterator().next().toADQL());
+		assertEquals(3, allColumns.getNbMatch());
+	}
+
+	private void checkSameResults(final ADQLQuery query, final boolean recursive){
+		SimpleSearchHandler[] expected = createHandlers(recursive);
+		for(SimpleSearchHandler handler : expected)
+			handler.search(query);
+
+		SimpleSearchHandler[] actual = createHandlers(recursive);
+		MultiSearchHandler multiSearch = new MultiSearchHandler();
+		for(SimpleSearchHandler handler : actual)
+			multiSearch.add(handler);
+		assertEquals(actual.length, multiSearch.getNbHandlers());
+		multiSearch.search(query);
+
+		for(int i = 0; i < expected.length; i++)
+			assertEquals(toList(expected[i]), toList(actual[i]));
+	}
+
+	private static SimpleSearchHandler[] createHandlers(final boolean recursive){
+		return new SimpleSearchHandler[]{ new SearchColumnHandler(recursive), new SimpleSearchHandler(recursive){
+			@Override
+			protected boolean match(ADQLObject obj){
+				return obj instanceof ADQLTable;
+			}
+		}, new SimpleSearchHandler(recursive){
+			@Override
+			protected boolean match(ADQLObject obj){
+				return obj instanceof ADQLFunction;
+			}
+		}, new SimpleSearchHandler(recursive){
+			@Override
+			protected boolean match(ADQLObject obj){
+				return obj instanceof ADQLQuery;
+			}
+		} };
+	}
+
+	private static List<ADQLObject> toList(final ISearchHandler handler){
+		List<ADQLObject> list = new ArrayList<ADQLObject>();
+		for(ADQLObject obj : handler)
+			list.add(obj);
+		return list;
+	}
+
+}
@@ -3,13 +3,18 @@ package adql.translator;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import adql.db.DBType;
 import adql.db.FunctionDef;
 import adql.db.STCS.Region;
+import adql.parser.ADQLParser;
 import adql.parser.ParseException;
+import adql.query.ADQLQuery;
 import adql.query.IdentifierField;
 import adql.query.operand.ADQLColumn;
 import adql.query.operand.ADQLOperand;
@@ -100,6 +105,31 @@ public class TestJDBCTranslator {
 		}
 	}
 
+	@Test
+	public void testTranslateWithParameters() {
+		JDBCTranslator tr = new AJDBCTranslator();
+
+		try {
+			ADQLQuery query = (new ADQLParser()).parseQuery("SELECT TOP 10 name, mag * 2 FROM aTable WHERE mag < 12.5 AND name = 'M31' AND id IN (SELECT id FROM bTable WHERE n > 3000000000 AND x = 100000000000000000000) GROUP BY name HAVING COUNT(*) > 1");
+
+			// TEST: only the constants of the WHERE clauses are bound:
+			ParameterizedSQL psql = tr.translateWithParameters(query);
+			assertEquals("SELECT name AS \"name\" , mag*2 AS \"MULT\"\nFROM aTable\nWHERE mag < ? AND name = ? AND id IN (SELECT id AS \"id\"\nFROM bTable\nWHERE n > ? AND x = ?)\nGROUP BY name\nHAVING COUNT(*) > 1\nLimit 10", psql.getSQL());
+			assertEquals(Arrays.asList(new BigDecimal("12.5"), "M31", Long.valueOf(3000000000L), new BigDecimal("100000000000000000000")), psql.getParameters());
+
+			// TEST: the same query with different constants has the same SQL:
+			ParameterizedSQL psql2 = tr.translateWithParameters((new ADQLParser()).parseQuery("SELECT TOP 10 name, mag * 2 FROM aTable WHERE mag < 5 AND name = 'M''42' AND id IN (SELECT id FROM bTable WHERE n > 1 AND x = 2) GROUP BY name HAVING COUNT(*) > 1"));
+			assertEquals(psql.getSQL(), psql2.getSQL());
+			assertEquals(Arrays.asList(Integer.valueOf(5), "M'42", Integer.valueOf(1), Integer.valueOf(2)), psql2.getParameters());
+
+			// TEST: a normal translation is not affected:
+			assertEquals("SELECT name AS \"name\"\nFROM aTable\nWHERE mag < 12.5 AND name = 'M31'", tr.translate((new ADQLParser()).parseQuery("SELECT name FROM aTable WHERE mag < 12.5 AND name = 'M31'")));
+		} catch(Exception e) {
+			e.printStackTrace(System.err);
+			fail("There should have been no problem to translate this query with bind parameters.");
+		}
+	}
+
 	public final static class AJDBCTranslator extends JDBCTranslator {
 
 		@Override
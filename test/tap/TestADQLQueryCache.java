@@ -0,0 +1,150 @@
+package tap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import adql.db.DBChecker;
+import adql.db.DBTable;
+import adql.db.DBType;
+import adql.db.DBType.DBDatatype;
+import adql.parser.ADQLParser;
+import adql.query.ADQLQuery;
+import adql.translator.PostgreSQLTranslator;
+import tap.metadata.TAPColumn;
+import tap.metadata.TAPMetadata;
+import tap.metadata.TAPSchema;
+import tap.metadata.TAPTable;
+
+public class TestADQLQueryCache {
+
+	private TAPMetadata metadata;
+	private ADQLParser parser;
+
+	@Before
+	public void setUp() throws Exception{
+		metadata = new TAPMetadata();
+		TAPSchema schema = new TAPSchema("public");
+		TAPTable tableA = new TAPTable("A");
+		tableA.addColumn(new TAPColumn("id", new DBType(DBDatatype.INTEGER)));
+		tableA.addColumn(new TAPColumn("txta", new DBType(DBDatatype.VARCHAR)));
+		TAPTable tableB = new TAPTable("B");
+		tableB.addColumn(new TAPColumn("id", new DBType(DBDatatype.INTEGER)));
+		tableB.addColumn(new TAPColumn("txtb", new DBType(DBDatatype.VARCHAR)));
+		schema.addTable(tableA);
+		schema.addTable(tableB);
+		metadata.addSchema(schema);
+
+		List<DBTable> tables = new ArrayList<DBTable>(2);
+		tables.add(tableA);
+		tables.add(tableB);
+		parser = new ADQLParser(new DBChecker(tables));
+	}
+
+	@Test
+	public void testNormalize(){
+		assertNull(ADQLQueryCache.normalize(null));
+		assertEquals("SELECT * FROM A", ADQLQueryCache.normalize("  SELECT   *\tFROM A \t "));
+		assertEquals("SELECT * FROM A", ADQLQueryCache.normalize("SELECT * \r\n\n  FROM A"));
+		// strings and identifiers must not be altered:
+		assertEquals("SELECT 'a  b' AS \"c  d\" FROM A", ADQLQueryCache.normalize("SELECT  'a  b'  AS  \"c  d\" FROM A"));
+		// comments must not be altered:
+		assertEquals("SELECT * -- it's  a comment\nFROM A WHERE txta = 'x  y'", ADQLQueryCache.normalize("SELECT *  -- it's  a comment\n   FROM A WHERE txta = 'x  y'"));
+	}
+
+	@Test
+	public void testCopyTranslation(){
+		final String[] queries = new String[]{ "SELECT TOP 10 * FROM A", "SELECT a.id, txtb FROM A AS a JOIN B ON a.id = B.id WHERE txta LIKE 'foo%' ORDER BY 1", "SELECT id, txta, txtb FROM A NATURAL JOIN B", "SELECT * FROM A JOIN B USING(id)", "SELECT id, COUNT(*) AS nb FROM A GROUP BY id HAVING COUNT(*) > 1 ORDER BY nb DESC", "SELECT sub.id FROM (SELECT id FROM A) AS sub WHERE sub.id IN (SELECT id FROM B)", "SELECT DISTINCT \"txta\" FROM A WHERE id NOT BETWEEN 1 AND 10 AND txta IS NOT NULL OR id IN (1, 2)", "SELECT ABS(id), ROUND(id, 2), PI(), COUNT(*) FROM A GROUP BY id", "SELECT DISTANCE(POINT('ICRS', id, id), POINT('ICRS', 1, 2)) AS d FROM A ORDER BY d" };
+		PostgreSQLTranslator translator = new PostgreSQLTranslator();
+		ADQLQueryCache cache = new ADQLQueryCache(10, -1);
+		for(String adql : queries){
+			try{
+				ADQLQuery query = parser.parseQuery(adql);
+				cache.put(adql, metadata, query, null);
+				ADQLQuery copy = cache.get(adql, metadata).query;
+				assertNotSame(query, copy);
+				assertEquals(adql, translator.translate(query), translator.translate(copy));
+			}catch(Exception ex){
+				ex.printStackTrace();
+				fail("Unexpected error with \"" + adql + "\": " + ex.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testGetPut(){
+		try{
+			ADQLQueryCache cache = new ADQLQueryCache(2, -1);
+			ADQLQuery query = parser.parseQuery("SELECT * FROM A");
+
+			// miss:
+			assertNull(cache.get("SELECT * FROM A", metadata));
+			assertEquals(1, cache.getNbMisses());
+
+			// hit (whatever are the spaces):
+			cache.put("SELECT * FROM A", metadata, query, "SELECT * FROM \"A\"");
+			ADQLQueryCache.CachedQuery cached = cache.get("SELECT *\n FROM  A ", metadata);
+			assertNotNull(cached);
+			assertEquals("SELECT * FROM \"A\"", cached.fixedQuery);
+			assertEquals(1, cache.getNbHits());
+
+			// modifying the returned query must not affect the cache:
+			cached.query.getSelect().setLimit(5);
+			assertEquals(-1, cache.get("SELECT * FROM A", metadata).query.getSelect().getLimit());
+
+			// other metadata => miss:
+			assertNull(cache.get("SELECT * FROM A", new TAPMetadata()));
+			assertEquals(0, cache.getSize());
+
+			// LRU:
+			cache.put("SELECT * FROM A", metadata, query, null);
+			cache.put("SELECT * FROM B", metadata, parser.parseQuery("SELECT * FROM B"), null);
+			cache.get("SELECT * FROM A", metadata);
+			cache.put("SELECT id FROM B", metadata, parser.parseQuery("SELECT id FROM B"), null);
+			assertEquals(2, cache.getSize());
+			assertNotNull(cache.get("SELECT * FROM A", metadata));
+			assertNull(cache.get("SELECT * FROM B", metadata));
+
+			// metadata of another service changed => no effect:
+			ADQLQueryCache otherCache = new ADQLQueryCache(2, -1);
+			TAPMetadata otherMetadata = new TAPMetadata();
+			otherCache.put("SELECT * FROM A", otherMetadata, query, null);
+			otherMetadata.invalidateCache();
+			assertNull(otherCache.get("SELECT * FROM A", otherMetadata));
+			assertNotNull(cache.get("SELECT * FROM A", metadata));
+
+			// metadata changed => miss, and the whole cache is cleared:
+			metadata.invalidateCache();
+			assertNull(cache.get("SELECT * FROM A", metadata));
+			assertEquals(0, cache.getSize());
+
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testTimeToLive(){
+		try{
+			ADQLQueryCache cache = new ADQLQueryCache(2, 50);
+			cache.put("SELECT * FROM A", metadata, parser.parseQuery("SELECT * FROM A"), null);
+			assertNotNull(cache.get("SELECT * FROM A", metadata));
+			Thread.sleep(100);
+			assertNull(cache.get("SELECT * FROM A", metadata));
+			assertEquals(0, cache.getSize());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+package tap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSyncExecutor {
+
+	private SyncExecutor executor;
+
+	@Before
+	public void setUp() throws Exception{
+		executor = new SyncExecutor(1);
+	}
+
+	@After
+	public void tearDown() throws Exception{
+		executor.shutdown();
+	}
+
+	@Test
+	public void testMaxThreads(){
+		assertEquals(1, new SyncExecutor(-5).getMaxThreads());
+		assertEquals(1, executor.getMaxThreads());
+		assertFalse(executor.usesVirtualThreads());
+	}
+
+	@Test
+	public void testExecuteInWorker() throws Exception{
+		final AtomicBoolean inWorker = new AtomicBoolean(false);
+		final CountDownLatch end = new CountDownLatch(1);
+		executor.execute(new Runnable(){
+			@Override
+			public void run(){
+				inWorker.set(executor.isWorkerThread());
+				end.countDown();
+			}
+		});
+		assertTrue(end.await(5, TimeUnit.SECONDS));
+		assertTrue(inWorker.get());
+		assertFalse(executor.isWorkerThread());
+	}
+
+	@Test
+	public void testExecuteWhenBusy() throws Exception{
+		// Occupy the only thread of the pool:
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		executor.execute(new Runnable(){
+			@Override
+			public void run(){
+				started.countDown();
+				try{
+					release.await();
+				}catch(InterruptedException ie){}
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		// A new task must be run by the current thread:
+		final AtomicReference<Thread> runner = new AtomicReference<Thread>();
+		executor.execute(new Runnable(){
+			@Override
+			public void run(){
+				runner.set(Thread.currentThread());
+			}
+		});
+		assertSame(Thread.currentThread(), runner.get());
+		release.countDown();
+
+		// Same after a shutdown:
+		executor.shutdown();
+		runner.set(null);
+		executor.execute(new Runnable(){
+			@Override
+			public void run(){
+				runner.set(Thread.currentThread());
+			}
+		});
+		assertSame(Thread.currentThread(), runner.get());
+	}
+
+	@Test
+	public void testSchedule() throws Exception{
+		final CountDownLatch done = new CountDownLatch(1);
+		executor.schedule(new Runnable(){
+			@Override
+			public void run(){
+				done.countDown();
+			}
+		}, 10);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		executor.shutdown();
+		assertNull(executor.schedule(new Runnable(){
+			@Override
+			public void run(){}
+		}, 10));
+	}
+
+}
@@ -0,0 +1,125 @@
+package tap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTAPMetrics {
+
+	private TAPMetrics metrics;
+
+	@Before
+	public void setUp() throws Exception{
+		metrics = new TAPMetrics(new long[]{ 10, 100 });
+	}
+
+	@Test
+	public void testHistogram(){
+		TAPMetrics.Histogram histogram = new TAPMetrics.Histogram(new long[]{ 10, 100 });
+		histogram.observe(5);
+		histogram.observe(10);
+		histogram.observe(50);
+		histogram.observe(1000);
+		assertEquals(4, histogram.getCount());
+		assertEquals(1065, histogram.getSum());
+		long[] counts = histogram.getCumulativeCounts();
+		assertEquals(3, counts.length);
+		assertEquals(2, counts[0]);
+		assertEquals(3, counts[1]);
+		assertEquals(4, counts[2]);
+	}
+
+	@Test
+	public void testRecord(){
+		metrics.record(createReport(true, true, "votable", 10, 2048, 5), 20);
+		metrics.record(createReport(false, true, "csv", 5, 100, 50), 70);
+		metrics.record(createReport(true, false, null, -1, -1, -1), 3);
+		metrics.record(null, 10);
+
+		assertEquals(3, metrics.getNbQueries());
+		assertEquals(15, metrics.getNbRows());
+		assertEquals(2148, metrics.getNbBytes());
+		assertEquals(3, metrics.getTotalLatency().getCount());
+		assertEquals(3, metrics.getStepLatency(ExecutionProgression.PARSING).getCount());
+		assertEquals(2, metrics.getStepLatency(ExecutionProgression.WRITING_RESULT).getCount());
+		assertEquals(0, metrics.getStepLatency(ExecutionProgression.UPLOADING).getCount());
+		assertNull(metrics.getStepLatency(ExecutionProgression.PENDING));
+		assertEquals(1, metrics.getFormatLatency("votable").getCount());
+		assertEquals(50, metrics.getFormatLatency("csv").getSum());
+		assertNull(metrics.getFormatLatency("fits"));
+	}
+
+	@Test
+	public void testWriteJSON() throws Exception{
+		metrics.record(createReport(true, true, "votable", 10, 2048, 5), 20);
+		metrics.registerGauge("db_connections_active", "Number of connections.", new TAPMetrics.Gauge(){
+			@Override
+			public long getValue(){
+				return 3;
+			}
+		});
+
+		StringWriter output = new StringWriter();
+		metrics.writeJSON(output);
+		JSONObject json = new JSONObject(output.toString());
+		assertEquals(1, json.getJSONObject("queries").getJSONObject("sync").getLong("success"));
+		assertEquals(0, json.getJSONObject("queries").getJSONObject("async").getLong("error"));
+		assertEquals(10, json.getLong("rows"));
+		assertEquals(2048, json.getLong("bytes"));
+		assertEquals(3, json.getJSONObject("gauges").getLong("db_connections_active"));
+		JSONObject total = json.getJSONObject("latencies").getJSONObject("steps").getJSONObject("total");
+		assertEquals(1, total.getLong("count"));
+		assertEquals(0, total.getJSONObject("buckets").getLong("10"));
+		assertEquals(1, total.getJSONObject("buckets").getLong("100"));
+		assertEquals(1, json.getJSONObject("latencies").getJSONObject("formats").getJSONObject("votable").getLong("count"));
+
+		// Unregister the gauge:
+		metrics.registerGauge("db_connections_active", null, null);
+		output = new StringWriter();
+		metrics.writeJSON(output);
+		assertEquals(0, new JSONObject(output.toString()).getJSONObject("gauges").length());
+	}
+
+	@Test
+	public void testWritePrometheus() throws Exception{
+		metrics.record(createReport(false, true, "csv", 5, 100, 50), 70);
+		metrics.registerGauge("uws_queued_jobs", "Number of queued jobs.", new TAPMetrics.Gauge(){
+			@Override
+			public long getValue(){
+				return 2;
+			}
+		});
+
+		StringWriter output = new StringWriter();
+		metrics.writePrometheus(output);
+		String text = output.toString();
+		assertTrue(text.contains("# TYPE tap_queries_total counter\n"));
+		assertTrue(text.contains("tap_queries_total{mode=\"async\",status=\"success\"} 1\n"));
+		assertTrue(text.contains("tap_result_rows_total 5\n"));
+		assertTrue(text.contains("# TYPE tap_uws_queued_jobs gauge\n"));
+		assertTrue(text.contains("tap_uws_queued_jobs 2\n"));
+		assertTrue(text.contains("tap_step_duration_seconds_bucket{step=\"total\",le=\"0.01\"} 0\n"));
+		assertTrue(text.contains("tap_step_duration_seconds_bucket{step=\"total\",le=\"0.1\"} 1\n"));
+		assertTrue(text.contains("tap_step_duration_seconds_sum{step=\"total\"} 0.07\n"));
+		assertTrue(text.contains("tap_format_duration_seconds_count{format=\"csv\"} 1\n"));
+	}
+
+	private static TAPExecutionReport createReport(final boolean sync, final boolean success, final String format, final long nbRows, final long nbBytes, final long writingDuration){
+		TAPExecutionReport report = new TAPExecutionReport("123456A", sync, null);
+		report.success = success;
+		report.format = format;
+		report.nbRows = nbRows;
+		report.nbBytes = nbBytes;
+		report.setDuration(ExecutionProgression.PARSING, 2);
+		if (writingDuration >= 0)
+			report.setDuration(ExecutionProgression.WRITING_RESULT, writingDuration);
+		return report;
+	}
+
+}
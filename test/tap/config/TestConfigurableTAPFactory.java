@@ -7,6 +7,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static tap.config.TAPConfiguration.KEY_BACKUP_BY_USER;
 import static tap.config.TAPConfiguration.KEY_BACKUP_FREQUENCY;
+import static tap.config.TAPConfiguration.KEY_BACKUP_RESTORE_PARALLELISM;
 import static tap.config.TAPConfiguration.KEY_DATABASE_ACCESS;
 import static tap.config.TAPConfiguration.KEY_DATASOURCE_JNDI_NAME;
 import static tap.config.TAPConfiguration.KEY_DB_PASSWORD;
@@ -67,7 +68,8 @@ public class TestConfigurableTAPFactory {
 			noJdbcProp1, noJdbcProp2, noJdbcProp3, badJdbcProp,
 			missingTranslatorProp, badTranslatorProp, badDBNameProp,
 			badUsernameProp, badPasswordProp, validBackupFrequency, noBackup,
-			userBackup, badBackupFrequency;
+			userBackup, badBackupFrequency, parallelRestore,
+			badRestoreParallelism;
 
 	private static ServiceConnection serviceConnection = null;
 
@@ -161,6 +163,12 @@ public class TestConfigurableTAPFactory {
 
 		badBackupFrequency = (Properties)validJDBCProp.clone();
 		badBackupFrequency.setProperty(KEY_BACKUP_FREQUENCY, "foo");
+
+		parallelRestore = (Properties)validBackupFrequency.clone();
+		parallelRestore.setProperty(KEY_BACKUP_RESTORE_PARALLELISM, "4");
+
+		badRestoreParallelism = (Properties)validBackupFrequency.clone();
+		badRestoreParallelism.setProperty(KEY_BACKUP_RESTORE_PARALLELISM, "0");
 	}
 
 	@AfterClass
@@ -332,10 +340,29 @@ public class TestConfigurableTAPFactory {
 			ConfigurableTAPFactory factory = new ConfigurableTAPFactory(serviceConnection, validBackupFrequency);
 			DefaultTAPBackupManager backupManager = (DefaultTAPBackupManager)factory.createUWSBackupManager(new UWSService(factory, new LocalUWSFileManager(new File("/tmp"))));
 			assertEquals(3600L, backupManager.getBackupFreq());
+			assertEquals(1, backupManager.getRestoreParallelism());
 		}catch(Exception ex){
 			fail(getPertinentMessage(ex));
 		}
 
+		// Parallel restoration:
+		try{
+			ConfigurableTAPFactory factory = new ConfigurableTAPFactory(serviceConnection, parallelRestore);
+			DefaultTAPBackupManager backupManager = (DefaultTAPBackupManager)factory.createUWSBackupManager(new UWSService(factory, new LocalUWSFileManager(new File("/tmp"))));
+			assertEquals(4, backupManager.getRestoreParallelism());
+		}catch(Exception ex){
+			fail(getPertinentMessage(ex));
+		}
+
+		// Bad restoration parallelism:
+		try{
+			new ConfigurableTAPFactory(serviceConnection, badRestoreParallelism);
+			fail("This MUST have failed because the restoration parallelism is not positive!");
+		}catch(Exception ex){
+			assertEquals(TAPException.class, ex.getClass());
+			assertEquals("Positive integer expected for the property \"" + KEY_BACKUP_RESTORE_PARALLELISM + "\", instead of: \"0\"!", ex.getMessage());
+		}
+
 		// No backup:
 		try{
 			ConfigurableTAPFactory factory = new ConfigurableTAPFactory(serviceConnection, noBackup);
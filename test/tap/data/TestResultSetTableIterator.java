@@ -133,6 +133,55 @@ public class TestResultSetTableIterator {
 		}
 	}
 
+	@Test
+	public void testConvertersLikeFormatColValue(){
+		ResultSet rs = null, rsRef = null;
+		try{
+			final String sql = "SELECT * FROM hipparcos LIMIT 10;";
+
+			// Reference: all values read with getObject(...) and formatted with formatColValue(...):
+			rsRef = DBTools.select(conn, sql);
+			ResultSetTableIterator ref = new ResultSetTableIterator(rsRef){
+				@Override
+				protected Object formatColValue(Object colValue) throws DataReadException{
+					return super.formatColValue(colValue);
+				}
+			};
+
+			// Values read with the column converters:
+			rs = DBTools.select(conn, sql);
+			ResultSetTableIterator rsit = new ResultSetTableIterator(rs);
+
+			int countLines = 0;
+			while(ref.nextRow()){
+				assertTrue(rsit.nextRow());
+				countLines++;
+				while(ref.hasNextCol()){
+					assertTrue(rsit.hasNextCol());
+					Object expected = ref.nextCol(), value = rsit.nextCol();
+					// TEST the value and its class are the same:
+					assertEquals(expected, value);
+					if (expected != null)
+						assertEquals(expected.getClass(), value.getClass());
+				}
+				assertTrue(!rsit.hasNextCol());
+			}
+			assertTrue(!rsit.nextRow());
+			assertEquals(10, countLines);
+
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("An exception occurs while reading a correct ResultSet (containing some valid rows).");
+		}finally{
+			try{
+				if (rs != null)
+					rs.close();
+				if (rsRef != null)
+					rsRef.close();
+			}catch(Exception ex){}
+		}
+	}
+
 	@Test
 	public void testDateFormat(){
 		ResultSet rs = null;
@@ -10,6 +10,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 
 import org.junit.Test;
 
@@ -129,6 +130,111 @@ public class TestVOTableIterator {
 		}
 	}
 
+	@Test
+	public void testWithDataByBatch(){
+		InputStream input = null, batchInput = null;
+		VOTableIterator it = null, batchIt = null;
+		try{
+			// Read all values row by row:
+			input = new BufferedInputStream(new FileInputStream(dataVOTable));
+			it = new VOTableIterator(input);
+			ArrayList<Object> expectedValues = new ArrayList<Object>();
+			while(it.nextRow()){
+				while(it.hasNextCol())
+					expectedValues.add(it.nextCol());
+			}
+
+			// Read all values by block (with a capacity which does not divide the number of rows):
+			batchInput = new BufferedInputStream(new FileInputStream(dataVOTable));
+			batchIt = new VOTableIterator(batchInput);
+			ColumnBatch batch = new ColumnBatch(batchIt.getMetadata(), 30);
+			final int expectedNbLines = 100, expectedNbColumns = 4;
+			int countLines = 0, indValue = 0, nbRead;
+			while((nbRead = batchIt.nextBatch(batch)) > 0){
+				// TEST the returned number of rows is the number of rows in the batch:
+				assertEquals(batch.getRowCount(), nbRead);
+				// TEST that all columns have been read:
+				assertEquals(expectedNbColumns, batch.getColumnCount());
+				for(int r = 0; r < nbRead; r++){
+					countLines++;
+					// TEST the values are exactly the same as the ones returned row by row:
+					for(int c = 0; c < batch.getColumnCount(); c++)
+						assertEquals(expectedValues.get(indValue++), batch.getValue(c, r));
+				}
+			}
+			// TEST that all lines have been read:
+			assertEquals(expectedNbLines, countLines);
+			// TEST no more rows can be read:
+			assertEquals(0, batchIt.nextBatch(batch));
+
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("An exception occurs while reading a correct VOTable (containing some valid rows).");
+		}finally{
+			try{
+				if (input != null)
+					input.close();
+				if (batchInput != null)
+					batchInput.close();
+			}catch(IOException e){
+				e.printStackTrace();
+			}
+			try{
+				if (it != null)
+					it.close();
+				if (batchIt != null)
+					batchIt.close();
+			}catch(DataReadException dre){}
+		}
+	}
+
+	@Test
+	public void testWithBatchSizes(){
+		// Read all values with one row per batch:
+		ArrayList<Object> expectedValues = readAllValues(binaryVOTable, 1);
+		assertEquals(100 * 4, expectedValues.size());
+
+		/* TEST the values are the same whatever is the batch size
+		 * (which divides or not the number of rows, or is bigger than it): */
+		for(int batchSize : new int[]{ 0, 7, 50, 1000 })
+			assertEquals(expectedValues, readAllValues(binaryVOTable, batchSize));
+
+		// TEST an empty table is correctly read with any batch size:
+		assertEquals(0, readAllValues(emptyBinaryVOTable, 1).size());
+		assertEquals(0, readAllValues(emptyBinaryVOTable, 7).size());
+	}
+
+	private static ArrayList<Object> readAllValues(final File votable, final int batchSize){
+		InputStream input = null;
+		VOTableIterator it = null;
+		try{
+			input = new BufferedInputStream(new FileInputStream(votable));
+			it = new VOTableIterator(input, batchSize);
+			ArrayList<Object> values = new ArrayList<Object>();
+			while(it.nextRow()){
+				while(it.hasNextCol())
+					values.add(it.nextCol());
+			}
+			return values;
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("An exception occurs while reading a correct VOTable by batches of " + batchSize + " rows.");
+			return null;
+		}finally{
+			try{
+				if (input != null)
+					input.close();
+			}catch(IOException e){
+				e.printStackTrace();
+			}
+			if (it != null){
+				try{
+					it.close();
+				}catch(DataReadException dre){}
+			}
+		}
+	}
+
 	@Test
 	public void testWithEmptySet(){
 		InputStream input = null;
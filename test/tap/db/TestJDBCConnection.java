@@ -3,6 +3,7 @@ package tap.db;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -596,6 +597,63 @@ public class TestJDBCConnection {
 		}
 	}
 
+	@Test
+	public void testExecuteQueryWithPreparedStatements(){
+		JDBCConnection[] connections = new JDBCConnection[]{h2JDBCConnection,sqliteJDBCConnection};
+		for(JDBCConnection conn : connections){
+
+			TAPSchema schema = TAPMetadata.getStdSchema(conn.supportsSchema);
+			ArrayList<DBTable> tables = new ArrayList<DBTable>(schema.getNbTables());
+			for(TAPTable t : schema)
+				tables.add(t);
+
+			ADQLParser parser = new ADQLParser(new DBChecker(tables));
+			parser.setDebug(false);
+
+			TableIterator result = null;
+			try{
+				// Prepare the test: create the TAP_SCHEMA and enable the prepared statements:
+				createTAPSchema(conn);
+				conn.setStatementCacheSize(2);
+
+				// Execute twice the same query with different constants:
+				String[] tableNames = new String[]{"tables","columns"};
+				for(String tableName : tableNames){
+					result = conn.executeQuery(parser.parseQuery("SELECT table_name FROM TAP_SCHEMA.tables WHERE table_name = '" + tableName + "';"));
+					assertTrue(result.nextRow());
+					assertEquals(tableName, result.nextCol());
+					assertFalse(result.nextRow());
+					result.close();
+					result = null;
+				}
+
+				// Only one prepared statement should have been created and kept open:
+				assertEquals(1, conn.preparedStatements.size());
+				assertFalse(conn.preparedStatements.values().iterator().next().isClosed());
+				assertNull(conn.stmt);
+
+				// The least recently used statement should be closed when the cache is full:
+				for(int i = 0; i < 2; i++){
+					result = conn.executeQuery(parser.parseQuery("SELECT table_name FROM TAP_SCHEMA.tables WHERE table_name = 'foo'" + (i == 0 ? "" : " OR table_name = 'bar'") + " OR schema_name = 'TAP_SCHEMA';"));
+					result.close();
+					result = null;
+				}
+				assertEquals(2, conn.preparedStatements.size());
+
+			}catch(Exception ex){
+				ex.printStackTrace(System.err);
+				fail("{" + conn.ID + "} There should be no pbm when executing a query with a prepared statement!");
+			}finally{
+				if (result != null){
+					try{
+						result.close();
+					}catch(DataReadException de){}
+				}
+				conn.setStatementCacheSize(0);
+			}
+		}
+	}
+
 	/* ************** */
 	/* TOOL FUNCTIONS */
 	/* ************** */
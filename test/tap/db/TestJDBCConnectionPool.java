@@ -0,0 +1,147 @@
+package tap.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import adql.translator.PostgreSQLTranslator;
+
+public class TestJDBCConnectionPool {
+
+	/** Creator counting the number of created connections. */
+	private static class CountingCreator implements JDBCConnectionPool.ConnectionCreator {
+		int nbCreated = 0;
+
+		@Override
+		public JDBCConnection createConnection(final String connID) throws DBException{
+			nbCreated++;
+			return new JDBCConnection("org.sqlite.JDBC", "jdbc:sqlite::memory:", null, null, new PostgreSQLTranslator(), connID, null);
+		}
+	}
+
+	@Test
+	public void testReuse(){
+		CountingCreator creator = new CountingCreator();
+		JDBCConnectionPool pool = new JDBCConnectionPool(creator, 2, 2, 100, 1, null);
+		try{
+			JDBCConnection conn1 = pool.getConnection("job1");
+			assertEquals("job1", conn1.getID());
+			assertEquals(1, pool.getNbActive());
+			pool.freeConnection(conn1);
+			assertEquals(0, pool.getNbActive());
+			assertEquals(1, pool.getNbIdle());
+
+			// the freed connection must be reused and relabelled:
+			JDBCConnection conn2 = pool.getConnection("job2");
+			assertSame(conn1, conn2);
+			assertEquals("job2", conn2.getID());
+			assertEquals(1, creator.nbCreated);
+
+			// a closed connection must not be reused:
+			conn2.getInnerConnection().close();
+			pool.freeConnection(conn2);
+			assertEquals(0, pool.getNbIdle());
+			JDBCConnection conn3 = pool.getConnection("job3");
+			assertNotSame(conn2, conn3);
+			assertEquals(2, creator.nbCreated);
+			pool.freeConnection(conn3);
+
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			pool.close();
+		}
+	}
+
+	@Test
+	public void testDoubleFree(){
+		CountingCreator creator = new CountingCreator();
+		JDBCConnectionPool pool = new JDBCConnectionPool(creator, 1, 2, 50, -1, null);
+		try{
+			JDBCConnection conn1 = pool.getConnection("job1");
+			pool.freeConnection(conn1);
+			// a second free must neither release another permit nor keep the connection twice:
+			pool.freeConnection(conn1);
+			assertEquals(0, pool.getNbActive());
+			assertEquals(1, pool.getNbIdle());
+
+			JDBCConnection conn2 = pool.getConnection("job2");
+			assertSame(conn1, conn2);
+			assertEquals(1, pool.getNbActive());
+			try{
+				pool.getConnection("job3");
+				fail("No connection should be available!");
+			}catch(DBException de){
+				assertTrue(de.getMessage().startsWith("No database connection available after 50ms!"));
+			}
+
+			// a connection not lent by the pool is ignored:
+			JDBCConnection other = creator.createConnection("other");
+			pool.freeConnection(other);
+			assertEquals(1, pool.getNbActive());
+			assertEquals(0, pool.getNbIdle());
+			other.getInnerConnection().close();
+
+			pool.freeConnection(conn2);
+			assertEquals(0, pool.getNbActive());
+
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			pool.close();
+		}
+	}
+
+	@Test
+	public void testBounds(){
+		CountingCreator creator = new CountingCreator();
+		JDBCConnectionPool pool = new JDBCConnectionPool(creator, 2, 1, 50, -1, null);
+		JDBCConnection conn1 = null, conn2 = null;
+		try{
+			conn1 = pool.getConnection("job1");
+			conn2 = pool.getConnection("job2");
+			assertEquals(2, pool.getNbActive());
+
+			// no more connection available:
+			try{
+				pool.getConnection("job3");
+				fail("No connection should be available!");
+			}catch(DBException de){
+				assertTrue(de.getMessage().startsWith("No database connection available after 50ms!"));
+			}
+
+			// only 1 idle connection can be kept:
+			pool.freeConnection(conn1);
+			pool.freeConnection(conn2);
+			assertEquals(1, pool.getNbIdle());
+			assertFalse(conn1.getInnerConnection().isClosed());
+			assertTrue(conn2.getInnerConnection().isClosed());
+
+			// closing the pool closes the idle connections:
+			pool.close();
+			assertTrue(pool.isClosed());
+			assertEquals(0, pool.getNbIdle());
+			assertTrue(conn1.getInnerConnection().isClosed());
+			try{
+				pool.getConnection("job4");
+				fail("The pool is closed!");
+			}catch(DBException de){
+				assertTrue(de.getMessage().startsWith("The connection pool is closed!"));
+			}
+
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			pool.close();
+		}
+	}
+
+}
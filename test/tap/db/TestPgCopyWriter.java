@@ -0,0 +1,212 @@
+package tap.db;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import adql.db.DBType;
+import adql.db.DBType.DBDatatype;
+import tap.data.DataReadException;
+
+public class TestPgCopyWriter {
+
+	private final static DBType[] TYPES = new DBType[]{ new DBType(DBDatatype.INTEGER), new DBType(DBDatatype.DOUBLE), new DBType(DBDatatype.VARCHAR), new DBType(DBDatatype.BLOB) };
+
+	@Test
+	public void testCSV(){
+		try{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PgCopyWriter writer = new PgCopyWriter(out, TYPES, PgCopyWriter.Format.CSV);
+			writer.writeRow(new Object[]{ 1, 2.5, "say \"hello\", world", new byte[]{ 0x01, (byte)0xAB } });
+			writer.writeRow(new Object[]{ null, Double.NaN, "", null });
+			writer.writeRow(new Object[]{ -3, null, "éà\nnew line", new byte[0] });
+			assertEquals(-1, writer.endCopy());
+
+			// TEST numbers are not quoted, strings are (even empty), NULL values are empty:
+			assertEquals("1,2.5,\"say \"\"hello\"\", world\",\"\\x01ab\"\n" + ",NaN,\"\",\n" + "-3,,\"éà\nnew line\",\"\\x\"\n", new String(out.toByteArray(), "UTF-8"));
+
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("Unexpected error while writing CSV rows: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testBinary(){
+		try{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PgCopyWriter writer = new PgCopyWriter(out, TYPES, PgCopyWriter.Format.BINARY);
+			writer.writeRow(new Object[]{ 42L, 2.5f, "abc", new byte[]{ 7 } });
+			writer.writeRow(new Object[]{ null, null, null, null });
+			writer.endCopy();
+
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+			// TEST the header:
+			byte[] signature = new byte[11];
+			in.readFully(signature);
+			assertArrayEquals(new byte[]{ 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte)0xFF, '\r', '\n', 0 }, signature);
+			assertEquals(0, in.readInt());
+			assertEquals(0, in.readInt());
+
+			// TEST the first row:
+			assertEquals(4, in.readShort());
+			assertEquals(4, in.readInt());
+			assertEquals(42, in.readInt());
+			assertEquals(8, in.readInt());
+			assertEquals(2.5, in.readDouble(), 0);
+			assertEquals(3, in.readInt());
+			assertEquals('a', in.readByte());
+			assertEquals('b', in.readByte());
+			assertEquals('c', in.readByte());
+			assertEquals(1, in.readInt());
+			assertEquals(7, in.readByte());
+
+			// TEST the second row (only NULLs):
+			assertEquals(4, in.readShort());
+			for(int c = 0; c < 4; c++)
+				assertEquals(-1, in.readInt());
+
+			// TEST the trailer:
+			assertEquals(-1, in.readShort());
+			assertEquals(0, in.available());
+
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("Unexpected error while writing binary rows: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testBinaryWithWrongValues(){
+		try{
+			PgCopyWriter writer = new PgCopyWriter(new ByteArrayOutputStream(), new DBType[]{ new DBType(DBDatatype.SMALLINT) }, PgCopyWriter.Format.BINARY);
+
+			// TEST a too big integer:
+			try{
+				writer.writeRow(new Object[]{ 100000 });
+				fail("100000 can not be written in a SMALLINT column!");
+			}catch(DataReadException dre){
+				assertEquals("Unexpected value for the column 1: \"100000\"! An integer between -32768 and 32767 was expected.", dre.getMessage());
+			}
+
+			// TEST a not integer number:
+			try{
+				writer.writeRow(new Object[]{ 1.5 });
+				fail("1.5 can not be written in a SMALLINT column!");
+			}catch(DataReadException dre){
+				assertEquals("Unexpected value for the column 1: \"1.5\"! An integer between -32768 and 32767 was expected.", dre.getMessage());
+			}
+
+			// TEST a string:
+			try{
+				writer.writeRow(new Object[]{ "foo" });
+				fail("A string can not be written in a SMALLINT column!");
+			}catch(DataReadException dre){
+				assertEquals("Unexpected value for the column 1: \"foo\"! A number was expected.", dre.getMessage());
+			}
+
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testArrays(){
+		/* Numeric arrays are declared as VARBINARY (see VotType) but only
+		 * byte arrays can be copied: */
+		final DBType[] types = new DBType[]{ new DBType(DBDatatype.VARBINARY), new DBType(DBDatatype.VARCHAR) };
+		for(PgCopyWriter.Format format : PgCopyWriter.Format.values()){
+			try{
+				PgCopyWriter writer = new PgCopyWriter(new ByteArrayOutputStream(), types, format);
+				writer.writeRow(new Object[]{ new byte[]{ 1, 2 }, "foo" });
+
+				// TEST an array of integers:
+				try{
+					writer.writeRow(new Object[]{ new int[]{ 1, 2 }, "foo" });
+					fail("An int[] can not be copied in " + format + "!");
+				}catch(DataReadException dre){
+					assertEquals("Unexpected value for the column 1: an array of int! Only byte arrays can be copied.", dre.getMessage());
+				}
+
+				// TEST an array of floats in a column of another type:
+				try{
+					writer.writeRow(new Object[]{ null, new float[]{ 1.5f } });
+					fail("A float[] can not be copied in " + format + "!");
+				}catch(DataReadException dre){
+					assertEquals("Unexpected value for the column 2: an array of float! Only byte arrays can be copied.", dre.getMessage());
+				}
+
+			}catch(Exception ex){
+				ex.printStackTrace(System.err);
+				fail("Unexpected error with the format " + format + ": " + ex.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testToPgMicros(){
+		TimeZone defaultTZ = TimeZone.getDefault();
+		try{
+			TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+			PgCopyWriter writer = new PgCopyWriter(new ByteArrayOutputStream(), new DBType[0], PgCopyWriter.Format.BINARY);
+
+			// TEST the PostgreSQL epoch:
+			assertEquals(0, writer.toPgMicros(Timestamp.valueOf("2000-01-01 00:00:00")));
+
+			// TEST the microseconds are kept:
+			assertEquals(86400000001L, writer.toPgMicros(Timestamp.valueOf("2000-01-02 00:00:00.000001")));
+
+			// TEST a date before the PostgreSQL epoch:
+			assertEquals(-1000, writer.toPgMicros(Timestamp.valueOf("1999-12-31 23:59:59.999")));
+
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			TimeZone.setDefault(defaultTZ);
+		}
+	}
+
+	@Test
+	public void testIsBinaryCompatible(){
+		assertTrue(PgCopyWriter.isBinaryCompatible(TYPES));
+		assertTrue(PgCopyWriter.isBinaryCompatible(new DBType[]{ null, new DBType(DBDatatype.TIMESTAMP) }));
+		assertFalse(PgCopyWriter.isBinaryCompatible(new DBType[]{ new DBType(DBDatatype.INTEGER), new DBType(DBDatatype.POINT) }));
+		assertFalse(PgCopyWriter.isBinaryCompatible(new DBType[]{ new DBType(DBDatatype.REGION) }));
+	}
+
+	@Test
+	public void testIsSupported(){
+		assertFalse(PgCopyWriter.isSupported(null));
+
+		Connection conn = null;
+		try{
+			Class.forName("org.sqlite.JDBC");
+			conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+			// TEST a connection which is not a PostgreSQL one:
+			assertFalse(PgCopyWriter.isSupported(conn));
+		}catch(Exception ex){
+			ex.printStackTrace(System.err);
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			try{
+				if (conn != null)
+					conn.close();
+			}catch(Exception ex){}
+		}
+	}
+
+}
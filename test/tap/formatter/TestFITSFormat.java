@@ -0,0 +1,270 @@
+package tap.formatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import adql.db.DBType;
+import adql.db.DBType.DBDatatype;
+import tap.ServiceConnection;
+import tap.TAPExecutionReport;
+import tap.TAPJob;
+import tap.data.ResultSetTableIterator;
+import tap.data.TableIterator;
+import tap.db_testtools.DBTools;
+import tap.metadata.TAPColumn;
+import tap.parameters.TAPParameters;
+import uk.ac.starlink.table.ColumnInfo;
+import uk.ac.starlink.table.DescribedValue;
+import uk.ac.starlink.table.StarTable;
+import uk.ac.starlink.table.StarTableFactory;
+import uk.ac.starlink.table.Tables;
+import uk.ac.starlink.util.ByteArrayDataSource;
+import uk.ac.starlink.util.FileDataSource;
+
+/**
+ * <p>Test the FITSFormat function {@link FITSFormat#writeResult(TableIterator, OutputStream, TAPExecutionReport, Thread)}.</p>
+ *
+ * <p>The result is written in 2 passes (variable width columns) or in a single pass
+ * (fixed width columns), in a file or in another kind of stream.</p>
+ *
+ * @author Gr&eacute;gory Mantelet (CDS)
+ * @version 2.4 (10/2026)
+ */
+public class TestFITSFormat {
+
+	private static Connection conn;
+	private static ServiceConnection serviceConn;
+	private static TAPColumn[] resultingColumns;
+	private static TAPColumn[] fixedColumns;
+	private static File fitsFile = new File("fits_test.fits");
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception{
+		DBTools.createTestDB();
+		conn = DBTools.createConnection("h2", null, null, DBTools.DB_TEST_PATH, DBTools.DB_TEST_USER, DBTools.DB_TEST_PWD);
+		serviceConn = new ServiceConnection4Test();
+
+		resultingColumns = new TAPColumn[4];
+		resultingColumns[0] = new TAPColumn("hip", new DBType(DBDatatype.VARCHAR, 10));
+		resultingColumns[1] = new TAPColumn("ra", new DBType(DBDatatype.DOUBLE), "Right ascension", "deg", "pos.eq.ra", null);
+		resultingColumns[2] = new TAPColumn("dec", new DBType(DBDatatype.DOUBLE), "Declination", "deg", "pos.eq.dec", null);
+		resultingColumns[3] = new TAPColumn("nb", new DBType(DBDatatype.INTEGER));
+
+		// Without the nullable INTEGER column, all columns have a fixed width:
+		fixedColumns = Arrays.copyOf(resultingColumns, 3);
+	}
+
+	@AfterClass
+	public static void tearDownAfterClass() throws Exception{
+		DBTools.closeConnection(conn);
+		fitsFile.delete();
+		DBTools.dropTestDB();
+	}
+
+	@Test
+	public void testGetFixedWidthColumnInfos(){
+		ResultSet rs = null;
+		try{
+			rs = DBTools.select(conn, "SELECT CAST(hip AS VARCHAR) AS hip, ra, dec, CAST(NULL AS INTEGER) AS nb FROM hipparcos LIMIT 1;");
+			TableIterator it = new ResultSetTableIterator(rs);
+			FITSFormat formatter = new FITSFormat(serviceConn);
+
+			// TEST all columns with a fixed width:
+			TAPExecutionReport report = createReport("100", fixedColumns);
+			ColumnInfo[] infos = formatter.getFixedWidthColumnInfos(VOTableFormat.toColumnInfos(it, report, Thread.currentThread()), it, report);
+			assertNotNull(infos);
+			assertEquals(10, infos[0].getElementSize());
+
+			// TEST with a nullable INTEGER column (its blank value can not be chosen without reading the rows):
+			report = createReport("100", resultingColumns);
+			assertNull(formatter.getFixedWidthColumnInfos(VOTableFormat.toColumnInfos(it, report, Thread.currentThread()), it, report));
+
+			// TEST with a declared null value and with a not nullable column:
+			ColumnInfo[] colInfos = VOTableFormat.toColumnInfos(it, report, Thread.currentThread());
+			colInfos[3].setAuxDatum(new DescribedValue(Tables.NULL_VALUE_INFO, -1));
+			infos = formatter.getFixedWidthColumnInfos(colInfos, it, report);
+			assertEquals(-1, infos[3].getAuxDatumValue(Tables.NULL_VALUE_INFO, Number.class));
+			colInfos = VOTableFormat.toColumnInfos(it, report, Thread.currentThread());
+			colInfos[3].setNullable(false);
+			infos = formatter.getFixedWidthColumnInfos(colInfos, it, report);
+			assertNotNull(infos);
+			assertNull(infos[3].getAuxDatum(Tables.NULL_VALUE_INFO));
+
+			// TEST with a VARCHAR column without length:
+			TAPColumn[] columns = fixedColumns.clone();
+			columns[0] = new TAPColumn("hip", new DBType(DBDatatype.VARCHAR));
+			report = createReport("100", columns);
+			assertNull(formatter.getFixedWidthColumnInfos(VOTableFormat.toColumnInfos(it, report, Thread.currentThread()), it, report));
+
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+		}finally{
+			close(rs);
+		}
+	}
+
+	@Test
+	public void testWriteResultInFile(){
+		// TEST in 2 passes (VARCHAR without length):
+		TAPColumn[] columns = fixedColumns.clone();
+		columns[0] = new TAPColumn("hip", new DBType(DBDatatype.VARCHAR));
+		StarTable table = writeInFile(new FITSFormat(serviceConn), "100", columns);
+		assertEquals(10, table.getRowCount());
+
+		// TEST in 2 passes (nullable INTEGER column):
+		table = writeInFile(new FITSFormat(serviceConn), "100", resultingColumns);
+		assertEquals(10, table.getRowCount());
+		assertRows(table);
+
+		// TEST in a single pass, with the number of rows set directly in the file:
+		table = writeInFile(new FITSFormat(serviceConn), "100", fixedColumns);
+		assertEquals(10, table.getRowCount());
+		assertRows(table);
+
+		// TEST in a single pass with an overflow:
+		table = writeInFile(new FITSFormat(serviceConn), "5", fixedColumns);
+		assertEquals(5, table.getRowCount());
+		assertRows(table);
+	}
+
+	@Test
+	public void testWriteResultInStream(){
+		// TEST in a single pass, with all data kept in memory:
+		StarTable table = writeInStream(new FITSFormat(serviceConn), "100", fixedColumns);
+		assertEquals(10, table.getRowCount());
+		assertRows(table);
+
+		// TEST in a single pass, with data spilled in a temporary file:
+		table = writeInStream(new FITSFormat(serviceConn, 0), "100", fixedColumns);
+		assertEquals(10, table.getRowCount());
+		assertRows(table);
+
+		// TEST in a single pass with an overflow:
+		table = writeInStream(new FITSFormat(serviceConn, 0), "5", fixedColumns);
+		assertEquals(5, table.getRowCount());
+		assertRows(table);
+	}
+
+	@Test
+	public void testMinValueRoundTrip(){
+		// An actual minimum value must not be confused with NULL:
+		TAPColumn[] columns = Arrays.copyOf(resultingColumns, 5);
+		columns[4] = new TAPColumn("nbmin", new DBType(DBDatatype.INTEGER));
+		final String query = "SELECT CAST(hip AS VARCHAR) AS hip, ra, dec, CAST(NULL AS INTEGER) AS nb, CAST(" + Integer.MIN_VALUE + " AS INTEGER) AS nbmin FROM hipparcos ORDER BY hip LIMIT 10;";
+		StarTable[] tables = new StarTable[]{ writeInFile(new FITSFormat(serviceConn), "100", columns, query), writeInStream(new FITSFormat(serviceConn), "100", columns, query) };
+		for(StarTable table : tables){
+			assertEquals(10, table.getRowCount());
+			assertRows(table);
+			try{
+				for(int i = 0; i < table.getRowCount(); i++)
+					assertEquals(Integer.MIN_VALUE, ((Number)table.getCell(i, 4)).intValue());
+			}catch(Exception t){
+				t.printStackTrace();
+				fail("Unexpected exception!");
+			}
+		}
+	}
+
+	private static StarTable writeInFile(final FITSFormat formatter, final String maxRec, final TAPColumn[] columns){
+		return writeInFile(formatter, maxRec, columns, getQuery(columns));
+	}
+
+	private static StarTable writeInFile(final FITSFormat formatter, final String maxRec, final TAPColumn[] columns, final String query){
+		try{
+			OutputStream output = new FileOutputStream(fitsFile);
+			try{
+				write(formatter, maxRec, columns, query, output);
+			}finally{
+				output.close();
+			}
+			assertEquals(0, fitsFile.length() % 2880);
+			return Tables.randomTable(new StarTableFactory().makeStarTable(new FileDataSource(fitsFile), "fits"));
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+			return null;
+		}
+	}
+
+	private static StarTable writeInStream(final FITSFormat formatter, final String maxRec, final TAPColumn[] columns){
+		return writeInStream(formatter, maxRec, columns, getQuery(columns));
+	}
+
+	private static StarTable writeInStream(final FITSFormat formatter, final String maxRec, final TAPColumn[] columns, final String query){
+		try{
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			write(formatter, maxRec, columns, query, output);
+			assertEquals(0, output.size() % 2880);
+			return Tables.randomTable(new StarTableFactory().makeStarTable(new ByteArrayDataSource("fits_test", output.toByteArray()), "fits"));
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+			return null;
+		}
+	}
+
+	private static String getQuery(final TAPColumn[] columns){
+		return "SELECT CAST(hip AS VARCHAR) AS hip, ra, dec" + (columns.length > 3 ? ", CAST(NULL AS INTEGER) AS nb" : "") + " FROM hipparcos ORDER BY hip LIMIT 10;";
+	}
+
+	private static void write(final FITSFormat formatter, final String maxRec, final TAPColumn[] columns, final String query, final OutputStream output) throws Exception{
+		ResultSet rs = null;
+		try{
+			rs = DBTools.select(conn, query);
+			TAPExecutionReport report = createReport(maxRec, columns);
+			formatter.writeResult(new ResultSetTableIterator(rs), output, report, Thread.currentThread());
+			assertEquals(Integer.parseInt(maxRec) < 10 ? Integer.parseInt(maxRec) : 10, report.nbRows);
+		}finally{
+			close(rs);
+		}
+	}
+
+	private static void assertRows(final StarTable table){
+		try{
+			for(int i = 0; i < table.getRowCount(); i++){
+				assertNotNull(table.getCell(i, 0));
+				assertNotNull(table.getCell(i, 1));
+				if (table.getColumnCount() > 3)
+					assertNull(table.getCell(i, 3));
+			}
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+		}
+	}
+
+	private static TAPExecutionReport createReport(final String maxRec, final TAPColumn[] columns) throws Exception{
+		HashMap<String,Object> tapParams = new HashMap<String,Object>(1);
+		tapParams.put(TAPJob.PARAM_MAX_REC, maxRec);
+		TAPParameters params = new TAPParameters(serviceConn, tapParams);
+		TAPExecutionReport report = new TAPExecutionReport("123456A", true, params);
+		report.resultingColumns = columns;
+		return report;
+	}
+
+	private static void close(final ResultSet rs){
+		if (rs != null){
+			try{
+				rs.close();
+			}catch(SQLException se){}
+		}
+	}
+
+}
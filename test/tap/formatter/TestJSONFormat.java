@@ -7,21 +7,27 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
 
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.JSONTokener;
+import org.json.JSONWriter;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import adql.db.DBColumn;
 import adql.db.DBType;
 import adql.db.DBType.DBDatatype;
 import tap.ServiceConnection;
+import tap.TAPException;
 import tap.TAPExecutionReport;
 import tap.TAPJob;
 import tap.data.ResultSetTableIterator;
@@ -141,4 +147,52 @@ public class TestJSONFormat {
 		}
 	}
 
+	@Test
+	public void testOverriddenFieldValue(){
+		ResultSet rs = null;
+		try{
+			rs = DBTools.select(conn, "SELECT hip, ra, dec, vmag FROM hipparcos LIMIT 10;");
+
+			HashMap<String,Object> tapParams = new HashMap<String,Object>(1);
+			tapParams.put(TAPJob.PARAM_MAX_REC, "100");
+			TAPParameters params = new TAPParameters(serviceConn, tapParams);
+			TAPExecutionReport report = new TAPExecutionReport("123456A", true, params);
+			report.resultingColumns = resultingColumns;
+
+			TableIterator it = new ResultSetTableIterator(rs);
+
+			// The customized formatting of a value must be used also for the numeric columns:
+			JSONFormat formatter = new JSONFormat(serviceConn){
+				@Override
+				protected void writeFieldValue(final Object value, final DBColumn column, final JSONWriter out) throws IOException, TAPException, JSONException{
+					out.value("X");
+				}
+			};
+			OutputStream output = new BufferedOutputStream(new FileOutputStream(jsonFile));
+			formatter.writeResult(it, output, report, Thread.currentThread());
+			output.close();
+
+			JSONTokener tok = new JSONTokener(new FileInputStream(jsonFile));
+			JSONObject obj = (JSONObject)tok.nextValue();
+			JSONArray data = obj.getJSONArray("data");
+			assertEquals(10, data.length());
+			for(int r = 0; r < data.length(); r++){
+				JSONArray row = data.getJSONArray(r);
+				assertEquals(4, row.length());
+				for(int c = 0; c < row.length(); c++)
+					assertEquals("X", row.getString(c));
+			}
+
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+		}finally{
+			if (rs != null){
+				try{
+					rs.close();
+				}catch(SQLException se){}
+			}
+		}
+	}
+
 }
@@ -1,24 +1,32 @@
 package tap.formatter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.List;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import adql.db.DBColumn;
 import adql.db.DBType;
 import adql.db.DBType.DBDatatype;
 import tap.ServiceConnection;
+import tap.TAPException;
 import tap.TAPExecutionReport;
 import tap.TAPJob;
 import tap.data.ResultSetTableIterator;
@@ -135,4 +143,46 @@ public class TestSVFormat {
 		}
 	}
 
+	@Test
+	public void testOverriddenFieldValue(){
+		ResultSet rs = null;
+		try{
+			rs = DBTools.select(conn, "SELECT hip, ra, dec, vmag FROM hipparcos LIMIT 10;");
+
+			HashMap<String,Object> tapParams = new HashMap<String,Object>(1);
+			tapParams.put(TAPJob.PARAM_MAX_REC, "100");
+			TAPParameters params = new TAPParameters(serviceConn, tapParams);
+			TAPExecutionReport report = new TAPExecutionReport("123456A", true, params);
+			report.resultingColumns = resultingColumns;
+
+			TableIterator it = new ResultSetTableIterator(rs);
+
+			// The customized formatting of a value must be used also for the numeric columns:
+			SVFormat formatter = new SVFormat(serviceConn, SVFormat.COMMA_SEPARATOR){
+				@Override
+				protected void writeFieldValue(final Object value, final DBColumn column, final BufferedWriter writer) throws IOException, TAPException{
+					writer.write("X");
+				}
+			};
+			OutputStream output = new BufferedOutputStream(new FileOutputStream(svFile));
+			formatter.writeResult(it, output, report, Thread.currentThread());
+			output.close();
+
+			List<String> lines = Files.readAllLines(svFile.toPath(), StandardCharsets.UTF_8);
+			assertEquals(11, lines.size());
+			for(int i = 1; i < lines.size(); i++)
+				assertEquals("X,X,X,X", lines.get(i));
+
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+		}finally{
+			if (rs != null){
+				try{
+					rs.close();
+				}catch(SQLException se){}
+			}
+		}
+	}
+
 }
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
@@ -19,6 +20,7 @@ import org.junit.Test;
 
 import adql.db.DBType;
 import adql.db.DBType.DBDatatype;
+import cds.util.LargeAsciiTable;
 import tap.ServiceConnection;
 import tap.TAPExecutionReport;
 import tap.TAPJob;
@@ -136,4 +138,52 @@ public class TestTextFormat {
 		}
 	}
 
+	@Test
+	public void testWriteResultStreamed(){
+		try{
+			// TEST with all rows in the sample => all lines must be aligned:
+			String[] lines = writeStreamed(100, "100");
+			assertEquals(12, lines.length);
+			for(String line : lines)
+				assertEquals(lines[0].length(), line.length());
+
+			// TEST with a sample smaller than the result => same number of lines:
+			assertEquals(12, writeStreamed(3, "100").length);
+
+			// TEST without sample => columns' width computed from the metadata:
+			lines = writeStreamed(0, "100");
+			assertEquals(12, lines.length);
+			assertEquals(3 + 1 + 24 + 1 + 24 + 1 + 24, lines[1].length()); // hip: VARCHAR without length => name length
+
+			// TEST with an overflow:
+			lines = writeStreamed(3, "5");
+			assertEquals(9, lines.length); // 5 + 2 (header) + 2 (new line + OVERFLOW message)
+			assertTrue(lines[8].startsWith("OVERFLOW"));
+
+		}catch(Exception t){
+			t.printStackTrace();
+			fail("Unexpected exception!");
+		}
+	}
+
+	private static String[] writeStreamed(final int sampleSize, final String maxRec) throws Exception{
+		ResultSet rs = DBTools.select(conn, "SELECT hip, ra, dec, vmag FROM hipparcos LIMIT 10;");
+		try{
+			HashMap<String,Object> tapParams = new HashMap<String,Object>(1);
+			tapParams.put(TAPJob.PARAM_MAX_REC, maxRec);
+			TAPParameters params = new TAPParameters(serviceConn, tapParams);
+			TAPExecutionReport report = new TAPExecutionReport("123456A", true, params);
+			report.resultingColumns = resultingColumns;
+
+			TextFormat formatter = new TextFormat(serviceConn, new int[]{ LargeAsciiTable.LEFT }, sampleSize);
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			formatter.writeResult(new ResultSetTableIterator(rs), output, report, Thread.currentThread());
+
+			assertEquals(Math.min(10, Integer.parseInt(maxRec)), report.nbRows);
+			return output.toString().split("\n");
+		}finally{
+			rs.close();
+		}
+	}
+
 }
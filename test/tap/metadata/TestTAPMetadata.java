@@ -2,10 +2,15 @@ package tap.metadata;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import tap.resource.CachedDocument;
+
 import tap.metadata.TAPTable.TableType;
 
 public class TestTAPMetadata {
@@ -43,4 +48,38 @@ public class TestTAPMetadata {
 		assertNull(metadata.getObsCoreTable());
 	}
 
+	@Test
+	public void testCachedDocument() throws Exception{
+		TAPMetadata metadata = new TAPMetadata();
+		TAPSchema schema = new TAPSchema("ivoa");
+		TAPTable obscore = new TAPTable("ObsCore");
+		obscore.addColumn("obs_id");
+		schema.addTable(obscore);
+		metadata.addSchema(schema);
+
+		// The document is generated only once:
+		CachedDocument doc = metadata.getCachedDocument();
+		assertSame(doc, metadata.getCachedDocument());
+		assertTrue(new String(doc.getContent(), "UTF-8").contains("<name>ObsCore</name>"));
+
+		// Same for the document of a table:
+		CachedDocument tableDoc = metadata.getCachedDocument(obscore);
+		assertSame(tableDoc, metadata.getCachedDocument(obscore));
+		String xml = new String(tableDoc.getContent(), "UTF-8");
+		assertTrue(xml.contains("<vosi:table "));
+		assertTrue(xml.contains("<name>obs_id</name>"));
+		assertSame(obscore, metadata.findTable("ivoa.obscore"));
+		assertNull(metadata.findTable("foo"));
+
+		// Adding a schema discards the documents:
+		metadata.addSchema("foo");
+		assertNotSame(doc, metadata.getCachedDocument());
+		assertNotSame(tableDoc, metadata.getCachedDocument(obscore));
+
+		// ...and so does an explicit invalidation:
+		doc = metadata.getCachedDocument();
+		metadata.invalidateCache();
+		assertNotSame(doc, metadata.getCachedDocument());
+	}
+
 }
@@ -0,0 +1,142 @@
+package tap.resource;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Test;
+
+public class TestCachedDocument {
+
+	private final static CachedDocument.DocumentWriter HELLO = new CachedDocument.DocumentWriter(){
+		@Override
+		public void write(final PrintWriter writer) throws IOException{
+			writer.print("<hello>world</hello>");
+		}
+	};
+
+	@Test
+	public void testUpdate() throws Exception{
+		CachedDocument doc = CachedDocument.create(HELLO, "text/xml");
+		assertEquals("<hello>world</hello>", new String(doc.getContent(), "UTF-8"));
+		assertTrue(doc.getETag().startsWith("\"") && doc.getETag().endsWith("\""));
+
+		// Same content => same cached document:
+		assertSame(doc, CachedDocument.update(doc, HELLO, "text/xml"));
+
+		// Different content => new document with a different ETag:
+		CachedDocument doc2 = CachedDocument.update(doc, new CachedDocument.DocumentWriter(){
+			@Override
+			public void write(final PrintWriter writer) throws IOException{
+				writer.print("<hello>you</hello>");
+			}
+		}, "text/xml");
+		assertNotSame(doc, doc2);
+		assertFalse(doc.getETag().equals(doc2.getETag()));
+	}
+
+	@Test
+	public void testWrite() throws Exception{
+		CachedDocument doc = CachedDocument.create(HELLO, "text/xml");
+
+		// CASE: plain request:
+		Map<String,String> headers = new HashMap<String,String>();
+		Map<String,Object> written = new HashMap<String,Object>();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		doc.write(createRequest(headers), createResponse(written, body));
+		assertEquals(doc.getETag(), written.get("ETag"));
+		assertFalse(written.containsKey("Content-Encoding"));
+		assertArrayEquals(doc.getContent(), body.toByteArray());
+
+		// CASE: gzip accepted:
+		headers.put("Accept-Encoding", "deflate, gzip;q=0.8");
+		written.clear();
+		body.reset();
+		doc.write(createRequest(headers), createResponse(written, body));
+		assertEquals("gzip", written.get("Content-Encoding"));
+		assertEquals("Accept-Encoding", written.get("Vary"));
+		// ...the compressed representation has its own ETag:
+		assertEquals(doc.getGzipETag(), written.get("ETag"));
+		assertFalse(doc.getETag().equals(doc.getGzipETag()));
+		GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()));
+		ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+		int b;
+		while((b = gzip.read()) != -1)
+			unzipped.write(b);
+		assertArrayEquals(doc.getContent(), unzipped.toByteArray());
+
+		// CASE: gzip refused:
+		headers.put("Accept-Encoding", "gzip;q=0");
+		assertFalse(CachedDocument.acceptsGzip(createRequest(headers)));
+
+		// CASE: the client already has this document:
+		headers.clear();
+		headers.put("If-None-Match", "\"foo\", W/" + doc.getETag());
+		written.clear();
+		body.reset();
+		doc.write(createRequest(headers), createResponse(written, body));
+		assertEquals(HttpServletResponse.SC_NOT_MODIFIED, written.get("status"));
+		assertEquals(0, body.size());
+
+		// CASE: the ETag of the plain document does not match the gzip-compressed one:
+		headers.put("Accept-Encoding", "gzip");
+		assertFalse(doc.isNotModified(createRequest(headers)));
+		headers.put("If-None-Match", doc.getGzipETag());
+		assertTrue(doc.isNotModified(createRequest(headers)));
+		headers.remove("Accept-Encoding");
+		assertFalse(doc.isNotModified(createRequest(headers)));
+	}
+
+	private static HttpServletRequest createRequest(final Map<String,String> headers){
+		return (HttpServletRequest)Proxy.newProxyInstance(TestCachedDocument.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("getHeader"))
+					return headers.get(args[0]);
+				else if (method.getName().equals("getMethod"))
+					return "GET";
+				return null;
+			}
+		});
+	}
+
+	private static HttpServletResponse createResponse(final Map<String,Object> written, final ByteArrayOutputStream body){
+		final ServletOutputStream out = new ServletOutputStream(){
+			@Override
+			public void write(int b) throws IOException{
+				body.write(b);
+			}
+		};
+		return (HttpServletResponse)Proxy.newProxyInstance(TestCachedDocument.class.getClassLoader(), new Class<?>[]{HttpServletResponse.class}, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("setHeader"))
+					written.put((String)args[0], args[1]);
+				else if (method.getName().equals("setStatus"))
+					written.put("status", args[0]);
+				else if (method.getName().equals("getOutputStream"))
+					return out;
+				return null;
+			}
+		});
+	}
+
+}
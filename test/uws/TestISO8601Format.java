@@ -3,8 +3,13 @@ package uws;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.text.DecimalFormat;
 import java.text.ParseException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -218,4 +223,88 @@ public class TestISO8601Format {
 
 	}
 
+	/** Format the given date as {@link ISO8601Format} did with a {@link GregorianCalendar}. */
+	private static String calendarFormat(final long date, final String timeZone, final boolean withTimeZone, final boolean withMillisec){
+		DecimalFormat twoDigitsFmt = new DecimalFormat("00"), threeDigitsFmt = new DecimalFormat("000");
+		GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone(timeZone));
+		cal.setTimeInMillis(date);
+		StringBuffer buf = new StringBuffer();
+		buf.append(cal.get(Calendar.YEAR)).append('-');
+		buf.append(twoDigitsFmt.format(cal.get(Calendar.MONTH) + 1)).append('-');
+		buf.append(twoDigitsFmt.format(cal.get(Calendar.DAY_OF_MONTH)));
+		buf.append('T').append(twoDigitsFmt.format(cal.get(Calendar.HOUR_OF_DAY))).append(':');
+		buf.append(twoDigitsFmt.format(cal.get(Calendar.MINUTE))).append(':');
+		buf.append(twoDigitsFmt.format(cal.get(Calendar.SECOND)));
+		if (withMillisec)
+			buf.append('.').append(threeDigitsFmt.format(cal.get(Calendar.MILLISECOND)));
+		if (withTimeZone){
+			int tzOffset = (cal.get(Calendar.ZONE_OFFSET) + cal.get(Calendar.DST_OFFSET)) / (60 * 1000);
+			boolean negative = (tzOffset < 0);
+			if (negative)
+				tzOffset *= -1;
+			int hours = tzOffset / 60, minutes = tzOffset - (hours * 60);
+			if (hours == 0 && minutes == 0)
+				buf.append('Z');
+			else{
+				buf.append(negative ? '-' : '+');
+				buf.append(twoDigitsFmt.format(hours)).append(':');
+				buf.append(twoDigitsFmt.format(minutes));
+			}
+		}
+		return buf.toString();
+	}
+
+	@Test
+	public void testFormatSameAsCalendar(){
+		final String[] timeZones = new String[]{ "UTC", "Europe/Paris", "America/St_Johns", "Asia/Kathmandu", "Pacific/Chatham", "Australia/Lord_Howe", "Unknown/Zone" };
+		Random random = new Random(1411737870325L);
+		for(int i = 0; i < 20000; i++){
+			// dates between year -2000 and year 5000, with more dates around 1970 and around the Gregorian cutover:
+			long d;
+			switch(i % 3){
+				case 0:
+					d = (long)((random.nextDouble() - 0.5) * 2 * 3000 * 365.25 * 86400000L) - 62135596800000L + 30 * 365 * 86400000L;
+					break;
+				case 1:
+					d = (long)((random.nextDouble() - 0.5) * 2 * 100 * 365.25 * 86400000L);
+					break;
+				default:
+					d = -12219292800000L + (long)((random.nextDouble() - 0.5) * 10 * 86400000L);
+			}
+			String tz = timeZones[i % timeZones.length];
+			boolean withTZ = random.nextBoolean(), withMS = random.nextBoolean();
+			assertEquals("Date: " + d + " ; time zone: " + tz, calendarFormat(d, tz, withTZ, withMS), ISO8601Format.format(d, tz, withTZ, withMS));
+		}
+	}
+
+	@Test
+	public void testConcurrentFormatAndParse() throws Exception{
+		final AtomicInteger nbErrors = new AtomicInteger(0);
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++){
+			final long seed = t;
+			threads[t] = new Thread(){
+				@Override
+				public void run(){
+					Random random = new Random(seed);
+					for(int i = 0; i < 5000; i++){
+						long d = (long)(random.nextDouble() * 4000000000000L);
+						String expected = calendarFormat(d, "Europe/Paris", true, true);
+						try{
+							String formatted = ISO8601Format.format(d, "Europe/Paris", true, true);
+							if (!expected.equals(formatted) || ISO8601Format.parse(formatted) != d)
+								nbErrors.incrementAndGet();
+						}catch(ParseException pe){
+							nbErrors.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread t : threads)
+			t.join();
+		assertEquals(0, nbErrors.get());
+	}
+
 }
@@ -1,8 +1,24 @@
 package uws;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.junit.Test;
 
 public class TestUWSToolBox {
@@ -92,4 +108,128 @@ public class TestUWSToolBox {
 		assertEquals("vot", UWSToolBox.getFileExtension("application/x-VOTable+XML"));
 	}
 
+	@Test
+	public void testParseRange(){
+		// No or unsupported range => the whole file:
+		assertNull(UWSToolBox.parseRange(null, 100));
+		assertNull(UWSToolBox.parseRange("items=0-10", 100));
+		assertNull(UWSToolBox.parseRange("bytes=0-10,20-30", 100));
+		assertNull(UWSToolBox.parseRange("bytes=abc-", 100));
+		assertNull(UWSToolBox.parseRange("bytes=-", 100));
+		assertNull(UWSToolBox.parseRange("bytes=50-10", 100));
+
+		// Valid ranges:
+		assertArrayEquals(new long[]{ 0, 9 }, UWSToolBox.parseRange("bytes=0-9", 100));
+		assertArrayEquals(new long[]{ 10, 99 }, UWSToolBox.parseRange("bytes=10-", 100));
+		assertArrayEquals(new long[]{ 90, 99 }, UWSToolBox.parseRange("bytes=90-1000", 100));
+		assertArrayEquals(new long[]{ 80, 99 }, UWSToolBox.parseRange("bytes=-20", 100));
+		assertArrayEquals(new long[]{ 0, 99 }, UWSToolBox.parseRange("bytes=-200", 100));
+
+		// Unsatisfiable ranges:
+		assertEquals(0, UWSToolBox.parseRange("bytes=100-", 100).length);
+		assertEquals(0, UWSToolBox.parseRange("bytes=-0", 100).length);
+		assertEquals(0, UWSToolBox.parseRange("bytes=0-", 0).length);
+	}
+
+	@Test
+	public void testWriteFile() throws Exception{
+		byte[] content = new byte[200000];
+		for(int i = 0; i < content.length; i++)
+			content[i] = (byte)(i % 251);
+		File file = File.createTempFile("uws_test_", ".bin");
+		try{
+			FileOutputStream out = new FileOutputStream(file);
+			out.write(content);
+			out.close();
+
+			// CASE: the whole file:
+			Map<String,String> headers = new HashMap<String,String>();
+			Map<String,Object> written = new HashMap<String,Object>();
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			UWSToolBox.write(file, "application/octet-stream", createRequest(headers), createResponse(written, body));
+			assertNull(written.get("status"));
+			assertEquals("bytes", written.get("Accept-Ranges"));
+			assertEquals(String.valueOf(content.length), written.get("Content-Length"));
+			assertArrayEquals(content, body.toByteArray());
+			String etag = (String)written.get("ETag");
+
+			// CASE: a range:
+			headers.put("Range", "bytes=100000-");
+			written.clear();
+			body.reset();
+			UWSToolBox.write(file, "application/octet-stream", createRequest(headers), createResponse(written, body));
+			assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, written.get("status"));
+			assertEquals("bytes 100000-199999/200000", written.get("Content-Range"));
+			assertArrayEquals(Arrays.copyOfRange(content, 100000, content.length), body.toByteArray());
+
+			// CASE: a range for the same version of the file:
+			headers.put("If-Range", etag);
+			written.clear();
+			body.reset();
+			UWSToolBox.write(file, "application/octet-stream", createRequest(headers), createResponse(written, body));
+			assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, written.get("status"));
+
+			// CASE: a range for another version of the file => the whole file:
+			headers.put("If-Range", "\"foo\"");
+			written.clear();
+			body.reset();
+			UWSToolBox.write(file, "application/octet-stream", createRequest(headers), createResponse(written, body));
+			assertNull(written.get("status"));
+			assertArrayEquals(content, body.toByteArray());
+
+			// CASE: an unsatisfiable range:
+			headers.remove("If-Range");
+			headers.put("Range", "bytes=300000-");
+			written.clear();
+			body.reset();
+			UWSToolBox.write(file, "application/octet-stream", createRequest(headers), createResponse(written, body));
+			assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, written.get("status"));
+			assertEquals("bytes */200000", written.get("Content-Range"));
+			assertEquals(0, body.size());
+		}finally{
+			file.delete();
+		}
+	}
+
+	private static HttpServletRequest createRequest(final Map<String,String> headers){
+		return (HttpServletRequest)Proxy.newProxyInstance(TestUWSToolBox.class.getClassLoader(), new Class<?>[]{ HttpServletRequest.class }, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("getHeader"))
+					return headers.get(args[0]);
+				else if (method.getName().equals("getMethod"))
+					return "GET";
+				else if (method.getName().equals("getDateHeader"))
+					return -1L;
+				return null;
+			}
+		});
+	}
+
+	private static HttpServletResponse createResponse(final Map<String,Object> written, final ByteArrayOutputStream body){
+		final ServletOutputStream out = new ServletOutputStream(){
+			@Override
+			public void write(int b) throws IOException{
+				body.write(b);
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException{
+				body.write(b, off, len);
+			}
+		};
+		return (HttpServletResponse)Proxy.newProxyInstance(TestUWSToolBox.class.getClassLoader(), new Class<?>[]{ HttpServletResponse.class }, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("setHeader"))
+					written.put((String)args[0], args[1]);
+				else if (method.getName().equals("setStatus") || method.getName().equals("sendError"))
+					written.put("status", args[0]);
+				else if (method.getName().equals("getOutputStream"))
+					return out;
+				return null;
+			}
+		});
+	}
+
 }
@@ -0,0 +1,124 @@
+package uws.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import uws.job.parameters.UWSParameters;
+import uws.job.user.DefaultJobOwner;
+import uws.job.user.JobOwner;
+
+public class TestJobListIndex {
+
+	private JobListIndex index;
+
+	private UWSJob[] jobs;
+
+	private final JobOwner[] owners = new JobOwner[]{ new DefaultJobOwner("user1"), new DefaultJobOwner("user2") };
+
+	@Before
+	public void setUp(){
+		index = new JobListIndex();
+		jobs = new UWSJob[6];
+		for(int i = 0; i < jobs.length; i++){
+			// job i is created i seconds after 1000s (job1 and job2 are created at the same time):
+			// (even jobs are owned by user1, odd jobs by user2 except job5 which has no owner)
+			jobs[i] = new UWSJob("job" + i, 1000000 + 1000 * ((i == 2) ? 1 : i), (i == 5) ? null : owners[i % 2], new UWSParameters(), -1, -1, -1, null, null);
+			index.add(jobs[i]);
+		}
+	}
+
+	private static List<String> ids(final Iterator<UWSJob> it){
+		List<String> ids = new ArrayList<String>();
+		while(it.hasNext())
+			ids.add(it.next().getJobId());
+		return ids;
+	}
+
+	@Test
+	public void testOrder(){
+		// all jobs, by descending creation time (and ID if same time):
+		assertEquals(Arrays.asList("job5", "job4", "job3", "job1", "job2", "job0"), ids(index.getJobs(null, null)));
+
+		// jobs created after a given date (excluded):
+		assertEquals(Arrays.asList("job5", "job4", "job3"), ids(index.getJobs(null, new Date(1002000))));
+		assertEquals(0, ids(index.getJobs(null, new Date(1005000))).size());
+
+		// no phase => no job:
+		assertFalse(index.getJobs(new ArrayList<ExecutionPhase>(), null).hasNext());
+
+		// by ascending creation time:
+		assertEquals(Arrays.asList("job0", "job2", "job1", "job3", "job4", "job5"), ids(index.getJobs(null, null, null, true)));
+		assertEquals(Arrays.asList("job3", "job4", "job5"), ids(index.getJobs(null, null, new Date(1002000), true)));
+	}
+
+	@Test
+	public void testOwners(){
+		try{
+			assertEquals(Arrays.asList("job4", "job2", "job0"), ids(index.getJobs(owners[0], null, null, false)));
+			assertEquals(Arrays.asList("job1", "job3"), ids(index.getJobs(owners[1], null, null, true)));
+			assertFalse(index.getJobs(new DefaultJobOwner("nobody"), null, null, false).hasNext());
+
+			// phase changes are visible in the owner indexes:
+			jobs[3].setPhase(ExecutionPhase.EXECUTING, true);
+			jobs[4].setPhase(ExecutionPhase.EXECUTING, true);
+			assertEquals(Arrays.asList("job3"), ids(index.getJobs(owners[1], Arrays.asList(ExecutionPhase.EXECUTING), null, false)));
+			assertEquals(Arrays.asList("job1"), ids(index.getJobs(owners[1], Arrays.asList(ExecutionPhase.PENDING), null, false)));
+			assertEquals(Arrays.asList("job4"), ids(index.getJobs(owners[0], Arrays.asList(ExecutionPhase.EXECUTING), new Date(1000000), true)));
+
+			// an owner without indexed job is forgotten:
+			index.remove(jobs[1]);
+			index.remove(jobs[3]);
+			assertFalse(index.getJobs(owners[1], null, null, false).hasNext());
+			assertFalse(index.ownerJobs.containsKey(owners[1]));
+			assertEquals(4, index.size());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testPhaseChanges(){
+		try{
+			jobs[1].setPhase(ExecutionPhase.EXECUTING, true);
+			jobs[4].setPhase(ExecutionPhase.EXECUTING, true);
+			jobs[3].setPhase(ExecutionPhase.COMPLETED, true);
+			jobs[5].setPhase(ExecutionPhase.ARCHIVED, true);
+
+			assertEquals(Arrays.asList("job4", "job1"), ids(index.getJobs(Arrays.asList(ExecutionPhase.EXECUTING), null)));
+			assertEquals(Arrays.asList("job4", "job3", "job1"), ids(index.getJobs(Arrays.asList(ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED), null)));
+			assertEquals(Arrays.asList("job4", "job3"), ids(index.getJobs(Arrays.asList(ExecutionPhase.COMPLETED, ExecutionPhase.EXECUTING), new Date(1002000))));
+			assertEquals(Arrays.asList("job2", "job0"), ids(index.getJobs(Arrays.asList(ExecutionPhase.PENDING), null)));
+			assertEquals(Arrays.asList("job5"), ids(index.getJobs(Arrays.asList(ExecutionPhase.ARCHIVED), null)));
+
+			// a job may move several times:
+			jobs[1].setPhase(ExecutionPhase.COMPLETED, true);
+			assertEquals(Arrays.asList("job4"), ids(index.getJobs(Arrays.asList(ExecutionPhase.EXECUTING), null)));
+			assertEquals(Arrays.asList("job3", "job1"), ids(index.getJobs(Arrays.asList(ExecutionPhase.COMPLETED), null)));
+
+			// a removed job is no longer indexed, even if its phase changes:
+			index.remove(jobs[4]);
+			assertEquals(0, jobs[4].getNbObservers());
+			jobs[4].setPhase(ExecutionPhase.COMPLETED, true);
+			assertFalse(index.getJobs(Arrays.asList(ExecutionPhase.EXECUTING), null).hasNext());
+			assertEquals(Arrays.asList("job3", "job1"), ids(index.getJobs(Arrays.asList(ExecutionPhase.COMPLETED), null)));
+			assertEquals(5, index.size());
+			assertTrue(jobs[3].getNbObservers() == 1);
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+}
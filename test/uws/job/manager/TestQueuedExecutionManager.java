@@ -0,0 +1,229 @@
+package uws.job.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import uws.UWSException;
+import uws.job.ExecutionPhase;
+import uws.job.UWSJob;
+import uws.job.parameters.UWSParameters;
+import uws.job.user.DefaultJobOwner;
+import uws.job.user.JobOwner;
+import uws.service.log.DefaultUWSLog;
+
+public class TestQueuedExecutionManager {
+
+	/**
+	 * Queued execution manager which does not really start the jobs, but just
+	 * checks that the maximum number of running jobs is never exceeded.
+	 */
+	private static class TestExecutionManager extends QueuedExecutionManager {
+		final List<String> startedJobs = new ArrayList<String>();
+		final AtomicInteger nbOverflows = new AtomicInteger(0);
+
+		public TestExecutionManager(final int maxRunningJobs){
+			super(new DefaultUWSLog(new OutputStream(){
+				@Override
+				public void write(int b){}
+			}), maxRunningJobs);
+		}
+
+		@Override
+		protected void startJob(final UWSJob jobToStartNow) throws UWSException{
+			if (runningJobs.size() >= getMaxRunningJobs())
+				nbOverflows.incrementAndGet();
+			synchronized(startedJobs){
+				startedJobs.add(jobToStartNow.getJobId());
+			}
+			runningJobs.put(jobToStartNow.getJobId(), jobToStartNow);
+		}
+	}
+
+	private static UWSJob createJob(final String id, final JobOwner owner){
+		return new UWSJob(id, System.currentTimeMillis(), owner, new UWSParameters(), -1, -1, -1, null, null);
+	}
+
+	@Test
+	public void testConcurrentExecution() throws Exception{
+		final int nbThreads = 8, nbJobsPerThread = 500, maxRunningJobs = 10;
+		final TestExecutionManager manager = new TestExecutionManager(maxRunningJobs);
+
+		// Submit many jobs at the same time:
+		Thread[] threads = new Thread[nbThreads];
+		for(int t = 0; t < nbThreads; t++){
+			final int threadIndex = t;
+			threads[t] = new Thread(){
+				@Override
+				public void run(){
+					for(int i = 0; i < nbJobsPerThread; i++)
+						manager.execute(createJob("job_" + threadIndex + "_" + i, null));
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread t : threads)
+			t.join();
+
+		assertEquals(0, manager.nbOverflows.get());
+		assertEquals(maxRunningJobs, manager.getNbRunningJobs());
+		assertEquals(nbThreads * nbJobsPerThread - maxRunningJobs, manager.getNbQueuedJobs());
+		assertEquals(1.0, manager.getSlotUtilisation(), 0);
+
+		// End all jobs concurrently:
+		for(int t = 0; t < nbThreads; t++){
+			threads[t] = new Thread(){
+				@Override
+				public void run(){
+					while(manager.getNbRunningJobs() > 0 || manager.hasQueue()){
+						Iterator<UWSJob> it = manager.getRunningJobs();
+						if (it.hasNext())
+							manager.remove(it.next());
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread t : threads)
+			t.join();
+
+		assertEquals(0, manager.nbOverflows.get());
+		assertEquals(0, manager.getNbRunningJobs());
+		assertFalse(manager.hasQueue());
+		assertEquals(nbThreads * nbJobsPerThread, manager.startedJobs.size());
+		assertEquals(nbThreads * nbJobsPerThread, manager.getNbStartedJobs());
+		assertTrue(manager.getMaxWaitTime() >= manager.getAverageWaitTime());
+	}
+
+	@Test
+	public void testJobEndingWhileStarting() throws Exception{
+		final QueuedExecutionManager manager = new QueuedExecutionManager(new DefaultUWSLog(new OutputStream(){
+			@Override
+			public void write(int b){}
+		}), 1);
+
+		// Jobs which end (and so are removed from the manager) inside start():
+		for(int i = 0; i < 3; i++){
+			UWSJob job = new UWSJob("fast_" + i, System.currentTimeMillis(), null, new UWSParameters(), -1, -1, -1, null, null){
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void start(final boolean useManager) throws UWSException{
+					setPhase(ExecutionPhase.COMPLETED, true);
+					manager.remove(this);
+				}
+			};
+			manager.execute(job);
+			assertEquals(ExecutionPhase.COMPLETED, job.getPhase());
+			// ...must not keep their execution slot:
+			assertEquals(0, manager.getNbRunningJobs());
+			assertFalse(manager.hasQueue());
+		}
+
+		// A job whose start fails must not keep its execution slot either:
+		UWSJob failing = new UWSJob("failing", System.currentTimeMillis(), null, new UWSParameters(), -1, -1, -1, null, null){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void start(final boolean useManager) throws UWSException{
+				throw new UWSException("Impossible to start!");
+			}
+		};
+		manager.execute(failing);
+		assertEquals(0, manager.getNbRunningJobs());
+	}
+
+	@Test
+	public void testExecuteWhileStarting() throws Exception{
+		final CountDownLatch starting = new CountDownLatch(1), release = new CountDownLatch(1);
+		final AtomicInteger nbStarts = new AtomicInteger(0);
+		final QueuedExecutionManager manager = new QueuedExecutionManager(new DefaultUWSLog(new OutputStream(){
+			@Override
+			public void write(int b){}
+		}), 1){
+			@Override
+			protected void startJob(final UWSJob jobToStartNow) throws UWSException{
+				nbStarts.incrementAndGet();
+				starting.countDown();
+				try{
+					release.await();
+				}catch(InterruptedException ie){}
+				// the job ends immediately:
+				jobToStartNow.setPhase(ExecutionPhase.COMPLETED, true);
+			}
+		};
+		final UWSJob job = createJob("job", null);
+		final ExecutionPhase[] phases = new ExecutionPhase[2];
+
+		// Start the job in a first thread (blocked inside startJob):
+		Thread first = new Thread(){
+			@Override
+			public void run(){
+				phases[0] = manager.execute(job);
+			}
+		};
+		first.start();
+		starting.await();
+
+		// Execute the same job while it is being started:
+		Thread second = new Thread(){
+			@Override
+			public void run(){
+				phases[1] = manager.execute(job);
+			}
+		};
+		second.start();
+		second.join(100);
+		release.countDown();
+		first.join();
+		second.join();
+
+		// The job must not be reported as queued again, and be started only once:
+		assertEquals(ExecutionPhase.COMPLETED, phases[0]);
+		assertEquals(ExecutionPhase.COMPLETED, phases[1]);
+		assertEquals(1, nbStarts.get());
+		assertEquals(0, manager.getNbQueuedJobs());
+	}
+
+	@Test
+	public void testPriorities(){
+		TestExecutionManager manager = new TestExecutionManager(1);
+		JobOwner user = new DefaultJobOwner("user"), vip = new DefaultJobOwner("vip"), batch = new DefaultJobOwner("batch");
+		manager.setPriority("vip", -1);
+		manager.setPriority("batch", 10);
+
+		manager.execute(createJob("running", user));
+		assertEquals(1, manager.getNbRunningJobs());
+		manager.execute(createJob("batch1", batch));
+		manager.execute(createJob("user1", user));
+		manager.execute(createJob("vip1", vip));
+		manager.execute(createJob("user2", user));
+		manager.execute(createJob("vip2", vip));
+
+		// Queued jobs are sorted by priority, and then by submission order:
+		List<String> queued = new ArrayList<String>();
+		Iterator<UWSJob> it = manager.getQueuedJobs();
+		while(it.hasNext())
+			queued.add(it.next().getJobId());
+		assertEquals("[vip1, vip2, user1, user2, batch1]", queued.toString());
+
+		// A removed job is not started:
+		manager.remove(manager.getQueuedJobs().next());
+		assertEquals(4, manager.getNbQueuedJobs());
+
+		// Jobs are started in the same order:
+		while(manager.getNbRunningJobs() > 0)
+			manager.remove(manager.getRunningJobs().next());
+		assertEquals("[running, vip2, user1, user2, batch1]", manager.startedJobs.toString());
+	}
+
+}
@@ -0,0 +1,115 @@
+package uws.job.serializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uws.UWSException;
+import uws.UWSToolBox;
+import uws.job.JobList;
+import uws.job.JobThread;
+import uws.job.UWSJob;
+import uws.job.parameters.UWSParameters;
+import uws.service.AbstractUWSFactory;
+import uws.service.UWSService;
+import uws.service.file.LocalUWSFileManager;
+
+public class TestUWSSerializer {
+
+	private final static File ROOT_DIR = new File(System.getProperty("java.io.tmpdir"), "TestUWSSerializer");
+
+	private final static int NB_JOBS = 50;
+
+	private JobList jobList;
+
+	@Before
+	public void setUp() throws Exception{
+		ROOT_DIR.mkdirs();
+		UWSService uws = new UWSService(new AbstractUWSFactory(){
+			@Override
+			public JobThread createJobThread(final UWSJob jobDescription) throws UWSException{
+				return null;
+			}
+		}, new LocalUWSFileManager(ROOT_DIR));
+		jobList = new JobList("jobs");
+		uws.addJobList(jobList);
+		for(int i = 0; i < NB_JOBS; i++){
+			Map<String,Object> params = new HashMap<String,Object>(1);
+			params.put(UWSJob.PARAM_RUN_ID, "run_" + i + "_é");
+			jobList.addNewJob(new UWSJob(new UWSParameters(params)));
+		}
+	}
+
+	@After
+	public void tearDown(){
+		jobList.clear();
+		UWSToolBox.clearDirectory(ROOT_DIR);
+		ROOT_DIR.delete();
+	}
+
+	@Test
+	public void testXMLWriteJobList(){
+		XMLSerializer serializer = new XMLSerializer("./uws.xsl");
+		try{
+			StringWriter output = new StringWriter();
+			serializer.writeJobList(jobList, null, null, true, output);
+			assertEquals(serializer.getJobList(jobList, null, null, true), output.toString());
+			assertTrue(output.toString().startsWith(serializer.getHeader()));
+			assertEquals(jobList.getNbJobs(), output.toString().split("<jobref ").length - 1);
+
+			// the same must be written by the jobs list itself:
+			StringWriter output2 = new StringWriter();
+			jobList.serialize(output2, serializer, null, null);
+			assertEquals(output.toString(), output2.toString());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testXMLWriteJob(){
+		XMLSerializer serializer = new XMLSerializer();
+		try{
+			UWSJob job = jobList.getJobs().next();
+			StringWriter output = new StringWriter();
+			job.serialize(output, serializer, null);
+			assertEquals(serializer.getJob(job, true), output.toString());
+			assertTrue(output.toString().endsWith("\n</job>"));
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testJSONWriteJobList(){
+		JSONSerializer serializer = new JSONSerializer();
+		try{
+			StringWriter output = new StringWriter();
+			jobList.serialize(output, serializer, null, null);
+			JSONObject streamed = new JSONObject(output.toString());
+			JSONObject expected = new JSONObject(serializer.getJobList(jobList, null, null, true));
+			assertEquals("jobs", streamed.getString("name"));
+			assertEquals(expected.getString("version"), streamed.getString("version"));
+			JSONArray jobs = streamed.getJSONArray("jobs");
+			assertEquals(jobList.getNbJobs(), jobs.length());
+			assertEquals(expected.getJSONArray("jobs").toString(), jobs.toString());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}
+	}
+
+}
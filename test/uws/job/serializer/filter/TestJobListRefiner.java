@@ -8,18 +8,21 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -42,11 +45,19 @@ import org.junit.Test;
 
 import uws.ISO8601Format;
 import uws.UWSException;
+import uws.UWSToolBox;
 import uws.job.ErrorSummary;
 import uws.job.ErrorType;
 import uws.job.ExecutionPhase;
+import uws.job.JobList;
+import uws.job.JobThread;
 import uws.job.UWSJob;
 import uws.job.parameters.UWSParameters;
+import uws.job.user.DefaultJobOwner;
+import uws.job.user.JobOwner;
+import uws.service.AbstractUWSFactory;
+import uws.service.UWSService;
+import uws.service.file.LocalUWSFileManager;
 import uws.job.serializer.filter.JobListRefiner.TopIterator;
 
 public class TestJobListRefiner {
@@ -713,6 +724,90 @@ public class TestJobListRefiner {
 		assertFalse(it.hasNext());
 	}
 
+	@Test
+	public void testRefineJobList(){
+		File rootDir = new File(System.getProperty("java.io.tmpdir"), "TestJobListRefiner");
+		rootDir.mkdirs();
+		JobList jobList = new JobList("jobs");
+		try{
+			UWSService uws = new UWSService(new AbstractUWSFactory(){
+				@Override
+				public JobThread createJobThread(final UWSJob jobDescription) throws UWSException{
+					return null;
+				}
+			}, new LocalUWSFileManager(rootDir));
+			uws.addJobList(jobList);
+
+			// 20 jobs created every second, with various phases and owners:
+			final ExecutionPhase[] phases = new ExecutionPhase[]{ ExecutionPhase.PENDING, ExecutionPhase.EXECUTING, ExecutionPhase.COMPLETED, ExecutionPhase.ARCHIVED };
+			final JobOwner[] owners = new JobOwner[]{ null, new DefaultJobOwner("user1"), new DefaultJobOwner("user2") };
+			long start = 1500000000000L;
+			for(int i = 0; i < 20; i++){
+				UWSJob job = new UWSJob("job" + i, start + 1000 * i, owners[i % owners.length], new UWSParameters(), -1, -1, -1, null, null);
+				assertNotNull(jobList.addNewJob(job));
+				job.setPhase(phases[i % phases.length], true);
+			}
+
+			TestHttpServletRequest request = new TestHttpServletRequest();
+			String[][][] queries = new String[][][]{ {}, { { "PHASE", "EXECUTING" } }, { { "PHASE", "EXECUTING" }, { "PHASE", "COMPLETED" }, { "LAST", "3" } }, { { "AFTER", ISO8601Format.format(start + 9500) }, { "LAST", "2" } }, { { "PHASE", "ARCHIVED" } }, { { "LAST", "0" } }, { { "AFTER", ISO8601Format.format(start + 9500) } } };
+			final JobOwner[] users = new JobOwner[]{ null, owners[1], owners[2], new DefaultJobOwner("nobody") };
+			for(String[][] query : queries){
+				request.clearParams();
+				for(String[] param : query)
+					request.addParams(param[0], param[1]);
+				// (for all users or for only one, in the normal and in the reverse order)
+				for(JobOwner user : users){
+					for(boolean reverse : new boolean[]{ false, true }){
+						JobListRefiner refiner = new JobListRefiner(request);
+						refiner.reverseOrder = reverse;
+						List<String> expected = ids(refiner.refine(jobList.getJobs(user))), actual = ids(refiner.refine(jobList, user));
+						// (without LAST, the jobs order is not specified)
+						if (refiner.sortComp == null){
+							Collections.sort(expected);
+							Collections.sort(actual);
+						}
+						assertEquals(expected, actual);
+					}
+				}
+			}
+
+			// the 3 last executing or completed jobs:
+			request.clearParams();
+			request.addParams("PHASE", "EXECUTING");
+			request.addParams("PHASE", "COMPLETED");
+			request.addParams("LAST", "3");
+			assertEquals(Arrays.asList("job18", "job17", "job14"), ids(new JobListRefiner(request).refine(jobList, null)));
+
+			// ...of only one user:
+			assertEquals(Arrays.asList("job17", "job14", "job5"), ids(new JobListRefiner(request).refine(jobList, owners[2])));
+
+			// ...in the reverse order:
+			JobListRefiner refiner = new JobListRefiner(request);
+			refiner.reverseOrder = true;
+			assertEquals(Arrays.asList("job14", "job17", "job18"), ids(refiner.refine(jobList, null)));
+
+			// a phase change or a job removal must be visible immediately:
+			jobList.getJob("job17").setPhase(ExecutionPhase.ARCHIVED, true);
+			assertTrue(jobList.destroyJob("job14"));
+			assertEquals(Arrays.asList("job18", "job13", "job10"), ids(new JobListRefiner(request).refine(jobList, null)));
+			assertEquals(Arrays.asList("job5", "job2"), ids(new JobListRefiner(request).refine(jobList, owners[2])));
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			jobList.clear();
+			UWSToolBox.clearDirectory(rootDir);
+			rootDir.delete();
+		}
+	}
+
+	private static List<String> ids(final Iterator<UWSJob> it){
+		List<String> ids = new ArrayList<String>();
+		while(it.hasNext())
+			ids.add(it.next().getJobId());
+		return ids;
+	}
+
 	protected final static class TestHttpServletRequest implements HttpServletRequest {
 
 		private HashMap<String,String[]> parameters = new HashMap<String,String[]>();
@@ -0,0 +1,126 @@
+package uws.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TestUWSScheduler {
+
+	@Test
+	public void testShared(){
+		UWSScheduler shared = UWSScheduler.getShared();
+		assertSame(shared, UWSScheduler.getShared());
+		assertEquals(UWSScheduler.DEFAULT_NB_THREADS, shared.getNbThreads());
+		assertEquals(UWSScheduler.DEFAULT_NB_WORKERS, shared.getNbWorkers());
+
+		// the shared scheduler can not be shut down:
+		shared.shutdown();
+		assertFalse(shared.isShutdown());
+	}
+
+	@Test
+	public void testSchedule() throws Exception{
+		UWSScheduler scheduler = new UWSScheduler(1);
+		try{
+			// TEST with a delay:
+			final CountDownLatch done = new CountDownLatch(2);
+			Runnable task = new Runnable(){
+				@Override
+				public void run(){
+					done.countDown();
+				}
+			};
+			assertNotNull(scheduler.schedule(task, 10));
+
+			// TEST with a past date:
+			assertNotNull(scheduler.schedule(task, new Date(System.currentTimeMillis() - 1000)));
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+
+			// TEST cancellation:
+			ScheduledFuture<?> future = scheduler.schedule(task, 60000);
+			assertEquals(1, scheduler.getNbScheduledTasks());
+			future.cancel(false);
+			assertEquals(0, scheduler.getNbScheduledTasks());
+
+			// TEST periodic task:
+			final CountDownLatch periodic = new CountDownLatch(3);
+			future = scheduler.scheduleAtFixedRate(new Runnable(){
+				@Override
+				public void run(){
+					periodic.countDown();
+				}
+			}, 0, 10);
+			assertTrue(periodic.await(5, TimeUnit.SECONDS));
+			future.cancel(false);
+		}finally{
+			scheduler.shutdown();
+		}
+
+		// Nothing can be scheduled after a shutdown:
+		assertTrue(scheduler.isShutdown());
+		assertNull(scheduler.schedule(new Runnable(){
+			@Override
+			public void run(){}
+		}, 10));
+	}
+
+	@Test
+	public void testExecute() throws Exception{
+		UWSScheduler scheduler = new UWSScheduler(1, 2);
+		try{
+			assertEquals(2, scheduler.getNbWorkers());
+
+			// Long tasks are not run by the threads of the scheduled tasks:
+			final CountDownLatch started = new CountDownLatch(2), release = new CountDownLatch(1);
+			final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+			Runnable task = new Runnable(){
+				@Override
+				public void run(){
+					threads.add(Thread.currentThread().getName());
+					started.countDown();
+					try{
+						release.await();
+					}catch(InterruptedException ie){}
+				}
+			};
+			assertTrue(scheduler.execute(task));
+			assertTrue(scheduler.execute(task));
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+			for(String name : threads)
+				assertTrue(name.startsWith("UWS_WORKER_"));
+
+			// ...and they do not delay them:
+			final CountDownLatch scheduled = new CountDownLatch(1);
+			scheduler.schedule(new Runnable(){
+				@Override
+				public void run(){
+					scheduled.countDown();
+				}
+			}, 0);
+			assertTrue(scheduled.await(5, TimeUnit.SECONDS));
+			release.countDown();
+		}finally{
+			scheduler.shutdown();
+		}
+
+		// Nothing can be executed after a shutdown:
+		assertFalse(scheduler.execute(new Runnable(){
+			@Override
+			public void run(){}
+		}));
+	}
+
+}
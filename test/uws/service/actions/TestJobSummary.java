@@ -8,6 +8,9 @@ import static org.junit.Assert.fail;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.security.Principal;
 import java.util.Arrays;
 import java.util.Collection;
@@ -17,8 +20,10 @@ import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
 import javax.servlet.DispatcherType;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
@@ -40,8 +45,10 @@ import uws.job.ExecutionPhase;
 import uws.job.UWSJob;
 import uws.job.parameters.UWSParameters;
 import uws.job.user.JobOwner;
+import uws.service.wait.AsyncWaitObserver;
 import uws.service.wait.BlockingPolicy;
 import uws.service.wait.LimitedBlockingPolicy;
+import uws.service.wait.UserLimitedBlockingPolicy;
 
 public class TestJobSummary {
 
@@ -216,6 +223,139 @@ public class TestJobSummary {
 		assertEquals(policyDuration, t.getTime());
 	}
 
+	@Test
+	public void testSuspend() throws Exception{
+		UWSJob job = new UWSJob(new UWSParameters());
+		final StringBuffer written = new StringBuffer();
+		AsyncWaitObserver.ResponseWriter writer = new AsyncWaitObserver.ResponseWriter(){
+			@Override
+			public void write(final UWSJob job, final HttpServletResponse response){
+				written.append(job.getPhase()).append(';');
+			}
+		};
+		HttpServletResponse resp = createResponse();
+		AtomicInteger nbSuspended = new AtomicInteger(0);
+
+		// Asynchronous mode not supported => no suspension:
+		TestHttpServletRequest req = new TestHttpServletRequest();
+		req.addParams("WAIT", "10");
+		assertFalse(JobSummary.suspend(null, req, resp, job, null, writer));
+
+		// No WAIT => no suspension:
+		TestAsyncContext ctx = new TestAsyncContext();
+		assertFalse(JobSummary.suspend(null, createAsyncRequest(new TestHttpServletRequest(), ctx), resp, job, null, writer));
+		assertFalse(ctx.started);
+
+		// Limited WAIT => suspended until the phase changes:
+		HttpServletRequest asyncReq = createAsyncRequest(req, ctx);
+		assertTrue(JobSummary.suspend(null, asyncReq, resp, job, null, writer, nbSuspended));
+		assertTrue(ctx.started);
+		assertTrue(AsyncWaitObserver.isSuspended(asyncReq));
+		assertEquals(10000, ctx.timeout);
+		assertEquals(1, nbSuspended.get());
+		assertEquals(1, job.getNbObservers());
+		assertEquals("", written.toString());
+		job.setPhase(ExecutionPhase.QUEUED, true);
+		assertEquals("QUEUED;", written.toString());
+		assertTrue(ctx.completed);
+		assertEquals(0, nbSuspended.get());
+		assertEquals(0, job.getNbObservers());
+
+		// Unlimited WAIT => suspended until the timeout:
+		req.clearParams();
+		req.addParams("WAIT", "-1");
+		written.setLength(0);
+		ctx = new TestAsyncContext();
+		assertTrue(JobSummary.suspend(null, createAsyncRequest(req, ctx), resp, job, null, writer));
+		assertEquals(0, ctx.timeout);
+		ctx.listener.onTimeout(null);
+		assertEquals("QUEUED;", written.toString());
+		assertTrue(ctx.completed);
+		assertEquals(0, job.getNbObservers());
+
+		// With a policy unblocking the oldest wait:
+		req.clearParams();
+		req.addParams("WAIT", "60");
+		written.setLength(0);
+		BlockingPolicy policy = new UserLimitedBlockingPolicy(10, 1, true);
+		TestAsyncContext ctx1 = new TestAsyncContext(), ctx2 = new TestAsyncContext();
+		assertTrue(JobSummary.suspend(policy, createAsyncRequest(req, ctx1), resp, job, null, writer));
+		assertEquals(10000, ctx1.timeout);
+		assertTrue(JobSummary.suspend(policy, createAsyncRequest(req, ctx2), resp, job, null, writer));
+		assertTrue(ctx1.completed);
+		assertFalse(ctx2.completed);
+		assertEquals(1, job.getNbObservers());
+		ctx2.listener.onTimeout(null);
+		assertTrue(ctx2.completed);
+		assertEquals("QUEUED;QUEUED;", written.toString());
+		assertEquals(0, job.getNbObservers());
+
+		// With a policy refusing too many waits:
+		policy = new UserLimitedBlockingPolicy(10, 1, false);
+		ctx1 = new TestAsyncContext();
+		ctx2 = new TestAsyncContext();
+		assertTrue(JobSummary.suspend(policy, createAsyncRequest(req, ctx1), resp, job, null, writer));
+		assertFalse(JobSummary.suspend(policy, createAsyncRequest(req, ctx2), resp, job, null, writer));
+		assertFalse(ctx2.started);
+		job.setPhase(ExecutionPhase.EXECUTING, true);
+		assertTrue(ctx1.completed);
+		assertEquals(0, nbSuspended.get());
+	}
+
+	protected static final class TestAsyncContext {
+		public boolean started = false;
+		public boolean completed = false;
+		public long timeout = -1;
+		public AsyncListener listener = null;
+	}
+
+	protected static HttpServletRequest createAsyncRequest(final TestHttpServletRequest req, final TestAsyncContext ctx){
+		final HashMap<String,Object> attributes = new HashMap<String,Object>();
+		final AsyncContext asyncContext = (AsyncContext)Proxy.newProxyInstance(TestJobSummary.class.getClassLoader(), new Class<?>[]{ AsyncContext.class }, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("setTimeout"))
+					ctx.timeout = (Long)args[0];
+				else if (method.getName().equals("addListener"))
+					ctx.listener = (AsyncListener)args[0];
+				else if (method.getName().equals("start"))
+					((Runnable)args[0]).run();
+				else if (method.getName().equals("complete"))
+					ctx.completed = true;
+				return null;
+			}
+		});
+		return (HttpServletRequest)Proxy.newProxyInstance(TestJobSummary.class.getClassLoader(), new Class<?>[]{ HttpServletRequest.class }, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("isAsyncSupported"))
+					return true;
+				else if (method.getName().equals("isAsyncStarted"))
+					return ctx.started;
+				else if (method.getName().equals("startAsync")){
+					ctx.started = true;
+					return asyncContext;
+				}else if (method.getName().equals("getAttribute"))
+					return attributes.get(args[0]);
+				else if (method.getName().equals("setAttribute"))
+					return attributes.put((String)args[0], args[1]);
+				else
+					return method.invoke(req, args);
+			}
+		});
+	}
+
+	protected static HttpServletResponse createResponse(){
+		return (HttpServletResponse)Proxy.newProxyInstance(TestJobSummary.class.getClassLoader(), new Class<?>[]{ HttpServletResponse.class }, new InvocationHandler(){
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable{
+				if (method.getName().equals("isCommitted"))
+					return false;
+				return null;
+			}
+		});
+	}
+
 	protected final void waitALittle(){
 		synchronized(this){
 			try{
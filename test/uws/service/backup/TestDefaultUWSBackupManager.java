@@ -1,13 +1,42 @@
 package uws.service.backup;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+
 import org.junit.Test;
 
+import uws.UWSException;
+import uws.UWSToolBox;
+import uws.job.ExecutionPhase;
+import uws.job.JobList;
+import uws.job.JobThread;
+import uws.job.UWSJob;
 import uws.job.jobInfo.JobInfo;
 import uws.job.jobInfo.SingleValueJobInfo;
+import uws.job.parameters.UWSParameters;
+import uws.job.user.DefaultJobOwner;
+import uws.job.user.JobOwner;
+import uws.service.AbstractUWSFactory;
+import uws.service.UWSService;
+import uws.service.UWSUrl;
+import uws.service.UserIdentifier;
+import uws.service.file.LocalUWSFileManager;
 
 public class TestDefaultUWSBackupManager {
 
@@ -62,4 +91,284 @@ public class TestDefaultUWSBackupManager {
 		}
 	}
 
+	/**
+	 * Build a UWS with user identification, whose file manager remembers the saved users.
+	 */
+	private static UWSService createUWS(final File rootDir, final List<String> savedOwners) throws UWSException{
+		return createUWS(rootDir, savedOwners, new HashSet<String>());
+	}
+
+	/**
+	 * Build a UWS with user identification, whose file manager remembers the saved users
+	 * and fails to write the backup file of the given users.
+	 */
+	private static UWSService createUWS(final File rootDir, final List<String> savedOwners, final Set<String> failingOwners) throws UWSException{
+		UWSService uws = new UWSService(new AbstractUWSFactory(){
+			@Override
+			public JobThread createJobThread(final UWSJob jobDescription) throws UWSException{
+				return null;
+			}
+		}, new LocalUWSFileManager(rootDir, false, false){
+			@Override
+			public OutputStream getBackupOutput(final JobOwner owner) throws IllegalArgumentException, IOException{
+				savedOwners.add(owner.getID());
+				if (failingOwners.contains(owner.getID())){
+					return new OutputStream(){
+						@Override
+						public void write(int b) throws IOException{
+							throw new IOException("No space left on device");
+						}
+					};
+				}
+				return super.getBackupOutput(owner);
+			}
+		});
+		uws.setUserIdentifier(new UserIdentifier(){
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public JobOwner extractUserId(final UWSUrl urlInterpreter, final HttpServletRequest request) throws UWSException{
+				return null;
+			}
+
+			@Override
+			public JobOwner restoreUser(final String id, final String pseudo, final Map<String,Object> otherData) throws UWSException{
+				return new DefaultJobOwner(id, pseudo);
+			}
+		});
+		return uws;
+	}
+
+	@Test
+	public void testParallelRestore(){
+		final File rootDir = new File(System.getProperty("java.io.tmpdir"), "TestDefaultUWSBackupManager");
+		rootDir.mkdirs();
+		final List<String> savedOwners = new ArrayList<String>();
+		JobList jobList = null;
+		try{
+			UWSService uws = createUWS(rootDir, savedOwners);
+			jobList = new JobList("jobs");
+			uws.addJobList(jobList);
+			DefaultUWSBackupManager backupManager = new DefaultUWSBackupManager(uws, true, DefaultUWSBackupManager.MANUAL);
+			// Sequential restoration by default:
+			assertEquals(1, backupManager.getRestoreParallelism());
+			backupManager.setRestoreParallelism(4);
+			uws.setBackupManager(backupManager);
+
+			// 50 users with 3 jobs each:
+			for(int i = 0; i < 150; i++)
+				jobList.addNewJob(new UWSJob("job" + i, System.currentTimeMillis(), new DefaultJobOwner("user" + (i % 50)), new UWSParameters(), -1, -1, -1, null, null));
+			assertArrayEquals(new int[]{ 150, 150, 50, 50 }, backupManager.saveAll());
+
+			// All users' files are read in parallel:
+			assertArrayEquals(new int[]{ 150, 150, 50, 50 }, backupManager.restoreAll());
+			assertEquals(150, jobList.getNbJobs());
+			for(int i = 0; i < 150; i++)
+				assertEquals("user" + (i % 50), jobList.getJob("job" + i).getOwner().getID());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			if (jobList != null)
+				jobList.clear();
+			UWSToolBox.clearDirectory(rootDir);
+			rootDir.delete();
+		}
+	}
+
+	@Test
+	public void testAutomaticBackupThread(){
+		final File rootDir = new File(System.getProperty("java.io.tmpdir"), "TestDefaultUWSBackupManager");
+		rootDir.mkdirs();
+		final List<String> backupThreads = Collections.synchronizedList(new ArrayList<String>());
+		DefaultUWSBackupManager backupManager = null;
+		try{
+			UWSService uws = createUWS(rootDir, new ArrayList<String>());
+			backupManager = new DefaultUWSBackupManager(uws, true, 20){
+				@Override
+				public int[] saveAll(){
+					backupThreads.add(Thread.currentThread().getName());
+					return super.saveAll();
+				}
+			};
+
+			// The automatic backup is not executed by the scheduler threads:
+			for(int i = 0; i < 100 && backupThreads.isEmpty(); i++)
+				Thread.sleep(20);
+			assertTrue(backupThreads.size() > 0);
+			assertTrue(backupThreads.get(0).startsWith("UWS_WORKER_"));
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			if (backupManager != null)
+				backupManager.setEnabled(false);
+			UWSToolBox.clearDirectory(rootDir);
+			rootDir.delete();
+		}
+	}
+
+	@Test
+	public void testLateBackupManager(){
+		final File rootDir = new File(System.getProperty("java.io.tmpdir"), "TestDefaultUWSBackupManager");
+		rootDir.mkdirs();
+		final List<String> savedOwners = new ArrayList<String>();
+		JobList jobList = null;
+		try{
+			UWSService uws = createUWS(rootDir, savedOwners);
+
+			// Jobs added before the backup manager is set:
+			jobList = new JobList("jobs");
+			uws.addJobList(jobList);
+			UWSJob job1 = new UWSJob("job1", System.currentTimeMillis(), new DefaultJobOwner("alice"), new UWSParameters(), -1, -1, -1, null, null);
+			jobList.addNewJob(job1);
+			UWSJob job2 = new UWSJob("job2", System.currentTimeMillis(), new DefaultJobOwner("bob"), new UWSParameters(), -1, -1, -1, null, null);
+			jobList.addNewJob(job2);
+			DefaultUWSBackupManager backupManager = new DefaultUWSBackupManager(uws, true, DefaultUWSBackupManager.MANUAL);
+			backupManager.setFullBackupInterval(10);
+			uws.setBackupManager(backupManager);
+			assertArrayEquals(new int[]{ 2, 2, 2, 2 }, backupManager.saveAll());
+
+			// The changes of these jobs are still detected:
+			savedOwners.clear();
+			job1.setPhase(ExecutionPhase.QUEUED, true);
+			job2.setPhase(ExecutionPhase.QUEUED, true);
+			assertArrayEquals(new int[]{ 2, 2, 2, 2 }, backupManager.saveAll());
+			Collections.sort(savedOwners);
+			assertEquals("[alice, bob]", savedOwners.toString());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			if (jobList != null)
+				jobList.clear();
+			UWSToolBox.clearDirectory(rootDir);
+			rootDir.delete();
+		}
+	}
+
+	@Test
+	public void testIncrementalBackup(){
+		final File rootDir = new File(System.getProperty("java.io.tmpdir"), "TestDefaultUWSBackupManager");
+		rootDir.mkdirs();
+		final List<String> savedOwners = new ArrayList<String>();
+		JobList jobList = null;
+		try{
+			UWSService uws = createUWS(rootDir, savedOwners);
+			jobList = new JobList("jobs");
+			uws.addJobList(jobList);
+			DefaultUWSBackupManager backupManager = new DefaultUWSBackupManager(uws, true, DefaultUWSBackupManager.MANUAL);
+			backupManager.setFullBackupInterval(3);
+			uws.setBackupManager(backupManager);
+
+			// 3 users with 2 jobs each:
+			JobOwner[] users = new JobOwner[]{ new DefaultJobOwner("alice"), new DefaultJobOwner("bob"), new DefaultJobOwner("carol") };
+			UWSJob[] jobs = new UWSJob[6];
+			for(int i = 0; i < jobs.length; i++){
+				jobs[i] = new UWSJob("job" + i, System.currentTimeMillis(), users[i % 3], new UWSParameters(), -1, -1, -1, null, null);
+				jobList.addNewJob(jobs[i]);
+			}
+
+			// The first backup is always a full one:
+			assertArrayEquals(new int[]{ 6, 6, 3, 3 }, backupManager.saveAll());
+			Collections.sort(savedOwners);
+			assertEquals("[alice, bob, carol]", savedOwners.toString());
+
+			// Nothing changed => nothing saved:
+			savedOwners.clear();
+			assertArrayEquals(new int[]{ 0, 0, 0, 0 }, backupManager.saveAll());
+			assertTrue(savedOwners.isEmpty());
+
+			// A job of bob changes its phase => only bob is saved:
+			jobs[1].setPhase(ExecutionPhase.QUEUED, true);
+			assertArrayEquals(new int[]{ 2, 2, 1, 1 }, backupManager.saveAll());
+			assertEquals("[bob]", savedOwners.toString());
+
+			// The interval has been reached => full backup:
+			savedOwners.clear();
+			assertArrayEquals(new int[]{ 6, 6, 3, 3 }, backupManager.saveAll());
+			assertEquals(3, savedOwners.size());
+
+			// All jobs of carol are destroyed + a parameter of alice is updated => carol and alice are saved:
+			savedOwners.clear();
+			jobList.destroyJob("job2");
+			jobList.destroyJob("job5");
+			Map<String,Object> params = new HashMap<String,Object>(1);
+			params.put(UWSJob.PARAM_RUN_ID, "newRunId");
+			jobs[0].addOrUpdateParameters(new UWSParameters(params));
+			assertArrayEquals(new int[]{ 2, 2, 2, 2 }, backupManager.saveAll());
+			Collections.sort(savedOwners);
+			assertEquals("[alice, carol]", savedOwners.toString());
+
+			// The restoration gets the same jobs, and does not need any new backup:
+			int[] report = backupManager.restoreAll();
+			assertEquals(4, report[0]);
+			assertEquals(4, jobList.getNbJobs());
+			assertEquals("newRunId", jobList.getJob("job0").getRunId());
+			savedOwners.clear();
+			assertArrayEquals(new int[]{ 0, 0, 0, 0 }, backupManager.saveAll());
+			assertTrue(savedOwners.isEmpty());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			if (jobList != null)
+				jobList.clear();
+			UWSToolBox.clearDirectory(rootDir);
+			rootDir.delete();
+		}
+	}
+
+	@Test
+	public void testFailedIncrementalBackup(){
+		final File rootDir = new File(System.getProperty("java.io.tmpdir"), "TestDefaultUWSBackupManager");
+		rootDir.mkdirs();
+		final List<String> savedOwners = new ArrayList<String>();
+		final Set<String> failingOwners = new HashSet<String>();
+		JobList jobList = null;
+		try{
+			UWSService uws = createUWS(rootDir, savedOwners, failingOwners);
+			jobList = new JobList("jobs");
+			uws.addJobList(jobList);
+			DefaultUWSBackupManager backupManager = new DefaultUWSBackupManager(uws, true, DefaultUWSBackupManager.MANUAL);
+			backupManager.setFullBackupInterval(10);
+			uws.setBackupManager(backupManager);
+
+			JobOwner alice = new DefaultJobOwner("alice"), bob = new DefaultJobOwner("bob");
+			UWSJob jobA = new UWSJob("jobA", System.currentTimeMillis(), alice, new UWSParameters(), -1, -1, -1, null, null);
+			UWSJob jobB = new UWSJob("jobB", System.currentTimeMillis(), bob, new UWSParameters(), -1, -1, -1, null, null);
+			jobList.addNewJob(jobA);
+			jobList.addNewJob(jobB);
+			assertArrayEquals(new int[]{ 2, 2, 2, 2 }, backupManager.saveAll());
+
+			// The backup file of bob can not be written:
+			failingOwners.add("bob");
+			savedOwners.clear();
+			jobA.setPhase(ExecutionPhase.QUEUED, true);
+			jobB.setPhase(ExecutionPhase.QUEUED, true);
+			assertArrayEquals(new int[]{ 1, 1, 1, 2 }, backupManager.saveAll());
+			Collections.sort(savedOwners);
+			assertEquals("[alice, bob]", savedOwners.toString());
+
+			// ...so, bob must be saved again at the next backup (but not alice):
+			failingOwners.clear();
+			savedOwners.clear();
+			assertArrayEquals(new int[]{ 1, 1, 1, 1 }, backupManager.saveAll());
+			assertEquals("[bob]", savedOwners.toString());
+
+			// Nothing more to save:
+			savedOwners.clear();
+			assertArrayEquals(new int[]{ 0, 0, 0, 0 }, backupManager.saveAll());
+			assertTrue(savedOwners.isEmpty());
+		}catch(Exception ex){
+			ex.printStackTrace();
+			fail("Unexpected error: " + ex.getMessage());
+		}finally{
+			if (jobList != null)
+				jobList.clear();
+			UWSToolBox.clearDirectory(rootDir);
+			rootDir.delete();
+		}
+	}
+
 }
@@ -0,0 +1,326 @@
+package uws.service.file.blob;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uws.job.Result;
+import uws.job.UWSJob;
+import uws.job.parameters.UWSParameters;
+import uws.service.file.BlobUWSFileManager;
+
+public class TestContentAddressedStore {
+
+	private File tmpDir;
+
+	private LocalBlobStore blobStore;
+
+	private ContentAddressedStore store;
+
+	@Before
+	public void setUp() throws Exception{
+		tmpDir = Files.createTempDirectory("testCAS").toFile();
+		blobStore = new LocalBlobStore(new File(tmpDir, "results"));
+		// Small chunks in order to test objects made of several chunks:
+		store = new ContentAddressedStore(blobStore, 16, 2, 0);
+	}
+
+	@After
+	public void tearDown(){
+		store.close();
+		deleteAll(tmpDir);
+	}
+
+	@Test
+	public void testWriteRead() throws Exception{
+		byte[] content = createContent(56, 0);
+		write("obj1", content);
+		assertTrue(store.exists("obj1"));
+		assertEquals(56, store.getSize("obj1"));
+		assertArrayEquals(content, read("obj1"));
+		assertEquals(4, blobStore.list("chunks/").size());
+
+		// Read byte per byte:
+		InputStream input = store.openInput("obj1");
+		for(int i = 0; i < content.length; i++)
+			assertEquals(content[i] & 0xFF, input.read());
+		assertEquals(-1, input.read());
+		input.close();
+
+		// Empty object:
+		write("empty", new byte[0]);
+		assertEquals(0, store.getSize("empty"));
+		assertArrayEquals(new byte[0], read("empty"));
+
+		// Unknown object:
+		assertFalse(store.exists("foo"));
+		assertEquals(-1, store.getSize("foo"));
+		assertNull(store.openInput("foo"));
+		assertFalse(store.delete("foo"));
+
+		// The object does not exist before the end of its writing:
+		OutputStream output = store.openOutput("obj2");
+		output.write(content);
+		assertFalse(store.exists("obj2"));
+		output.close();
+		assertTrue(store.exists("obj2"));
+	}
+
+	@Test
+	public void testDeduplication() throws Exception{
+		byte[] content = createContent(56, 0);
+		write("obj1", content);
+		long storedSize = store.getStoredSize();
+		assertEquals(4, blobStore.list("chunks/").size());
+
+		// Identical object => no new chunk:
+		write("obj2", content);
+		assertEquals(4, blobStore.list("chunks/").size());
+		assertEquals(4, store.getNbDeduplicatedChunks());
+		assertEquals(storedSize * 2 - 56, store.getStoredSize());
+		assertArrayEquals(content, read("obj2"));
+
+		// The chunks are kept as long as one object uses them:
+		assertTrue(store.delete("obj1"));
+		assertFalse(store.exists("obj1"));
+		assertArrayEquals(content, read("obj2"));
+		assertEquals(4, blobStore.list("chunks/").size());
+		assertTrue(store.delete("obj2"));
+		assertEquals(0, blobStore.list("refs/").size());
+
+		// The unused chunks are deleted only by the garbage collection:
+		assertEquals(4, blobStore.list("chunks/").size());
+		collectGarbage();
+		assertEquals(0, blobStore.list("chunks/").size());
+		assertEquals(0, blobStore.list("gc/").size());
+		assertEquals(0, store.getStoredSize());
+	}
+
+	@Test
+	public void testOverwrite() throws Exception{
+		write("obj1", createContent(32, 0));
+		assertEquals(2, blobStore.list("chunks/").size());
+
+		// The chunks of the previous version are released:
+		byte[] content = createContent(32, 16);
+		write("obj1", content);
+		assertArrayEquals(content, read("obj1"));
+		assertEquals(2, blobStore.list("refs/").size());
+		assertEquals(3, blobStore.list("chunks/").size());
+		collectGarbage();
+		assertEquals(2, blobStore.list("chunks/").size());
+		assertArrayEquals(content, read("obj1"));
+	}
+
+	@Test
+	public void testGarbageCollection() throws Exception{
+		byte[] content = createContent(32, 0);
+		write("obj1", content);
+		assertTrue(store.delete("obj1"));
+
+		// First step: the unreferenced chunks are only marked:
+		assertEquals(0, store.collectGarbage());
+		assertEquals(2, blobStore.list("chunks/").size());
+		assertEquals(2, blobStore.list("gc/").size());
+
+		// A marked chunk referenced again is unmarked and kept:
+		write("obj2", createContent(16, 0));
+		assertEquals(1, store.collectGarbage());
+		assertEquals(1, blobStore.list("chunks/").size());
+		assertEquals(0, blobStore.list("gc/").size());
+		assertArrayEquals(createContent(16, 0), read("obj2"));
+
+		// Nothing is deleted before the end of the grace period:
+		ContentAddressedStore store2 = new ContentAddressedStore(blobStore, 16, 2, 3600000);
+		try{
+			assertNotNull(store2.gcExecutor);
+			assertTrue(store2.delete("obj2"));
+			assertEquals(0, store2.collectGarbage());
+			assertEquals(0, store2.collectGarbage());
+			assertEquals(1, blobStore.list("chunks/").size());
+		}finally{
+			store2.close();
+		}
+		assertTrue(store2.gcExecutor.isShutdown());
+	}
+
+	@Test
+	public void testRestoreChunk() throws Exception{
+		/* A chunk referenced while being deleted by the garbage collection
+		 * (e.g. by another JVM) must be restored: */
+		final byte[] content = createContent(16, 0);
+		final String hash = ContentAddressedStore.hash(content, content.length);
+		LocalBlobStore racyStore = new LocalBlobStore(new File(tmpDir, "results")){
+			@Override
+			public boolean delete(final String key) throws IOException{
+				if (key.startsWith("chunks/"))
+					put(ContentAddressedStore.getRefKey(hash, "other"), new byte[0], 0);
+				return super.delete(key);
+			}
+		};
+		ContentAddressedStore racyCAS = new ContentAddressedStore(racyStore, 16, 2, 0);
+		try{
+			OutputStream output = racyCAS.openOutput("obj1");
+			output.write(content);
+			output.close();
+			assertTrue(racyCAS.delete("obj1"));
+			racyCAS.collectGarbage();
+			assertEquals(0, racyCAS.collectGarbage());
+			assertTrue(racyStore.exists(ContentAddressedStore.getChunkKey(hash)));
+		}finally{
+			racyCAS.close();
+		}
+	}
+
+	@Test
+	public void testIncorrectKeys() throws Exception{
+		for(String key : new String[]{ "../foo", "a//b", "a/./b", "" }){
+			try{
+				blobStore.put(key, new byte[0], 0);
+				fail("The key \"" + key + "\" should be rejected!");
+			}catch(IOException ioe){}
+		}
+	}
+
+	@Test
+	public void testFileManager() throws Exception{
+		BlobUWSFileManager fileManager = new BlobUWSFileManager(new File(tmpDir, "files"), store);
+		UWSJob job = new UWSJob(new UWSParameters());
+		Result result = new Result(job, "result", "text/plain", null);
+
+		byte[] content = createContent(40, 0);
+		OutputStream output = fileManager.getResultOutput(result, job);
+		output.write(content);
+		output.close();
+
+		assertEquals(40, fileManager.getResultSize(result, job));
+		assertNull(fileManager.getLocalResultFile(result, job));
+		InputStream input = fileManager.getResultInput(result, job);
+		assertArrayEquals(content, readAll(input));
+		assertTrue(fileManager.deleteResult(result, job));
+		assertEquals(-1, fileManager.getResultSize(result, job));
+		assertNull(fileManager.getResultInput(result, job));
+
+		// Closing the file manager stops the threads of the store:
+		fileManager.close();
+		assertTrue(store.executor.isShutdown());
+		assertNull(store.gcExecutor);
+	}
+
+	@Test
+	public void testConcurrentDeduplication() throws Exception{
+		final byte[] content = createContent(48, 0);
+		final int nbThreads = 8, nbIterations = 50;
+		final AtomicInteger nbErrors = new AtomicInteger(0);
+		final AtomicBoolean writing = new AtomicBoolean(true);
+
+		// Collect the garbage while objects are being written:
+		Thread gc = new Thread(){
+			@Override
+			public void run(){
+				try{
+					while(writing.get())
+						store.collectGarbage();
+				}catch(IOException ioe){
+					nbErrors.incrementAndGet();
+				}
+			}
+		};
+		gc.start();
+
+		// Write, read and delete identical objects at the same time:
+		Thread[] threads = new Thread[nbThreads];
+		for(int t = 0; t < nbThreads; t++){
+			final String key = "obj" + t;
+			threads[t] = new Thread(){
+				@Override
+				public void run(){
+					try{
+						for(int i = 0; i < nbIterations; i++){
+							write(key, content);
+							if (!Arrays.equals(content, read(key)))
+								nbErrors.incrementAndGet();
+							store.delete(key);
+						}
+					}catch(IOException ioe){
+						nbErrors.incrementAndGet();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread t : threads)
+			t.join();
+		writing.set(false);
+		gc.join();
+
+		// No chunk has been lost, and all of them are finally released:
+		assertEquals(0, nbErrors.get());
+		assertEquals(0, blobStore.list("refs/").size());
+		collectGarbage();
+		assertEquals(0, blobStore.list("chunks/").size());
+	}
+
+	private void collectGarbage() throws IOException{
+		// First call to mark, second call to sweep:
+		store.collectGarbage();
+		store.collectGarbage();
+	}
+
+	private void write(final String key, final byte[] content) throws IOException{
+		OutputStream output = store.openOutput(key);
+		// Write in pieces not aligned on the chunks:
+		for(int i = 0; i < content.length; i += 7)
+			output.write(content, i, Math.min(7, content.length - i));
+		output.close();
+	}
+
+	private byte[] read(final String key) throws IOException{
+		return readAll(store.openInput(key));
+	}
+
+	private static byte[] readAll(final InputStream input) throws IOException{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[5];
+		int n;
+		while((n = input.read(buffer)) != -1)
+			bytes.write(buffer, 0, n);
+		input.close();
+		return bytes.toByteArray();
+	}
+
+	private static byte[] createContent(final int length, final int offset){
+		byte[] content = new byte[length];
+		for(int i = 0; i < length; i++)
+			content[i] = (byte)(i + offset);
+		return content;
+	}
+
+	private static void deleteAll(final File f){
+		File[] files = f.listFiles();
+		if (files != null){
+			for(File child : files)
+				deleteAll(child);
+		}
+		f.delete();
+	}
+
+}